@@ -152,4 +152,34 @@ public class AdminDashboardController {
             return ResponseEntity.status(500).body(ResponseUtils.error(500, "获取消息趋势数据失败: " + e.getMessage()));
         }
     }
+    
+    /**
+     * 从历史数据回填统计汇总
+     * @param days 回填最近的天数（含今天）
+     * @return 回填的小时汇总行数
+     */
+    @PostMapping("/statistics/backfill")
+    public ResponseEntity<ResponseUtils.ApiResponse<Integer>> backfillStatistics(
+            @RequestParam(required = false, defaultValue = "7") Integer days) {
+        
+        log.info("回填统计汇总请求, days={}", days);
+        
+        // 获取当前管理员ID
+        Long adminId = securityUtils.getCurrentUserId();
+        if (adminId == null) {
+            log.error("回填统计汇总失败：未获取到管理员ID");
+            return ResponseEntity.status(401).body(ResponseUtils.error(401, "未认证，请先登录"));
+        }
+        
+        try {
+            int rows = adminDashboardService.backfillStatistics(days);
+            return ResponseEntity.ok(ResponseUtils.success(rows));
+        } catch (IllegalArgumentException e) {
+            log.error("回填统计汇总请求参数错误", e);
+            return ResponseEntity.badRequest().body(ResponseUtils.error(400, e.getMessage()));
+        } catch (Exception e) {
+            log.error("回填统计汇总失败", e);
+            return ResponseEntity.status(500).body(ResponseUtils.error(500, "回填统计汇总失败: " + e.getMessage()));
+        }
+    }
 } 
\ No newline at end of file
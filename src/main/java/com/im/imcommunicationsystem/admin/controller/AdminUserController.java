@@ -32,16 +32,18 @@ public class AdminUserController {
      * @param pageable 分页信息
      * @param keyword 搜索关键词
      * @param status 状态过滤
+     * @param afterId 游标，上一页最后一个用户ID
      * @return 包含用户列表的响应
      */
     @GetMapping
     public ResponseEntity<ResponseUtils.ApiResponse<Page<AdminUserResponse>>> getUserList(
             @PageableDefault(size = 10) Pageable pageable,
             @RequestParam(required = false) String keyword,
-            @RequestParam(required = false) String status) {
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Long afterId) {
         
-        log.info("获取用户列表，关键词: {}, 状态: {}", keyword, status);
-        Page<AdminUserResponse> users = adminUserService.getUserListWithPagination(pageable, keyword, status);
+        log.info("获取用户列表，关键词: {}, 状态: {}, afterId: {}", keyword, status, afterId);
+        Page<AdminUserResponse> users = adminUserService.getUserListWithPagination(pageable, keyword, status, afterId);
         
         return ResponseEntity.ok(ResponseUtils.success("用户列表获取成功", users));
     }
@@ -70,6 +70,7 @@ public class ReportController {
      * @param userId 用户ID搜索
      * @param groupId 群组ID搜索
      * @param reason 举报原因过滤
+     * @param afterId 游标，上一页最后一条举报ID
      * @return 举报列表
      */
     @GetMapping("/api/admin/reports")
@@ -79,10 +80,11 @@ public class ReportController {
             @RequestParam(required = false) String contentType,
             @RequestParam(required = false) String userId,
             @RequestParam(required = false) String groupId,
-            @RequestParam(required = false) String reason) {
+            @RequestParam(required = false) String reason,
+            @RequestParam(required = false) Long afterId) {
         
-        log.info("获取举报列表，状态: {}, 内容类型: {}, 用户ID: {}, 群组ID: {}, 举报原因: {}", status, contentType, userId, groupId, reason);
-        Page<ReportResponse> reports = reportService.getReportListWithPagination(pageable, status, contentType, userId, groupId, reason);
+        log.info("获取举报列表，状态: {}, 内容类型: {}, 用户ID: {}, 群组ID: {}, 举报原因: {}, afterId: {}", status, contentType, userId, groupId, reason, afterId);
+        Page<ReportResponse> reports = reportService.getReportListWithPagination(pageable, status, contentType, userId, groupId, reason, afterId);
         
         return ResponseEntity.ok(ResponseUtils.success("举报列表获取成功", reports));
     }
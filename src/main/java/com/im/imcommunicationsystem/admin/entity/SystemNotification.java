@@ -45,6 +45,12 @@ public class SystemNotification {
     @Column(name = "published_at")
     private LocalDateTime publishedAt;
     
+    /**
+     * 全员通知的发布序号，发布时由数据库分配，用户按该序号记录已读水位线
+     */
+    @Column(name = "broadcast_seq", insertable = false, updatable = false)
+    private Long broadcastSeq;
+    
     @Column(name = "created_by", nullable = false)
     private Long createdBy;
     
@@ -0,0 +1,41 @@
+package com.im.imcommunicationsystem.admin.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 系统通知已读水位线实体类
+ * 记录用户已读到的全员通知发布序号，序号不大于水位线的全员通知均视为已读
+ */
+@Entity
+@Table(name = "system_notification_watermarks")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SystemNotificationWatermark {
+
+    /**
+     * 用户ID
+     */
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    /**
+     * 已读到的广播序号
+     */
+    @Column(name = "last_read_seq", nullable = false)
+    private Long lastReadSeq;
+
+    /**
+     * 更新时间（最近一次全部已读的时间）
+     */
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
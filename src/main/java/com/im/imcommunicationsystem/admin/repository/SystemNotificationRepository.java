@@ -4,6 +4,7 @@ import com.im.imcommunicationsystem.admin.entity.SystemNotification;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -53,4 +54,107 @@ public interface SystemNotificationRepository extends JpaRepository<SystemNotifi
      * @return 已发布通知分页结果
      */
     Page<SystemNotification> findByIsPublishedTrue(Pageable pageable);
+    
+    /**
+     * 从计数器分配下一个广播序号，新序号写入本连接的 LAST_INSERT_ID()；
+     * 计数器行锁持有到事务提交，需与 {@link #findLastInsertId()} 在同一事务中调用
+     * 
+     * @return 更新记录数
+     */
+    @Modifying
+    @Query(value = "UPDATE system_notification_seq SET last_seq = LAST_INSERT_ID(last_seq + 1) WHERE id = 1",
+           nativeQuery = true)
+    int incrementBroadcastSeq();
+    
+    /**
+     * 读取本连接最近一次 LAST_INSERT_ID(expr) 的值
+     * 
+     * @return 最近分配的广播序号
+     */
+    @Query(value = "SELECT LAST_INSERT_ID()", nativeQuery = true)
+    Long findLastInsertId();
+    
+    /**
+     * 为已发布的全员通知写入广播序号（已分配时不变），序号由唯一索引保证不重复
+     * 
+     * @param id 通知ID
+     * @param seq 广播序号
+     * @return 更新记录数
+     */
+    @Modifying
+    @Query(value = "UPDATE system_notifications SET broadcast_seq = :seq WHERE id = :id AND broadcast_seq IS NULL",
+           nativeQuery = true)
+    int assignBroadcastSeq(@Param("id") Long id, @Param("seq") Long seq);
+    
+    /**
+     * 获取最大的广播序号
+     * 
+     * @return 最大广播序号，没有全员通知时为 null
+     */
+    @Query("SELECT MAX(n.broadcastSeq) FROM SystemNotification n")
+    Long findMaxBroadcastSeq();
+    
+    /**
+     * 查找用户可见的已发布通知：注册后发布的全员通知，以及发给该用户的定向通知
+     * 
+     * @param userId 用户ID
+     * @param since 全员通知的最早发布时间（用户注册时间）
+     * @param broadcast 全员通知目标类型
+     * @param targeted 定向通知目标类型
+     * @param pageable 分页信息
+     * @return 通知分页结果，按发布时间倒序
+     */
+    @Query("SELECT n FROM SystemNotification n WHERE n.isPublished = true AND (" +
+           "(n.targetType = :broadcast AND n.broadcastSeq IS NOT NULL AND n.publishedAt >= :since) OR " +
+           "(n.targetType = :targeted AND EXISTS (SELECT s.id FROM SystemNotificationStatus s " +
+           "WHERE s.notificationId = n.id AND s.userId = :userId))) " +
+           "ORDER BY n.publishedAt DESC, n.id DESC")
+    Page<SystemNotification> findVisibleToUser(@Param("userId") Long userId,
+                                               @Param("since") LocalDateTime since,
+                                               @Param("broadcast") SystemNotification.TargetType broadcast,
+                                               @Param("targeted") SystemNotification.TargetType targeted,
+                                               Pageable pageable);
+    
+    /**
+     * 查找用户未读的已发布通知：水位线以上且未单独已读的全员通知，以及未读的定向通知
+     * 
+     * @param userId 用户ID
+     * @param since 全员通知的最早发布时间（用户注册时间）
+     * @param watermark 用户已读到的广播序号
+     * @param broadcast 全员通知目标类型
+     * @param targeted 定向通知目标类型
+     * @param pageable 分页信息
+     * @return 通知分页结果，按发布时间倒序
+     */
+    @Query("SELECT n FROM SystemNotification n WHERE n.isPublished = true AND (" +
+           "(n.targetType = :broadcast AND n.broadcastSeq > :watermark AND n.publishedAt >= :since " +
+           "AND NOT EXISTS (SELECT s.id FROM SystemNotificationStatus s " +
+           "WHERE s.notificationId = n.id AND s.userId = :userId AND s.isRead = true)) OR " +
+           "(n.targetType = :targeted AND EXISTS (SELECT s.id FROM SystemNotificationStatus s " +
+           "WHERE s.notificationId = n.id AND s.userId = :userId AND s.isRead = false))) " +
+           "ORDER BY n.publishedAt DESC, n.id DESC")
+    Page<SystemNotification> findUnreadForUser(@Param("userId") Long userId,
+                                               @Param("since") LocalDateTime since,
+                                               @Param("watermark") Long watermark,
+                                               @Param("broadcast") SystemNotification.TargetType broadcast,
+                                               @Param("targeted") SystemNotification.TargetType targeted,
+                                               Pageable pageable);
+    
+    /**
+     * 统计用户未读的全员通知数量
+     * 
+     * @param userId 用户ID
+     * @param since 全员通知的最早发布时间（用户注册时间）
+     * @param watermark 用户已读到的广播序号
+     * @param broadcast 全员通知目标类型
+     * @return 未读数量
+     */
+    @Query("SELECT COUNT(n) FROM SystemNotification n WHERE n.targetType = :broadcast " +
+           "AND n.broadcastSeq > :watermark AND n.publishedAt >= :since " +
+           "AND NOT EXISTS (SELECT s.id FROM SystemNotificationStatus s " +
+           "WHERE s.notificationId = n.id AND s.userId = :userId AND s.isRead = true)")
+    long countUnreadBroadcasts(@Param("userId") Long userId,
+                               @Param("since") LocalDateTime since,
+                               @Param("watermark") Long watermark,
+                               @Param("broadcast") SystemNotification.TargetType broadcast);
 } 
\ No newline at end of file
@@ -9,6 +9,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -84,4 +85,42 @@ public interface SystemNotificationStatusRepository extends JpaRepository<System
     @Modifying
     @Query("UPDATE SystemNotificationStatus s SET s.isRead = true, s.readAt = CURRENT_TIMESTAMP WHERE s.userId = :userId AND s.isRead = false")
     int markAllAsRead(@Param("userId") Long userId);
+
+    /**
+     * 查找用户在一批通知上的状态记录
+     *
+     * @param userId 用户ID
+     * @param notificationIds 通知ID列表
+     * @return 通知状态列表
+     */
+    List<SystemNotificationStatus> findByUserIdAndNotificationIdIn(Long userId, List<Long> notificationIds);
+
+    /**
+     * 记录用户单独已读的通知（用于水位线以上的全员通知），已存在时标记为已读
+     *
+     * @param notificationId 通知ID
+     * @param userId 用户ID
+     * @param now 当前时间
+     * @return 影响行数
+     */
+    @Modifying
+    @Query(value = "INSERT INTO system_notification_status (notification_id, user_id, is_read, read_at, created_at) " +
+                   "VALUES (:notificationId, :userId, TRUE, :now, :now) " +
+                   "ON DUPLICATE KEY UPDATE read_at = IF(is_read, read_at, VALUES(read_at)), is_read = TRUE",
+           nativeQuery = true)
+    int upsertRead(@Param("notificationId") Long notificationId, @Param("userId") Long userId, @Param("now") LocalDateTime now);
+
+    /**
+     * 删除已被水位线覆盖的全员通知单独已读记录
+     *
+     * @param userId 用户ID
+     * @param seq 水位线广播序号
+     * @return 删除记录数
+     */
+    @Modifying
+    @Query(value = "DELETE s FROM system_notification_status s " +
+                   "JOIN system_notifications n ON n.id = s.notification_id " +
+                   "WHERE s.user_id = :userId AND n.target_type = 'all' AND n.broadcast_seq <= :seq",
+           nativeQuery = true)
+    int deleteBroadcastStatusUpTo(@Param("userId") Long userId, @Param("seq") Long seq);
 } 
\ No newline at end of file
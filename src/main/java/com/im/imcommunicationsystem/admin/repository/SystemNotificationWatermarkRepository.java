@@ -0,0 +1,33 @@
+package com.im.imcommunicationsystem.admin.repository;
+
+import com.im.imcommunicationsystem.admin.entity.SystemNotificationWatermark;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * 系统通知已读水位线仓库接口
+ */
+@Repository
+public interface SystemNotificationWatermarkRepository extends JpaRepository<SystemNotificationWatermark, Long> {
+
+    /**
+     * 推进用户的已读水位线，水位线只增不减
+     *
+     * @param userId 用户ID
+     * @param seq 已读到的广播序号
+     * @param now 当前时间
+     * @return 影响行数
+     */
+    @Modifying
+    @Query(value = "INSERT INTO system_notification_watermarks (user_id, last_read_seq, updated_at) " +
+                   "VALUES (:userId, :seq, :now) " +
+                   "ON DUPLICATE KEY UPDATE updated_at = IF(:seq > last_read_seq, VALUES(updated_at), updated_at), " +
+                   "last_read_seq = GREATEST(last_read_seq, VALUES(last_read_seq))",
+           nativeQuery = true)
+    int advance(@Param("userId") Long userId, @Param("seq") Long seq, @Param("now") LocalDateTime now);
+}
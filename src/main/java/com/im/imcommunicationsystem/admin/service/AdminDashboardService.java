@@ -38,4 +38,11 @@ public interface AdminDashboardService {
      * @return 内容类型分布数据
      */
     Map<String, Object> getContentTypeDistribution(String period);
+    
+    /**
+     * 从历史数据回填最近若干天的统计汇总
+     * @param days 天数（含今天）
+     * @return 回填的小时汇总行数
+     */
+    int backfillStatistics(int days);
 } 
\ No newline at end of file
@@ -16,9 +16,10 @@ public interface AdminUserService {
      * @param pageable 分页信息
      * @param keyword 搜索关键词（可选）
      * @param status 状态过滤（可选）
+     * @param afterId 游标，上一页最后一个用户ID（可选，指定时按用户ID倒序读取）
      * @return 用户响应对象分页结果
      */
-    Page<AdminUserResponse> getUserListWithPagination(Pageable pageable, String keyword, String status);
+    Page<AdminUserResponse> getUserListWithPagination(Pageable pageable, String keyword, String status, Long afterId);
 
     /**
      * 根据ID获取用户详情
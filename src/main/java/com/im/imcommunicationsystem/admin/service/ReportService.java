@@ -21,9 +21,10 @@ public interface ReportService {
      * @param userId 用户ID搜索（可选）
      * @param groupId 群组ID搜索（可选）
      * @param reason 举报原因过滤（可选）
+     * @param afterId 游标，上一页最后一条举报ID（可选，指定时按举报ID倒序读取）
      * @return 举报响应对象分页结果
      */
-    Page<ReportResponse> getReportListWithPagination(Pageable pageable, String status, String contentType, String userId, String groupId, String reason);
+    Page<ReportResponse> getReportListWithPagination(Pageable pageable, String status, String contentType, String userId, String groupId, String reason, Long afterId);
 
     /**
      * 获取举报详情
@@ -76,14 +76,7 @@ public interface SystemNotificationService {
     SystemNotification publishSystemNotification(Long adminId, Long notificationId);
     
     /**
-     * 为所有用户创建通知状态记录
-     *
-     * @param notificationId 通知ID
-     */
-    void createNotificationStatusForAllUsers(Long notificationId);
-    
-    /**
-     * 为特定用户创建通知状态记录
+     * 为定向通知的目标用户创建通知状态记录（全员通知不逐用户记录，已读状态由水位线推算）
      *
      * @param notificationId 通知ID
      * @param userIds 用户ID列表
@@ -3,19 +3,15 @@ package com.im.imcommunicationsystem.admin.service.impl;
 import com.im.imcommunicationsystem.admin.dto.response.StatisticsResponse;
 import com.im.imcommunicationsystem.admin.dto.response.SystemOverviewResponse;
 import com.im.imcommunicationsystem.admin.service.AdminDashboardService;
-import com.im.imcommunicationsystem.auth.repository.UserRepository;
-import com.im.imcommunicationsystem.group.repository.GroupRepository;
-import com.im.imcommunicationsystem.message.repository.MessageRepository;
-import com.im.imcommunicationsystem.moment.repository.MomentRepository;
+import com.im.imcommunicationsystem.common.enums.StatGranularity;
+import com.im.imcommunicationsystem.common.enums.StatMetric;
+import com.im.imcommunicationsystem.common.service.StatRollupService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
-import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.Query;
 
 import java.time.LocalDate;
@@ -26,16 +22,30 @@ import java.util.stream.Collectors;
 
 /**
  * 管理员仪表盘服务实现
+ * 趋势、增长率和分布统计读取统计汇总表的小时/天计数，每次请求只做少量范围读取
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class AdminDashboardServiceImpl implements AdminDashboardService {
 
-    private final UserRepository userRepository;
-    private final MessageRepository messageRepository;
-    private final GroupRepository groupRepository;
-    private final MomentRepository momentRepository;
+    private static final List<StatMetric> OVERVIEW_METRICS =
+            List.of(StatMetric.NEW_USERS, StatMetric.MESSAGES, StatMetric.NEW_GROUPS, StatMetric.NEW_MOMENTS);
+
+    /**
+     * 消息类型 -> 内容类型分布中的分类，未列出的类型归为 other
+     */
+    private static final Map<String, String> CONTENT_TYPE_KEYS = Map.of(
+            "TEXT", "text",
+            "IMAGE", "image",
+            "VIDEO", "video",
+            "FILE", "file",
+            "AUDIO", "voice",
+            "SYSTEM", "system");
+
+    private static final int MAX_BACKFILL_DAYS = 3660;
+
+    private final StatRollupService statRollupService;
     
     @PersistenceContext
     private EntityManager entityManager;
@@ -57,58 +67,31 @@ public class AdminDashboardServiceImpl implements AdminDashboardService {
         LocalDateTime compareStartTime = getStartTimeForComparePeriod(period);
         LocalDateTime compareEndTime = startTime;
         
-        // 获取用户统计数据
-        long totalUsers = userRepository.count();
-        long newUsers = countUsersByCreatedAtBetween(startTime, endTime);
-        long compareUsers = countUsersByCreatedAtBetween(compareStartTime, compareEndTime);
-        
-        // 计算用户增长率
-        double userGrowth = calculateGrowthRate(newUsers, compareUsers);
-        
-        // 获取活跃用户数（简化实现，实际可能需要根据登录记录计算）
-        // 这里假设最近登录的用户为活跃用户
-        long activeUsers = countUsersByLastLoginTimeBetween(startTime, endTime);
-        long compareActiveUsers = countUsersByLastLoginTimeBetween(compareStartTime, compareEndTime);
-        
-        // 计算活跃用户增长率
-        double activeGrowth = calculateGrowthRate(activeUsers, compareActiveUsers);
+        // 累计总数、本周期和对比周期的新增数各一次汇总读取
+        Map<StatMetric, Long> totals = statRollupService.sumByMetric(OVERVIEW_METRICS, null, null);
+        Map<StatMetric, Long> current = statRollupService.sumByMetric(OVERVIEW_METRICS, startTime, endTime);
+        Map<StatMetric, Long> previous = statRollupService.sumByMetric(OVERVIEW_METRICS, compareStartTime, compareEndTime);
         
-        // 获取消息统计数据
-        long totalMessages = messageRepository.count();
-        long newMessages = countMessagesByCreatedAtBetween(startTime, endTime);
-        long compareMessages = countMessagesByCreatedAtBetween(compareStartTime, compareEndTime);
+        // 活跃用户为周期内发送过消息的去重用户数
+        long activeUsers = statRollupService.countActiveUsers(
+                startTime.toLocalDate(), endTime.toLocalDate().plusDays(1));
+        long compareActiveUsers = statRollupService.countActiveUsers(
+                compareStartTime.toLocalDate(), compareEndTime.toLocalDate());
         
-        // 计算消息增长率
-        double messageGrowth = calculateGrowthRate(newMessages, compareMessages);
-        
-        // 获取群组统计数据
-        long totalGroups = groupRepository.count();
-        long newGroups = countGroupsByCreatedAtBetween(startTime, endTime);
-        long compareGroups = countGroupsByCreatedAtBetween(compareStartTime, compareEndTime);
-        
-        // 计算群组增长率
-        double groupGrowth = calculateGrowthRate(newGroups, compareGroups);
-        
-        // 获取动态统计数据
-        long totalMoments = momentRepository.count();
-        long newMoments = countMomentsByCreatedAtBetween(startTime, endTime);
-        long compareMoments = countMomentsByCreatedAtBetween(compareStartTime, compareEndTime);
-        
-        // 计算动态增长率
-        double momentGrowth = calculateGrowthRate(newMoments, compareMoments);
+        long newUsers = current.get(StatMetric.NEW_USERS);
         
         // 构建响应对象
         return SystemOverviewResponse.builder()
-                .totalUsers(totalUsers)
-                .userGrowth(userGrowth)
+                .totalUsers(totals.get(StatMetric.NEW_USERS))
+                .userGrowth(calculateGrowthRate(newUsers, previous.get(StatMetric.NEW_USERS)))
                 .activeUsers(activeUsers)
-                .activeGrowth(activeGrowth)
-                .totalMessages(totalMessages)
-                .messageGrowth(messageGrowth)
-                .totalGroups(totalGroups)
-                .groupGrowth(groupGrowth)
-                .totalMoments(totalMoments)
-                .momentGrowth(momentGrowth)
+                .activeGrowth(calculateGrowthRate(activeUsers, compareActiveUsers))
+                .totalMessages(totals.get(StatMetric.MESSAGES))
+                .messageGrowth(calculateGrowthRate(current.get(StatMetric.MESSAGES), previous.get(StatMetric.MESSAGES)))
+                .totalGroups(totals.get(StatMetric.NEW_GROUPS))
+                .groupGrowth(calculateGrowthRate(current.get(StatMetric.NEW_GROUPS), previous.get(StatMetric.NEW_GROUPS)))
+                .totalMoments(totals.get(StatMetric.NEW_MOMENTS))
+                .momentGrowth(calculateGrowthRate(current.get(StatMetric.NEW_MOMENTS), previous.get(StatMetric.NEW_MOMENTS)))
                 .newUsers(newUsers)
                 .period(period)
                 .build();
@@ -128,10 +111,12 @@ public class AdminDashboardServiceImpl implements AdminDashboardService {
         if (!isValidStatisticsType(type)) {
             throw new IllegalArgumentException("无效的统计类型: " + type);
         }
+        StatMetric metric = getMetricForType(type);
         
-        // 获取统计周期的起止时间
+        // 获取统计周期和对比周期的起止时间
         LocalDateTime startTime = getStartTimeForPeriod(period);
         LocalDateTime endTime = LocalDateTime.now();
+        LocalDateTime compareStartTime = getStartTimeForComparePeriod(period);
         
         // 获取时间间隔和格式
         List<LocalDateTime> timePoints = getTimePointsForPeriod(period);
@@ -142,34 +127,22 @@ public class AdminDashboardServiceImpl implements AdminDashboardService {
                 .map(tp -> tp.format(formatter))
                 .collect(Collectors.toList());
         
-        // 根据不同类型生成统计数据
-        List<Number> data = new ArrayList<>();
-        Long total = 0L;
-        Double growthRate = 0.0;
+        // 一次读取对比周期起至今的时间桶，趋势和增长率都从中切分
+        StatGranularity granularity = "today".equals(period) ? StatGranularity.HOUR : StatGranularity.DAY;
+        NavigableMap<LocalDateTime, Long> series =
+                statRollupService.getSeries(metric, granularity, compareStartTime, endTime);
         
-        switch (type) {
-            case "users":
-                data = getUserCountByTimePoints(timePoints);
-                total = userRepository.count();
-                growthRate = calculateUserGrowthRate(period);
-                break;
-            case "messages":
-                data = getMessageCountByTimePoints(timePoints);
-                total = messageRepository.count();
-                growthRate = calculateMessageGrowthRate(period);
-                break;
-            case "groups":
-                data = getGroupCountByTimePoints(timePoints);
-                total = groupRepository.count();
-                growthRate = calculateGroupGrowthRate(period);
-                break;
-            case "moments":
-                data = getMomentCountByTimePoints(timePoints);
-                total = momentRepository.count();
-                growthRate = calculateMomentGrowthRate(period);
-                break;
+        List<Number> data = new ArrayList<>(timePoints.size());
+        for (int i = 0; i < timePoints.size(); i++) {
+            LocalDateTime start = timePoints.get(i);
+            LocalDateTime end = i < timePoints.size() - 1 ? timePoints.get(i + 1) : endTime;
+            data.add(sumRange(series, start, end));
         }
         
+        long current = sumRange(series, startTime, endTime);
+        long previous = sumRange(series, compareStartTime, startTime);
+        long total = statRollupService.sumByMetric(List.of(metric), null, null).get(metric);
+        
         // 构建响应对象
         return StatisticsResponse.builder()
                 .type(type)
@@ -177,7 +150,7 @@ public class AdminDashboardServiceImpl implements AdminDashboardService {
                 .labels(labels)
                 .data(data)
                 .total(total)
-                .growthRate(growthRate)
+                .growthRate(calculateGrowthRate(current, previous))
                 .build();
     }
 
@@ -228,73 +201,18 @@ public class AdminDashboardServiceImpl implements AdminDashboardService {
         
         Map<String, Object> result = new HashMap<>();
         Map<String, Long> distribution = new LinkedHashMap<>();
+        for (String key : List.of("text", "image", "video", "file", "voice", "system", "other")) {
+            distribution.put(key, 0L);
+        }
         
         try {
-            // 文本消息
-            Query textQuery = entityManager.createQuery(
-                "SELECT COUNT(m) FROM com.im.imcommunicationsystem.message.entity.Message m WHERE m.createdAt BETWEEN :start AND :end " +
-                "AND m.messageType = 'TEXT'");
-            textQuery.setParameter("start", startTime);
-            textQuery.setParameter("end", endTime);
-            distribution.put("text", (Long) textQuery.getSingleResult());
-            
-            // 图片消息
-            Query imageQuery = entityManager.createQuery(
-                "SELECT COUNT(m) FROM com.im.imcommunicationsystem.message.entity.Message m WHERE m.createdAt BETWEEN :start AND :end " +
-                "AND m.messageType = 'IMAGE'");
-            imageQuery.setParameter("start", startTime);
-            imageQuery.setParameter("end", endTime);
-            distribution.put("image", (Long) imageQuery.getSingleResult());
-            
-            // 视频消息
-            Query videoQuery = entityManager.createQuery(
-                "SELECT COUNT(m) FROM com.im.imcommunicationsystem.message.entity.Message m WHERE m.createdAt BETWEEN :start AND :end " +
-                "AND m.messageType = 'VIDEO'");
-            videoQuery.setParameter("start", startTime);
-            videoQuery.setParameter("end", endTime);
-            distribution.put("video", (Long) videoQuery.getSingleResult());
-            
-            // 文件消息
-            Query fileQuery = entityManager.createQuery(
-                "SELECT COUNT(m) FROM com.im.imcommunicationsystem.message.entity.Message m WHERE m.createdAt BETWEEN :start AND :end " +
-                "AND m.messageType = 'FILE'");
-            fileQuery.setParameter("start", startTime);
-            fileQuery.setParameter("end", endTime);
-            distribution.put("file", (Long) fileQuery.getSingleResult());
-            
-            // 语音消息
-            Query voiceQuery = entityManager.createQuery(
-                "SELECT COUNT(m) FROM com.im.imcommunicationsystem.message.entity.Message m WHERE m.createdAt BETWEEN :start AND :end " +
-                "AND m.messageType = 'VOICE'");
-            voiceQuery.setParameter("start", startTime);
-            voiceQuery.setParameter("end", endTime);
-            distribution.put("voice", (Long) voiceQuery.getSingleResult());
-            
-            // 系统消息
-            Query systemQuery = entityManager.createQuery(
-                "SELECT COUNT(m) FROM com.im.imcommunicationsystem.message.entity.Message m WHERE m.createdAt BETWEEN :start AND :end " +
-                "AND m.messageType = 'SYSTEM'");
-            systemQuery.setParameter("start", startTime);
-            systemQuery.setParameter("end", endTime);
-            distribution.put("system", (Long) systemQuery.getSingleResult());
-            
-            // 其他类型消息
-            Query otherQuery = entityManager.createQuery(
-                "SELECT COUNT(m) FROM com.im.imcommunicationsystem.message.entity.Message m WHERE m.createdAt BETWEEN :start AND :end " +
-                "AND m.messageType NOT IN ('TEXT', 'IMAGE', 'VIDEO', 'FILE', 'VOICE', 'SYSTEM')");
-            otherQuery.setParameter("start", startTime);
-            otherQuery.setParameter("end", endTime);
-            distribution.put("other", (Long) otherQuery.getSingleResult());
+            // 消息按类型汇总的天计数
+            Map<String, Long> byType = statRollupService.sumByDimension(StatMetric.MESSAGES, startTime, endTime);
+            byType.forEach((messageType, count) ->
+                    distribution.merge(CONTENT_TYPE_KEYS.getOrDefault(messageType, "other"), count, Long::sum));
         } catch (Exception e) {
-            log.error("获取内容类型分布失败", e);
             // 在查询失败的情况下提供空数据
-            distribution.put("text", 0L);
-            distribution.put("image", 0L);
-            distribution.put("video", 0L);
-            distribution.put("file", 0L);
-            distribution.put("voice", 0L);
-            distribution.put("system", 0L);
-            distribution.put("other", 0L);
+            log.error("获取内容类型分布失败", e);
         }
         
         result.put("distribution", distribution);
@@ -306,90 +224,34 @@ public class AdminDashboardServiceImpl implements AdminDashboardService {
         
         return result;
     }
-    
-    // 自定义方法：根据时间范围统计用户数量
-    private long countUsersByCreatedAtBetween(LocalDateTime start, LocalDateTime end) {
-        Query query = entityManager.createQuery(
-            "SELECT COUNT(u) FROM User u WHERE u.createdAt BETWEEN :start AND :end");
-        query.setParameter("start", start);
-        query.setParameter("end", end);
-        return (Long) query.getSingleResult();
-    }
-    
-    // 自定义方法：根据最后登录时间范围统计用户数量
-    private long countUsersByLastLoginTimeBetween(LocalDateTime start, LocalDateTime end) {
-        // 由于User实体中没有lastLoginTime字段，我们可以使用updatedAt字段作为近似的活跃时间
-        Query query = entityManager.createQuery(
-            "SELECT COUNT(u) FROM User u WHERE u.updatedAt BETWEEN :start AND :end");
-        query.setParameter("start", start);
-        query.setParameter("end", end);
-        return (Long) query.getSingleResult();
-    }
-    
-    // 自定义方法：根据创建时间范围统计消息数量
-    private long countMessagesByCreatedAtBetween(LocalDateTime start, LocalDateTime end) {
-        Query query = entityManager.createQuery(
-            "SELECT COUNT(m) FROM Message m WHERE m.createdAt BETWEEN :start AND :end");
-        query.setParameter("start", start);
-        query.setParameter("end", end);
-        return (Long) query.getSingleResult();
-    }
-    
-    // 自定义方法：根据创建时间范围统计群组数量
-    private long countGroupsByCreatedAtBetween(LocalDateTime start, LocalDateTime end) {
-        Query query = entityManager.createQuery(
-            "SELECT COUNT(g) FROM com.im.imcommunicationsystem.group.entity.Group g WHERE g.createdAt BETWEEN :start AND :end");
-        query.setParameter("start", start);
-        query.setParameter("end", end);
-        return (Long) query.getSingleResult();
-    }
-    
-    // 自定义方法：根据创建时间范围统计动态数量
-    private long countMomentsByCreatedAtBetween(LocalDateTime start, LocalDateTime end) {
-        Query query = entityManager.createQuery(
-            "SELECT COUNT(m) FROM Moment m WHERE m.createdAt BETWEEN :start AND :end");
-        query.setParameter("start", start);
-        query.setParameter("end", end);
-        return (Long) query.getSingleResult();
+
+    /**
+     * 从历史数据回填最近若干天的统计汇总
+     * @param days 天数（含今天）
+     * @return 回填的小时汇总行数
+     */
+    @Override
+    public int backfillStatistics(int days) {
+        if (days <= 0 || days > MAX_BACKFILL_DAYS) {
+            throw new IllegalArgumentException("回填天数必须在1到" + MAX_BACKFILL_DAYS + "之间");
+        }
+        LocalDate today = LocalDate.now();
+        log.info("回填统计汇总, days={}", days);
+        return statRollupService.backfill(today.minusDays(days - 1L), today.plusDays(1));
     }
     
-    // 辅助方法：获取活跃用户按时间段分布
+    // 辅助方法：获取活跃用户按时间段分布（按消息发送时间）
     private Map<String, Long> getActivityTimeDistribution(LocalDateTime start, LocalDateTime end) {
-        Map<String, Long> result = new LinkedHashMap<>();
-        
-        // 按照一天中的时间段统计用户活跃度
-        // 早上: 6-12点
-        Query morningQuery = entityManager.createQuery(
-            "SELECT COUNT(u) FROM User u WHERE u.updatedAt BETWEEN :start AND :end " +
-            "AND FUNCTION('HOUR', u.updatedAt) >= 6 AND FUNCTION('HOUR', u.updatedAt) < 12");
-        morningQuery.setParameter("start", start);
-        morningQuery.setParameter("end", end);
-        result.put("morning", (Long) morningQuery.getSingleResult());
-        
-        // 下午: 12-18点
-        Query afternoonQuery = entityManager.createQuery(
-            "SELECT COUNT(u) FROM User u WHERE u.updatedAt BETWEEN :start AND :end " +
-            "AND FUNCTION('HOUR', u.updatedAt) >= 12 AND FUNCTION('HOUR', u.updatedAt) < 18");
-        afternoonQuery.setParameter("start", start);
-        afternoonQuery.setParameter("end", end);
-        result.put("afternoon", (Long) afternoonQuery.getSingleResult());
-        
-        // 晚上: 18-24点
-        Query eveningQuery = entityManager.createQuery(
-            "SELECT COUNT(u) FROM User u WHERE u.updatedAt BETWEEN :start AND :end " +
-            "AND FUNCTION('HOUR', u.updatedAt) >= 18 AND FUNCTION('HOUR', u.updatedAt) < 24");
-        eveningQuery.setParameter("start", start);
-        eveningQuery.setParameter("end", end);
-        result.put("evening", (Long) eveningQuery.getSingleResult());
-        
-        // 凌晨: 0-6点
-        Query nightQuery = entityManager.createQuery(
-            "SELECT COUNT(u) FROM User u WHERE u.updatedAt BETWEEN :start AND :end " +
-            "AND FUNCTION('HOUR', u.updatedAt) >= 0 AND FUNCTION('HOUR', u.updatedAt) < 6");
-        nightQuery.setParameter("start", start);
-        nightQuery.setParameter("end", end);
-        result.put("night", (Long) nightQuery.getSingleResult());
+        long[] byHour = new long[24];
+        statRollupService.getSeries(StatMetric.MESSAGES, StatGranularity.HOUR, start, end)
+                .forEach((bucketStart, count) -> byHour[bucketStart.getHour()] += count);
         
+        // 按照一天中的时间段统计：早上6-12点，下午12-18点，晚上18-24点，凌晨0-6点
+        Map<String, Long> result = new LinkedHashMap<>();
+        result.put("morning", sumHours(byHour, 6, 12));
+        result.put("afternoon", sumHours(byHour, 12, 18));
+        result.put("evening", sumHours(byHour, 18, 24));
+        result.put("night", sumHours(byHour, 0, 6));
         return result;
     }
     
@@ -507,26 +369,12 @@ public class AdminDashboardServiceImpl implements AdminDashboardService {
     private Map<String, Long> getActivityActionDistribution(LocalDateTime start, LocalDateTime end) {
         Map<String, Long> result = new LinkedHashMap<>();
         
-        // 消息发送统计
-        Query messageQuery = entityManager.createQuery(
-            "SELECT COUNT(m) FROM Message m WHERE m.createdAt BETWEEN :start AND :end");
-        messageQuery.setParameter("start", start);
-        messageQuery.setParameter("end", end);
-        result.put("message", (Long) messageQuery.getSingleResult());
-        
-        // 动态发布统计
-        Query momentQuery = entityManager.createQuery(
-            "SELECT COUNT(m) FROM Moment m WHERE m.createdAt BETWEEN :start AND :end");
-        momentQuery.setParameter("start", start);
-        momentQuery.setParameter("end", end);
-        result.put("moment", (Long) momentQuery.getSingleResult());
-        
-        // 群组活动统计 (以创建群组为例)
-        Query groupQuery = entityManager.createQuery(
-            "SELECT COUNT(g) FROM com.im.imcommunicationsystem.group.entity.Group g WHERE g.createdAt BETWEEN :start AND :end");
-        groupQuery.setParameter("start", start);
-        groupQuery.setParameter("end", end);
-        result.put("group", (Long) groupQuery.getSingleResult());
+        // 消息发送、动态发布和群组创建来自统计汇总
+        Map<StatMetric, Long> counts = statRollupService.sumByMetric(
+                List.of(StatMetric.MESSAGES, StatMetric.NEW_MOMENTS, StatMetric.NEW_GROUPS), start, end);
+        result.put("message", counts.get(StatMetric.MESSAGES));
+        result.put("moment", counts.get(StatMetric.NEW_MOMENTS));
+        result.put("group", counts.get(StatMetric.NEW_GROUPS));
         
         // 个人资料更新统计
         Query profileQuery = entityManager.createQuery(
@@ -648,119 +496,38 @@ public class AdminDashboardServiceImpl implements AdminDashboardService {
         }
     }
     
-    // 辅助方法：根据时间点获取用户数量
-    private List<Number> getUserCountByTimePoints(List<LocalDateTime> timePoints) {
-        List<Number> result = new ArrayList<>();
-        
-        for (int i = 0; i < timePoints.size(); i++) {
-            LocalDateTime start = timePoints.get(i);
-            LocalDateTime end = i < timePoints.size() - 1 ? 
-                    timePoints.get(i + 1) : LocalDateTime.now();
-            
-            long count = countUsersByCreatedAtBetween(start, end);
-            result.add(count);
+    // 辅助方法：统计类型对应的统计指标
+    private StatMetric getMetricForType(String type) {
+        switch (type) {
+            case "users":
+                return StatMetric.NEW_USERS;
+            case "messages":
+                return StatMetric.MESSAGES;
+            case "groups":
+                return StatMetric.NEW_GROUPS;
+            default:
+                return StatMetric.NEW_MOMENTS;
         }
-        
-        return result;
     }
     
-    // 辅助方法：根据时间点获取消息数量
-    private List<Number> getMessageCountByTimePoints(List<LocalDateTime> timePoints) {
-        List<Number> result = new ArrayList<>();
-        
-        for (int i = 0; i < timePoints.size(); i++) {
-            LocalDateTime start = timePoints.get(i);
-            LocalDateTime end = i < timePoints.size() - 1 ? 
-                    timePoints.get(i + 1) : LocalDateTime.now();
-            
-            long count = countMessagesByCreatedAtBetween(start, end);
-            result.add(count);
+    // 辅助方法：汇总时间桶序列中 [start, end) 范围的计数
+    private long sumRange(NavigableMap<LocalDateTime, Long> series, LocalDateTime start, LocalDateTime end) {
+        if (!end.isAfter(start)) {
+            return 0L;
         }
-        
-        return result;
-    }
-    
-    // 辅助方法：根据时间点获取群组数量
-    private List<Number> getGroupCountByTimePoints(List<LocalDateTime> timePoints) {
-        List<Number> result = new ArrayList<>();
-        
-        for (int i = 0; i < timePoints.size(); i++) {
-            LocalDateTime start = timePoints.get(i);
-            LocalDateTime end = i < timePoints.size() - 1 ? 
-                    timePoints.get(i + 1) : LocalDateTime.now();
-            
-            long count = countGroupsByCreatedAtBetween(start, end);
-            result.add(count);
+        long sum = 0L;
+        for (Long count : series.subMap(start, true, end, false).values()) {
+            sum += count;
         }
-        
-        return result;
+        return sum;
     }
     
-    // 辅助方法：根据时间点获取动态数量
-    private List<Number> getMomentCountByTimePoints(List<LocalDateTime> timePoints) {
-        List<Number> result = new ArrayList<>();
-        
-        for (int i = 0; i < timePoints.size(); i++) {
-            LocalDateTime start = timePoints.get(i);
-            LocalDateTime end = i < timePoints.size() - 1 ? 
-                    timePoints.get(i + 1) : LocalDateTime.now();
-            
-            long count = countMomentsByCreatedAtBetween(start, end);
-            result.add(count);
+    // 辅助方法：汇总 [fromHour, toHour) 小时段的计数
+    private long sumHours(long[] byHour, int fromHour, int toHour) {
+        long sum = 0L;
+        for (int hour = fromHour; hour < toHour; hour++) {
+            sum += byHour[hour];
         }
-        
-        return result;
-    }
-    
-    // 辅助方法：计算用户增长率
-    private double calculateUserGrowthRate(String period) {
-        LocalDateTime startTime = getStartTimeForPeriod(period);
-        LocalDateTime endTime = LocalDateTime.now();
-        LocalDateTime compareStartTime = getStartTimeForComparePeriod(period);
-        LocalDateTime compareEndTime = startTime;
-        
-        long current = countUsersByCreatedAtBetween(startTime, endTime);
-        long previous = countUsersByCreatedAtBetween(compareStartTime, compareEndTime);
-        
-        return calculateGrowthRate(current, previous);
-    }
-    
-    // 辅助方法：计算消息增长率
-    private double calculateMessageGrowthRate(String period) {
-        LocalDateTime startTime = getStartTimeForPeriod(period);
-        LocalDateTime endTime = LocalDateTime.now();
-        LocalDateTime compareStartTime = getStartTimeForComparePeriod(period);
-        LocalDateTime compareEndTime = startTime;
-        
-        long current = countMessagesByCreatedAtBetween(startTime, endTime);
-        long previous = countMessagesByCreatedAtBetween(compareStartTime, compareEndTime);
-        
-        return calculateGrowthRate(current, previous);
-    }
-    
-    // 辅助方法：计算群组增长率
-    private double calculateGroupGrowthRate(String period) {
-        LocalDateTime startTime = getStartTimeForPeriod(period);
-        LocalDateTime endTime = LocalDateTime.now();
-        LocalDateTime compareStartTime = getStartTimeForComparePeriod(period);
-        LocalDateTime compareEndTime = startTime;
-        
-        long current = countGroupsByCreatedAtBetween(startTime, endTime);
-        long previous = countGroupsByCreatedAtBetween(compareStartTime, compareEndTime);
-        
-        return calculateGrowthRate(current, previous);
-    }
-    
-    // 辅助方法：计算动态增长率
-    private double calculateMomentGrowthRate(String period) {
-        LocalDateTime startTime = getStartTimeForPeriod(period);
-        LocalDateTime endTime = LocalDateTime.now();
-        LocalDateTime compareStartTime = getStartTimeForComparePeriod(period);
-        LocalDateTime compareEndTime = startTime;
-        
-        long current = countMomentsByCreatedAtBetween(startTime, endTime);
-        long previous = countMomentsByCreatedAtBetween(compareStartTime, compareEndTime);
-        
-        return calculateGrowthRate(current, previous);
+        return sum;
     }
 } 
\ No newline at end of file
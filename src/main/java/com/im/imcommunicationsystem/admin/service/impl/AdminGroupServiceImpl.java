@@ -7,6 +7,8 @@ import com.im.imcommunicationsystem.admin.repository.AdminOperationLogRepository
 import com.im.imcommunicationsystem.admin.service.AdminGroupService;
 import com.im.imcommunicationsystem.auth.repository.UserRepository;
 import com.im.imcommunicationsystem.auth.entity.User;
+import com.im.imcommunicationsystem.common.enums.PurgeJobType;
+import com.im.imcommunicationsystem.common.service.PurgeJobService;
 import com.im.imcommunicationsystem.group.entity.Group;
 import com.im.imcommunicationsystem.group.entity.GroupMember;
 import com.im.imcommunicationsystem.group.repository.GroupMemberRepository;
@@ -40,6 +42,7 @@ public class AdminGroupServiceImpl implements AdminGroupService {
     private final GroupMemberRepository groupMemberRepository;
     private final UserRepository userRepository;
     private final AdminOperationLogRepository adminOperationLogRepository;
+    private final PurgeJobService purgeJobService;
 
     @Override
     public Page<GroupDetailsResponse> getGroups(Pageable pageable, String keyword, String status) {
@@ -61,6 +64,9 @@ public class AdminGroupServiceImpl implements AdminGroupService {
                 }
             }
             
+            // 已解散的群组正在后台清理，不再列出
+            predicates.add(criteriaBuilder.isNull(root.get("dissolvedAt")));
+            
             // 状态过滤
             if (status != null && !status.equalsIgnoreCase("all")) {
                 boolean isBanned = status.equalsIgnoreCase("banned");
@@ -231,11 +237,10 @@ public class AdminGroupServiceImpl implements AdminGroupService {
      */
     private boolean dissolveGroup(Group group, String reason) {
         try {
-            // 先删除所有成员
-            groupMemberRepository.deleteAllByIdGroupId(group.getId());
-            
-            // 再删除群组
-            groupRepository.delete(group);
+            // 标记解散，成员及其他关联数据由后台任务分批删除
+            group.setDissolvedAt(LocalDateTime.now());
+            groupRepository.save(group);
+            purgeJobService.submit(PurgeJobType.GROUP_DISSOLVE, group.getId());
             
             log.info("群组已解散: groupId={}, reason={}", group.getId(), reason);
             return true;
@@ -10,12 +10,16 @@ import com.im.imcommunicationsystem.admin.service.AdminUserService;
 import com.im.imcommunicationsystem.admin.utils.AdminPermissionUtils;
 import com.im.imcommunicationsystem.auth.entity.User;
 import com.im.imcommunicationsystem.auth.repository.UserRepository;
+import com.im.imcommunicationsystem.common.enums.PurgeJobType;
+import com.im.imcommunicationsystem.common.service.PurgeJobService;
+import com.im.imcommunicationsystem.relationship.search.UserDirectoryIndex;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -35,63 +39,73 @@ import java.util.stream.Collectors;
 @Slf4j
 public class AdminUserServiceImpl implements AdminUserService {
 
+    /**
+     * 关键词在用户目录中最多匹配的用户数
+     */
+    private static final int KEYWORD_MATCH_LIMIT = 1000;
+
     private final AdminOperationLogRepository adminOperationLogRepository;
     private final AdminPermissionUtils adminPermissionUtils;
     private final UserRepository userRepository;
+    private final PurgeJobService purgeJobService;
+    private final UserDirectoryIndex userDirectoryIndex;
 
     @Override
-    public Page<AdminUserResponse> getUserListWithPagination(Pageable pageable, String keyword, String status) {
-        log.info("获取用户列表，关键词：{}，状态：{}", keyword, status);
-
-        // 构建基本查询
-        List<User> users;
-        long totalCount;
-
-        // 简化实现：直接获取所有用户，然后在内存中过滤
-        List<User> allUsers = userRepository.findAll();
-        List<User> filteredUsers = allUsers.stream()
-            .filter(user -> {
-                // 关键词过滤
-                boolean matchesKeyword = true;
-                if (StringUtils.hasText(keyword)) {
-                    String searchTerm = keyword.toLowerCase();
-                    matchesKeyword = (user.getEmail() != null && user.getEmail().toLowerCase().contains(searchTerm)) ||
-                                     (user.getNickname() != null && user.getNickname().toLowerCase().contains(searchTerm)) ||
-                                     (user.getUserIdStr() != null && user.getUserIdStr().toLowerCase().contains(searchTerm));
-                }
-                
-                // 状态过滤
-                boolean matchesStatus = true;
-                if (StringUtils.hasText(status)) {
-                    if ("banned".equals(status)) {
-                        matchesStatus = Boolean.TRUE.equals(user.getIsBanned());
-                    } else if ("active".equals(status)) {
-                        matchesStatus = !Boolean.TRUE.equals(user.getIsBanned());
-                    }
-                }
-                
-                return matchesKeyword && matchesStatus;
-            })
-            .collect(Collectors.toList());
-        
-        totalCount = filteredUsers.size();
-        
-        // 手动分页
-        int start = (int) pageable.getOffset();
-        int end = Math.min((start + pageable.getPageSize()), filteredUsers.size());
-        
-        if (start > filteredUsers.size()) {
-            users = new ArrayList<>();
-        } else {
-            users = filteredUsers.subList(start, end);
+    public Page<AdminUserResponse> getUserListWithPagination(Pageable pageable, String keyword, String status, Long afterId) {
+        log.info("获取用户列表，关键词：{}，状态：{}，afterId：{}", keyword, status, afterId);
+
+        // 关键词先在用户目录索引中匹配昵称、拼音首字母和个人ID，得到候选用户ID
+        List<Long> keywordUserIds = null;
+        if (StringUtils.hasText(keyword) && keyword.indexOf('@') < 0 && userDirectoryIndex.isReady()) {
+            keywordUserIds = userDirectoryIndex.searchIncludingBanned(keyword.trim(), KEYWORD_MATCH_LIMIT).stream()
+                .map(UserDirectoryIndex.Entry::getUserId)
+                .collect(Collectors.toList());
         }
+        final List<Long> matchedIds = keywordUserIds;
+
+        // 构建动态查询条件，过滤和分页都在数据库中完成
+        Specification<User> spec = (root, query, criteriaBuilder) -> {
+            List<Predicate> predicates = new ArrayList<>();
+
+            // 关键词搜索
+            if (StringUtils.hasText(keyword)) {
+                String term = keyword.trim();
+                if (keyword.indexOf('@') >= 0) {
+                    // 邮箱按前缀匹配，可使用邮箱唯一索引
+                    predicates.add(criteriaBuilder.like(root.get("email"), term + "%"));
+                } else if (matchedIds != null) {
+                    Predicate byEmail = criteriaBuilder.like(root.get("email"), term + "%");
+                    predicates.add(matchedIds.isEmpty() ? byEmail
+                        : criteriaBuilder.or(root.get("id").in(matchedIds), byEmail));
+                } else {
+                    // 目录索引尚未就绪时退回数据库模糊匹配
+                    String pattern = "%" + term + "%";
+                    predicates.add(criteriaBuilder.or(
+                        criteriaBuilder.like(root.get("email"), pattern),
+                        criteriaBuilder.like(root.get("nickname"), pattern),
+                        criteriaBuilder.like(root.get("userIdStr"), pattern)));
+                }
+            }
+
+            // 状态过滤
+            if ("banned".equals(status)) {
+                predicates.add(criteriaBuilder.isTrue(root.get("isBanned")));
+            } else if ("active".equals(status)) {
+                predicates.add(criteriaBuilder.isFalse(root.get("isBanned")));
+            }
+
+            // 游标分页：只取比上一页最后一条更早的用户
+            if (afterId != null) {
+                predicates.add(criteriaBuilder.lessThan(root.get("id"), afterId));
+            }
+
+            return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
+        };
+
+        Page<User> userPage = userRepository.findAll(spec, resolvePageable(pageable, afterId));
 
         // 转换为DTO并返回分页结果
-        List<AdminUserResponse> dtoList = users.stream()
-            .map(this::convertToAdminUserResponse)
-            .collect(Collectors.toList());
-            
-        return new PageImpl<>(dtoList, pageable, totalCount);
+        return userPage.map(this::convertToAdminUserResponse);
     }
 
     @Override
@@ -171,6 +185,9 @@ public class AdminUserServiceImpl implements AdminUserService {
         user.setBannedReason("用户已被管理员删除");
         userRepository.save(user);
 
+        // 后台清理该用户的朋友圈收件箱，并将其动态从好友收件箱中移除
+        purgeJobService.submit(PurgeJobType.USER_ACCOUNT, userId);
+
         // 记录管理操作
         AdminOperationLog log = AdminOperationLog.builder()
                 .adminId(1L) // 假设管理员ID为1
@@ -186,6 +203,17 @@ public class AdminUserServiceImpl implements AdminUserService {
         adminOperationLogRepository.save(log);
     }
     
+    /**
+     * 未指定排序时按用户ID倒序；带游标时固定按用户ID倒序从头读取，不再使用偏移量
+     */
+    private Pageable resolvePageable(Pageable pageable, Long afterId) {
+        if (afterId != null) {
+            return PageRequest.of(0, pageable.getPageSize(), Sort.by(Sort.Direction.DESC, "id"));
+        }
+        Sort sort = pageable.getSort().isSorted() ? pageable.getSort() : Sort.by(Sort.Direction.DESC, "id");
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort);
+    }
+
     /**
      * 将User实体转换为AdminUserResponse
      */
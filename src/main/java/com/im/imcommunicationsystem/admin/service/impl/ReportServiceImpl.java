@@ -11,7 +11,9 @@ import com.im.imcommunicationsystem.admin.repository.ReportRepository;
 import com.im.imcommunicationsystem.admin.service.ReportService;
 import com.im.imcommunicationsystem.auth.entity.User;
 import com.im.imcommunicationsystem.auth.repository.UserRepository;
+import com.im.imcommunicationsystem.common.enums.PurgeJobType;
 import com.im.imcommunicationsystem.common.exception.BusinessException;
+import com.im.imcommunicationsystem.common.service.PurgeJobService;
 import com.im.imcommunicationsystem.common.service.WebSocketService;
 import com.im.imcommunicationsystem.group.entity.Group;
 import com.im.imcommunicationsystem.group.entity.GroupMember;
@@ -22,12 +24,16 @@ import com.im.imcommunicationsystem.message.enums.MessageStatus;
 import com.im.imcommunicationsystem.message.repository.MessageRepository;
 import com.im.imcommunicationsystem.moment.entity.Moment;
 import com.im.imcommunicationsystem.moment.repository.MomentRepository;
+import jakarta.persistence.criteria.Predicate;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
@@ -52,6 +58,7 @@ public class ReportServiceImpl implements ReportService {
     private final MomentRepository momentRepository;
     private final ObjectMapper objectMapper;
     private final WebSocketService webSocketService;
+    private final PurgeJobService purgeJobService;
 
     @Override
     public Map<String, Object> getReportedContentDetails(String contentType, Long contentId) {
@@ -449,89 +456,68 @@ public class ReportServiceImpl implements ReportService {
     }
     
     @Override
-    public Page<ReportResponse> getReportListWithPagination(Pageable pageable, String status, String contentType, String userId, String groupId, String reason) {
-        log.info("获取举报列表，状态：{}，内容类型：{}，用户ID：{}，群组ID：{}，举报原因：{}", status, contentType, userId, groupId, reason);
+    public Page<ReportResponse> getReportListWithPagination(Pageable pageable, String status, String contentType, String userId, String groupId, String reason, Long afterId) {
+        log.info("获取举报列表，状态：{}，内容类型：{}，用户ID：{}，群组ID：{}，举报原因：{}，afterId：{}", status, contentType, userId, groupId, reason, afterId);
         
-        // 获取所有举报，然后在内存中过滤（简化实现）
-        List<Report> allReports = reportRepository.findAll();
-        
-        // 应用过滤条件
-        List<Report> filteredReports = allReports.stream()
-            .filter(report -> {
-                // 状态过滤
-                if (StringUtils.hasText(status)) {
-                    try {
-                        Report.ReportStatus reportStatus = Report.ReportStatus.valueOf(status.toLowerCase());
-                        if (!report.getStatus().equals(reportStatus)) {
-                            return false;
-                        }
-                    } catch (IllegalArgumentException e) {
-                        log.warn("无效的举报状态：{}", status);
-                    }
-                }
-                
-                // 内容类型过滤
-                if (StringUtils.hasText(contentType) && !contentType.equals(report.getReportedContentType())) {
-                    return false;
-                }
-                
-                // 用户ID搜索（举报者或被举报者）
-                if (StringUtils.hasText(userId)) {
-                    try {
-                        Long searchUserId = Long.parseLong(userId);
-                        boolean matchesReporter = report.getReporterId().equals(searchUserId);
-                        boolean matchesReported = report.getReportedUserId() != null && report.getReportedUserId().equals(searchUserId);
-                        if (!matchesReporter && !matchesReported) {
-                            return false;
-                        }
-                    } catch (NumberFormatException e) {
-                        log.warn("无效的用户ID：{}", userId);
-                        return false;
-                    }
+        // 构建动态查询条件，过滤和分页都在数据库中完成
+        Specification<Report> spec = (root, query, criteriaBuilder) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            
+            // 状态过滤
+            if (StringUtils.hasText(status)) {
+                try {
+                    Report.ReportStatus reportStatus = Report.ReportStatus.valueOf(status.toLowerCase());
+                    predicates.add(criteriaBuilder.equal(root.get("status"), reportStatus));
+                } catch (IllegalArgumentException e) {
+                    log.warn("无效的举报状态：{}", status);
                 }
-                
-                // 群组ID搜索（对群组相关举报有效）
-                if (StringUtils.hasText(groupId)) {
-                    try {
-                        Long searchGroupId = Long.parseLong(groupId);
-                        boolean isGroupRelated = false;
-                        
-                        // 检查是否为群组类型的举报
-                        if ("GROUP".equals(report.getReportedContentType())) {
-                            // 直接举报群组
-                            isGroupRelated = report.getReportedContentId().equals(searchGroupId);
-                        } else if ("GROUP_MEMBER".equals(report.getReportedContentType())) {
-                            // 举报群组成员，需要通过其他方式关联群组ID
-                            // 这里简化处理，假设reportedContentId就是群组ID
-                            isGroupRelated = report.getReportedContentId().equals(searchGroupId);
-                        }
-                        // 注意：对于MESSAGE类型的举报，如果是群组消息，也应该能通过群组ID搜索
-                        // 但这需要额外的数据库查询来获取消息所属的群组，这里暂时不实现
-                        
-                        if (!isGroupRelated) {
-                            return false;
-                        }
-                    } catch (NumberFormatException e) {
-                        log.warn("无效的群组ID：{}", groupId);
-                        return false;
-                    }
+            }
+            
+            // 内容类型过滤
+            if (StringUtils.hasText(contentType)) {
+                predicates.add(criteriaBuilder.equal(root.get("reportedContentType"), contentType));
+            }
+            
+            // 用户ID搜索（举报者或被举报者）
+            if (StringUtils.hasText(userId)) {
+                try {
+                    Long searchUserId = Long.parseLong(userId);
+                    predicates.add(criteriaBuilder.or(
+                            criteriaBuilder.equal(root.get("reporterId"), searchUserId),
+                            criteriaBuilder.equal(root.get("reportedUserId"), searchUserId)));
+                } catch (NumberFormatException e) {
+                    log.warn("无效的用户ID：{}", userId);
+                    predicates.add(criteriaBuilder.disjunction());
                 }
-                
-                // 举报原因过滤
-                if (StringUtils.hasText(reason) && !reason.equals(report.getReason())) {
-                    return false;
+            }
+            
+            // 群组ID搜索（直接举报群组或举报群组成员，reportedContentId 即群组ID）
+            // 注意：对于MESSAGE类型的举报，如果是群组消息，也应该能通过群组ID搜索，这里暂时不实现
+            if (StringUtils.hasText(groupId)) {
+                try {
+                    Long searchGroupId = Long.parseLong(groupId);
+                    predicates.add(root.get("reportedContentType").in("GROUP", "GROUP_MEMBER"));
+                    predicates.add(criteriaBuilder.equal(root.get("reportedContentId"), searchGroupId));
+                } catch (NumberFormatException e) {
+                    log.warn("无效的群组ID：{}", groupId);
+                    predicates.add(criteriaBuilder.disjunction());
                 }
-                
-                return true;
-            })
-            .collect(Collectors.toList());
-        
-        // 手动分页
-        int start = (int) pageable.getOffset();
-        int end = Math.min(start + pageable.getPageSize(), filteredReports.size());
-        List<Report> pageContent = start < filteredReports.size() ? filteredReports.subList(start, end) : new ArrayList<>();
+            }
+            
+            // 举报原因过滤
+            if (StringUtils.hasText(reason)) {
+                predicates.add(criteriaBuilder.equal(root.get("reason"), reason));
+            }
+            
+            // 游标分页：只取比上一页最后一条更早的举报
+            if (afterId != null) {
+                predicates.add(criteriaBuilder.lessThan(root.get("id"), afterId));
+            }
+            
+            return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
+        };
         
-        Page<Report> reportPage = new PageImpl<>(pageContent, pageable, filteredReports.size());
+        Page<Report> reportPage = reportRepository.findAll(spec, resolvePageable(pageable, afterId));
         
         // 获取所有举报者和被举报者ID
         List<Long> userIds = new ArrayList<>();
@@ -553,7 +539,18 @@ public class ReportServiceImpl implements ReportService {
                 .map(report -> convertToReportResponse(report, userMap))
                 .collect(Collectors.toList());
         
-        return new PageImpl<>(responseList, pageable, reportPage.getTotalElements());
+        return new PageImpl<>(responseList, reportPage.getPageable(), reportPage.getTotalElements());
+    }
+
+    /**
+     * 未指定排序时按举报ID倒序（最新的在前）；带游标时固定按举报ID倒序从头读取，不再使用偏移量
+     */
+    private Pageable resolvePageable(Pageable pageable, Long afterId) {
+        if (afterId != null) {
+            return PageRequest.of(0, pageable.getPageSize(), Sort.by(Sort.Direction.DESC, "id"));
+        }
+        Sort sort = pageable.getSort().isSorted() ? pageable.getSort() : Sort.by(Sort.Direction.DESC, "id");
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort);
     }
 
     @Override
@@ -996,11 +993,10 @@ public class ReportServiceImpl implements ReportService {
                 log.info("解散群组 {}，原因: {}", groupId, reason);
                 
                 try {
-                    // 1. 删除所有成员关系
-                    groupMemberRepository.deleteAllByIdGroupId(groupId);
-                    
-                    // 2. 删除群组实体
-                    groupRepository.delete(group);
+                    // 标记解散，关联数据由后台任务分批删除
+                    group.setDissolvedAt(LocalDateTime.now());
+                    groupRepository.save(group);
+                    purgeJobService.submit(PurgeJobType.GROUP_DISSOLVE, groupId);
                     
                     // 记录管理员操作
                     logAdminAction(adminId, "DISSOLVE_GROUP", groupId, "GROUP", 
@@ -1113,8 +1109,9 @@ public class ReportServiceImpl implements ReportService {
             // 删除动态
             log.info("删除动态 {}, 原因: {}", momentId, reason);
             
-            // 直接删除动态
+            // 直接删除动态，收件箱记录由后台任务清理
             momentRepository.delete(moment);
+            purgeJobService.submit(PurgeJobType.MOMENT_DELETE, momentId);
             
             // 记录管理员操作
             logAdminAction(adminId, "DELETE_MOMENT", momentId, "动态", reason);
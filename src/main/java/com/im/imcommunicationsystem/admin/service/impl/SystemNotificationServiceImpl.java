@@ -7,8 +7,10 @@ import com.im.imcommunicationsystem.admin.dto.response.SystemNotificationDetailR
 import com.im.imcommunicationsystem.admin.dto.response.SystemNotificationResponse;
 import com.im.imcommunicationsystem.admin.entity.SystemNotification;
 import com.im.imcommunicationsystem.admin.entity.SystemNotificationStatus;
+import com.im.imcommunicationsystem.admin.entity.SystemNotificationWatermark;
 import com.im.imcommunicationsystem.admin.repository.SystemNotificationRepository;
 import com.im.imcommunicationsystem.admin.repository.SystemNotificationStatusRepository;
+import com.im.imcommunicationsystem.admin.repository.SystemNotificationWatermarkRepository;
 import com.im.imcommunicationsystem.admin.service.SystemNotificationService;
 import com.im.imcommunicationsystem.auth.entity.User;
 import com.im.imcommunicationsystem.auth.repository.UserRepository;
@@ -20,6 +22,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
@@ -30,6 +33,8 @@ import java.util.stream.Collectors;
 
 /**
  * 系统通知服务实现类
+ * 全员通知发布时只分配一个递增的广播序号，不为每个用户写入状态记录；
+ * 用户的已读水位线之下的全员通知视为已读，水位线之上单独已读的全员通知和定向通知记录在状态表中
  */
 @Service
 @RequiredArgsConstructor
@@ -38,10 +43,16 @@ public class SystemNotificationServiceImpl implements SystemNotificationService
 
     private final SystemNotificationRepository systemNotificationRepository;
     private final SystemNotificationStatusRepository notificationStatusRepository;
+    private final SystemNotificationWatermarkRepository watermarkRepository;
     private final UserRepository userRepository;
     private final WebSocketService webSocketService;
     private final ObjectMapper objectMapper;
 
+    /**
+     * 用户不存在或缺少注册时间时，全员通知的最早可见发布时间
+     */
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
     @Override
     @Transactional
     public SystemNotification createSystemNotification(Long adminId, SystemNotificationRequest request) {
@@ -186,10 +197,13 @@ public class SystemNotificationServiceImpl implements SystemNotificationService
         SystemNotification publishedNotification = systemNotificationRepository.save(notification);
         log.info("系统通知发布成功，ID：{}", publishedNotification.getId());
         
-        // 为目标用户创建状态记录
+        // 全员通知只分配广播序号，定向通知为目标用户创建状态记录
         if (notification.getTargetType() == SystemNotification.TargetType.all) {
-            // 为所有用户创建状态记录
-            createNotificationStatusForAllUsers(notification.getId());
+            // 计数器行锁持有到提交，并发发布依次取号，序号顺序与提交顺序一致
+            systemNotificationRepository.incrementBroadcastSeq();
+            Long broadcastSeq = systemNotificationRepository.findLastInsertId();
+            systemNotificationRepository.assignBroadcastSeq(notification.getId(), broadcastSeq);
+            log.debug("全员通知分配广播序号: id={}, broadcastSeq={}", notification.getId(), broadcastSeq);
         } else if (notification.getTargetType() == SystemNotification.TargetType.specific_users) {
             // 为特定用户创建状态记录
             try {
@@ -228,29 +242,6 @@ public class SystemNotificationServiceImpl implements SystemNotificationService
         return publishedNotification;
     }
 
-    @Override
-    @Transactional
-    public void createNotificationStatusForAllUsers(Long notificationId) {
-        log.info("为所有用户创建通知状态记录，通知ID：{}", notificationId);
-        
-        // 获取所有用户
-        List<User> allUsers = userRepository.findAll();
-        log.info("用户总数：{}", allUsers.size());
-        
-        // 批量创建状态记录
-        List<SystemNotificationStatus> statusList = allUsers.stream()
-                .map(user -> SystemNotificationStatus.builder()
-                        .notificationId(notificationId)
-                        .userId(user.getId())
-                        .isRead(false)
-                        .createdAt(LocalDateTime.now())
-                        .build())
-                .collect(Collectors.toList());
-        
-        notificationStatusRepository.saveAll(statusList);
-        log.info("为所有用户创建通知状态记录成功，共{}条", statusList.size());
-    }
-
     @Override
     @Transactional
     public void createNotificationStatusForUsers(Long notificationId, List<Long> userIds) {
@@ -336,42 +327,39 @@ public class SystemNotificationServiceImpl implements SystemNotificationService
     public Page<SystemNotificationResponse> getUserNotifications(Long userId, Pageable pageable, boolean unreadOnly) {
         log.info("获取用户通知列表，用户ID：{}，只看未读：{}", userId, unreadOnly);
         
-        // 获取用户通知状态记录
-        Page<SystemNotificationStatus> statusPage;
+        LocalDateTime since = getBroadcastVisibleSince(userId);
+        SystemNotificationWatermark watermark = getWatermark(userId);
+        
+        // 按发布时间倒序分页查询用户可见的通知
+        Pageable page = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
+        Page<SystemNotification> notificationPage;
         if (unreadOnly) {
-            statusPage = notificationStatusRepository.findByUserIdAndIsReadFalse(userId, pageable);
+            notificationPage = systemNotificationRepository.findUnreadForUser(userId, since, watermark.getLastReadSeq(),
+                    SystemNotification.TargetType.all, SystemNotification.TargetType.specific_users, page);
         } else {
-            statusPage = notificationStatusRepository.findByUserId(userId, pageable);
+            notificationPage = systemNotificationRepository.findVisibleToUser(userId, since,
+                    SystemNotification.TargetType.all, SystemNotification.TargetType.specific_users, page);
         }
         
-        // 获取通知ID列表
-        List<Long> notificationIds = statusPage.getContent().stream()
-                .map(SystemNotificationStatus::getNotificationId)
-                .collect(Collectors.toList());
-        
-        if (notificationIds.isEmpty()) {
-            return new PageImpl<>(Collections.emptyList(), pageable, 0);
+        if (notificationPage.isEmpty()) {
+            return new PageImpl<>(Collections.emptyList(), pageable, notificationPage.getTotalElements());
         }
         
-        // 获取通知详情
-        Map<Long, SystemNotification> notificationMap = systemNotificationRepository.findAllById(notificationIds).stream()
-                .collect(Collectors.toMap(SystemNotification::getId, notification -> notification));
+        // 批量获取本页通知的状态记录
+        List<Long> notificationIds = notificationPage.getContent().stream()
+                .map(SystemNotification::getId)
+                .collect(Collectors.toList());
+        Map<Long, SystemNotificationStatus> statusMap = notificationStatusRepository
+                .findByUserIdAndNotificationIdIn(userId, notificationIds).stream()
+                .collect(Collectors.toMap(SystemNotificationStatus::getNotificationId, status -> status, (a, b) -> a));
         
         // 构建响应
-        List<SystemNotificationResponse> responseList = statusPage.getContent().stream()
-                .map(status -> {
-                    SystemNotification notification = notificationMap.get(status.getNotificationId());
-                    if (notification == null) {
-                        // 通知可能已被删除
-        return null;
-                    }
-                    
-                    return buildNotificationResponse(notification, status);
-                })
-                .filter(Objects::nonNull)
+        List<SystemNotificationResponse> responseList = notificationPage.getContent().stream()
+                .map(notification -> buildNotificationResponse(notification,
+                        resolveStatus(userId, notification, statusMap.get(notification.getId()), watermark)))
                 .collect(Collectors.toList());
         
-        return new PageImpl<>(responseList, pageable, statusPage.getTotalElements());
+        return new PageImpl<>(responseList, pageable, notificationPage.getTotalElements());
     }
 
     @Override
@@ -382,12 +370,19 @@ public class SystemNotificationServiceImpl implements SystemNotificationService
         SystemNotification notification = systemNotificationRepository.findById(notificationId)
                 .orElseThrow(() -> new ResourceNotFoundException("通知不存在：" + notificationId));
         
-        // 获取用户的通知状态
+        // 获取用户的通知状态，全员通知没有状态记录时按水位线推算
         SystemNotificationStatus status = notificationStatusRepository.findByNotificationIdAndUserId(notificationId, userId)
-                .orElseThrow(() -> new ResourceNotFoundException("通知状态不存在"));
+                .orElse(null);
+        if (notification.getTargetType() == SystemNotification.TargetType.all) {
+            if (!isBroadcastVisible(notification, getBroadcastVisibleSince(userId))) {
+                throw new ResourceNotFoundException("通知状态不存在");
+            }
+        } else if (status == null) {
+            throw new ResourceNotFoundException("通知状态不存在");
+        }
         
         // 构建响应
-        return buildNotificationDetailResponse(notification, status);
+        return buildNotificationDetailResponse(notification, resolveStatus(userId, notification, status, getWatermark(userId)));
     }
 
     @Override
@@ -395,7 +390,15 @@ public class SystemNotificationServiceImpl implements SystemNotificationService
     public boolean markNotificationAsRead(Long userId, Long notificationId) {
         log.info("标记通知为已读，用户ID：{}，通知ID：{}", userId, notificationId);
         
-        // 更新状态为已读
+        SystemNotification notification = systemNotificationRepository.findById(notificationId).orElse(null);
+        if (notification == null) {
+            return false;
+        }
+        
+        // 全员通知记录单独已读，定向通知更新状态记录
+        if (notification.getTargetType() == SystemNotification.TargetType.all) {
+            return markBroadcastAsRead(userId, notification, getWatermark(userId).getLastReadSeq());
+        }
         int updatedCount = notificationStatusRepository.markAsRead(notificationId, userId);
         
         return updatedCount > 0;
@@ -406,8 +409,27 @@ public class SystemNotificationServiceImpl implements SystemNotificationService
     public int markMultipleNotificationsAsRead(Long userId, List<Long> notificationIds) {
         log.info("标记多个通知为已读，用户ID：{}，通知数：{}", userId, notificationIds.size());
         
-        // 更新状态为已读
-        return notificationStatusRepository.markMultipleAsRead(notificationIds, userId);
+        // 按目标类型拆分
+        List<Long> targetedIds = new ArrayList<>();
+        List<SystemNotification> broadcasts = new ArrayList<>();
+        for (SystemNotification notification : systemNotificationRepository.findAllById(notificationIds)) {
+            if (notification.getTargetType() == SystemNotification.TargetType.all) {
+                broadcasts.add(notification);
+            } else {
+                targetedIds.add(notification.getId());
+            }
+        }
+        
+        int updatedCount = targetedIds.isEmpty() ? 0 : notificationStatusRepository.markMultipleAsRead(targetedIds, userId);
+        if (!broadcasts.isEmpty()) {
+            long lastReadSeq = getWatermark(userId).getLastReadSeq();
+            for (SystemNotification notification : broadcasts) {
+                if (markBroadcastAsRead(userId, notification, lastReadSeq)) {
+                    updatedCount++;
+                }
+            }
+        }
+        return updatedCount;
     }
 
     @Override
@@ -415,16 +437,96 @@ public class SystemNotificationServiceImpl implements SystemNotificationService
     public int markAllNotificationsAsRead(Long userId) {
         log.info("标记所有通知为已读，用户ID：{}", userId);
         
-        // 更新所有状态为已读
-        return notificationStatusRepository.markAllAsRead(userId);
+        // 更新所有定向通知状态为已读
+        int updatedCount = notificationStatusRepository.markAllAsRead(userId);
+        
+        // 全员通知把水位线推进到最新的广播序号，并清理被水位线覆盖的单独已读记录
+        Long maxSeq = systemNotificationRepository.findMaxBroadcastSeq();
+        if (maxSeq != null) {
+            SystemNotificationWatermark watermark = getWatermark(userId);
+            if (maxSeq > watermark.getLastReadSeq()) {
+                updatedCount += (int) systemNotificationRepository.countUnreadBroadcasts(userId,
+                        getBroadcastVisibleSince(userId), watermark.getLastReadSeq(), SystemNotification.TargetType.all);
+                watermarkRepository.advance(userId, maxSeq, LocalDateTime.now());
+                notificationStatusRepository.deleteBroadcastStatusUpTo(userId, maxSeq);
+            }
+        }
+        return updatedCount;
     }
 
     @Override
     public long getUnreadNotificationCount(Long userId) {
         log.info("获取用户未读通知数量，用户ID：{}", userId);
         
-        // 查询未读通知数量
-        return notificationStatusRepository.countByUserIdAndIsReadFalse(userId);
+        // 未读的定向通知 + 水位线以上未单独已读的全员通知
+        long targetedUnread = notificationStatusRepository.countByUserIdAndIsReadFalse(userId);
+        long broadcastUnread = systemNotificationRepository.countUnreadBroadcasts(userId,
+                getBroadcastVisibleSince(userId), getWatermark(userId).getLastReadSeq(), SystemNotification.TargetType.all);
+        return targetedUnread + broadcastUnread;
+    }
+    
+    /**
+     * 记录全员通知单独已读，已在水位线之下时不写入
+     */
+    private boolean markBroadcastAsRead(Long userId, SystemNotification notification, long lastReadSeq) {
+        Long seq = notification.getBroadcastSeq();
+        if (seq == null) {
+            // 尚未发布
+            return false;
+        }
+        if (seq <= lastReadSeq) {
+            return true;
+        }
+        notificationStatusRepository.upsertRead(notification.getId(), userId, LocalDateTime.now());
+        return true;
+    }
+    
+    /**
+     * 获取用户的已读水位线，没有记录时为 0
+     */
+    private SystemNotificationWatermark getWatermark(Long userId) {
+        return watermarkRepository.findById(userId)
+                .orElseGet(() -> SystemNotificationWatermark.builder()
+                        .userId(userId)
+                        .lastReadSeq(0L)
+                        .build());
+    }
+    
+    /**
+     * 全员通知对用户可见的最早发布时间：用户注册之后发布的全员通知
+     */
+    private LocalDateTime getBroadcastVisibleSince(Long userId) {
+        return userRepository.findById(userId)
+                .map(User::getCreatedAt)
+                .orElse(EPOCH);
+    }
+    
+    /**
+     * 全员通知是否已发布且对该用户可见
+     */
+    private boolean isBroadcastVisible(SystemNotification notification, LocalDateTime since) {
+        return notification.getBroadcastSeq() != null
+                && notification.getPublishedAt() != null
+                && !notification.getPublishedAt().isBefore(since);
+    }
+    
+    /**
+     * 推算用户在一条通知上的阅读状态：有已读记录或定向通知以状态记录为准，全员通知在水位线之下视为已读
+     */
+    private SystemNotificationStatus resolveStatus(Long userId, SystemNotification notification,
+                                                   SystemNotificationStatus status, SystemNotificationWatermark watermark) {
+        if (status != null && (Boolean.TRUE.equals(status.getIsRead())
+                || notification.getTargetType() != SystemNotification.TargetType.all)) {
+            return status;
+        }
+        Long seq = notification.getBroadcastSeq();
+        boolean read = seq != null && seq <= watermark.getLastReadSeq();
+        return SystemNotificationStatus.builder()
+                .notificationId(notification.getId())
+                .userId(userId)
+                .isRead(read)
+                .readAt(read ? watermark.getUpdatedAt() : null)
+                .build();
     }
     
     /**
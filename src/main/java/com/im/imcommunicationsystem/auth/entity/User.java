@@ -1,5 +1,6 @@
 package com.im.imcommunicationsystem.auth.entity;
 
+import com.im.imcommunicationsystem.common.listener.StatEntityListener;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -15,6 +16,7 @@ import java.time.LocalDateTime;
  * 对应数据库表：users
  */
 @Entity
+@EntityListeners(StatEntityListener.class)
 @Table(name = "users")
 @Data
 @NoArgsConstructor
@@ -4,8 +4,12 @@ import com.im.imcommunicationsystem.auth.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,7 +18,7 @@ import java.util.Optional;
  * 用户数据的持久化操作
  */
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificationExecutor<User> {
 
     /**
      * 根据邮箱查找用户
@@ -91,4 +95,33 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * @return 用户列表
      */
     List<User> findByNicknameContainingIgnoreCase(String nickname);
+
+    /**
+     * 按ID游标分批读取用户目录字段（用于构建用户搜索索引）
+     * @param afterId 游标，只返回ID大于该值的用户
+     * @param pageable 读取条数
+     * @return [ID, 昵称, 头像, 签名, 个人ID, 创建时间, 更新时间, 是否封禁, 封禁截止时间] 列表
+     */
+    @Query("SELECT u.id, u.nickname, u.avatarUrl, u.signature, u.userIdStr, u.createdAt, u.updatedAt, u.isBanned, u.bannedUntil " +
+           "FROM User u WHERE u.id > :afterId ORDER BY u.id ASC")
+    List<Object[]> findDirectoryRowsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * 按更新时间读取资料发生变化的用户目录字段
+     * @param since 起始更新时间（含）
+     * @param pageable 读取条数
+     * @return 字段顺序同 findDirectoryRowsAfter，按更新时间、ID升序
+     */
+    @Query("SELECT u.id, u.nickname, u.avatarUrl, u.signature, u.userIdStr, u.createdAt, u.updatedAt, u.isBanned, u.bannedUntil " +
+           "FROM User u WHERE u.updatedAt >= :since ORDER BY u.updatedAt ASC, u.id ASC")
+    List<Object[]> findDirectoryRowsUpdatedSince(@Param("since") LocalDateTime since, Pageable pageable);
+
+    /**
+     * 读取单个用户的目录字段
+     * @param id 用户ID
+     * @return 字段顺序同 findDirectoryRowsAfter
+     */
+    @Query("SELECT u.id, u.nickname, u.avatarUrl, u.signature, u.userIdStr, u.createdAt, u.updatedAt, u.isBanned, u.bannedUntil " +
+           "FROM User u WHERE u.id = :id")
+    List<Object[]> findDirectoryRowById(@Param("id") Long id);
 }
\ No newline at end of file
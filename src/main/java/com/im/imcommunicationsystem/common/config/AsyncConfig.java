@@ -87,4 +87,40 @@ public class AsyncConfig {
         
         return executor;
     }
+
+    /**
+     * 多会话增量同步线程池
+     * 限制重连高峰时同步请求对数据库的并发，队列满时拒绝提交，被拒绝的会话由客户端单独补齐
+     */
+    @Bean("messageSyncExecutor")
+    public Executor messageSyncExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        
+        // 核心线程数
+        executor.setCorePoolSize(4);
+        // 最大线程数
+        executor.setMaxPoolSize(8);
+        // 队列容量
+        executor.setQueueCapacity(100);
+        // 线程名前缀
+        executor.setThreadNamePrefix("MessageSync-");
+        // 线程空闲时间（秒）
+        executor.setKeepAliveSeconds(60);
+        
+        // 拒绝策略：直接拒绝，不在请求线程上查询数据库
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        
+        // 等待所有任务完成后再关闭线程池
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        // 等待时间
+        executor.setAwaitTerminationSeconds(30);
+        
+        // 初始化
+        executor.initialize();
+        
+        log.info("多会话增量同步线程池已初始化: coreSize={}, maxSize={}, queueCapacity={}", 
+                executor.getCorePoolSize(), executor.getMaxPoolSize(), executor.getQueueCapacity());
+        
+        return executor;
+    }
 }
\ No newline at end of file
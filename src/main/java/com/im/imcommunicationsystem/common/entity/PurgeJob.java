@@ -0,0 +1,103 @@
+package com.im.imcommunicationsystem.common.entity;
+
+import com.im.imcommunicationsystem.common.enums.PurgeJobStatus;
+import com.im.imcommunicationsystem.common.enums.PurgeJobType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 后台清理任务实体类
+ * 记录清理对象、当前步骤和已删除行数，每删除一批提交一次进度
+ */
+@Entity
+@Table(name = "purge_jobs")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PurgeJob {
+
+    /**
+     * 任务ID
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * 任务类型
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "job_type", nullable = false, length = 32)
+    private PurgeJobType jobType;
+
+    /**
+     * 清理对象ID（群组ID、动态ID或用户ID）
+     */
+    @Column(name = "target_id", nullable = false)
+    private Long targetId;
+
+    /**
+     * 任务状态
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 16)
+    @Builder.Default
+    private PurgeJobStatus status = PurgeJobStatus.PENDING;
+
+    /**
+     * 当前步骤序号
+     */
+    @Column(name = "current_step", nullable = false)
+    @Builder.Default
+    private Integer currentStep = 0;
+
+    /**
+     * 已删除行数
+     */
+    @Column(name = "deleted_rows", nullable = false)
+    @Builder.Default
+    private Long deletedRows = 0L;
+
+    /**
+     * 连续失败次数
+     */
+    @Column(name = "attempts", nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    /**
+     * 最近一次失败原因
+     */
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    /**
+     * 下次执行时间
+     */
+    @Column(name = "next_run_at", nullable = false)
+    private LocalDateTime nextRunAt;
+
+    /**
+     * 创建时间
+     */
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * 更新时间
+     */
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    /**
+     * 完成时间
+     */
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,37 @@
+package com.im.imcommunicationsystem.common.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 统计汇总实体类
+ * 每行是一个指标在一个时间桶（小时或天）内的计数，按维度（如消息类型）分开保存
+ */
+@Entity
+@Table(name = "stat_rollups")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatRollup {
+
+    @EmbeddedId
+    private StatRollupId id;
+
+    /**
+     * 计数
+     */
+    @Column(name = "total", nullable = false)
+    private Long total;
+
+    /**
+     * 更新时间
+     */
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
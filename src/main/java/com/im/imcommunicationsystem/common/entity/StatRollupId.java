@@ -0,0 +1,40 @@
+package com.im.imcommunicationsystem.common.entity;
+
+import com.im.imcommunicationsystem.common.enums.StatGranularity;
+import com.im.imcommunicationsystem.common.enums.StatMetric;
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 统计汇总复合主键
+ */
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatRollupId implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "metric", nullable = false, length = 32)
+    private StatMetric metric;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "granularity", nullable = false, length = 8)
+    private StatGranularity granularity;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(name = "dimension", nullable = false, length = 32)
+    private String dimension;
+}
@@ -0,0 +1,27 @@
+package com.im.imcommunicationsystem.common.enums;
+
+/**
+ * 后台清理任务状态
+ */
+public enum PurgeJobStatus {
+
+    /**
+     * 等待执行
+     */
+    PENDING,
+
+    /**
+     * 执行中（已完成部分步骤）
+     */
+    RUNNING,
+
+    /**
+     * 已完成
+     */
+    COMPLETED,
+
+    /**
+     * 多次失败后停止重试
+     */
+    FAILED
+}
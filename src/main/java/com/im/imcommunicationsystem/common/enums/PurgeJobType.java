@@ -0,0 +1,22 @@
+package com.im.imcommunicationsystem.common.enums;
+
+/**
+ * 后台清理任务类型
+ */
+public enum PurgeJobType {
+
+    /**
+     * 解散群组：清理群成员、会话、消息、投票、公告和加入请求
+     */
+    GROUP_DISSOLVE,
+
+    /**
+     * 删除动态：清理动态在各收件箱中的记录
+     */
+    MOMENT_DELETE,
+
+    /**
+     * 注销用户：清理用户的收件箱和发布的动态
+     */
+    USER_ACCOUNT
+}
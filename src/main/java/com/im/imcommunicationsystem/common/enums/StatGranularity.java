@@ -0,0 +1,30 @@
+package com.im.imcommunicationsystem.common.enums;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * 统计时间桶粒度
+ */
+public enum StatGranularity {
+
+    /**
+     * 按小时
+     */
+    HOUR,
+
+    /**
+     * 按天
+     */
+    DAY;
+
+    /**
+     * 取时间所在桶的起始时间
+     *
+     * @param time 时间
+     * @return 桶起始时间
+     */
+    public LocalDateTime truncate(LocalDateTime time) {
+        return this == HOUR ? time.truncatedTo(ChronoUnit.HOURS) : time.truncatedTo(ChronoUnit.DAYS);
+    }
+}
@@ -0,0 +1,27 @@
+package com.im.imcommunicationsystem.common.enums;
+
+/**
+ * 统计指标
+ */
+public enum StatMetric {
+
+    /**
+     * 新注册用户数
+     */
+    NEW_USERS,
+
+    /**
+     * 发送消息数，维度为消息类型
+     */
+    MESSAGES,
+
+    /**
+     * 新建群组数
+     */
+    NEW_GROUPS,
+
+    /**
+     * 发布动态数
+     */
+    NEW_MOMENTS
+}
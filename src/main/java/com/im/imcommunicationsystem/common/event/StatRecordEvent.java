@@ -0,0 +1,46 @@
+package com.im.imcommunicationsystem.common.event;
+
+import com.im.imcommunicationsystem.common.enums.StatMetric;
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+import java.time.LocalDateTime;
+
+/**
+ * 统计事件
+ * 用户注册、发送消息、创建群组和发布动态写入数据库时触发，提交后计入统计汇总
+ */
+@Getter
+public class StatRecordEvent extends ApplicationEvent {
+
+    private final StatMetric metric;
+
+    /**
+     * 维度（如消息类型），无维度时为空串
+     */
+    private final String dimension;
+
+    private final LocalDateTime occurredAt;
+
+    /**
+     * 操作用户ID（消息发送者，用于统计活跃用户），不需要时为 null
+     */
+    private final Long userId;
+
+    /**
+     * 创建统计事件
+     *
+     * @param source 事件源
+     * @param metric 统计指标
+     * @param dimension 维度，无维度时为空串
+     * @param occurredAt 发生时间
+     * @param userId 操作用户ID，不需要时为 null
+     */
+    public StatRecordEvent(Object source, StatMetric metric, String dimension, LocalDateTime occurredAt, Long userId) {
+        super(source);
+        this.metric = metric;
+        this.dimension = dimension;
+        this.occurredAt = occurredAt;
+        this.userId = userId;
+    }
+}
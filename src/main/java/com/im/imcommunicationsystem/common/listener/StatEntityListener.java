@@ -0,0 +1,44 @@
+package com.im.imcommunicationsystem.common.listener;
+
+import com.im.imcommunicationsystem.auth.entity.User;
+import com.im.imcommunicationsystem.common.enums.StatMetric;
+import com.im.imcommunicationsystem.common.event.StatRecordEvent;
+import com.im.imcommunicationsystem.group.entity.Group;
+import com.im.imcommunicationsystem.message.entity.Message;
+import com.im.imcommunicationsystem.moment.entity.Moment;
+import jakarta.persistence.PostPersist;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDateTime;
+
+/**
+ * 统计实体监听器
+ * 用户、消息、群组和动态实体插入后发布统计事件。由 Hibernate 通过 Spring 容器创建
+ */
+public class StatEntityListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public StatEntityListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    public void onCreated(Object entity) {
+        if (entity instanceof Message message) {
+            String type = message.getMessageType() != null ? message.getMessageType().name() : "";
+            publish(StatMetric.MESSAGES, type, message.getCreatedAt(), message.getSenderId());
+        } else if (entity instanceof User user) {
+            publish(StatMetric.NEW_USERS, "", user.getCreatedAt(), null);
+        } else if (entity instanceof Group group) {
+            publish(StatMetric.NEW_GROUPS, "", group.getCreatedAt(), null);
+        } else if (entity instanceof Moment moment) {
+            publish(StatMetric.NEW_MOMENTS, "", moment.getCreatedAt(), null);
+        }
+    }
+
+    private void publish(StatMetric metric, String dimension, LocalDateTime createdAt, Long userId) {
+        LocalDateTime occurredAt = createdAt != null ? createdAt : LocalDateTime.now();
+        eventPublisher.publishEvent(new StatRecordEvent(this, metric, dimension, occurredAt, userId));
+    }
+}
@@ -0,0 +1,32 @@
+package com.im.imcommunicationsystem.common.listener;
+
+import com.im.imcommunicationsystem.common.event.StatRecordEvent;
+import com.im.imcommunicationsystem.common.service.StatRollupService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * 统计事件监听器
+ * 事务提交后把统计事件计入内存中的汇总增量，回滚的写入不计数
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class StatRollupRecorder {
+
+    private final StatRollupService statRollupService;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatRecord(StatRecordEvent event) {
+        try {
+            statRollupService.record(event.getMetric(), event.getDimension(), event.getOccurredAt(), 1);
+            if (event.getUserId() != null) {
+                statRollupService.recordActiveUser(event.getUserId(), event.getOccurredAt());
+            }
+        } catch (Exception e) {
+            log.warn("记录统计事件失败: metric={}, error={}", event.getMetric(), e.getMessage());
+        }
+    }
+}
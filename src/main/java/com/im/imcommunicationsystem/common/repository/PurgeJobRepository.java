@@ -0,0 +1,41 @@
+package com.im.imcommunicationsystem.common.repository;
+
+import com.im.imcommunicationsystem.common.entity.PurgeJob;
+import com.im.imcommunicationsystem.common.enums.PurgeJobStatus;
+import com.im.imcommunicationsystem.common.enums.PurgeJobType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 后台清理任务数据访问接口
+ */
+@Repository
+public interface PurgeJobRepository extends JpaRepository<PurgeJob, Long> {
+
+    /**
+     * 查询指定对象的清理任务
+     */
+    Optional<PurgeJob> findByJobTypeAndTargetId(PurgeJobType jobType, Long targetId);
+
+    /**
+     * 查询到期待执行的任务，按创建顺序
+     */
+    @Query("SELECT j FROM PurgeJob j WHERE j.status IN :statuses AND j.nextRunAt <= :now ORDER BY j.id ASC")
+    List<PurgeJob> findDue(@Param("statuses") Collection<PurgeJobStatus> statuses,
+                           @Param("now") LocalDateTime now,
+                           Pageable pageable);
+
+    /**
+     * 锁定任务直到事务结束，任务已被其他执行者锁定时跳过（返回空），同一任务同一时间只有一个执行者推进
+     */
+    @Query(value = "SELECT * FROM purge_jobs WHERE id = :id FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    Optional<PurgeJob> lockIfAvailable(@Param("id") Long id);
+}
@@ -0,0 +1,199 @@
+package com.im.imcommunicationsystem.common.repository;
+
+import com.im.imcommunicationsystem.common.entity.StatRollup;
+import com.im.imcommunicationsystem.common.entity.StatRollupId;
+import com.im.imcommunicationsystem.common.enums.StatGranularity;
+import com.im.imcommunicationsystem.common.enums.StatMetric;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 统计汇总数据访问接口
+ * 时间范围均为左闭右开
+ */
+@Repository
+public interface StatRollupRepository extends JpaRepository<StatRollup, StatRollupId> {
+
+    /**
+     * 累加一个时间桶的计数，不存在时插入
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO stat_rollups (metric, granularity, bucket_start, dimension, total, updated_at) " +
+                   "VALUES (:metric, :granularity, :bucketStart, :dimension, :delta, :now) " +
+                   "ON DUPLICATE KEY UPDATE total = total + :delta, updated_at = :now",
+           nativeQuery = true)
+    int applyDelta(@Param("metric") String metric,
+                   @Param("granularity") String granularity,
+                   @Param("bucketStart") LocalDateTime bucketStart,
+                   @Param("dimension") String dimension,
+                   @Param("delta") long delta,
+                   @Param("now") LocalDateTime now);
+
+    /**
+     * 按时间桶汇总一个指标（合并各维度）
+     * 返回格式：[bucketStart, total]
+     */
+    @Query("SELECT r.id.bucketStart, SUM(r.total) FROM StatRollup r " +
+           "WHERE r.id.metric = :metric AND r.id.granularity = :granularity " +
+           "AND r.id.bucketStart >= :from AND r.id.bucketStart < :to " +
+           "GROUP BY r.id.bucketStart ORDER BY r.id.bucketStart ASC")
+    List<Object[]> sumByBucket(@Param("metric") StatMetric metric,
+                               @Param("granularity") StatGranularity granularity,
+                               @Param("from") LocalDateTime from,
+                               @Param("to") LocalDateTime to);
+
+    /**
+     * 按维度汇总一个指标
+     * 返回格式：[dimension, total]
+     */
+    @Query("SELECT r.id.dimension, SUM(r.total) FROM StatRollup r " +
+           "WHERE r.id.metric = :metric AND r.id.granularity = :granularity " +
+           "AND r.id.bucketStart >= :from AND r.id.bucketStart < :to " +
+           "GROUP BY r.id.dimension")
+    List<Object[]> sumByDimension(@Param("metric") StatMetric metric,
+                                  @Param("granularity") StatGranularity granularity,
+                                  @Param("from") LocalDateTime from,
+                                  @Param("to") LocalDateTime to);
+
+    /**
+     * 按指标汇总多个指标
+     * 返回格式：[metric, total]
+     */
+    @Query("SELECT r.id.metric, SUM(r.total) FROM StatRollup r " +
+           "WHERE r.id.metric IN :metrics AND r.id.granularity = :granularity " +
+           "AND r.id.bucketStart >= :from AND r.id.bucketStart < :to " +
+           "GROUP BY r.id.metric")
+    List<Object[]> sumByMetric(@Param("metrics") Collection<StatMetric> metrics,
+                               @Param("granularity") StatGranularity granularity,
+                               @Param("from") LocalDateTime from,
+                               @Param("to") LocalDateTime to);
+
+    /**
+     * 是否已有汇总数据
+     */
+    @Query(value = "SELECT COUNT(*) FROM (SELECT 1 FROM stat_rollups LIMIT 1) t", nativeQuery = true)
+    int countAnyRow();
+
+    /**
+     * 最早的用户注册时间（回填的起点）
+     */
+    @Query("SELECT MIN(u.createdAt) FROM User u")
+    LocalDateTime findEarliestUserCreatedAt();
+
+    /**
+     * 删除时间范围内的汇总（回填前使用）
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM StatRollup r WHERE r.id.metric = :metric AND r.id.granularity = :granularity " +
+           "AND r.id.bucketStart >= :from AND r.id.bucketStart < :to")
+    int deleteRange(@Param("metric") StatMetric metric,
+                    @Param("granularity") StatGranularity granularity,
+                    @Param("from") LocalDateTime from,
+                    @Param("to") LocalDateTime to);
+
+    /**
+     * 从用户表回填每小时新注册用户数
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO stat_rollups (metric, granularity, bucket_start, dimension, total, updated_at) " +
+                   "SELECT 'NEW_USERS', 'HOUR', DATE_ADD(DATE(created_at), INTERVAL HOUR(created_at) HOUR), '', COUNT(*), NOW() " +
+                   "FROM users WHERE created_at >= :from AND created_at < :to " +
+                   "GROUP BY DATE_ADD(DATE(created_at), INTERVAL HOUR(created_at) HOUR) " +
+                   "ON DUPLICATE KEY UPDATE total = VALUES(total), updated_at = VALUES(updated_at)",
+           nativeQuery = true)
+    int backfillUsersHourly(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /**
+     * 从消息表回填每小时各类型消息数
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO stat_rollups (metric, granularity, bucket_start, dimension, total, updated_at) " +
+                   "SELECT 'MESSAGES', 'HOUR', DATE_ADD(DATE(created_at), INTERVAL HOUR(created_at) HOUR), type, COUNT(*), NOW() " +
+                   "FROM messages WHERE created_at >= :from AND created_at < :to " +
+                   "GROUP BY DATE_ADD(DATE(created_at), INTERVAL HOUR(created_at) HOUR), type " +
+                   "ON DUPLICATE KEY UPDATE total = VALUES(total), updated_at = VALUES(updated_at)",
+           nativeQuery = true)
+    int backfillMessagesHourly(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /**
+     * 从群组表回填每小时新建群组数
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO stat_rollups (metric, granularity, bucket_start, dimension, total, updated_at) " +
+                   "SELECT 'NEW_GROUPS', 'HOUR', DATE_ADD(DATE(created_at), INTERVAL HOUR(created_at) HOUR), '', COUNT(*), NOW() " +
+                   "FROM `groups` WHERE created_at >= :from AND created_at < :to " +
+                   "GROUP BY DATE_ADD(DATE(created_at), INTERVAL HOUR(created_at) HOUR) " +
+                   "ON DUPLICATE KEY UPDATE total = VALUES(total), updated_at = VALUES(updated_at)",
+           nativeQuery = true)
+    int backfillGroupsHourly(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /**
+     * 从动态表回填每小时发布动态数
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO stat_rollups (metric, granularity, bucket_start, dimension, total, updated_at) " +
+                   "SELECT 'NEW_MOMENTS', 'HOUR', DATE_ADD(DATE(created_at), INTERVAL HOUR(created_at) HOUR), '', COUNT(*), NOW() " +
+                   "FROM moments WHERE created_at >= :from AND created_at < :to " +
+                   "GROUP BY DATE_ADD(DATE(created_at), INTERVAL HOUR(created_at) HOUR) " +
+                   "ON DUPLICATE KEY UPDATE total = VALUES(total), updated_at = VALUES(updated_at)",
+           nativeQuery = true)
+    int backfillMomentsHourly(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /**
+     * 由小时汇总重新计算天汇总
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO stat_rollups (metric, granularity, bucket_start, dimension, total, updated_at) " +
+                   "SELECT metric, 'DAY', DATE(bucket_start), dimension, SUM(total), NOW() FROM stat_rollups " +
+                   "WHERE granularity = 'HOUR' AND bucket_start >= :from AND bucket_start < :to " +
+                   "GROUP BY metric, DATE(bucket_start), dimension " +
+                   "ON DUPLICATE KEY UPDATE total = VALUES(total), updated_at = VALUES(updated_at)",
+           nativeQuery = true)
+    int rebuildDaily(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /**
+     * 记录当天的活跃用户，已记录的跳过
+     *
+     * @return 新记录的用户数
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT IGNORE INTO stat_active_users (day, user_id) " +
+                   "SELECT :day, u.id FROM users u WHERE u.id IN :userIds",
+           nativeQuery = true)
+    int insertActiveUsers(@Param("day") LocalDate day, @Param("userIds") Collection<Long> userIds);
+
+    /**
+     * 从消息表回填每日活跃用户
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT IGNORE INTO stat_active_users (day, user_id) " +
+                   "SELECT DISTINCT DATE(created_at), sender_id FROM messages " +
+                   "WHERE created_at >= :from AND created_at < :to",
+           nativeQuery = true)
+    int backfillActiveUsers(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /**
+     * 统计日期范围内去重后的活跃用户数
+     */
+    @Query(value = "SELECT COUNT(DISTINCT user_id) FROM stat_active_users WHERE day >= :from AND day < :to",
+           nativeQuery = true)
+    long countActiveUsers(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
@@ -0,0 +1,57 @@
+package com.im.imcommunicationsystem.common.service;
+
+import com.im.imcommunicationsystem.common.enums.PurgeJobType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * 后台清理任务处理器
+ * 每种任务类型提供按顺序执行的清理步骤，各模块实现后注册为 Spring Bean
+ */
+public interface PurgeJobHandler {
+
+    /**
+     * 处理的任务类型
+     */
+    PurgeJobType getType();
+
+    /**
+     * 按执行顺序排列的清理步骤，步骤顺序一经上线不应调整（进度按序号保存）
+     */
+    List<PurgeStep> getSteps();
+
+    /**
+     * 分批删除函数
+     */
+    @FunctionalInterface
+    interface ChunkDeleter {
+
+        /**
+         * 删除一批数据，必须可重复执行
+         *
+         * @param targetId 清理对象ID
+         * @param limit 本批最多删除的行数
+         * @return 实际删除的行数，返回 0 表示该步骤已完成
+         */
+        int deleteChunk(Long targetId, int limit);
+    }
+
+    /**
+     * 一个清理步骤
+     */
+    @Getter
+    @AllArgsConstructor
+    class PurgeStep {
+        /**
+         * 步骤名称（用于日志）
+         */
+        private final String name;
+
+        /**
+         * 分批删除函数
+         */
+        private final ChunkDeleter deleter;
+    }
+}
@@ -0,0 +1,39 @@
+package com.im.imcommunicationsystem.common.service;
+
+import com.im.imcommunicationsystem.common.entity.PurgeJob;
+import com.im.imcommunicationsystem.common.enums.PurgeJobType;
+
+import java.util.Optional;
+
+/**
+ * 后台清理任务服务接口
+ * 业务方先立即标记对象不可用并提交任务，关联数据由后台按批删除，
+ * 每批一个短事务并记录进度，失败后退避重试，重启后从中断处继续
+ */
+public interface PurgeJobService {
+
+    /**
+     * 提交清理任务（加入调用方事务），同一对象重复提交时返回已有任务，失败的任务会重新开始
+     *
+     * @param type 任务类型
+     * @param targetId 清理对象ID
+     * @return 清理任务
+     */
+    PurgeJob submit(PurgeJobType type, Long targetId);
+
+    /**
+     * 查询清理任务进度
+     *
+     * @param type 任务类型
+     * @param targetId 清理对象ID
+     * @return 清理任务
+     */
+    Optional<PurgeJob> getJob(PurgeJobType type, Long targetId);
+
+    /**
+     * 在一个时间片内执行到期的清理任务
+     *
+     * @return 本次完成的任务数
+     */
+    int runDueJobs();
+}
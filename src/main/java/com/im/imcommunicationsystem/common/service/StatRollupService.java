@@ -0,0 +1,100 @@
+package com.im.imcommunicationsystem.common.service;
+
+import com.im.imcommunicationsystem.common.enums.StatGranularity;
+import com.im.imcommunicationsystem.common.enums.StatMetric;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Map;
+import java.util.NavigableMap;
+
+/**
+ * 统计汇总服务接口
+ * 各指标按小时和天累积计数，增量先在内存中合并再定期写回；
+ * 查询只读取汇总表的一个时间范围，时间范围均为左闭右开
+ */
+public interface StatRollupService {
+
+    /**
+     * 计入一次统计（事务提交后调用）
+     *
+     * @param metric 统计指标
+     * @param dimension 维度，无维度时为空串
+     * @param occurredAt 发生时间
+     * @param delta 增量
+     */
+    void record(StatMetric metric, String dimension, LocalDateTime occurredAt, long delta);
+
+    /**
+     * 记录一次用户活跃（事务提交后调用），同一用户每天只计一次
+     *
+     * @param userId 用户ID
+     * @param occurredAt 发生时间
+     */
+    void recordActiveUser(Long userId, LocalDateTime occurredAt);
+
+    /**
+     * 写回内存中累积的增量
+     *
+     * @return 写回的时间桶数
+     */
+    int flush();
+
+    /**
+     * 按时间桶读取一个指标（合并各维度）
+     *
+     * @param metric 统计指标
+     * @param granularity 时间桶粒度
+     * @param from 起始时间
+     * @param to 结束时间
+     * @return 时间桶起始时间 -> 计数，按时间排序，没有数据的桶不出现
+     */
+    NavigableMap<LocalDateTime, Long> getSeries(StatMetric metric, StatGranularity granularity,
+                                                LocalDateTime from, LocalDateTime to);
+
+    /**
+     * 按维度汇总一个指标
+     *
+     * @param metric 统计指标
+     * @param from 起始时间（按天对齐）
+     * @param to 结束时间
+     * @return 维度 -> 计数
+     */
+    Map<String, Long> sumByDimension(StatMetric metric, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * 汇总多个指标
+     *
+     * @param metrics 统计指标
+     * @param from 起始时间（按天对齐），null 表示不限
+     * @param to 结束时间，null 表示不限
+     * @return 指标 -> 计数，没有数据的指标计为 0
+     */
+    Map<StatMetric, Long> sumByMetric(Collection<StatMetric> metrics, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * 统计日期范围内去重后的活跃用户数
+     *
+     * @param from 起始日期
+     * @param to 结束日期（不含）
+     * @return 活跃用户数
+     */
+    long countActiveUsers(LocalDate from, LocalDate to);
+
+    /**
+     * 从历史数据回填汇总，覆盖范围内已有的完整小时；当前小时只由实时事件计数
+     *
+     * @param from 起始日期
+     * @param to 结束日期（不含）
+     * @return 回填的小时汇总行数
+     */
+    int backfill(LocalDate from, LocalDate to);
+
+    /**
+     * 汇总表为空时从最早的数据开始回填（首次部署时）
+     *
+     * @return 回填的小时汇总行数
+     */
+    int backfillIfEmpty();
+}
@@ -1,5 +1,7 @@
 package com.im.imcommunicationsystem.common.service;
 
+import java.util.Collection;
+
 /**
  * WebSocket服务接口
  * 提供WebSocket消息发送相关功能
@@ -13,6 +15,15 @@ public interface WebSocketService {
      * @param message 消息内容
      */
     void sendMessageToUser(Long userId, Object message);
+
+    /**
+     * 发送同一条消息给一批用户（只序列化一次，只发送给在线用户）
+     * 
+     * @param userIds 用户ID
+     * @param message 消息内容
+     * @return 实际送达的在线用户数
+     */
+    int sendMessageToUsers(Collection<Long> userIds, Object message);
     
     /**
      * 发送消息给指定会话的所有成员
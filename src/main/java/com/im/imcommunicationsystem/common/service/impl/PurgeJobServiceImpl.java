@@ -0,0 +1,232 @@
+package com.im.imcommunicationsystem.common.service.impl;
+
+import com.im.imcommunicationsystem.common.entity.PurgeJob;
+import com.im.imcommunicationsystem.common.enums.PurgeJobStatus;
+import com.im.imcommunicationsystem.common.enums.PurgeJobType;
+import com.im.imcommunicationsystem.common.repository.PurgeJobRepository;
+import com.im.imcommunicationsystem.common.service.PurgeJobHandler;
+import com.im.imcommunicationsystem.common.service.PurgeJobHandler.PurgeStep;
+import com.im.imcommunicationsystem.common.service.PurgeJobService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 后台清理任务服务实现类
+ * 每批删除与进度更新在同一个锁定任务行的事务中提交，中断后从已提交的步骤继续；
+ * 任务行以 FOR UPDATE SKIP LOCKED 锁定，多个实例或重叠的定时执行不会同时推进同一任务，
+ * 步骤总是取自锁定后读到的进度。每个步骤都可重复执行，因此重试不会出错。单次执行受时间片限制，
+ * 大对象的清理分散到多次定时执行中，不会长时间占用数据库
+ */
+@Service
+@Slf4j
+public class PurgeJobServiceImpl implements PurgeJobService {
+
+    private static final int CHUNK_SIZE = 500;
+    private static final int DUE_JOB_BATCH = 20;
+    private static final long RUN_BUDGET_MILLIS = 2_000L;
+    private static final int MAX_ATTEMPTS = 10;
+    private static final int MAX_BACKOFF_MINUTES = 60;
+    private static final List<PurgeJobStatus> RUNNABLE = List.of(PurgeJobStatus.PENDING, PurgeJobStatus.RUNNING);
+
+    private final PurgeJobRepository purgeJobRepository;
+    private final ObjectProvider<PurgeJobHandler> handlerProvider;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * 任务类型 -> 处理器，首次执行时解析（处理器可能依赖提交任务的业务服务）
+     */
+    private volatile Map<PurgeJobType, PurgeJobHandler> handlers;
+
+    /**
+     * 串行化本实例的任务执行
+     */
+    private final ReentrantLock runLock = new ReentrantLock();
+
+    public PurgeJobServiceImpl(PurgeJobRepository purgeJobRepository,
+                               ObjectProvider<PurgeJobHandler> handlerProvider,
+                               PlatformTransactionManager transactionManager) {
+        this.purgeJobRepository = purgeJobRepository;
+        this.handlerProvider = handlerProvider;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    @Transactional
+    public PurgeJob submit(PurgeJobType type, Long targetId) {
+        LocalDateTime now = LocalDateTime.now();
+        Optional<PurgeJob> existing = purgeJobRepository.findByJobTypeAndTargetId(type, targetId);
+        if (existing.isPresent()) {
+            PurgeJob job = existing.get();
+            if (job.getStatus() == PurgeJobStatus.FAILED) {
+                job.setStatus(PurgeJobStatus.PENDING);
+                job.setAttempts(0);
+                job.setNextRunAt(now);
+                job.setUpdatedAt(now);
+                log.info("重新提交失败的清理任务: type={}, targetId={}", type, targetId);
+                return purgeJobRepository.save(job);
+            }
+            return job;
+        }
+
+        PurgeJob job = PurgeJob.builder()
+                .jobType(type)
+                .targetId(targetId)
+                .nextRunAt(now)
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+        log.info("提交清理任务: type={}, targetId={}", type, targetId);
+        return purgeJobRepository.save(job);
+    }
+
+    @Override
+    public Optional<PurgeJob> getJob(PurgeJobType type, Long targetId) {
+        return purgeJobRepository.findByJobTypeAndTargetId(type, targetId);
+    }
+
+    @Override
+    public int runDueJobs() {
+        if (!runLock.tryLock()) {
+            return 0;
+        }
+        try {
+            List<PurgeJob> jobs = purgeJobRepository.findDue(RUNNABLE, LocalDateTime.now(), PageRequest.of(0, DUE_JOB_BATCH));
+            long deadline = System.currentTimeMillis() + RUN_BUDGET_MILLIS;
+            int completed = 0;
+            for (PurgeJob job : jobs) {
+                if (System.currentTimeMillis() >= deadline) {
+                    break;
+                }
+                if (runJob(job, deadline)) {
+                    completed++;
+                }
+            }
+            return completed;
+        } finally {
+            runLock.unlock();
+        }
+    }
+
+    // ==================== 私有辅助方法 ====================
+
+    /**
+     * 在时间片内推进一个任务，每批都在锁定任务行的事务中执行，步骤取自锁定后读到的进度
+     *
+     * @return 任务是否已完成
+     */
+    private boolean runJob(PurgeJob job, long deadline) {
+        PurgeJobHandler handler = handlers().get(job.getJobType());
+        if (handler == null) {
+            log.error("没有对应的清理任务处理器: jobId={}, type={}", job.getId(), job.getJobType());
+            markFailed(job.getId(), "没有对应的清理任务处理器", true);
+            return false;
+        }
+
+        Long jobId = job.getId();
+        List<PurgeStep> steps = handler.getSteps();
+        try {
+            while (System.currentTimeMillis() < deadline) {
+                PurgeJob current = transactionTemplate.execute(status -> runChunk(jobId, steps));
+                if (current == null) {
+                    // 其他执行者正在推进该任务，或任务已完成、已停止
+                    return false;
+                }
+                job = current;
+                if (job.getStatus() == PurgeJobStatus.COMPLETED) {
+                    log.info("清理任务完成: jobId={}, type={}, targetId={}, deletedRows={}",
+                            job.getId(), job.getJobType(), job.getTargetId(), job.getDeletedRows());
+                    return true;
+                }
+            }
+            return false;
+        } catch (Exception e) {
+            log.error("清理任务执行失败，将稍后重试: jobId={}, type={}, targetId={}, step={}, error={}",
+                    job.getId(), job.getJobType(), job.getTargetId(), job.getCurrentStep(), e.getMessage(), e);
+            markFailed(jobId, e.getMessage(), false);
+            return false;
+        }
+    }
+
+    /**
+     * 锁定任务后删除当前步骤的一批数据并在同一事务中记录进度，本批为空时进入下一步骤，
+     * 所有步骤完成时标记任务完成
+     *
+     * @return 更新后的任务，任务被其他执行者锁定或已不可执行时返回 null
+     */
+    private PurgeJob runChunk(Long jobId, List<PurgeStep> steps) {
+        PurgeJob job = purgeJobRepository.lockIfAvailable(jobId).orElse(null);
+        if (job == null || !RUNNABLE.contains(job.getStatus())) {
+            return null;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        if (job.getCurrentStep() >= steps.size()) {
+            job.setStatus(PurgeJobStatus.COMPLETED);
+            job.setAttempts(0);
+            job.setLastError(null);
+            job.setCompletedAt(now);
+            job.setUpdatedAt(now);
+            return purgeJobRepository.save(job);
+        }
+
+        PurgeStep step = steps.get(job.getCurrentStep());
+        int deleted = step.getDeleter().deleteChunk(job.getTargetId(), CHUNK_SIZE);
+        job.setStatus(PurgeJobStatus.RUNNING);
+        job.setDeletedRows(job.getDeletedRows() + deleted);
+        if (deleted == 0) {
+            log.debug("清理步骤完成: jobId={}, step={}", job.getId(), step.getName());
+            job.setCurrentStep(job.getCurrentStep() + 1);
+        }
+        job.setUpdatedAt(now);
+        return purgeJobRepository.save(job);
+    }
+
+    /**
+     * 记录失败并按次数指数退避，超过最大次数或不可恢复时停止重试
+     */
+    private void markFailed(Long jobId, String error, boolean permanent) {
+        try {
+            // 任务正被其他执行者推进时不覆盖其进度
+            transactionTemplate.executeWithoutResult(status -> purgeJobRepository.lockIfAvailable(jobId).ifPresent(job -> {
+                int attempts = job.getAttempts() + 1;
+                LocalDateTime now = LocalDateTime.now();
+                job.setAttempts(attempts);
+                job.setLastError(error != null && error.length() > 500 ? error.substring(0, 500) : error);
+                job.setUpdatedAt(now);
+                if (permanent || attempts >= MAX_ATTEMPTS) {
+                    job.setStatus(PurgeJobStatus.FAILED);
+                    log.error("清理任务多次失败，停止重试: jobId={}, attempts={}", jobId, attempts);
+                } else {
+                    job.setNextRunAt(now.plusMinutes(Math.min(1L << (attempts - 1), MAX_BACKOFF_MINUTES)));
+                }
+                purgeJobRepository.save(job);
+            }));
+        } catch (Exception e) {
+            log.error("记录清理任务失败状态出错: jobId={}, error={}", jobId, e.getMessage(), e);
+        }
+    }
+
+    private Map<PurgeJobType, PurgeJobHandler> handlers() {
+        Map<PurgeJobType, PurgeJobHandler> resolved = handlers;
+        if (resolved == null) {
+            resolved = new EnumMap<>(PurgeJobType.class);
+            for (PurgeJobHandler handler : handlerProvider) {
+                resolved.put(handler.getType(), handler);
+            }
+            handlers = resolved;
+        }
+        return resolved;
+    }
+}
@@ -0,0 +1,331 @@
+package com.im.imcommunicationsystem.common.service.impl;
+
+import com.im.imcommunicationsystem.common.enums.StatGranularity;
+import com.im.imcommunicationsystem.common.enums.StatMetric;
+import com.im.imcommunicationsystem.common.repository.StatRollupRepository;
+import com.im.imcommunicationsystem.common.service.StatRollupService;
+import com.im.imcommunicationsystem.common.utils.LongHashSet;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 统计汇总服务实现类
+ * 增量按（指标，维度，小时）合并在内存中，写回时同时累加小时桶和所在的天桶，
+ * 多个实例以 total = total + ? 的相对更新并发写回互不覆盖。
+ * 活跃用户在本实例内按天去重后批量 INSERT IGNORE 到每日活跃用户表，跨实例的重复由主键去除
+ */
+@Service
+@Slf4j
+public class StatRollupServiceImpl implements StatRollupService {
+
+    private static final int ACTIVE_USER_BATCH_SIZE = 1000;
+    private static final LocalDateTime MIN_TIME = LocalDateTime.of(2000, 1, 1, 0, 0);
+    private static final LocalDateTime MAX_TIME = LocalDateTime.of(9999, 1, 1, 0, 0);
+
+    private final StatRollupRepository statRollupRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * 待写回的增量，键为（指标，维度，小时）
+     */
+    private final ConcurrentHashMap<BucketKey, Long> pending = new ConcurrentHashMap<>();
+
+    /**
+     * 待写回的活跃用户，键为日期；集合只在 compute/remove 的桶锁内读写
+     */
+    private final ConcurrentHashMap<LocalDate, Set<Long>> pendingActive = new ConcurrentHashMap<>();
+
+    /**
+     * 本实例当天已记录的活跃用户，日期变化时清空
+     */
+    private final Object activeLock = new Object();
+    private LocalDate activeDay;
+    private LongHashSet activeRecorded = new LongHashSet();
+
+    /**
+     * 串行化本实例的写回与回填
+     */
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    public StatRollupServiceImpl(StatRollupRepository statRollupRepository,
+                                 PlatformTransactionManager transactionManager) {
+        this.statRollupRepository = statRollupRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void record(StatMetric metric, String dimension, LocalDateTime occurredAt, long delta) {
+        if (metric == null || occurredAt == null || delta == 0) {
+            return;
+        }
+        BucketKey key = new BucketKey(metric, dimension != null ? dimension : "",
+                StatGranularity.HOUR.truncate(occurredAt));
+        pending.merge(key, delta, Long::sum);
+    }
+
+    @Override
+    public void recordActiveUser(Long userId, LocalDateTime occurredAt) {
+        if (userId == null || occurredAt == null) {
+            return;
+        }
+        LocalDate day = occurredAt.toLocalDate();
+        synchronized (activeLock) {
+            if (activeDay == null || day.isAfter(activeDay)) {
+                activeDay = day;
+                activeRecorded = new LongHashSet();
+            }
+            if (day.equals(activeDay) && !activeRecorded.add(userId)) {
+                return;
+            }
+        }
+        addPendingActive(day, List.of(userId));
+    }
+
+    @Override
+    public int flush() {
+        if (pending.isEmpty() && pendingActive.isEmpty()) {
+            return 0;
+        }
+
+        flushLock.lock();
+        try {
+            // 按键排序写回，多个实例同时写回时以相同顺序加锁
+            Map<BucketKey, Long> hourly = new TreeMap<>();
+            for (BucketKey key : pending.keySet()) {
+                Long delta = pending.remove(key);
+                if (delta != null && delta != 0) {
+                    hourly.put(key, delta);
+                }
+            }
+            Map<LocalDate, Set<Long>> active = new TreeMap<>();
+            for (LocalDate day : pendingActive.keySet()) {
+                Set<Long> userIds = pendingActive.remove(day);
+                if (userIds != null && !userIds.isEmpty()) {
+                    active.put(day, userIds);
+                }
+            }
+            if (hourly.isEmpty() && active.isEmpty()) {
+                return 0;
+            }
+
+            Map<BucketKey, Long> daily = new TreeMap<>();
+            hourly.forEach((key, delta) -> daily.merge(key.toDay(), delta, Long::sum));
+
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    LocalDateTime now = LocalDateTime.now();
+                    writeBuckets(hourly, StatGranularity.HOUR, now);
+                    writeBuckets(daily, StatGranularity.DAY, now);
+                    active.forEach(this::writeActiveUsers);
+                });
+                log.debug("统计汇总写回完成: buckets={}, activeDays={}", hourly.size(), active.size());
+                return hourly.size();
+            } catch (Exception e) {
+                log.error("统计汇总写回失败，增量将在下次重试: buckets={}, error={}", hourly.size(), e.getMessage(), e);
+                hourly.forEach((key, delta) -> pending.merge(key, delta, Long::sum));
+                active.forEach(this::addPendingActive);
+                return 0;
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @Override
+    public NavigableMap<LocalDateTime, Long> getSeries(StatMetric metric, StatGranularity granularity,
+                                                       LocalDateTime from, LocalDateTime to) {
+        NavigableMap<LocalDateTime, Long> series = new TreeMap<>();
+        for (Object[] row : statRollupRepository.sumByBucket(metric, granularity, from, to)) {
+            series.put((LocalDateTime) row[0], ((Number) row[1]).longValue());
+        }
+        return series;
+    }
+
+    @Override
+    public Map<String, Long> sumByDimension(StatMetric metric, LocalDateTime from, LocalDateTime to) {
+        Map<String, Long> result = new HashMap<>();
+        for (Object[] row : statRollupRepository.sumByDimension(metric, StatGranularity.DAY, from, to)) {
+            result.put((String) row[0], ((Number) row[1]).longValue());
+        }
+        return result;
+    }
+
+    @Override
+    public Map<StatMetric, Long> sumByMetric(Collection<StatMetric> metrics, LocalDateTime from, LocalDateTime to) {
+        Map<StatMetric, Long> result = new EnumMap<>(StatMetric.class);
+        for (StatMetric metric : metrics) {
+            result.put(metric, 0L);
+        }
+        List<Object[]> rows = statRollupRepository.sumByMetric(metrics, StatGranularity.DAY,
+                from != null ? from : MIN_TIME, to != null ? to : MAX_TIME);
+        for (Object[] row : rows) {
+            result.put((StatMetric) row[0], ((Number) row[1]).longValue());
+        }
+        return result;
+    }
+
+    @Override
+    public long countActiveUsers(LocalDate from, LocalDate to) {
+        return statRollupRepository.countActiveUsers(from, to);
+    }
+
+    @Override
+    public int backfill(LocalDate from, LocalDate to) {
+        log.info("开始回填统计汇总: from={}, to={}", from, to);
+        int total = 0;
+        for (LocalDate day = from; day.isBefore(to); day = day.plusDays(1)) {
+            LocalDateTime dayStart = day.atStartOfDay();
+            LocalDateTime dayEnd = dayStart.plusDays(1);
+
+            // 只覆盖已结束的小时，当前小时的计数来自实时事件
+            LocalDateTime currentHour = StatGranularity.HOUR.truncate(LocalDateTime.now());
+            LocalDateTime hourEnd = dayEnd.isBefore(currentHour) ? dayEnd : currentHour;
+
+            flushLock.lock();
+            try {
+                // 先写回已累积的增量，避免它们在重新统计之后再次累加到已覆盖的小时
+                flush();
+                Integer rows = transactionTemplate.execute(status -> {
+                    int written = 0;
+                    if (hourEnd.isAfter(dayStart)) {
+                        for (StatMetric metric : StatMetric.values()) {
+                            statRollupRepository.deleteRange(metric, StatGranularity.HOUR, dayStart, hourEnd);
+                        }
+                        written += statRollupRepository.backfillUsersHourly(dayStart, hourEnd);
+                        written += statRollupRepository.backfillMessagesHourly(dayStart, hourEnd);
+                        written += statRollupRepository.backfillGroupsHourly(dayStart, hourEnd);
+                        written += statRollupRepository.backfillMomentsHourly(dayStart, hourEnd);
+                        statRollupRepository.backfillActiveUsers(dayStart, hourEnd);
+                    }
+
+                    // 天汇总由当天全部小时汇总（含当前小时）重新计算
+                    for (StatMetric metric : StatMetric.values()) {
+                        statRollupRepository.deleteRange(metric, StatGranularity.DAY, dayStart, dayEnd);
+                    }
+                    statRollupRepository.rebuildDaily(dayStart, dayEnd);
+                    return written;
+                });
+                total += rows != null ? rows : 0;
+            } finally {
+                flushLock.unlock();
+            }
+        }
+        log.info("统计汇总回填完成: from={}, to={}, rows={}", from, to, total);
+        return total;
+    }
+
+    @Override
+    public int backfillIfEmpty() {
+        if (statRollupRepository.countAnyRow() > 0) {
+            return 0;
+        }
+        LocalDateTime earliest = statRollupRepository.findEarliestUserCreatedAt();
+        if (earliest == null) {
+            return 0;
+        }
+        return backfill(earliest.toLocalDate(), LocalDate.now().plusDays(1));
+    }
+
+    /**
+     * 应用关闭前写回剩余增量
+     */
+    @PreDestroy
+    public void flushOnShutdown() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("关闭前写回统计汇总失败: pending={}, error={}", pending.size(), e.getMessage(), e);
+        }
+    }
+
+    // ==================== 私有辅助方法 ====================
+
+    private void writeBuckets(Map<BucketKey, Long> buckets, StatGranularity granularity, LocalDateTime now) {
+        for (Map.Entry<BucketKey, Long> entry : buckets.entrySet()) {
+            BucketKey key = entry.getKey();
+            statRollupRepository.applyDelta(key.metric.name(), granularity.name(), key.bucketStart,
+                    key.dimension, entry.getValue(), now);
+        }
+    }
+
+    private void writeActiveUsers(LocalDate day, Set<Long> userIds) {
+        List<Long> ids = new ArrayList<>(userIds);
+        for (int from = 0; from < ids.size(); from += ACTIVE_USER_BATCH_SIZE) {
+            statRollupRepository.insertActiveUsers(day, ids.subList(from, Math.min(from + ACTIVE_USER_BATCH_SIZE, ids.size())));
+        }
+    }
+
+    private void addPendingActive(LocalDate day, Collection<Long> userIds) {
+        pendingActive.compute(day, (key, existing) -> {
+            Set<Long> set = existing != null ? existing : new HashSet<>();
+            set.addAll(userIds);
+            return set;
+        });
+    }
+
+    /**
+     * 一个统计时间桶
+     */
+    private static final class BucketKey implements Comparable<BucketKey> {
+
+        private static final Comparator<BucketKey> ORDER = Comparator
+                .comparing((BucketKey key) -> key.metric)
+                .thenComparing(key -> key.bucketStart)
+                .thenComparing(key -> key.dimension);
+
+        private final StatMetric metric;
+        private final String dimension;
+        private final LocalDateTime bucketStart;
+
+        private BucketKey(StatMetric metric, String dimension, LocalDateTime bucketStart) {
+            this.metric = metric;
+            this.dimension = dimension;
+            this.bucketStart = bucketStart;
+        }
+
+        private BucketKey toDay() {
+            return new BucketKey(metric, dimension, StatGranularity.DAY.truncate(bucketStart));
+        }
+
+        @Override
+        public int compareTo(BucketKey other) {
+            return ORDER.compare(this, other);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof BucketKey other)) {
+                return false;
+            }
+            return metric == other.metric && dimension.equals(other.dimension) && bucketStart.equals(other.bucketStart);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(metric, dimension, bucketStart);
+        }
+    }
+}
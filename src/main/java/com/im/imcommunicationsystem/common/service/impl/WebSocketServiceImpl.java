@@ -18,9 +18,12 @@ import org.springframework.web.socket.WebSocketSession;
 import org.springframework.web.socket.handler.TextWebSocketHandler;
 
 import java.io.IOException;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import java.util.Optional;
@@ -669,6 +672,39 @@ public class WebSocketServiceImpl extends TextWebSocketHandler implements WebSoc
         }
     }
 
+    /**
+     * 发送同一条消息给一批用户
+     */
+    @Override
+    public int sendMessageToUsers(Collection<Long> userIds, Object message) {
+        if (userIds == null || userIds.isEmpty()) {
+            return 0;
+        }
+        TextMessage textMessage;
+        try {
+            textMessage = new TextMessage(objectMapper.writeValueAsString(message));
+        } catch (IOException e) {
+            log.error("序列化批量推送消息失败", e);
+            return 0;
+        }
+
+        int delivered = 0;
+        for (Long userId : userIds) {
+            WebSocketSession session = userSessions.get(userId);
+            if (session == null || !session.isOpen()) {
+                continue;
+            }
+            try {
+                session.sendMessage(textMessage);
+                delivered++;
+            } catch (IOException e) {
+                log.error("发送消息给用户{}失败", userId, e);
+            }
+        }
+        log.debug("批量推送完成，在线用户数: {}/{}", delivered, userIds.size());
+        return delivered;
+    }
+
     /**
      * 发送消息给指定会话的所有成员
      */
@@ -692,14 +728,11 @@ public class WebSocketServiceImpl extends TextWebSocketHandler implements WebSoc
                 Long groupId = conversation.getRelatedGroupId();
                 log.info("检测到群聊会话，群组ID: {}", groupId);
                 
-                // 获取群组成员ID列表
-                List<Long> groupMemberIds;
+                // 获取群组成员ID集合
+                Set<Long> groupMemberIds;
                 try {
-                    // 从GroupMemberRepository获取当前群成员列表
-                    groupMemberIds = groupMemberRepository.findByIdGroupId(groupId)
-                        .stream()
-                        .map(member -> member.getId().getUserId())
-                        .collect(Collectors.toList());
+                    // 从GroupMemberRepository获取当前群成员ID，过滤时按哈希查找
+                    groupMemberIds = new HashSet<>(groupMemberRepository.findUserIdsByGroupId(groupId));
                     
                     log.info("获取到群组{}的成员列表: {}，总成员数: {}", groupId, groupMemberIds, groupMemberIds.size());
                     
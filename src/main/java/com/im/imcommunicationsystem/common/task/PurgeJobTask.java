@@ -0,0 +1,31 @@
+package com.im.imcommunicationsystem.common.task;
+
+import com.im.imcommunicationsystem.common.service.PurgeJobService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 后台清理定时任务
+ * 每次在固定时间片内分批推进到期的清理任务
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class PurgeJobTask {
+
+    private final PurgeJobService purgeJobService;
+
+    /**
+     * 默认每秒执行一次
+     */
+    @Scheduled(fixedDelayString = "${im.purge.tick-ms:1000}")
+    public void runDueJobs() {
+        try {
+            purgeJobService.runDueJobs();
+        } catch (Exception e) {
+            log.error("后台清理任务执行失败", e);
+        }
+    }
+}
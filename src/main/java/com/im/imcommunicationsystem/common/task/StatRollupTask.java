@@ -0,0 +1,50 @@
+package com.im.imcommunicationsystem.common.task;
+
+import com.im.imcommunicationsystem.common.service.StatRollupService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 统计汇总定时任务
+ * 周期性写回累积的统计增量；首次部署汇总表为空时在后台从历史数据回填
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class StatRollupTask {
+
+    private final StatRollupService statRollupService;
+
+    /**
+     * 默认每5秒写回一次累积的统计增量
+     */
+    @Scheduled(fixedDelayString = "${im.stats.flush-interval-ms:5000}")
+    public void flush() {
+        try {
+            statRollupService.flush();
+        } catch (Exception e) {
+            log.error("统计汇总写回任务执行失败", e);
+        }
+    }
+
+    /**
+     * 应用启动后检查汇总表，为空时回填历史数据
+     */
+    @Async("taskExecutor")
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        try {
+            int rows = statRollupService.backfillIfEmpty();
+            if (rows > 0) {
+                log.info("统计汇总初始回填完成: rows={}", rows);
+            }
+        } catch (Exception e) {
+            log.error("统计汇总初始回填任务执行失败", e);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.im.imcommunicationsystem.common.utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * long 开放寻址哈希集合（线性探测，0 作为空槽标记并单独记录）
+ * 元素以原始 long 存储，不装箱；适合好友ID、名单等只需判断包含关系的场景。
+ * 非线程安全，多线程共享时应按"复制后修改、整体替换引用"的方式使用
+ */
+public final class LongHashSet {
+
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] slots;
+    private boolean containsZero;
+    private int size;
+
+    public LongHashSet() {
+        this(4);
+    }
+
+    /**
+     * @param expectedSize 预期元素个数
+     */
+    public LongHashSet(int expectedSize) {
+        this.slots = new long[capacityFor(expectedSize)];
+    }
+
+    /**
+     * 由集合创建（忽略null）
+     *
+     * @param values 元素
+     * @return 集合
+     */
+    public static LongHashSet of(Collection<Long> values) {
+        LongHashSet set = new LongHashSet(values.size());
+        for (Long value : values) {
+            if (value != null) {
+                set.add(value);
+            }
+        }
+        return set;
+    }
+
+    /**
+     * 复制当前集合
+     *
+     * @return 新集合
+     */
+    public LongHashSet copy() {
+        LongHashSet copy = new LongHashSet(0);
+        copy.slots = slots.clone();
+        copy.containsZero = containsZero;
+        copy.size = size;
+        return copy;
+    }
+
+    public boolean contains(long value) {
+        if (value == 0L) {
+            return containsZero;
+        }
+        int mask = slots.length - 1;
+        int index = indexOf(value, mask);
+        while (slots[index] != 0L) {
+            if (slots[index] == value) {
+                return true;
+            }
+            index = (index + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * 添加元素
+     *
+     * @return 集合是否发生变化
+     */
+    public boolean add(long value) {
+        if (value == 0L) {
+            if (containsZero) {
+                return false;
+            }
+            containsZero = true;
+            size++;
+            return true;
+        }
+        if ((size + 1) > slots.length * LOAD_FACTOR) {
+            rehash(slots.length << 1);
+        }
+        int mask = slots.length - 1;
+        int index = indexOf(value, mask);
+        while (slots[index] != 0L) {
+            if (slots[index] == value) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+        slots[index] = value;
+        size++;
+        return true;
+    }
+
+    /**
+     * 删除元素（后移删除，不留墓碑）
+     *
+     * @return 集合是否发生变化
+     */
+    public boolean remove(long value) {
+        if (value == 0L) {
+            if (!containsZero) {
+                return false;
+            }
+            containsZero = false;
+            size--;
+            return true;
+        }
+        int mask = slots.length - 1;
+        int index = indexOf(value, mask);
+        while (slots[index] != value) {
+            if (slots[index] == 0L) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+
+        // 将后续同一探测链上的元素前移，填补空位
+        int gap = index;
+        int next = (gap + 1) & mask;
+        while (slots[next] != 0L) {
+            int home = indexOf(slots[next], mask);
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                slots[gap] = slots[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        slots[gap] = 0L;
+        size--;
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * 转换为装箱列表（顺序不保证）
+     */
+    public List<Long> toList() {
+        if (size == 0) {
+            return Collections.emptyList();
+        }
+        List<Long> values = new ArrayList<>(size);
+        if (containsZero) {
+            values.add(0L);
+        }
+        for (long slot : slots) {
+            if (slot != 0L) {
+                values.add(slot);
+            }
+        }
+        return values;
+    }
+
+    private void rehash(int capacity) {
+        long[] old = slots;
+        slots = new long[capacity];
+        int mask = capacity - 1;
+        for (long value : old) {
+            if (value != 0L) {
+                int index = indexOf(value, mask);
+                while (slots[index] != 0L) {
+                    index = (index + 1) & mask;
+                }
+                slots[index] = value;
+            }
+        }
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = 4;
+        while (capacity * LOAD_FACTOR < expectedSize) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static int indexOf(long value, int mask) {
+        long h = value * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,78 @@
+package com.im.imcommunicationsystem.common.utils;
+
+import java.nio.charset.Charset;
+
+/**
+ * 汉字拼音首字母工具
+ * GB2312 一级汉字按拼音排序，按其编码所在区间即可得到声母首字母，无需拼音词典；
+ * 二级汉字（按部首排序）及生僻字无法取得首字母，忽略
+ */
+public final class PinyinInitials {
+
+    private static final Charset GB2312 = Charset.forName("GB2312");
+
+    /**
+     * 各首字母在 GB2312 一级汉字中的起始编码，最后一项为一级汉字的结束边界
+     */
+    private static final int[] BOUNDARIES = {
+            0xB0A1, 0xB0C5, 0xB2C1, 0xB4EE, 0xB6EA, 0xB7A2, 0xB8C1, 0xB9FE, 0xBBF7, 0xBFA6, 0xC0AC, 0xC2E8,
+            0xC4C3, 0xC5B6, 0xC5BE, 0xC6DA, 0xC8BB, 0xC8F6, 0xCBFA, 0xCDDA, 0xCEF4, 0xD1B9, 0xD4D1, 0xD7FA
+    };
+
+    private static final char[] LETTERS = "abcdefghjklmnopqrstwxyz".toCharArray();
+
+    private PinyinInitials() {
+    }
+
+    /**
+     * 取文本的首字母串：汉字取拼音首字母，字母数字转小写保留，其他字符忽略
+     * 例如 "张三Tom" 得到 "zstom"
+     *
+     * @param text 文本
+     * @return 首字母串；不含任何汉字时返回空串（纯字母文本无需重复索引）
+     */
+    public static String of(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+
+        StringBuilder initials = new StringBuilder(text.length());
+        boolean hasHan = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isIdeographic(c)) {
+                char initial = initialOf(c);
+                if (initial != 0) {
+                    initials.append(initial);
+                    hasHan = true;
+                }
+            } else if (Character.isLetterOrDigit(c)) {
+                initials.append(Character.toLowerCase(c));
+            }
+        }
+        return hasHan ? initials.toString() : "";
+    }
+
+    /**
+     * 取单个汉字的拼音首字母
+     *
+     * @param c 汉字
+     * @return 小写首字母，无法确定时返回 0
+     */
+    public static char initialOf(char c) {
+        byte[] bytes = String.valueOf(c).getBytes(GB2312);
+        if (bytes.length != 2) {
+            return 0;
+        }
+        int code = ((bytes[0] & 0xFF) << 8) | (bytes[1] & 0xFF);
+        if (code < BOUNDARIES[0] || code >= BOUNDARIES[LETTERS.length]) {
+            return 0;
+        }
+        for (int i = LETTERS.length - 1; i >= 0; i--) {
+            if (code >= BOUNDARIES[i]) {
+                return LETTERS[i];
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,331 @@
+package com.im.imcommunicationsystem.common.utils;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 名称前缀索引（不可变，线程安全）
+ * 按匹配位置分级建立后缀数组：文本开头为一级；分隔符之后的字母数字及每个汉字为二级；
+ * 其余位置为三级（可选，用于中间片段匹配）。索引项只保存文本编号和偏移量，不复制子串。
+ * 查询在每一级内二分定位后按键顺序扫描，取够数量即返回，开销与结果数相关而与索引规模无关。
+ * 索引项以 int 编号标识所属对象，由调用方映射回实体
+ */
+public final class PrefixIndex {
+
+    /**
+     * 匹配位置在文本开头
+     */
+    public static final int RANK_START = 0;
+
+    /**
+     * 匹配位置在文本中间的词首
+     */
+    public static final int RANK_WORD = 1;
+
+    /**
+     * 匹配位置在词中间
+     */
+    public static final int RANK_INFIX = 2;
+
+    /**
+     * 匹配级别数
+     */
+    public static final int RANK_COUNT = 3;
+
+    private static final PrefixIndex EMPTY = new PrefixIndex(new String[0], new int[0], new int[0], new int[0],
+            new int[RANK_COUNT + 1]);
+
+    private final String[] texts;
+    private final int[] textOwners;
+    private final int[] entryTexts;
+    private final int[] entryOffsets;
+    private final int[] rankStarts;
+
+    private PrefixIndex(String[] texts, int[] textOwners, int[] entryTexts, int[] entryOffsets, int[] rankStarts) {
+        this.texts = texts;
+        this.textOwners = textOwners;
+        this.entryTexts = entryTexts;
+        this.entryOffsets = entryOffsets;
+        this.rankStarts = rankStarts;
+    }
+
+    public static PrefixIndex empty() {
+        return EMPTY;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 规范化文本：全角转半角、统一小写并去除首尾空白
+     *
+     * @param text 原始文本
+     * @return 规范化后的文本，null 视为空串
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT).trim();
+    }
+
+    /**
+     * 按前缀查找匹配的对象编号
+     * 同一对象只返回一次；先按匹配位置分级，同级内按匹配到的文本片段的字典序（完全相同的排最前）
+     *
+     * @param query 查询词（内部会规范化）
+     * @param limit 最多返回的数量
+     * @return 对象编号列表
+     */
+    public List<Integer> search(String query, int limit) {
+        String prefix = normalize(query);
+        if (prefix.isEmpty() || limit <= 0 || entryTexts.length == 0) {
+            return Collections.emptyList();
+        }
+
+        Set<Integer> owners = new LinkedHashSet<>();
+        for (int rank = 0; rank < RANK_COUNT; rank++) {
+            int end = rankStarts[rank + 1];
+            for (int i = lowerBound(prefix, rankStarts[rank], end); i < end && startsWith(i, prefix); i++) {
+                owners.add(textOwners[entryTexts[i]]);
+                if (owners.size() >= limit) {
+                    return new ArrayList<>(owners);
+                }
+            }
+        }
+        return new ArrayList<>(owners);
+    }
+
+    /**
+     * 只在指定匹配级别内按前缀查找（用于合并多个索引的结果），同级内按匹配片段的字典序
+     *
+     * @param query 查询词（内部会规范化）
+     * @param rank 匹配级别
+     * @param limit 最多返回的数量
+     * @return 对象编号列表
+     */
+    public List<Integer> searchRank(String query, int rank, int limit) {
+        String prefix = normalize(query);
+        if (prefix.isEmpty() || limit <= 0 || rank < 0 || rank >= RANK_COUNT) {
+            return Collections.emptyList();
+        }
+
+        Set<Integer> owners = new LinkedHashSet<>();
+        int end = rankStarts[rank + 1];
+        for (int i = lowerBound(prefix, rankStarts[rank], end); i < end && startsWith(i, prefix); i++) {
+            owners.add(textOwners[entryTexts[i]]);
+            if (owners.size() >= limit) {
+                break;
+            }
+        }
+        return new ArrayList<>(owners);
+    }
+
+    /**
+     * 索引项数量
+     */
+    public int size() {
+        return entryTexts.length;
+    }
+
+    private int lowerBound(String prefix, int from, int to) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compareSuffix(texts[entryTexts[mid]], entryOffsets[mid], prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private boolean startsWith(int entry, String prefix) {
+        return texts[entryTexts[entry]].startsWith(prefix, entryOffsets[entry]);
+    }
+
+    /**
+     * 比较 text 从 offset 开始的后缀与 other，不创建子串
+     */
+    private static int compareSuffix(String text, int offset, String other) {
+        int length = Math.min(text.length() - offset, other.length());
+        for (int i = 0; i < length; i++) {
+            char a = text.charAt(offset + i);
+            char b = other.charAt(i);
+            if (a != b) {
+                return a - b;
+            }
+        }
+        return (text.length() - offset) - other.length();
+    }
+
+    /**
+     * 索引构建器（非线程安全）
+     */
+    public static final class Builder {
+
+        private final List<String> texts = new ArrayList<>();
+        private int[] textOwners = new int[16];
+        private int[] entryTexts = new int[64];
+        private int[] entryOffsets = new int[64];
+        private byte[] entryRanks = new byte[64];
+        private int entryCount;
+
+        private Builder() {
+        }
+
+        /**
+         * 为对象添加一段可检索文本（开头及词首可匹配），同一对象可添加多段（如备注和昵称）
+         *
+         * @param owner 对象编号
+         * @param text 文本，为空时忽略
+         * @return 构建器
+         */
+        public Builder add(int owner, String text) {
+            return addText(owner, text, false);
+        }
+
+        /**
+         * 为对象添加一段可检索文本，除开头及词首外，词中间的任意位置也可匹配
+         *
+         * @param owner 对象编号
+         * @param text 文本，为空时忽略
+         * @return 构建器
+         */
+        public Builder addWithInfixes(int owner, String text) {
+            return addText(owner, text, true);
+        }
+
+        public PrefixIndex build() {
+            if (entryCount == 0) {
+                return EMPTY;
+            }
+
+            String[] textArray = texts.toArray(new String[0]);
+            int[] order = new int[entryCount];
+            for (int i = 0; i < entryCount; i++) {
+                order[i] = i;
+            }
+            sort(order, textArray);
+
+            int[] sortedTexts = new int[entryCount];
+            int[] sortedOffsets = new int[entryCount];
+            int[] rankStarts = new int[RANK_COUNT + 1];
+            for (int i = 0; i < entryCount; i++) {
+                int entry = order[i];
+                sortedTexts[i] = entryTexts[entry];
+                sortedOffsets[i] = entryOffsets[entry];
+                rankStarts[entryRanks[entry] + 1]++;
+            }
+            for (int rank = 0; rank < RANK_COUNT; rank++) {
+                rankStarts[rank + 1] += rankStarts[rank];
+            }
+            return new PrefixIndex(textArray, Arrays.copyOf(textOwners, textArray.length),
+                    sortedTexts, sortedOffsets, rankStarts);
+        }
+
+        private Builder addText(int owner, String text, boolean infixes) {
+            String normalized = normalize(text);
+            if (normalized.isEmpty()) {
+                return this;
+            }
+
+            int textIndex = texts.size();
+            texts.add(normalized);
+            if (textIndex == textOwners.length) {
+                textOwners = Arrays.copyOf(textOwners, textIndex * 2);
+            }
+            textOwners[textIndex] = owner;
+
+            for (int i = 0; i < normalized.length(); i++) {
+                if (Character.isWhitespace(normalized.charAt(i))) {
+                    continue;
+                }
+                if (i == 0) {
+                    addEntry(textIndex, i, RANK_START);
+                } else if (isWordStart(normalized, i)) {
+                    addEntry(textIndex, i, RANK_WORD);
+                } else if (infixes) {
+                    addEntry(textIndex, i, RANK_INFIX);
+                }
+            }
+            return this;
+        }
+
+        private void addEntry(int textIndex, int offset, int rank) {
+            if (entryCount == entryTexts.length) {
+                int capacity = entryCount * 2;
+                entryTexts = Arrays.copyOf(entryTexts, capacity);
+                entryOffsets = Arrays.copyOf(entryOffsets, capacity);
+                entryRanks = Arrays.copyOf(entryRanks, capacity);
+            }
+            entryTexts[entryCount] = textIndex;
+            entryOffsets[entryCount] = offset;
+            entryRanks[entryCount] = (byte) rank;
+            entryCount++;
+        }
+
+        private static boolean isWordStart(String text, int index) {
+            char current = text.charAt(index);
+            if (Character.isIdeographic(current)) {
+                return true;
+            }
+            return Character.isLetterOrDigit(current) && !Character.isLetterOrDigit(text.charAt(index - 1));
+        }
+
+        /**
+         * 按（级别，后缀）对索引项编号做归并排序，避免装箱
+         */
+        private void sort(int[] order, String[] textArray) {
+            int[] buffer = new int[order.length];
+            for (int width = 1; width < order.length; width <<= 1) {
+                for (int low = 0; low < order.length - width; low += width << 1) {
+                    int mid = low + width;
+                    int high = Math.min(low + (width << 1), order.length);
+                    merge(order, buffer, low, mid, high, textArray);
+                }
+            }
+        }
+
+        private void merge(int[] order, int[] buffer, int low, int mid, int high, String[] textArray) {
+            System.arraycopy(order, low, buffer, low, high - low);
+            int left = low;
+            int right = mid;
+            for (int i = low; i < high; i++) {
+                if (left < mid && (right >= high || compare(buffer[left], buffer[right], textArray) <= 0)) {
+                    order[i] = buffer[left++];
+                } else {
+                    order[i] = buffer[right++];
+                }
+            }
+        }
+
+        private int compare(int a, int b, String[] textArray) {
+            if (entryRanks[a] != entryRanks[b]) {
+                return entryRanks[a] - entryRanks[b];
+            }
+            String textA = textArray[entryTexts[a]];
+            String textB = textArray[entryTexts[b]];
+            int offsetA = entryOffsets[a];
+            int offsetB = entryOffsets[b];
+            int length = Math.min(textA.length() - offsetA, textB.length() - offsetB);
+            for (int i = 0; i < length; i++) {
+                char ca = textA.charAt(offsetA + i);
+                char cb = textB.charAt(offsetB + i);
+                if (ca != cb) {
+                    return ca - cb;
+                }
+            }
+            return (textA.length() - offsetA) - (textB.length() - offsetB);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.im.imcommunicationsystem.group.config;
 
 import com.im.imcommunicationsystem.group.utils.GroupUtils;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 
@@ -62,6 +63,79 @@ public class GroupConfig {
     @Value("${im.group.invite-base-url:http://localhost:3001/group}")
     private String inviteBaseUrl;
 
+    /**
+     * 投票记录每批写回的条数
+     */
+    @Value("${im.group.poll.vote-flush-batch-size:500}")
+    private int pollVoteFlushBatchSize;
+
+    /**
+     * 投票记录连续写回失败多少次后告警，失败的记录会一直重试
+     */
+    @Value("${im.group.poll.vote-flush-alert-attempts:5}")
+    private int pollVoteFlushAlertAttempts;
+
+    /**
+     * 内存计票闲置多久后释放（分钟）
+     */
+    @Value("${im.group.poll.tally-idle-minutes:10}")
+    private int pollTallyIdleMinutes;
+
+    /**
+     * 投票到期预读窗口（分钟），应大于预读间隔
+     */
+    @Value("${im.group.poll.expiry-horizon-minutes:5}")
+    private int pollExpiryHorizonMinutes;
+
+    /**
+     * 超大群成员数阈值，成员数达到该值的群聊改为读扩散投递，默认 0 表示关闭；
+     * 读扩散只推送 CONVERSATION_SEQ 通知，需客户端支持后再开启，开启时必须小于最大群成员数量
+     */
+    @Value("${im.group.supergroup-member-threshold:0}")
+    private int supergroupMemberThreshold;
+
+    /**
+     * 群组权限本地缓存有效期（秒），其他实例的变更最多延迟该时间生效
+     */
+    @Value("${im.group.permission.local-ttl-seconds:5}")
+    private int permissionLocalTtlSeconds;
+
+    /**
+     * 群组权限本地缓存最大条数
+     */
+    @Value("${im.group.permission.local-cache-size:50000}")
+    private int permissionCacheSize;
+
+    /**
+     * 群组权限 Redis 缓存有效期（秒）
+     */
+    @Value("${im.cache.group-permissions-ttl:600}")
+    private int permissionCacheTtlSeconds;
+
+    /**
+     * @成员索引缓存的群组数
+     */
+    @Value("${im.group.mention.cache-size:2000}")
+    private int mentionCacheSize;
+
+    /**
+     * @成员索引有效期（秒），成员昵称变化最多延迟该时间可被检索到
+     */
+    @Value("${im.group.mention.cache-ttl-seconds:120}")
+    private int mentionCacheTtlSeconds;
+
+    /**
+     * 校验配置：开启读扩散时阈值不小于成员上限则没有群能达到阈值，读扩散永远不会生效
+     */
+    @PostConstruct
+    public void validate() {
+        int threshold = getSupergroupMemberThreshold();
+        if (threshold > 0 && threshold >= getMaxMembers()) {
+            throw new IllegalStateException("im.group.supergroup-member-threshold(" + threshold
+                    + ") 必须小于 im.group.max-members(" + getMaxMembers() + ")");
+        }
+    }
+
     /**
      * 获取最大群组数量限制
      * 
@@ -133,4 +207,94 @@ public class GroupConfig {
     public String getInviteBaseUrl() {
         return inviteBaseUrl;
     }
-} 
\ No newline at end of file
+
+    /**
+     * 获取投票记录每批写回的条数
+     * 
+     * @return 投票记录每批写回的条数
+     */
+    public int getPollVoteFlushBatchSize() {
+        return pollVoteFlushBatchSize > 0 ? pollVoteFlushBatchSize : 500;
+    }
+
+    /**
+     * 获取投票记录写回失败的告警次数
+     * 
+     * @return 告警次数
+     */
+    public int getPollVoteFlushAlertAttempts() {
+        return pollVoteFlushAlertAttempts > 0 ? pollVoteFlushAlertAttempts : 5;
+    }
+
+    /**
+     * 获取内存计票闲置释放时间（分钟）
+     * 
+     * @return 闲置释放时间
+     */
+    public int getPollTallyIdleMinutes() {
+        return pollTallyIdleMinutes > 0 ? pollTallyIdleMinutes : 10;
+    }
+
+    /**
+     * 获取投票到期预读窗口（分钟）
+     * 
+     * @return 预读窗口
+     */
+    public int getPollExpiryHorizonMinutes() {
+        return pollExpiryHorizonMinutes > 0 ? pollExpiryHorizonMinutes : 5;
+    }
+
+    /**
+     * 获取超大群成员数阈值
+     * 
+     * @return 成员数阈值，0 表示关闭超大群模式
+     */
+    public int getSupergroupMemberThreshold() {
+        return Math.max(supergroupMemberThreshold, 0);
+    }
+
+    /**
+     * 获取群组权限本地缓存有效期（秒）
+     * 
+     * @return 本地缓存有效期
+     */
+    public int getPermissionLocalTtlSeconds() {
+        return permissionLocalTtlSeconds >= 0 ? permissionLocalTtlSeconds : 5;
+    }
+
+    /**
+     * 获取群组权限本地缓存最大条数
+     * 
+     * @return 最大条数
+     */
+    public int getPermissionCacheSize() {
+        return permissionCacheSize > 0 ? permissionCacheSize : 50000;
+    }
+
+    /**
+     * 获取群组权限 Redis 缓存有效期（秒）
+     * 
+     * @return Redis 缓存有效期
+     */
+    public int getPermissionCacheTtlSeconds() {
+        return permissionCacheTtlSeconds > 0 ? permissionCacheTtlSeconds : 600;
+    }
+
+    /**
+     * 获取@成员索引缓存的群组数
+     * 
+     * @return 缓存的群组数
+     */
+    public int getMentionCacheSize() {
+        return mentionCacheSize > 0 ? mentionCacheSize : 2000;
+    }
+
+    /**
+     * 获取@成员索引有效期（秒）
+     * 
+     * @return 索引有效期
+     */
+    public int getMentionCacheTtlSeconds() {
+        return mentionCacheTtlSeconds > 0 ? mentionCacheTtlSeconds : 120;
+    }
+}
\ No newline at end of file
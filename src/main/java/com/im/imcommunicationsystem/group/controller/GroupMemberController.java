@@ -1,6 +1,8 @@
 package com.im.imcommunicationsystem.group.controller;
 
 import com.im.imcommunicationsystem.common.dto.ApiResponse;
+import com.im.imcommunicationsystem.common.utils.SecurityUtils;
+import com.im.imcommunicationsystem.group.dto.response.GroupMemberPageResponse;
 import com.im.imcommunicationsystem.group.dto.response.GroupMemberResponse;
 import com.im.imcommunicationsystem.group.service.GroupMemberService;
 import jakarta.servlet.http.HttpServletRequest;
@@ -25,6 +27,7 @@ import java.util.Map;
 public class GroupMemberController {
 
     private final GroupMemberService groupMemberService;
+    private final SecurityUtils securityUtils;
 
     /**
      * 获取群成员列表
@@ -39,6 +42,37 @@ public class GroupMemberController {
         return ApiResponse.success(members);
     }
 
+    /**
+     * 按游标分页获取群成员列表（群主、管理员在前）
+     */
+    @GetMapping("/cursor")
+    public ApiResponse<GroupMemberPageResponse> getGroupMembersByCursor(
+            @PathVariable Long groupId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+
+        GroupMemberPageResponse members = groupMemberService.getGroupMembersByCursor(groupId, cursor, size);
+        return ApiResponse.success(members);
+    }
+
+    /**
+     * 搜索可@的群成员
+     */
+    @GetMapping("/mention")
+    public ApiResponse<List<GroupMemberResponse>> searchMentionCandidates(
+            @PathVariable Long groupId,
+            @RequestParam(required = false) String keyword,
+            @RequestParam(defaultValue = "10") int limit) {
+
+        Long userId = securityUtils.getCurrentUserId();
+        if (userId == null) {
+            return ApiResponse.unauthorized("未授权，请先登录");
+        }
+
+        List<GroupMemberResponse> members = groupMemberService.searchMentionCandidates(groupId, userId, keyword, limit);
+        return ApiResponse.success(members);
+    }
+
     /**
      * 获取群管理员列表
      */
@@ -0,0 +1,33 @@
+package com.im.imcommunicationsystem.group.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 群成员游标分页响应DTO
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GroupMemberPageResponse {
+
+    /**
+     * 本页成员（群主、管理员、普通成员依次排列，同角色按用户ID排序）
+     */
+    private List<GroupMemberResponse> members;
+
+    /**
+     * 下一页游标（格式为 角色:用户ID），没有更多时为null
+     */
+    private String nextCursor;
+
+    /**
+     * 是否还有更多
+     */
+    private Boolean hasMore;
+}
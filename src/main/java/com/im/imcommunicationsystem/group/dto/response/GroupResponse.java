@@ -61,6 +61,11 @@ public class GroupResponse {
      */
     private Boolean isAllMuted;
     
+    /**
+     * 关联会话ID（仅群组更新通知中返回）
+     */
+    private Long conversationId;
+    
     /**
      * 当前用户角色
      */
@@ -1,5 +1,7 @@
 package com.im.imcommunicationsystem.group.entity;
 
+import com.im.imcommunicationsystem.common.listener.StatEntityListener;
+import com.im.imcommunicationsystem.group.permission.GroupPermissionEntityListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -13,6 +15,7 @@ import java.time.LocalDateTime;
  * 群组实体类
  */
 @Entity
+@EntityListeners({GroupPermissionEntityListener.class, StatEntityListener.class})
 @Table(name = "`groups`", indexes = {
     @Index(name = "idx_group_owner_id", columnList = "owner_id")
 })
@@ -67,6 +70,12 @@ public class Group {
      */
     @Column(name = "banned_until")
     private LocalDateTime bannedUntil;
+
+    /**
+     * 解散时间，非空表示已解散、关联数据正在后台清理
+     */
+    @Column(name = "dissolved_at")
+    private LocalDateTime dissolvedAt;
     
     @PrePersist
     protected void onCreate() {
@@ -1,6 +1,7 @@
 package com.im.imcommunicationsystem.group.entity;
 
 import com.im.imcommunicationsystem.group.enums.GroupMemberRole;
+import com.im.imcommunicationsystem.group.permission.GroupPermissionEntityListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -13,6 +14,7 @@ import java.time.LocalDateTime;
  * 群成员实体类
  */
 @Entity
+@EntityListeners(GroupPermissionEntityListener.class)
 @Table(name = "group_members")
 @Data
 @Builder
@@ -0,0 +1,45 @@
+package com.im.imcommunicationsystem.group.enums;
+
+/**
+ * 群组操作枚举
+ * 每种操作声明所需的最低角色，以及群组封禁、成员禁言时是否禁止
+ */
+public enum GroupAction {
+    VIEW(GroupMemberRole.member, false, false),                 // 查看群组内容
+    SEND_MESSAGE(GroupMemberRole.member, true, true),           // 发送消息
+    CREATE_POLL(GroupMemberRole.member, true, false),           // 创建投票
+    INVITE_MEMBERS(GroupMemberRole.member, true, false),        // 邀请成员
+    MANAGE_MEMBERS(GroupMemberRole.admin, true, false),         // 移除成员、设置禁言、审批入群
+    MANAGE_ANNOUNCEMENTS(GroupMemberRole.admin, true, false),   // 管理公告
+    UPDATE_GROUP_INFO(GroupMemberRole.admin, true, false),      // 修改群资料
+    MANAGE_ADMINS(GroupMemberRole.owner, true, false),          // 设置管理员
+    DISSOLVE_GROUP(GroupMemberRole.owner, false, false);        // 解散群组
+
+    private final GroupMemberRole minRole;
+    private final boolean blockedWhenBanned;
+    private final boolean blockedWhenMuted;
+
+    GroupAction(GroupMemberRole minRole, boolean blockedWhenBanned, boolean blockedWhenMuted) {
+        this.minRole = minRole;
+        this.blockedWhenBanned = blockedWhenBanned;
+        this.blockedWhenMuted = blockedWhenMuted;
+    }
+
+    /**
+     * 判断角色是否满足该操作的要求（群主 > 管理员 > 普通成员）
+     *
+     * @param role 成员角色
+     * @return 是否满足
+     */
+    public boolean permits(GroupMemberRole role) {
+        return role != null && role.ordinal() <= minRole.ordinal();
+    }
+
+    public boolean isBlockedWhenBanned() {
+        return blockedWhenBanned;
+    }
+
+    public boolean isBlockedWhenMuted() {
+        return blockedWhenMuted;
+    }
+}
@@ -0,0 +1,32 @@
+package com.im.imcommunicationsystem.group.event;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * 群组权限变更事件
+ * 群组（解散、封禁）或群成员（加入、移除、角色、禁言）写入数据库时触发，用于失效权限缓存
+ */
+@Getter
+public class GroupPermissionChangedEvent extends ApplicationEvent {
+
+    private final Long groupId;
+
+    /**
+     * 变更的成员ID，群组级变更时为 null
+     */
+    private final Long userId;
+
+    /**
+     * 创建群组权限变更事件
+     *
+     * @param source 事件源
+     * @param groupId 群组ID
+     * @param userId 成员ID，群组级变更时为 null
+     */
+    public GroupPermissionChangedEvent(Object source, Long groupId, Long userId) {
+        super(source);
+        this.groupId = groupId;
+        this.userId = userId;
+    }
+}
@@ -0,0 +1,35 @@
+package com.im.imcommunicationsystem.group.event;
+
+import com.im.imcommunicationsystem.group.dto.response.GroupResponse;
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * 群组资料更新事件
+ * 群名称、头像、介绍或审批设置修改后触发，由投影器同步关联会话并通知群成员
+ */
+@Getter
+public class GroupProfileUpdatedEvent extends ApplicationEvent {
+
+    private final Long groupId;
+    private final String name;
+    private final String avatarUrl;
+    private final GroupResponse group;
+
+    /**
+     * 创建群组资料更新事件
+     *
+     * @param source 事件源
+     * @param groupId 群组ID
+     * @param name 更新后的群名称
+     * @param avatarUrl 更新后的群头像
+     * @param group 推送给群成员的群组信息
+     */
+    public GroupProfileUpdatedEvent(Object source, Long groupId, String name, String avatarUrl, GroupResponse group) {
+        super(source);
+        this.groupId = groupId;
+        this.name = name;
+        this.avatarUrl = avatarUrl;
+        this.group = group;
+    }
+}
@@ -0,0 +1,39 @@
+package com.im.imcommunicationsystem.group.event;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * 投票结束事件
+ * 投票到达结束时间被自动关闭，或被创建者、管理员手动结束后触发
+ */
+@Getter
+public class PollEndedEvent extends ApplicationEvent {
+
+    /**
+     * 结束原因
+     */
+    public enum Reason {
+        EXPIRED,   // 到达结束时间
+        MANUAL     // 手动结束
+    }
+
+    private final Long pollId;
+    private final Long groupId;
+    private final Reason reason;
+
+    /**
+     * 创建投票结束事件
+     *
+     * @param source 事件源
+     * @param pollId 投票ID
+     * @param groupId 群组ID
+     * @param reason 结束原因
+     */
+    public PollEndedEvent(Object source, Long pollId, Long groupId, Reason reason) {
+        super(source);
+        this.pollId = pollId;
+        this.groupId = groupId;
+        this.reason = reason;
+    }
+}
@@ -0,0 +1,49 @@
+package com.im.imcommunicationsystem.group.listener;
+
+import com.im.imcommunicationsystem.common.service.WebSocketService;
+import com.im.imcommunicationsystem.group.dto.response.GroupResponse;
+import com.im.imcommunicationsystem.group.event.GroupProfileUpdatedEvent;
+import com.im.imcommunicationsystem.message.repository.ConversationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 群组资料投影器
+ * 提交前按 related_group_id 索引同步关联会话的名称和头像（与群组更新同一事务），
+ * 提交后向群成员推送一条群组更新通知，其中带有关联会话ID供客户端刷新会话列表
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class GroupProfileProjector {
+
+    private final ConversationRepository conversationRepository;
+    private final WebSocketService webSocketService;
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void syncConversation(GroupProfileUpdatedEvent event) {
+        int updated = conversationRepository.updateGroupProfile(event.getGroupId(), event.getName(),
+                event.getAvatarUrl(), LocalDateTime.now());
+        if (updated == 0) {
+            log.warn("未找到与群组{}关联的会话", event.getGroupId());
+        } else {
+            log.debug("同步群组关联会话信息: groupId={}, conversations={}", event.getGroupId(), updated);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void publish(GroupProfileUpdatedEvent event) {
+        GroupResponse group = event.getGroup();
+        List<Long> conversationIds = conversationRepository.findIdsByRelatedGroupId(event.getGroupId());
+        if (!conversationIds.isEmpty()) {
+            group.setConversationId(conversationIds.get(0));
+        }
+        webSocketService.sendGroupUpdate(event.getGroupId(), group, "UPDATE", null);
+    }
+}
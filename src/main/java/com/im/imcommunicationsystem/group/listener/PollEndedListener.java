@@ -0,0 +1,39 @@
+package com.im.imcommunicationsystem.group.listener;
+
+import com.im.imcommunicationsystem.common.service.WebSocketService;
+import com.im.imcommunicationsystem.group.event.PollEndedEvent;
+import com.im.imcommunicationsystem.group.service.PollTallyService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 投票结束事件监听器
+ * 在状态更新提交后释放内存计票，并通知群成员投票已结束
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class PollEndedListener {
+
+    private final PollTallyService pollTallyService;
+    private final WebSocketService webSocketService;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handlePollEndedEvent(PollEndedEvent event) {
+        try {
+            pollTallyService.release(event.getPollId());
+        } catch (Exception e) {
+            log.error("释放投票计票失败: pollId={}", event.getPollId(), e);
+        }
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("pollId", event.getPollId());
+        data.put("reason", event.getReason().name());
+        webSocketService.sendGroupUpdate(event.getGroupId(), data, "POLL_ENDED", null);
+    }
+}
@@ -0,0 +1,70 @@
+package com.im.imcommunicationsystem.group.permission;
+
+import com.im.imcommunicationsystem.group.entity.Group;
+
+import java.time.LocalDateTime;
+
+/**
+ * 群组级权限状态（解散、封禁），不可变
+ * 定时封禁按截止时间在读取时判断，到期后无需失效缓存
+ */
+public final class GroupAccessState {
+
+    private final boolean dissolved;
+    private final boolean banned;
+    private final LocalDateTime bannedUntil;
+    private final String bannedReason;
+    private final long loadedAt;
+
+    private GroupAccessState(boolean dissolved, boolean banned, LocalDateTime bannedUntil, String bannedReason,
+                             long loadedAt) {
+        this.dissolved = dissolved;
+        this.banned = banned;
+        this.bannedUntil = bannedUntil;
+        this.bannedReason = bannedReason;
+        this.loadedAt = loadedAt;
+    }
+
+    public static GroupAccessState of(Group group) {
+        return new GroupAccessState(group.getDissolvedAt() != null, Boolean.TRUE.equals(group.getIsBanned()),
+                group.getBannedUntil(), group.getBannedReason(), System.currentTimeMillis());
+    }
+
+    public boolean isDissolved() {
+        return dissolved;
+    }
+
+    /**
+     * 群组当前是否处于封禁中
+     */
+    public boolean isBanned(LocalDateTime now) {
+        return banned && (bannedUntil == null || bannedUntil.isAfter(now));
+    }
+
+    public String getBannedReason() {
+        return bannedReason;
+    }
+
+    long getLoadedAt() {
+        return loadedAt;
+    }
+
+    /**
+     * 编码为 Redis 中保存的字符串：解散|封禁|封禁截止时间|封禁原因
+     */
+    String encode() {
+        return (dissolved ? "1" : "0") + "|" + (banned ? "1" : "0") + "|"
+                + (bannedUntil != null ? bannedUntil.toString() : "") + "|"
+                + (bannedReason != null ? bannedReason : "");
+    }
+
+    static GroupAccessState decode(String value) {
+        String[] parts = value.split("\\|", 4);
+        if (parts.length < 4) {
+            return null;
+        }
+        return new GroupAccessState("1".equals(parts[0]), "1".equals(parts[1]),
+                parts[2].isEmpty() ? null : LocalDateTime.parse(parts[2]),
+                parts[3].isEmpty() ? null : parts[3], System.currentTimeMillis());
+    }
+}
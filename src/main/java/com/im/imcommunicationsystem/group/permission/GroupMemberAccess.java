@@ -0,0 +1,83 @@
+package com.im.imcommunicationsystem.group.permission;
+
+import com.im.imcommunicationsystem.group.entity.GroupMember;
+import com.im.imcommunicationsystem.group.enums.GroupMemberRole;
+
+import java.time.LocalDateTime;
+
+/**
+ * 成员级权限状态（角色、禁言），不可变；非成员同样缓存
+ * 定时禁言按截止时间在读取时判断，到期后无需失效缓存
+ */
+public final class GroupMemberAccess {
+
+    private static final String NON_MEMBER = "-";
+
+    private final GroupMemberRole role;
+    private final boolean muted;
+    private final LocalDateTime mutedUntil;
+    private final long loadedAt;
+
+    private GroupMemberAccess(GroupMemberRole role, boolean muted, LocalDateTime mutedUntil, long loadedAt) {
+        this.role = role;
+        this.muted = muted;
+        this.mutedUntil = mutedUntil;
+        this.loadedAt = loadedAt;
+    }
+
+    public static GroupMemberAccess of(GroupMember member) {
+        if (member == null) {
+            return nonMember();
+        }
+        return new GroupMemberAccess(member.getRole(), Boolean.TRUE.equals(member.getIsMuted()),
+                member.getMutedUntil(), System.currentTimeMillis());
+    }
+
+    public static GroupMemberAccess nonMember() {
+        return new GroupMemberAccess(null, false, null, System.currentTimeMillis());
+    }
+
+    public boolean isMember() {
+        return role != null;
+    }
+
+    /**
+     * 成员角色，非成员时返回 null
+     */
+    public GroupMemberRole getRole() {
+        return role;
+    }
+
+    /**
+     * 成员当前是否处于禁言中
+     */
+    public boolean isMuted(LocalDateTime now) {
+        return muted && (mutedUntil == null || mutedUntil.isAfter(now));
+    }
+
+    long getLoadedAt() {
+        return loadedAt;
+    }
+
+    /**
+     * 编码为 Redis 中保存的字符串：角色|禁言|禁言截止时间，非成员为 "-"
+     */
+    String encode() {
+        if (role == null) {
+            return NON_MEMBER;
+        }
+        return role.name() + "|" + (muted ? "1" : "0") + "|" + (mutedUntil != null ? mutedUntil.toString() : "");
+    }
+
+    static GroupMemberAccess decode(String value) {
+        if (NON_MEMBER.equals(value)) {
+            return nonMember();
+        }
+        String[] parts = value.split("\\|", 3);
+        if (parts.length < 3) {
+            return null;
+        }
+        return new GroupMemberAccess(GroupMemberRole.fromValue(parts[0]), "1".equals(parts[1]),
+                parts[2].isEmpty() ? null : LocalDateTime.parse(parts[2]), System.currentTimeMillis());
+    }
+}
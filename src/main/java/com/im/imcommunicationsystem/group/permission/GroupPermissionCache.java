@@ -0,0 +1,249 @@
+package com.im.imcommunicationsystem.group.permission;
+
+import com.im.imcommunicationsystem.group.config.GroupConfig;
+import com.im.imcommunicationsystem.group.event.GroupPermissionChangedEvent;
+import com.im.imcommunicationsystem.group.repository.GroupMemberRepository;
+import com.im.imcommunicationsystem.group.repository.GroupRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 群组权限两级缓存
+ * 本地 LRU 缓存保存时间很短，用于吸收热点群组的重复检查；Redis 缓存在各实例间共享，
+ * 有效期取 im.cache.group-permissions-ttl。实体变更时同时删除两级缓存，事务完成后再删除一次；
+ * 每次删除都会递增该键的版本号，写入 Redis 的值带有读取数据库前看到的版本号，读取时版本号不一致即视为未命中，
+ * 因此在事务提交前读到旧状态的请求即使晚于删除写回，也不会让旧值在 Redis 中保留到过期。
+ * 其他实例的本地缓存在短有效期后自然过期。Redis 不可用时直接查询数据库，并在一段时间内不再从 Redis 读写
+ */
+@Component
+@Slf4j
+public class GroupPermissionCache {
+
+    private static final String GROUP_KEY_PREFIX = "im:group:perm:g:";
+    private static final String MEMBER_KEY_PREFIX = "im:group:perm:m:";
+    private static final String VERSION_KEY_SUFFIX = ":v";
+    private static final long REDIS_RETRY_MILLIS = 30_000L;
+
+    private final GroupRepository groupRepository;
+    private final GroupMemberRepository groupMemberRepository;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final GroupConfig groupConfig;
+    private final Map<Long, GroupAccessState> groups;
+    private final Map<String, GroupMemberAccess> members;
+
+    /**
+     * Redis 访问失败后暂停使用的截止时间
+     */
+    private volatile long redisRetryAt;
+
+    public GroupPermissionCache(GroupRepository groupRepository,
+                                GroupMemberRepository groupMemberRepository,
+                                RedisTemplate<String, Object> redisTemplate,
+                                GroupConfig groupConfig) {
+        this.groupRepository = groupRepository;
+        this.groupMemberRepository = groupMemberRepository;
+        this.redisTemplate = redisTemplate;
+        this.groupConfig = groupConfig;
+        this.groups = lruMap(groupConfig.getPermissionCacheSize());
+        this.members = lruMap(groupConfig.getPermissionCacheSize());
+    }
+
+    /**
+     * 获取群组级权限状态
+     *
+     * @param groupId 群组ID
+     * @return 群组状态，群组不存在时返回 null
+     */
+    public GroupAccessState getGroup(Long groupId) {
+        GroupAccessState state = groups.get(groupId);
+        if (state != null && !isExpired(state.getLoadedAt())) {
+            return state;
+        }
+
+        String key = GROUP_KEY_PREFIX + groupId;
+        RedisEntry cached = redisGet(key);
+        state = cached.value != null ? GroupAccessState.decode(cached.value) : null;
+        if (state == null) {
+            state = groupRepository.findById(groupId).map(GroupAccessState::of).orElse(null);
+            if (state == null) {
+                return null;
+            }
+            redisSet(key, cached.version, state.encode());
+        }
+        groups.put(groupId, state);
+        return state;
+    }
+
+    /**
+     * 获取成员级权限状态
+     *
+     * @param groupId 群组ID
+     * @param userId 用户ID
+     * @return 成员状态，非成员时返回非成员状态
+     */
+    public GroupMemberAccess getMember(Long groupId, Long userId) {
+        String suffix = groupId + ":" + userId;
+        GroupMemberAccess access = members.get(suffix);
+        if (access != null && !isExpired(access.getLoadedAt())) {
+            return access;
+        }
+
+        String key = MEMBER_KEY_PREFIX + suffix;
+        RedisEntry cached = redisGet(key);
+        access = cached.value != null ? GroupMemberAccess.decode(cached.value) : null;
+        if (access == null) {
+            access = GroupMemberAccess.of(groupMemberRepository.findByIdGroupIdAndIdUserId(groupId, userId).orElse(null));
+            redisSet(key, cached.version, access.encode());
+        }
+        members.put(suffix, access);
+        return access;
+    }
+
+    /**
+     * 删除群组级状态
+     *
+     * @param groupId 群组ID
+     */
+    public void evictGroup(Long groupId) {
+        groups.remove(groupId);
+        redisDelete(GROUP_KEY_PREFIX + groupId);
+    }
+
+    /**
+     * 删除成员级状态
+     *
+     * @param groupId 群组ID
+     * @param userId 用户ID
+     */
+    public void evictMember(Long groupId, Long userId) {
+        String suffix = groupId + ":" + userId;
+        members.remove(suffix);
+        redisDelete(MEMBER_KEY_PREFIX + suffix);
+    }
+
+    /**
+     * 群组或成员变更时立即失效缓存，并在事务完成后再次失效
+     */
+    @EventListener
+    public void onPermissionChanged(GroupPermissionChangedEvent event) {
+        evict(event);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(event);
+                }
+            });
+        }
+    }
+
+    // ==================== 私有辅助方法 ====================
+
+    private void evict(GroupPermissionChangedEvent event) {
+        if (event.getUserId() != null) {
+            evictMember(event.getGroupId(), event.getUserId());
+        } else {
+            evictGroup(event.getGroupId());
+        }
+    }
+
+    private boolean isExpired(long loadedAt) {
+        return System.currentTimeMillis() - loadedAt > groupConfig.getPermissionLocalTtlSeconds() * 1000L;
+    }
+
+    /**
+     * 一次读取值和版本号；值中记录的版本号与当前版本号不一致时按未命中处理
+     */
+    private RedisEntry redisGet(String key) {
+        List<Object> values = redisCall(() -> redisTemplate.opsForValue().multiGet(List.of(key, key + VERSION_KEY_SUFFIX)));
+        if (values == null || values.size() < 2) {
+            return RedisEntry.MISS;
+        }
+        long version = values.get(1) instanceof Number ? ((Number) values.get(1)).longValue() : 0L;
+        if (!(values.get(0) instanceof String)) {
+            return new RedisEntry(null, version);
+        }
+        String raw = (String) values.get(0);
+        int separator = raw.indexOf('#');
+        if (separator <= 0 || !raw.substring(0, separator).equals(Long.toString(version))) {
+            return new RedisEntry(null, version);
+        }
+        return new RedisEntry(raw.substring(separator + 1), version);
+    }
+
+    /**
+     * 写入时带上读取数据库之前看到的版本号，期间发生的删除会使这次写入失效
+     */
+    private void redisSet(String key, long version, String value) {
+        redisCall(() -> {
+            redisTemplate.opsForValue().set(key, version + "#" + value,
+                    groupConfig.getPermissionCacheTtlSeconds(), TimeUnit.SECONDS);
+            return null;
+        });
+    }
+
+    /**
+     * 删除不受暂停限制，避免 Redis 恢复后残留变更前的状态；
+     * 先递增版本号再删除值，版本号的有效期长于值，保证晚到的旧值在其有效期内都不会被读到
+     */
+    private void redisDelete(String key) {
+        try {
+            String versionKey = key + VERSION_KEY_SUFFIX;
+            redisTemplate.opsForValue().increment(versionKey);
+            redisTemplate.expire(versionKey, groupConfig.getPermissionCacheTtlSeconds() * 2L, TimeUnit.SECONDS);
+            redisTemplate.delete(key);
+        } catch (Exception e) {
+            redisRetryAt = System.currentTimeMillis() + REDIS_RETRY_MILLIS;
+            log.warn("删除群组权限缓存失败: key={}, error={}", key, e.getMessage());
+        }
+    }
+
+    private <T> T redisCall(Supplier<T> call) {
+        if (System.currentTimeMillis() < redisRetryAt) {
+            return null;
+        }
+        try {
+            return call.get();
+        } catch (Exception e) {
+            redisRetryAt = System.currentTimeMillis() + REDIS_RETRY_MILLIS;
+            log.warn("群组权限缓存访问Redis失败，暂时只使用本地缓存: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Redis 中读到的值（版本不一致或未命中时为 null）及当前版本号
+     */
+    private static final class RedisEntry {
+
+        static final RedisEntry MISS = new RedisEntry(null, 0L);
+
+        final String value;
+        final long version;
+
+        RedisEntry(String value, long version) {
+            this.value = value;
+            this.version = version;
+        }
+    }
+
+    private static <K, V> Map<K, V> lruMap(int maxEntries) {
+        return Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+}
@@ -0,0 +1,36 @@
+package com.im.imcommunicationsystem.group.permission;
+
+import com.im.imcommunicationsystem.group.entity.Group;
+import com.im.imcommunicationsystem.group.entity.GroupMember;
+import com.im.imcommunicationsystem.group.event.GroupPermissionChangedEvent;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * 群组权限实体监听器
+ * 群组和群成员实体写入时发布权限变更事件，所有经由实体的修改（包括派生删除方法）都会触发；
+ * 批量 JPQL/原生语句不经过实体，只用于群组解散后的清理，此时群组级状态已拒绝所有操作。
+ * 由 Hibernate 通过 Spring 容器创建
+ */
+public class GroupPermissionEntityListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public GroupPermissionEntityListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChanged(Object entity) {
+        if (entity instanceof GroupMember member && member.getId() != null) {
+            eventPublisher.publishEvent(new GroupPermissionChangedEvent(this, member.getId().getGroupId(),
+                    member.getId().getUserId()));
+        } else if (entity instanceof Group group && group.getId() != null) {
+            eventPublisher.publishEvent(new GroupPermissionChangedEvent(this, group.getId(), null));
+        }
+    }
+}
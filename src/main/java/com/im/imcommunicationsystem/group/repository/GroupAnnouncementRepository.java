@@ -6,6 +6,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -45,4 +46,12 @@ public interface GroupAnnouncementRepository extends JpaRepository<GroupAnnounce
     @Transactional
     @Query("DELETE FROM GroupAnnouncement a WHERE a.groupId = ?1")
     void deleteByGroupId(Long groupId);
+
+    /**
+     * 分批删除群组公告（后台清理任务使用）
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM group_announcements WHERE group_id = :groupId LIMIT :limit", nativeQuery = true)
+    int deleteChunkByGroupId(@Param("groupId") Long groupId, @Param("limit") int limit);
 } 
\ No newline at end of file
@@ -7,6 +7,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -70,4 +71,12 @@ public interface GroupJoinRequestRepository extends JpaRepository<GroupJoinReque
     @Transactional
     @Query("DELETE FROM GroupJoinRequest r WHERE r.groupId = ?1")
     void deleteByGroupId(Long groupId);
+
+    /**
+     * 分批删除群组加入请求（后台清理任务使用）
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM group_join_requests WHERE group_id = :groupId LIMIT :limit", nativeQuery = true)
+    int deleteChunkByGroupId(@Param("groupId") Long groupId, @Param("limit") int limit);
 } 
\ No newline at end of file
@@ -12,6 +12,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -86,6 +87,12 @@ public interface GroupMemberRepository extends JpaRepository<GroupMember, GroupM
      */
     @Query("SELECT gm.id.groupId, COUNT(gm) FROM GroupMember gm WHERE gm.id.groupId IN :groupIds GROUP BY gm.id.groupId")
     List<Object[]> countMembersByGroupIds(@Param("groupIds") List<Long> groupIds);
+
+    /**
+     * 只查询群组的成员用户ID，不加载成员实体
+     */
+    @Query("SELECT gm.id.userId FROM GroupMember gm WHERE gm.id.groupId = :groupId")
+    List<Long> findUserIdsByGroupId(@Param("groupId") Long groupId);
     
     /**
      * 通过群组ID删除所有成员
@@ -94,4 +101,59 @@ public interface GroupMemberRepository extends JpaRepository<GroupMember, GroupM
     @Transactional
     @Query("DELETE FROM GroupMember gm WHERE gm.id.groupId = :groupId")
     int deleteAllByIdGroupId(@Param("groupId") Long groupId);
+
+    /**
+     * 分批删除群组成员（后台清理任务使用）
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM group_members WHERE group_id = :groupId LIMIT :limit", nativeQuery = true)
+    int deleteChunkByGroupId(@Param("groupId") Long groupId, @Param("limit") int limit);
+
+    /**
+     * 按用户ID游标查询群组内某一角色的成员（走 group_id、role、user_id 联合索引）
+     */
+    @Query("SELECT gm FROM GroupMember gm WHERE gm.id.groupId = :groupId AND gm.role = :role " +
+           "AND gm.id.userId > :afterUserId ORDER BY gm.id.userId ASC")
+    List<GroupMember> findByRoleAfterUserId(@Param("groupId") Long groupId,
+                                            @Param("role") GroupMemberRole role,
+                                            @Param("afterUserId") Long afterUserId,
+                                            Pageable pageable);
+
+    /**
+     * 查询指定用户中已在群组内的用户ID
+     */
+    @Query("SELECT gm.id.userId FROM GroupMember gm WHERE gm.id.groupId = :groupId AND gm.id.userId IN :userIds")
+    List<Long> findExistingUserIds(@Param("groupId") Long groupId, @Param("userIds") List<Long> userIds);
+
+    /**
+     * 批量添加普通成员，已是成员或用户不存在的跳过
+     *
+     * @return 实际插入的行数
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT IGNORE INTO group_members (group_id, user_id, role, is_muted, joined_at) " +
+                   "SELECT :groupId, u.id, 'member', FALSE, :joinedAt FROM users u WHERE u.id IN :userIds",
+           nativeQuery = true)
+    int insertMembersIfAbsent(@Param("groupId") Long groupId,
+                              @Param("userIds") List<Long> userIds,
+                              @Param("joinedAt") LocalDateTime joinedAt);
+
+    /**
+     * 查询指定用户中以给定加入时间成为成员的用户ID，用于确认批量插入实际插入的行
+     */
+    @Query("SELECT gm.id.userId FROM GroupMember gm WHERE gm.id.groupId = :groupId " +
+           "AND gm.id.userId IN :userIds AND gm.joinedAt = :joinedAt")
+    List<Long> findUserIdsJoinedAt(@Param("groupId") Long groupId,
+                                   @Param("userIds") List<Long> userIds,
+                                   @Param("joinedAt") LocalDateTime joinedAt);
+
+    /**
+     * 查询群组全部成员的资料（用于构建@成员索引）
+     * 返回格式：[userId, nickname, avatarUrl, role]
+     */
+    @Query("SELECT gm.id.userId, u.nickname, u.avatarUrl, gm.role FROM GroupMember gm, User u " +
+           "WHERE u.id = gm.id.userId AND gm.id.groupId = :groupId")
+    List<Object[]> findMemberProfilesByGroupId(@Param("groupId") Long groupId);
 } 
\ No newline at end of file
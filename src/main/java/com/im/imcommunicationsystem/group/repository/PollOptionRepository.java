@@ -46,4 +46,12 @@ public interface PollOptionRepository extends JpaRepository<PollOption, Long> {
     @Transactional
     @Query(value = "DELETE FROM poll_options WHERE poll_id IN (SELECT id FROM polls WHERE group_id = :groupId)", nativeQuery = true)
     int deleteAllByGroupId(@Param("groupId") Long groupId);
+
+    /**
+     * 分批删除群组所有投票的选项（后台清理任务使用）
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM poll_options WHERE poll_id IN (SELECT id FROM polls WHERE group_id = :groupId) LIMIT :limit", nativeQuery = true)
+    int deleteChunkByGroupId(@Param("groupId") Long groupId, @Param("limit") int limit);
 } 
\ No newline at end of file
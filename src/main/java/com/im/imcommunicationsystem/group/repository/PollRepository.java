@@ -2,15 +2,19 @@ package com.im.imcommunicationsystem.group.repository;
 
 import com.im.imcommunicationsystem.group.entity.Poll;
 import com.im.imcommunicationsystem.group.enums.PollStatus;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -71,4 +75,54 @@ public interface PollRepository extends JpaRepository<Poll, Long> {
      */
     @Query("SELECT p.id FROM Poll p WHERE p.groupId = :groupId")
     List<Long> findIdsByGroupId(@Param("groupId") Long groupId);
-} 
\ No newline at end of file
+    
+    /**
+     * 一次查询投票时需要校验的状态：投票状态、结束时间、是否多选、群组封禁状态，并同时校验群成员身份
+     * @return [群组ID, 投票状态, 结束时间, 是否多选, 群组是否封禁, 封禁原因]；投票不存在或用户不是群成员时为空
+     */
+    @Query("SELECT p.groupId, p.status, p.endTime, p.isMultiple, g.isBanned, g.bannedReason " +
+           "FROM Poll p JOIN Group g ON g.id = p.groupId JOIN GroupMember m ON m.id.groupId = p.groupId " +
+           "WHERE p.id = :pollId AND m.id.userId = :userId")
+    List<Object[]> findVoteContext(@Param("pollId") Long pollId, @Param("userId") Long userId);
+    
+    /**
+     * 查询在指定时间之前到期的进行中投票
+     * @return [投票ID, 结束时间] 列表
+     */
+    @Query("SELECT p.id, p.endTime FROM Poll p WHERE p.status = :status AND p.endTime IS NOT NULL AND p.endTime <= :until")
+    List<Object[]> findDeadlinesBefore(@Param("status") PollStatus status, @Param("until") LocalDateTime until);
+    
+    /**
+     * 在指定投票中查询仍在进行且已到结束时间的投票，并按ID顺序加行锁直到事务结束；
+     * 其他实例或手动结束已关闭的投票在等待锁后读到新状态而被排除
+     * @return [投票ID, 群组ID] 列表
+     */
+    @Query(value = "SELECT id, group_id FROM polls WHERE id IN (:ids) AND status = 'ACTIVE' AND end_time <= :now " +
+                   "ORDER BY id FOR UPDATE", nativeQuery = true)
+    List<Object[]> lockDueByIdIn(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    /**
+     * 查询投票并加行锁直到事务结束，手动结束投票时与到期关闭互斥
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Poll p WHERE p.id = :id")
+    Optional<Poll> findByIdForUpdate(@Param("id") Long id);
+    
+    /**
+     * 批量更新投票状态（状态已被其他请求改变的投票不更新）
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Poll p SET p.status = :toStatus WHERE p.id IN :ids AND p.status = :fromStatus")
+    int updateStatusByIdIn(@Param("ids") Collection<Long> ids,
+                           @Param("fromStatus") PollStatus fromStatus,
+                           @Param("toStatus") PollStatus toStatus);
+
+    /**
+     * 分批删除群组的投票（后台清理任务使用）
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM polls WHERE group_id = :groupId LIMIT :limit", nativeQuery = true)
+    int deleteChunkByGroupId(@Param("groupId") Long groupId, @Param("limit") int limit);
+}
\ No newline at end of file
@@ -8,6 +8,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -80,4 +81,48 @@ public interface PollVoteRepository extends JpaRepository<PollVote, Long> {
      * 查询用户对特定选项的投票
      */
     Optional<PollVote> findByPollIdAndOptionIdAndUserId(Long pollId, Long optionId, Long userId);
-} 
\ No newline at end of file
+    
+    /**
+     * 查询投票的全部投票记录（用户ID、选项ID），用于构建内存计票
+     */
+    @Query("SELECT v.userId, v.optionId FROM PollVote v WHERE v.pollId = :pollId")
+    List<Object[]> findUserOptionPairsByPollId(@Param("pollId") Long pollId);
+    
+    /**
+     * 写入一条投票记录，已存在时忽略（用于批量写回内存中已计票的投票）
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT IGNORE INTO poll_votes (poll_id, option_id, user_id, voted_at) " +
+                   "VALUES (:pollId, :optionId, :userId, :votedAt)", nativeQuery = true)
+    int insertIgnore(@Param("pollId") Long pollId, @Param("optionId") Long optionId,
+                     @Param("userId") Long userId, @Param("votedAt") LocalDateTime votedAt);
+
+    /**
+     * 登记用户参与投票，主键 (poll_id, user_id) 保证跨实例只能登记一次；
+     * 只在投票仍为进行中时登记，读取投票状态时会等待正在结束该投票的事务提交
+     *
+     * @return 1 表示登记成功，0 表示该用户已经投过票或投票已不在进行中
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT IGNORE INTO poll_voters (poll_id, user_id, voted_at) " +
+                   "SELECT p.id, :userId, :votedAt FROM polls p WHERE p.id = :pollId AND p.status = 'ACTIVE'",
+           nativeQuery = true)
+    int claimVoter(@Param("pollId") Long pollId, @Param("userId") Long userId,
+                   @Param("votedAt") LocalDateTime votedAt);
+
+    /**
+     * 统计已登记参与投票的用户数，参与记录在投票时同步写入，包含尚未写回投票记录的用户
+     */
+    @Query(value = "SELECT COUNT(*) FROM poll_voters WHERE poll_id = :pollId", nativeQuery = true)
+    long countVotersByPollId(@Param("pollId") Long pollId);
+
+    /**
+     * 分批删除群组所有投票的投票记录（后台清理任务使用）
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM poll_votes WHERE poll_id IN (SELECT id FROM polls WHERE group_id = :groupId) LIMIT :limit", nativeQuery = true)
+    int deleteChunkByGroupId(@Param("groupId") Long groupId, @Param("limit") int limit);
+}
\ No newline at end of file
@@ -0,0 +1,166 @@
+package com.im.imcommunicationsystem.group.search;
+
+import com.im.imcommunicationsystem.common.utils.PinyinInitials;
+import com.im.imcommunicationsystem.common.utils.PrefixIndex;
+import com.im.imcommunicationsystem.group.config.GroupConfig;
+import com.im.imcommunicationsystem.group.enums.GroupMemberRole;
+import com.im.imcommunicationsystem.group.event.GroupPermissionChangedEvent;
+import com.im.imcommunicationsystem.group.repository.GroupMemberRepository;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 群内@成员索引
+ * 按群组在进程内为成员昵称（含中间片段）和昵称拼音首字母建立前缀索引，用于输入@时的成员补全。
+ * 首次查询时以一条联表查询加载全部成员资料，之后在有效期内只查内存；
+ * 成员加入、移除或角色变化时失效该群组的索引，其他实例和昵称变化在有效期后重新加载
+ */
+@Component
+@Slf4j
+public class GroupMemberMentionIndex {
+
+    private static final Comparator<Entry> ROLE_ORDER =
+            Comparator.comparing((Entry entry) -> entry.getRole().ordinal()).thenComparing(Entry::getUserId);
+
+    private final GroupMemberRepository groupMemberRepository;
+    private final GroupConfig groupConfig;
+    private final Map<Long, Snapshot> snapshots;
+
+    public GroupMemberMentionIndex(GroupMemberRepository groupMemberRepository, GroupConfig groupConfig) {
+        this.groupMemberRepository = groupMemberRepository;
+        this.groupConfig = groupConfig;
+        int maxEntries = groupConfig.getMentionCacheSize();
+        this.snapshots = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Snapshot> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    /**
+     * 搜索群成员
+     * 关键词为空时按群主、管理员、普通成员的顺序返回前若干名成员；
+     * 否则按匹配级别排序：昵称或拼音首字母开头匹配优先，其次是词首匹配，最后是昵称中间片段匹配
+     *
+     * @param groupId 群组ID
+     * @param keyword 关键词
+     * @param excludeUserId 排除的用户ID（当前用户）
+     * @param limit 最多返回的数量
+     * @return 索引项列表
+     */
+    public List<Entry> search(Long groupId, String keyword, Long excludeUserId, int limit) {
+        if (limit <= 0) {
+            return Collections.emptyList();
+        }
+        Snapshot snapshot = getOrLoad(groupId);
+
+        List<Entry> result = new ArrayList<>(limit);
+        if (PrefixIndex.normalize(keyword).isEmpty()) {
+            for (Entry entry : snapshot.entries) {
+                if (!Objects.equals(entry.getUserId(), excludeUserId)) {
+                    result.add(entry);
+                    if (result.size() >= limit) {
+                        break;
+                    }
+                }
+            }
+            return result;
+        }
+
+        for (Integer position : snapshot.index.search(keyword, limit + 1)) {
+            Entry entry = snapshot.entries[position];
+            if (!Objects.equals(entry.getUserId(), excludeUserId)) {
+                result.add(entry);
+                if (result.size() >= limit) {
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 失效群组的索引
+     *
+     * @param groupId 群组ID
+     */
+    public void evict(Long groupId) {
+        snapshots.remove(groupId);
+    }
+
+    /**
+     * 群成员或群组变更提交后失效索引
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPermissionChanged(GroupPermissionChangedEvent event) {
+        evict(event.getGroupId());
+    }
+
+    // ==================== 私有辅助方法 ====================
+
+    private Snapshot getOrLoad(Long groupId) {
+        Snapshot snapshot = snapshots.get(groupId);
+        long now = System.currentTimeMillis();
+        if (snapshot != null && now - snapshot.loadedAt <= groupConfig.getMentionCacheTtlSeconds() * 1000L) {
+            return snapshot;
+        }
+
+        List<Object[]> rows = groupMemberRepository.findMemberProfilesByGroupId(groupId);
+        Entry[] entries = new Entry[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            Object[] row = rows.get(i);
+            entries[i] = new Entry((Long) row[0], (String) row[1], (String) row[2], (GroupMemberRole) row[3]);
+        }
+        Arrays.sort(entries, ROLE_ORDER);
+
+        PrefixIndex.Builder builder = PrefixIndex.builder();
+        for (int i = 0; i < entries.length; i++) {
+            builder.addWithInfixes(i, entries[i].getNickname());
+            builder.add(i, PinyinInitials.of(entries[i].getNickname()));
+        }
+        snapshot = new Snapshot(builder.build(), entries, now);
+        snapshots.put(groupId, snapshot);
+        log.debug("构建群内@成员索引: groupId={}, members={}", groupId, entries.length);
+        return snapshot;
+    }
+
+    /**
+     * 索引项
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Entry {
+        private final Long userId;
+        private final String nickname;
+        private final String avatarUrl;
+        private final GroupMemberRole role;
+    }
+
+    /**
+     * 一个群组的索引及加载时间
+     */
+    private static final class Snapshot {
+        private final PrefixIndex index;
+        private final Entry[] entries;
+        private final long loadedAt;
+
+        private Snapshot(PrefixIndex index, Entry[] entries, long loadedAt) {
+            this.index = index;
+            this.entries = entries;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
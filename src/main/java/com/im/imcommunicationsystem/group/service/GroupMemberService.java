@@ -1,5 +1,6 @@
 package com.im.imcommunicationsystem.group.service;
 
+import com.im.imcommunicationsystem.group.dto.response.GroupMemberPageResponse;
 import com.im.imcommunicationsystem.group.dto.response.GroupMemberResponse;
 import com.im.imcommunicationsystem.group.entity.GroupMember;
 import org.springframework.data.domain.Page;
@@ -30,6 +31,27 @@ public interface GroupMemberService {
      * @return 成员分页列表
      */
     Page<GroupMemberResponse> getGroupMembers(Long groupId, Pageable pageable);
+
+    /**
+     * 按游标分页获取群成员列表，群主、管理员在前，同角色按用户ID排序
+     *
+     * @param groupId 群组ID
+     * @param cursor 上一页返回的游标，首页为null
+     * @param size 每页数量
+     * @return 成员游标分页结果
+     */
+    GroupMemberPageResponse getGroupMembersByCursor(Long groupId, String cursor, int size);
+
+    /**
+     * 搜索可@的群成员（用于输入@时的成员补全）
+     *
+     * @param groupId 群组ID
+     * @param userId 当前用户ID，必须是群成员
+     * @param keyword 昵称或拼音首字母，为空时按角色顺序返回
+     * @param limit 最多返回的数量
+     * @return 成员列表
+     */
+    List<GroupMemberResponse> searchMentionCandidates(Long groupId, Long userId, String keyword, int limit);
     
     /**
      * 获取群管理员列表
@@ -1,8 +1,13 @@
 package com.im.imcommunicationsystem.group.service;
 
+import com.im.imcommunicationsystem.group.enums.GroupAction;
+import com.im.imcommunicationsystem.group.enums.GroupMemberRole;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
 /**
  * 群组权限服务接口
- * 定义群组权限控制和验证相关的业务逻辑
+ * 定义群组权限控制和验证相关的业务逻辑，所有判断基于群组权限缓存
  * 
  * @author IM System
  * @version 1.0
@@ -10,6 +15,27 @@ package com.im.imcommunicationsystem.group.service;
  */
 public interface GroupPermissionService {
 
+    /**
+     * 判断用户能否在群组中执行操作（统一入口）
+     * 依次检查群组是否存在、是否解散、是否封禁，成员身份、角色和禁言状态
+     * 
+     * @param groupId 群组ID
+     * @param userId 用户ID
+     * @param action 操作
+     * @return 判断结果
+     */
+    GroupAuthorization authorize(Long groupId, Long userId, GroupAction action);
+
+    /**
+     * 校验用户能否在群组中执行操作，不允许时抛出 GroupException
+     * 
+     * @param groupId 群组ID
+     * @param userId 用户ID
+     * @param action 操作
+     * @return 用户在群组中的角色
+     */
+    GroupMemberRole checkPermission(Long groupId, Long userId, GroupAction action);
+
     /**
      * 验证用户是否有权限操作群组
      * 
@@ -93,4 +119,67 @@ public interface GroupPermissionService {
      * @return 角色（OWNER/ADMIN/MEMBER），不在群组中返回null
      */
     String getUserRole(Long groupId, Long userId);
-} 
\ No newline at end of file
+
+    /**
+     * 权限判断结果
+     */
+    @Getter
+    @AllArgsConstructor
+    class GroupAuthorization {
+
+        /**
+         * 拒绝原因
+         */
+        public enum Denial {
+            GROUP_NOT_FOUND,     // 群组不存在
+            GROUP_DISSOLVED,     // 群组已解散
+            GROUP_BANNED,        // 群组被封禁
+            NOT_MEMBER,          // 不是群成员
+            MUTED,               // 被禁言
+            INSUFFICIENT_ROLE    // 角色不满足
+        }
+
+        /**
+         * 是否允许
+         */
+        private final boolean allowed;
+
+        /**
+         * 拒绝原因，允许时为 null
+         */
+        private final Denial denial;
+
+        /**
+         * 用户在群组中的角色，非成员时为 null
+         */
+        private final GroupMemberRole role;
+
+        /**
+         * 群组封禁原因（仅群组被封禁时）
+         */
+        private final String bannedReason;
+
+        /**
+         * 拒绝时的提示信息
+         */
+        public String getMessage() {
+            if (denial == null) {
+                return null;
+            }
+            switch (denial) {
+                case GROUP_NOT_FOUND:
+                    return "群组不存在";
+                case GROUP_DISSOLVED:
+                    return "群组已解散";
+                case GROUP_BANNED:
+                    return bannedReason != null ? "该群组已被封禁，原因：" + bannedReason : "该群组已被封禁";
+                case NOT_MEMBER:
+                    return "您不是群组成员";
+                case MUTED:
+                    return "您已被禁言";
+                default:
+                    return "没有权限执行该操作";
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.im.imcommunicationsystem.group.service;
+
+import java.time.LocalDateTime;
+
+/**
+ * 投票到期服务接口
+ * 按结束时间排序保存即将到期的进行中投票，到期时一次批量更新关闭，并发布投票结束事件
+ */
+public interface PollExpiryService {
+
+    /**
+     * 登记投票的结束时间
+     *
+     * @param pollId 投票ID
+     * @param endTime 结束时间，为空时不登记
+     */
+    void schedule(Long pollId, LocalDateTime endTime);
+
+    /**
+     * 关闭所有已到结束时间的已登记投票
+     *
+     * @return 关闭的投票数
+     */
+    int closeDuePolls();
+
+    /**
+     * 从数据库登记在预读窗口内到期的进行中投票（包括其他实例创建的投票和已逾期未关闭的投票）
+     *
+     * @return 登记的投票数
+     */
+    int loadUpcoming();
+}
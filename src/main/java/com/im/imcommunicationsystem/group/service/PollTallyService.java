@@ -0,0 +1,103 @@
+package com.im.imcommunicationsystem.group.service;
+
+import com.im.imcommunicationsystem.group.entity.Poll;
+import com.im.imcommunicationsystem.group.entity.PollOption;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 投票内存计票服务接口
+ * 进行中的投票在内存中按选项计数并记录每个用户的选择，投票记录异步批量写回数据库，
+ * 查询和推送的票数为数据库中已写回的票数加上本实例尚未写回的增量，结果变化后按固定间隔向群成员推送最新票数
+ */
+public interface PollTallyService {
+
+    /**
+     * 在内存中计入一次投票，投票记录稍后批量写回
+     *
+     * @param pollId 投票ID
+     * @param userId 投票用户ID
+     * @param optionIds 选择的选项ID
+     * @param multiple 是否多选
+     * @return 计票后的结果（票数来自本实例的内存计票）
+     */
+    TallySnapshot castVote(Long pollId, Long userId, Collection<Long> optionIds, boolean multiple);
+
+    /**
+     * 获取投票的计票结果，尚未加载时从数据库加载
+     *
+     * @param pollId 投票ID
+     * @param userId 当前用户ID
+     * @return 计票结果
+     */
+    TallySnapshot getOrLoad(Long pollId, Long userId);
+
+    /**
+     * 获取已加载到内存的计票结果
+     *
+     * @param pollId 投票ID
+     * @param userId 当前用户ID
+     * @return 计票结果，未加载时返回 null
+     */
+    TallySnapshot getIfLoaded(Long pollId, Long userId);
+
+    /**
+     * 关闭内存计票并写回待写回的投票记录（投票结束或取消时调用），之后到达的投票都会被拒绝；
+     * 在事务中调用时于事务提交后执行，写回使用独立事务
+     *
+     * @param pollId 投票ID
+     */
+    void release(Long pollId);
+
+    /**
+     * 批量写回待写回的投票记录
+     *
+     * @return 写回的记录数
+     */
+    int flush();
+
+    /**
+     * 向群成员推送上次推送后结果有变化的投票
+     *
+     * @return 推送的投票数
+     */
+    int publishChangedResults();
+
+    /**
+     * 释放闲置的内存计票
+     *
+     * @return 释放的投票数
+     */
+    int evictIdle();
+
+    /**
+     * 计票结果快照
+     */
+    @Getter
+    @AllArgsConstructor
+    class TallySnapshot {
+        /**
+         * 投票基本信息（只读副本，不含选项集合）
+         */
+        private final Poll poll;
+
+        /**
+         * 按显示顺序排列的选项
+         */
+        private final List<PollOption> options;
+
+        /**
+         * 各选项票数
+         */
+        private final Map<Long, Long> optionVoteCount;
+
+        /**
+         * 当前用户选择的选项ID，未投票时为空列表
+         */
+        private final List<Long> userOptionIds;
+    }
+}
@@ -0,0 +1,96 @@
+package com.im.imcommunicationsystem.group.service.impl;
+
+import com.im.imcommunicationsystem.common.enums.PurgeJobType;
+import com.im.imcommunicationsystem.common.service.PurgeJobHandler;
+import com.im.imcommunicationsystem.group.repository.GroupAnnouncementRepository;
+import com.im.imcommunicationsystem.group.repository.GroupJoinRequestRepository;
+import com.im.imcommunicationsystem.group.repository.GroupMemberRepository;
+import com.im.imcommunicationsystem.group.repository.GroupRepository;
+import com.im.imcommunicationsystem.group.repository.PollOptionRepository;
+import com.im.imcommunicationsystem.group.repository.PollRepository;
+import com.im.imcommunicationsystem.group.repository.PollVoteRepository;
+import com.im.imcommunicationsystem.message.entity.Conversation;
+import com.im.imcommunicationsystem.message.repository.ConversationMemberRepository;
+import com.im.imcommunicationsystem.message.repository.ConversationRepository;
+import com.im.imcommunicationsystem.message.repository.MessageRepository;
+import com.im.imcommunicationsystem.message.repository.ReadStatusRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 群组解散清理处理器
+ * 先移除成员关系使群组从成员列表中消失，再按外键依赖顺序分批删除会话数据和投票数据，
+ * 最后删除会话和群组本身（通话、邀请等小表随外键级联删除）
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class GroupDissolvePurgeHandler implements PurgeJobHandler {
+
+    private final GroupRepository groupRepository;
+    private final GroupMemberRepository groupMemberRepository;
+    private final GroupAnnouncementRepository groupAnnouncementRepository;
+    private final GroupJoinRequestRepository groupJoinRequestRepository;
+    private final PollRepository pollRepository;
+    private final PollOptionRepository pollOptionRepository;
+    private final PollVoteRepository pollVoteRepository;
+    private final ConversationRepository conversationRepository;
+    private final ConversationMemberRepository conversationMemberRepository;
+    private final ReadStatusRepository readStatusRepository;
+    private final MessageRepository messageRepository;
+
+    @Override
+    public PurgeJobType getType() {
+        return PurgeJobType.GROUP_DISSOLVE;
+    }
+
+    @Override
+    public List<PurgeStep> getSteps() {
+        return List.of(
+                new PurgeStep("group_members", groupMemberRepository::deleteChunkByGroupId),
+                new PurgeStep("conversation_members", (groupId, limit) ->
+                        deleteConversationChunk(groupId, limit, conversationMemberRepository::deleteChunkByConversationId)),
+                // 已读状态引用消息，须先于消息删除
+                new PurgeStep("read_status", (groupId, limit) ->
+                        deleteConversationChunk(groupId, limit, readStatusRepository::deleteChunkByConversationId)),
+                new PurgeStep("messages", (groupId, limit) ->
+                        deleteConversationChunk(groupId, limit, messageRepository::deleteChunkByConversationId)),
+                new PurgeStep("poll_votes", pollVoteRepository::deleteChunkByGroupId),
+                new PurgeStep("poll_options", pollOptionRepository::deleteChunkByGroupId),
+                new PurgeStep("polls", pollRepository::deleteChunkByGroupId),
+                new PurgeStep("group_announcements", groupAnnouncementRepository::deleteChunkByGroupId),
+                new PurgeStep("group_join_requests", groupJoinRequestRepository::deleteChunkByGroupId),
+                new PurgeStep("group", (groupId, limit) -> deleteGroup(groupId))
+        );
+    }
+
+    /**
+     * 分批删除群组关联会话下的数据，会话不存在时视为已完成
+     */
+    private int deleteConversationChunk(Long groupId, int limit, ChunkDeleter deleter) {
+        Conversation conversation = conversationRepository.findByRelatedGroupId(groupId);
+        if (conversation == null) {
+            return 0;
+        }
+        return deleter.deleteChunk(conversation.getId(), limit);
+    }
+
+    /**
+     * 删除会话和群组本身，已删除时返回 0
+     */
+    private int deleteGroup(Long groupId) {
+        Conversation conversation = conversationRepository.findByRelatedGroupId(groupId);
+        if (conversation != null) {
+            conversationRepository.delete(conversation);
+        }
+        if (!groupRepository.existsById(groupId)) {
+            return conversation != null ? 1 : 0;
+        }
+        groupRepository.deleteById(groupId);
+        log.info("群组数据清理完成: groupId={}", groupId);
+        return 1;
+    }
+}
@@ -4,12 +4,17 @@ import com.im.imcommunicationsystem.auth.entity.User;
 import com.im.imcommunicationsystem.auth.repository.UserRepository;
 import com.im.imcommunicationsystem.common.exception.BusinessException;
 import com.im.imcommunicationsystem.common.service.WebSocketService;
+import com.im.imcommunicationsystem.group.config.GroupConfig;
+import com.im.imcommunicationsystem.group.dto.response.GroupMemberPageResponse;
 import com.im.imcommunicationsystem.group.dto.response.GroupMemberResponse;
 import com.im.imcommunicationsystem.group.entity.GroupMember;
-import com.im.imcommunicationsystem.group.entity.GroupMemberId;
 import com.im.imcommunicationsystem.group.enums.GroupMemberRole;
+import com.im.imcommunicationsystem.group.event.GroupPermissionChangedEvent;
 import com.im.imcommunicationsystem.group.exception.GroupException;
+import com.im.imcommunicationsystem.group.permission.GroupAccessState;
+import com.im.imcommunicationsystem.group.permission.GroupPermissionCache;
 import com.im.imcommunicationsystem.group.repository.GroupMemberRepository;
+import com.im.imcommunicationsystem.group.search.GroupMemberMentionIndex;
 import com.im.imcommunicationsystem.group.service.GroupMemberService;
 import com.im.imcommunicationsystem.group.service.GroupService;
 import com.im.imcommunicationsystem.message.entity.ConversationMember;
@@ -20,21 +25,25 @@ import com.im.imcommunicationsystem.message.repository.ConversationRepository;
 import com.im.imcommunicationsystem.message.repository.MessageRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.Map;
 import java.util.HashMap;
-import com.im.imcommunicationsystem.group.entity.Group;
 
 /**
  * 群成员服务实现类
@@ -44,6 +53,9 @@ import com.im.imcommunicationsystem.group.entity.Group;
 @Slf4j
 public class GroupMemberServiceImpl implements GroupMemberService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_MENTION_LIMIT = 50;
+
     private final GroupMemberRepository groupMemberRepository;
     private final GroupService groupService;
     private final UserRepository userRepository;
@@ -51,6 +63,10 @@ public class GroupMemberServiceImpl implements GroupMemberService {
     private final ConversationRepository conversationRepository;
     private final ConversationMemberRepository conversationMemberRepository;
     private final MessageRepository messageRepository;
+    private final GroupPermissionCache permissionCache;
+    private final GroupMemberMentionIndex mentionIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final GroupConfig groupConfig;
 
     @Override
     @Transactional
@@ -61,52 +77,67 @@ public class GroupMemberServiceImpl implements GroupMemberService {
         }
 
         // 验证群组是否存在并检查是否被封禁
-        Group group = groupService.getGroupEntityById(groupId);
-        if (Boolean.TRUE.equals(group.getIsBanned())) {
-            String reason = group.getBannedReason() != null ? "，原因：" + group.getBannedReason() : "";
-            throw new BusinessException("该群组已被封禁，无法添加成员" + reason);
-        }
+        checkGroupNotBanned(groupId, "无法添加成员");
 
         // 验证用户是否存在
-        List<User> users = userRepository.findAllById(userIds);
-        if (users.size() != userIds.size()) {
+        List<Long> distinctUserIds = userIds.stream().distinct().collect(Collectors.toList());
+        List<User> users = userRepository.findAllById(distinctUserIds);
+        if (users.size() != distinctUserIds.size()) {
             throw new BusinessException("部分用户不存在");
         }
 
+        // 过滤已经在群组中的用户（只查询本次请求涉及的用户）
+        Set<Long> existingMemberIds = new HashSet<>(groupMemberRepository.findExistingUserIds(groupId, distinctUserIds));
+        List<User> newUsers = users.stream()
+                .filter(user -> !existingMemberIds.contains(user.getId()))
+                .collect(Collectors.toList());
+
+        if (newUsers.isEmpty()) {
+            throw new BusinessException("所有用户已经是群成员");
+        }
+
         // 验证成员数量上限
         int currentMemberCount = countGroupMembers(groupId);
-        if (currentMemberCount + userIds.size() > 500) {
-            throw new BusinessException("群组成员数量不能超过500人");
+        int maxMembers = groupConfig.getMaxMembers();
+        if (currentMemberCount + newUsers.size() > maxMembers) {
+            throw new BusinessException("群组成员数量不能超过" + maxMembers + "人");
         }
 
-        // 过滤已经在群组中的用户
-        List<Long> existingMemberIds = groupMemberRepository.findByIdGroupId(groupId).stream()
-                .map(member -> member.getId().getUserId())
-                .collect(Collectors.toList());
-
-        List<Long> newMemberIds = userIds.stream()
-                .filter(userId -> !existingMemberIds.contains(userId))
-                .collect(Collectors.toList());
+        // 以一条 INSERT IGNORE ... SELECT 添加新成员，并发加入的同一用户由主键去重
+        // joined_at 为秒级 TIMESTAMP，截断到秒以便按加入时间回查实际插入的行
+        LocalDateTime joinedAt = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        List<Long> newMemberIds = newUsers.stream().map(User::getId).collect(Collectors.toList());
+        int inserted = groupMemberRepository.insertMembersIfAbsent(groupId, newMemberIds, joinedAt);
+        if (inserted < newMemberIds.size()) {
+            log.info("部分用户已由并发请求加入群组: groupId={}, requested={}, inserted={}",
+                    groupId, newMemberIds.size(), inserted);
+            // 被跳过的用户由并发请求负责通知，这里只保留本次实际插入的成员
+            Set<Long> insertedIds = new HashSet<>(
+                    groupMemberRepository.findUserIdsJoinedAt(groupId, newMemberIds, joinedAt));
+            newMemberIds = newMemberIds.stream().filter(insertedIds::contains).collect(Collectors.toList());
+            newUsers = newUsers.stream().filter(user -> insertedIds.contains(user.getId())).collect(Collectors.toList());
+            if (newUsers.isEmpty()) {
+                throw new BusinessException("所有用户已经是群成员");
+            }
+        }
 
-        if (newMemberIds.isEmpty()) {
-            throw new BusinessException("所有用户已经是群成员");
+        // 原生插入不经过实体监听器，逐个发布权限变更事件以失效权限缓存和@成员索引
+        for (Long userId : newMemberIds) {
+            eventPublisher.publishEvent(new GroupPermissionChangedEvent(this, groupId, userId));
         }
 
-        // 添加新成员
-        List<GroupMember> newMembers = newMemberIds.stream()
-                .map(userId -> GroupMember.builder()
-                        .id(new GroupMemberId(groupId, userId))
-                        .role(GroupMemberRole.member)
+        // 返回新添加的成员信息
+        return newUsers.stream()
+                .map(user -> GroupMemberResponse.builder()
+                        .userId(user.getId())
+                        .nickname(user.getNickname())
+                        .avatarUrl(user.getAvatarUrl())
+                        .role(GroupMemberRole.member.name())
                         .isMuted(false)
+                        .joinedAt(joinedAt)
+                        .isOnline(false)
                         .build())
                 .collect(Collectors.toList());
-
-        groupMemberRepository.saveAll(newMembers);
-
-        // 返回新添加的成员信息
-        return newMembers.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
     }
 
     @Override
@@ -118,11 +149,67 @@ public class GroupMemberServiceImpl implements GroupMemberService {
         Page<GroupMember> members = groupMemberRepository.findByIdGroupId(groupId, pageable);
         
         // 转换为响应对象
-        List<GroupMemberResponse> responses = members.getContent().stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        return new PageImpl<>(convertToResponses(members.getContent()), pageable, members.getTotalElements());
+    }
+
+    @Override
+    public GroupMemberPageResponse getGroupMembersByCursor(Long groupId, String cursor, int size) {
+        // 验证群组存在且未解散
+        checkGroupExists(groupId);
+
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        GroupMemberRole startRole = GroupMemberRole.owner;
+        long afterUserId = 0L;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                String[] parts = cursor.split(":", 2);
+                startRole = GroupMemberRole.valueOf(parts[0]);
+                afterUserId = Long.parseLong(parts[1]);
+            } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+                throw new BusinessException("无效的分页游标");
+            }
+        }
+
+        // 按群主、管理员、普通成员的顺序逐段读取，段内按用户ID走索引，多取一条判断是否还有更多
+        List<GroupMember> members = new ArrayList<>(pageSize + 1);
+        GroupMemberRole[] roles = GroupMemberRole.values();
+        for (int i = startRole.ordinal(); i < roles.length && members.size() <= pageSize; i++) {
+            long after = i == startRole.ordinal() ? afterUserId : 0L;
+            members.addAll(groupMemberRepository.findByRoleAfterUserId(
+                    groupId, roles[i], after, PageRequest.of(0, pageSize + 1 - members.size())));
+        }
+
+        boolean hasMore = members.size() > pageSize;
+        if (hasMore) {
+            members = members.subList(0, pageSize);
+        }
+        GroupMember last = hasMore ? members.get(members.size() - 1) : null;
+
+        return GroupMemberPageResponse.builder()
+                .members(convertToResponses(members))
+                .nextCursor(last != null ? last.getRole().name() + ":" + last.getId().getUserId() : null)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    @Override
+    public List<GroupMemberResponse> searchMentionCandidates(Long groupId, Long userId, String keyword, int limit) {
+        // 验证群组存在且当前用户是群成员
+        checkGroupExists(groupId);
+        if (!permissionCache.getMember(groupId, userId).isMember()) {
+            throw new GroupException(403, "用户不是群成员");
+        }
 
-        return new PageImpl<>(responses, pageable, members.getTotalElements());
+        int max = Math.max(1, Math.min(limit, MAX_MENTION_LIMIT));
+        return mentionIndex.search(groupId, keyword, userId, max).stream()
+                .map(entry -> GroupMemberResponse.builder()
+                        .userId(entry.getUserId())
+                        .nickname(entry.getNickname())
+                        .avatarUrl(entry.getAvatarUrl())
+                        .role(entry.getRole().name())
+                        .isOnline(false)
+                        .build())
+                .collect(Collectors.toList());
     }
 
     @Override
@@ -137,20 +224,14 @@ public class GroupMemberServiceImpl implements GroupMemberService {
         );
 
         // 转换为响应对象
-        return admins.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        return convertToResponses(admins);
     }
 
     @Override
     @Transactional
     public boolean removeMember(Long groupId, Long userId, Long operatorId) {
         // 获取群组实体并检查封禁状态
-        Group group = groupService.getGroupEntityById(groupId);
-        if (Boolean.TRUE.equals(group.getIsBanned())) {
-            String reason = group.getBannedReason() != null ? "，原因：" + group.getBannedReason() : "";
-            throw new BusinessException("该群组已被封禁，无法移除成员" + reason);
-        }
+        checkGroupNotBanned(groupId, "无法移除成员");
 
         // 验证操作者权限
         if (operatorId.equals(userId)) {
@@ -238,11 +319,7 @@ public class GroupMemberServiceImpl implements GroupMemberService {
         
         try {
             // 获取群组实体并检查封禁状态
-            Group group = groupService.getGroupEntityById(groupId);
-            if (Boolean.TRUE.equals(group.getIsBanned())) {
-                String reason = group.getBannedReason() != null ? "，原因：" + group.getBannedReason() : "";
-                throw new BusinessException("该群组已被封禁，无法设置管理员" + reason);
-            }
+            checkGroupNotBanned(groupId, "无法设置管理员");
 
         // 验证操作者是否为群主
         if (!groupService.isGroupOwner(groupId, operatorId)) {
@@ -297,11 +374,7 @@ public class GroupMemberServiceImpl implements GroupMemberService {
         
         try {
             // 验证群组是否存在并检查封禁状态
-            Group group = groupService.getGroupEntityById(groupId);
-            if (Boolean.TRUE.equals(group.getIsBanned())) {
-                String reason = group.getBannedReason() != null ? "，原因：" + group.getBannedReason() : "";
-                throw new BusinessException("该群组已被封禁，无法设置禁言" + reason);
-            }
+            checkGroupNotBanned(groupId, "无法设置禁言");
 
         // 验证操作权限
         if (!groupService.isGroupAdmin(groupId, operatorId)) {
@@ -386,21 +459,67 @@ public class GroupMemberServiceImpl implements GroupMemberService {
     }
 
     /**
-     * 将实体转换为响应对象
+     * 检查群组存在且未被封禁（来自群组权限缓存）
      */
-    private GroupMemberResponse convertToResponse(GroupMember member) {
-        User user = userRepository.findById(member.getId().getUserId())
-                .orElseThrow(() -> new BusinessException("用户不存在"));
+    private void checkGroupNotBanned(Long groupId, String operation) {
+        GroupAccessState state = permissionCache.getGroup(groupId);
+        if (state == null) {
+            throw new GroupException("群组不存在");
+        }
+        if (state.isDissolved()) {
+            throw GroupException.groupDissolved(groupId);
+        }
+        if (state.isBanned(LocalDateTime.now())) {
+            String reason = state.getBannedReason() != null ? "，原因：" + state.getBannedReason() : "";
+            throw new BusinessException("该群组已被封禁，" + operation + reason);
+        }
+    }
 
-        return GroupMemberResponse.builder()
-                .userId(user.getId())
-                .nickname(user.getNickname())
-                .avatarUrl(user.getAvatarUrl())
-                .role(member.getRole().name())
-                .isMuted(member.isMuted())
-                .mutedUntil(member.getMutedUntil())
-                .joinedAt(member.getJoinedAt())
-                .isOnline(false) // 需要从在线状态服务获取
-                .build();
+    /**
+     * 检查群组存在且未解散（来自群组权限缓存）
+     */
+    private void checkGroupExists(Long groupId) {
+        GroupAccessState state = permissionCache.getGroup(groupId);
+        if (state == null) {
+            throw GroupException.groupNotFound(groupId);
+        }
+        if (state.isDissolved()) {
+            throw GroupException.groupDissolved(groupId);
+        }
+    }
+
+    /**
+     * 将实体批量转换为响应对象，成员资料以一次查询取回
+     */
+    private List<GroupMemberResponse> convertToResponses(List<GroupMember> members) {
+        if (members.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Long> userIds = members.stream()
+                .map(member -> member.getId().getUserId())
+                .collect(Collectors.toList());
+        Map<Long, User> users = userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getId, user -> user));
+
+        List<GroupMemberResponse> responses = new ArrayList<>(members.size());
+        for (GroupMember member : members) {
+            User user = users.get(member.getId().getUserId());
+            if (user == null) {
+                log.warn("群成员对应的用户不存在: groupId={}, userId={}",
+                        member.getId().getGroupId(), member.getId().getUserId());
+                continue;
+            }
+            responses.add(GroupMemberResponse.builder()
+                    .userId(user.getId())
+                    .nickname(user.getNickname())
+                    .avatarUrl(user.getAvatarUrl())
+                    .role(member.getRole().name())
+                    .isMuted(member.isMuted())
+                    .mutedUntil(member.getMutedUntil())
+                    .joinedAt(member.getJoinedAt())
+                    .isOnline(false) // 需要从在线状态服务获取
+                    .build());
+        }
+        return responses;
     }
 } 
\ No newline at end of file
@@ -0,0 +1,154 @@
+package com.im.imcommunicationsystem.group.service.impl;
+
+import com.im.imcommunicationsystem.group.enums.GroupAction;
+import com.im.imcommunicationsystem.group.enums.GroupMemberRole;
+import com.im.imcommunicationsystem.group.exception.GroupException;
+import com.im.imcommunicationsystem.group.permission.GroupAccessState;
+import com.im.imcommunicationsystem.group.permission.GroupMemberAccess;
+import com.im.imcommunicationsystem.group.permission.GroupPermissionCache;
+import com.im.imcommunicationsystem.group.service.GroupPermissionService;
+import com.im.imcommunicationsystem.group.service.GroupPermissionService.GroupAuthorization.Denial;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+
+/**
+ * 群组权限服务实现类
+ * 先检查群组级状态（存在、解散、封禁），再检查成员级状态（角色、禁言），两级状态分别缓存
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class GroupPermissionServiceImpl implements GroupPermissionService {
+
+    private final GroupPermissionCache permissionCache;
+
+    @Override
+    public GroupAuthorization authorize(Long groupId, Long userId, GroupAction action) {
+        GroupAccessState group = permissionCache.getGroup(groupId);
+        if (group == null) {
+            return deny(Denial.GROUP_NOT_FOUND, null, null);
+        }
+        if (group.isDissolved()) {
+            return deny(Denial.GROUP_DISSOLVED, null, null);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        if (action.isBlockedWhenBanned() && group.isBanned(now)) {
+            return deny(Denial.GROUP_BANNED, null, group.getBannedReason());
+        }
+
+        GroupMemberAccess member = permissionCache.getMember(groupId, userId);
+        if (!member.isMember()) {
+            return deny(Denial.NOT_MEMBER, null, null);
+        }
+        if (!action.permits(member.getRole())) {
+            return deny(Denial.INSUFFICIENT_ROLE, member.getRole(), null);
+        }
+        if (action.isBlockedWhenMuted() && member.isMuted(now)) {
+            return deny(Denial.MUTED, member.getRole(), null);
+        }
+        return new GroupAuthorization(true, null, member.getRole(), null);
+    }
+
+    @Override
+    public GroupMemberRole checkPermission(Long groupId, Long userId, GroupAction action) {
+        GroupAuthorization authorization = authorize(groupId, userId, action);
+        if (!authorization.isAllowed()) {
+            log.debug("群组权限校验未通过: groupId={}, userId={}, action={}, denial={}",
+                    groupId, userId, action, authorization.getDenial());
+            throw new GroupException(statusOf(authorization.getDenial()), authorization.getMessage());
+        }
+        return authorization.getRole();
+    }
+
+    @Override
+    public boolean validatePermission(Long groupId, Long userId, String requiredRole) {
+        GroupMemberRole role = roleOf(groupId, userId);
+        if (role == null) {
+            return false;
+        }
+        GroupMemberRole required = requiredRole != null ? GroupMemberRole.fromValue(requiredRole) : GroupMemberRole.member;
+        return role.ordinal() <= required.ordinal();
+    }
+
+    @Override
+    public boolean canInviteMembers(Long groupId, Long userId) {
+        return authorize(groupId, userId, GroupAction.INVITE_MEMBERS).isAllowed();
+    }
+
+    @Override
+    public boolean canRemoveMember(Long groupId, Long userId, Long targetUserId) {
+        return canManageMember(groupId, userId, targetUserId);
+    }
+
+    @Override
+    public boolean canManageAdmins(Long groupId, Long userId) {
+        return authorize(groupId, userId, GroupAction.MANAGE_ADMINS).isAllowed();
+    }
+
+    @Override
+    public boolean canManageAnnouncements(Long groupId, Long userId) {
+        return authorize(groupId, userId, GroupAction.MANAGE_ANNOUNCEMENTS).isAllowed();
+    }
+
+    @Override
+    public boolean canManageMute(Long groupId, Long userId, Long targetUserId) {
+        return canManageMember(groupId, userId, targetUserId);
+    }
+
+    @Override
+    public boolean canDissolveGroup(Long groupId, Long userId) {
+        return authorize(groupId, userId, GroupAction.DISSOLVE_GROUP).isAllowed();
+    }
+
+    @Override
+    public boolean canUpdateGroupInfo(Long groupId, Long userId) {
+        return authorize(groupId, userId, GroupAction.UPDATE_GROUP_INFO).isAllowed();
+    }
+
+    @Override
+    public String getUserRole(Long groupId, Long userId) {
+        GroupMemberRole role = roleOf(groupId, userId);
+        return role != null ? role.name().toUpperCase() : null;
+    }
+
+    // ==================== 私有辅助方法 ====================
+
+    /**
+     * 管理员可以管理普通成员，群主可以管理所有其他成员
+     */
+    private boolean canManageMember(Long groupId, Long userId, Long targetUserId) {
+        if (userId.equals(targetUserId)) {
+            return false;
+        }
+        GroupAuthorization authorization = authorize(groupId, userId, GroupAction.MANAGE_MEMBERS);
+        if (!authorization.isAllowed()) {
+            return false;
+        }
+        GroupMemberAccess target = permissionCache.getMember(groupId, targetUserId);
+        return target.isMember() && authorization.getRole().ordinal() < target.getRole().ordinal();
+    }
+
+    private GroupMemberRole roleOf(Long groupId, Long userId) {
+        GroupAuthorization authorization = authorize(groupId, userId, GroupAction.VIEW);
+        return authorization.isAllowed() ? authorization.getRole() : null;
+    }
+
+    private static GroupAuthorization deny(Denial denial, GroupMemberRole role, String bannedReason) {
+        return new GroupAuthorization(false, denial, role, bannedReason);
+    }
+
+    private static int statusOf(Denial denial) {
+        switch (denial) {
+            case GROUP_NOT_FOUND:
+                return 404;
+            case GROUP_DISSOLVED:
+                return 410;
+            default:
+                return 403;
+        }
+    }
+}
@@ -2,16 +2,20 @@ package com.im.imcommunicationsystem.group.service.impl;
 
 import com.im.imcommunicationsystem.common.constants.CommonConstants;
 import com.im.imcommunicationsystem.common.dto.ApiResponse;
+import com.im.imcommunicationsystem.common.enums.PurgeJobType;
 import com.im.imcommunicationsystem.common.exception.BusinessException;
+import com.im.imcommunicationsystem.common.service.PurgeJobService;
 import com.im.imcommunicationsystem.common.service.WebSocketService;
 import com.im.imcommunicationsystem.group.dto.request.CreateGroupRequest;
 import com.im.imcommunicationsystem.group.dto.request.UpdateGroupRequest;
 import com.im.imcommunicationsystem.group.dto.response.GroupResponse;
 import com.im.imcommunicationsystem.group.entity.Group;
+import com.im.imcommunicationsystem.group.event.GroupProfileUpdatedEvent;
 import com.im.imcommunicationsystem.group.entity.GroupMember;
 import com.im.imcommunicationsystem.group.entity.GroupMemberId;
 import com.im.imcommunicationsystem.group.enums.GroupMemberRole;
 import com.im.imcommunicationsystem.group.exception.GroupException;
+import com.im.imcommunicationsystem.group.permission.GroupPermissionCache;
 import com.im.imcommunicationsystem.group.repository.GroupMemberRepository;
 import com.im.imcommunicationsystem.group.repository.GroupRepository;
 import com.im.imcommunicationsystem.group.service.GroupService;
@@ -25,6 +29,7 @@ import com.im.imcommunicationsystem.message.repository.ConversationRepository;
 import com.im.imcommunicationsystem.auth.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
@@ -40,11 +45,6 @@ import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.Objects;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.im.imcommunicationsystem.group.repository.GroupAnnouncementRepository;
-import com.im.imcommunicationsystem.group.repository.GroupJoinRequestRepository;
-import com.im.imcommunicationsystem.group.repository.PollRepository;
-import com.im.imcommunicationsystem.group.repository.PollOptionRepository;
-import com.im.imcommunicationsystem.group.repository.PollVoteRepository;
 import com.im.imcommunicationsystem.group.entity.Poll;
 
 /**
@@ -63,11 +63,9 @@ public class GroupServiceImpl implements GroupService {
     private final GroupUtils groupUtils;
     private final WebSocketService webSocketService;
     private final ObjectMapper objectMapper;
-    private final GroupAnnouncementRepository groupAnnouncementRepository;
-    private final GroupJoinRequestRepository groupJoinRequestRepository;
-    private final PollRepository pollRepository;
-    private final PollOptionRepository pollOptionRepository;
-    private final PollVoteRepository pollVoteRepository;
+    private final PurgeJobService purgeJobService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final GroupPermissionCache permissionCache;
 
     @Override
     @Transactional
@@ -264,150 +262,55 @@ public class GroupServiceImpl implements GroupService {
             throw new com.im.imcommunicationsystem.common.exception.BusinessException("只有群主才能解散群组");
         }
         
+        // 先发送解散通知，成员关系清理后就无法通知了
         try {
-            // 0. 先发送解散通知，因为后面删除成员后就无法通知了
-            try {
-                log.debug("步骤0: 预先发送群组解散通知");
-                Map<String, Object> notificationData = new HashMap<>();
-                notificationData.put("type", "GROUP_DISSOLVED");
-                notificationData.put("groupId", groupId);
-                notificationData.put("groupName", group.getName());
-                notificationData.put("operatorId", userId);
-                
-                // 发送WebSocket通知给所有群成员
-                webSocketService.sendGroupUpdate(groupId, notificationData, "GROUP_DISSOLVED", null);
-                log.debug("群组解散通知发送完成");
-            } catch (Exception e) {
-                log.warn("发送群组解散通知失败: {}", e.getMessage(), e);
-                // 通知发送失败不影响解散流程，继续执行
-            }
+            Map<String, Object> notificationData = new HashMap<>();
+            notificationData.put("type", "GROUP_DISSOLVED");
+            notificationData.put("groupId", groupId);
+            notificationData.put("groupName", group.getName());
+            notificationData.put("operatorId", userId);
 
-            // 1. 查找与该群组关联的会话
-            log.debug("步骤1: 查找与群组关联的会话, groupId={}", groupId);
-            Conversation conversation = null;
-            try {
-                conversation = conversationRepository.findByRelatedGroupId(groupId);
-                log.debug("关联会话查询结果: {}", conversation != null ? "找到,ID=" + conversation.getId() : "未找到");
-            } catch (Exception e) {
-                log.warn("查询关联会话时出错: {}", e.getMessage());
-            }
-            
-            if (conversation != null) {
-                Long conversationId = conversation.getId();
-                log.info("处理群组关联会话: groupId={}, conversationId={}", groupId, conversationId);
-                
-                // 2. 删除会话成员
-                try {
-                    log.debug("步骤2: 删除会话成员, conversationId={}", conversationId);
-                    int deletedCount = conversationMemberRepository.deleteByConversationId(conversationId);
-                    log.debug("会话成员删除完成, 删除数量: {}", deletedCount);
-                } catch (Exception e) {
-                    log.error("删除会话成员失败: {}", e.getMessage(), e);
-                }
-                
-                // 3. 删除会话
-                try {
-                    log.debug("步骤3: 删除会话, conversationId={}", conversationId);
-                    conversationRepository.deleteById(conversationId);
-                    log.debug("会话删除完成");
-                } catch (Exception e) {
-                    log.error("删除会话失败: {}", e.getMessage(), e);
-                }
-            }
-            
-            // 4. 使用原生SQL一次性删除投票相关数据，避免乐观锁冲突
-            try {
-                log.debug("步骤4: 一次性删除群组所有投票相关数据");
-                
-                // 4.1. 删除所有投票记录
-                log.debug("步骤4.1: 使用原生SQL删除所有投票记录");
-                int deletedVotesCount = pollVoteRepository.deleteAllByGroupId(groupId);
-                log.debug("投票记录删除完成, 删除数量: {}", deletedVotesCount);
-                
-                // 4.2. 删除所有投票选项
-                log.debug("步骤4.2: 使用原生SQL删除所有投票选项");
-                int deletedOptionsCount = pollOptionRepository.deleteAllByGroupId(groupId);
-                log.debug("投票选项删除完成, 删除数量: {}", deletedOptionsCount);
-                
-                // 4.3. 删除所有投票
-                log.debug("步骤4.3: 使用原生SQL删除所有投票");
-                int deletedPollsCount = pollRepository.deleteByGroupIdNative(groupId);
-                log.debug("投票删除完成, 删除数量: {}", deletedPollsCount);
-            } catch (Exception e) {
-                log.warn("删除投票数据过程中出错: {}", e.getMessage(), e);
-                // 继续执行下一步骤
-            }
-            
-            // 5. 删除群公告
-            try {
-                log.debug("步骤5: 删除群组公告");
-                groupAnnouncementRepository.deleteByGroupId(groupId);
-                log.debug("群组公告删除完成");
-            } catch (Exception e) {
-                log.warn("删除群组公告出错: {}", e.getMessage());
-                // 继续执行下一步骤
-            }
-            
-            // 6. 删除群加入请求
-            try {
-                log.debug("步骤6: 删除群组加入请求");
-                groupJoinRequestRepository.deleteByGroupId(groupId);
-                log.debug("群组加入请求删除完成");
-            } catch (Exception e) {
-                log.warn("删除群组加入请求出错: {}", e.getMessage());
-                // 继续执行下一步骤
-            }
-            
-            // 7. 删除群组成员 - 使用直接的SQL删除，避免内存中加载所有成员
-            try {
-                log.debug("步骤7: 使用SQL直接删除所有群组成员");
-                int deletedMembersCount = groupMemberRepository.deleteByGroupId(groupId);
-                log.debug("群组成员删除完成, 删除数量: {}", deletedMembersCount);
-            } catch (Exception e) {
-                log.error("删除群组成员失败: {}", e.getMessage(), e);
-                // 尝试继续下一步
-            }
-            
-            // 8. 删除群组实体
-            try {
-                log.debug("步骤8: 删除群组实体");
-                groupRepository.deleteById(groupId);
-                log.debug("群组实体删除完成");
-            } catch (Exception e) {
-                log.error("删除群组实体失败: {}", e.getMessage(), e);
-                throw new com.im.imcommunicationsystem.common.exception.BusinessException("删除群组实体失败: " + e.getMessage());
-            }
-            
-            log.info("群组解散成功: groupId={}", groupId);
-        return true;
+            // 发送WebSocket通知给所有群成员
+            webSocketService.sendGroupUpdate(groupId, notificationData, "GROUP_DISSOLVED", null);
+            log.debug("群组解散通知发送完成");
         } catch (Exception e) {
-            log.error("解散群组失败: {}", e.getMessage(), e);
-            throw new com.im.imcommunicationsystem.common.exception.BusinessException("解散群组失败: " + e.getMessage());
+            log.warn("发送群组解散通知失败: {}", e.getMessage(), e);
+            // 通知发送失败不影响解散流程，继续执行
         }
+
+        // 标记解散后群组立即不可访问，成员、消息、投票等关联数据由后台任务分批删除
+        group.setDissolvedAt(LocalDateTime.now());
+        groupRepository.save(group);
+        purgeJobService.submit(PurgeJobType.GROUP_DISSOLVE, groupId);
+
+        log.info("群组已解散，关联数据转入后台清理: groupId={}", groupId);
+        return true;
     }
 
     @Override
     public boolean isGroupMember(Long groupId, Long userId) {
-        return groupRepository.existsByIdGroupIdAndIdUserId(groupId, userId);
+        return permissionCache.getMember(groupId, userId).isMember();
     }
 
     @Override
     public boolean isGroupAdmin(Long groupId, Long userId) {
-        Optional<GroupMember> member = groupMemberRepository.findByIdGroupIdAndIdUserId(groupId, userId);
-        return member.isPresent() && 
-               (member.get().getRole() == GroupMemberRole.admin || member.get().getRole() == GroupMemberRole.owner);
+        GroupMemberRole role = permissionCache.getMember(groupId, userId).getRole();
+        return role == GroupMemberRole.admin || role == GroupMemberRole.owner;
     }
 
     @Override
     public boolean isGroupOwner(Long groupId, Long userId) {
-        Optional<GroupMember> member = groupMemberRepository.findByIdGroupIdAndIdUserId(groupId, userId);
-        return member.isPresent() && member.get().getRole() == GroupMemberRole.owner;
+        return permissionCache.getMember(groupId, userId).getRole() == GroupMemberRole.owner;
     }
 
     @Override
     public Group getGroupEntityById(Long groupId) {
-        return groupRepository.findById(groupId)
+        Group group = groupRepository.findById(groupId)
                 .orElseThrow(() -> new GroupException("群组不存在"));
+        if (group.getDissolvedAt() != null) {
+            throw GroupException.groupDissolved(groupId);
+        }
+        return group;
     }
 
     @Override
@@ -469,46 +372,11 @@ public class GroupServiceImpl implements GroupService {
             
             // 保存更新后的群组信息
             group = groupRepository.save(group);
-            final Group finalGroup = group;
             log.info("群组信息更新成功: groupId={}", groupId);
             
-            // 查找关联的会话，同步更新会话信息
-            // 查找与群组相关的会话
-            List<Conversation> conversations = conversationRepository.findAll().stream()
-                    .filter(c -> c.getConversationType() == ConversationType.GROUP)
-                    .filter(c -> groupId.equals(c.getRelatedGroupId()))
-                    .collect(Collectors.toList());
-            
-            if (!conversations.isEmpty()) {
-                log.info("找到与群组{}关联的会话: count={}", groupId, conversations.size());
-                
-                for (Conversation conversation : conversations) {
-                    // 同步更新会话的名称和头像
-                    conversation.setName(finalGroup.getName());
-                    conversation.setAvatarUrl(finalGroup.getAvatarUrl());
-                    
-                    conversationRepository.save(conversation);
-                    log.info("同步更新会话信息成功: conversationId={}", conversation.getId());
-                    
-                    // 发送会话更新通知
-                    webSocketService.sendConversationUpdate(
-                        conversation.getId(),
-                        buildConversationUpdateData(conversation),
-                        "UPDATE",
-                        null
-                    );
-                }
-            } else {
-                log.warn("未找到与群组{}关联的会话", groupId);
-            }
-            
-            // 发送群组更新通知
-            webSocketService.sendGroupUpdate(
-                groupId,
-                buildGroupResponse(group, userId),
-                "UPDATE",
-                null
-            );
+            // 关联会话的同步和群成员通知由群组资料投影器处理
+            eventPublisher.publishEvent(new GroupProfileUpdatedEvent(this, groupId, group.getName(),
+                    group.getAvatarUrl(), buildGroupResponse(group, userId)));
             
             return buildGroupResponse(group, userId);
         } catch (Exception e) {
@@ -517,19 +385,6 @@ public class GroupServiceImpl implements GroupService {
         }
     }
     
-    /**
-     * 构建会话更新数据
-     */
-    private Map<String, Object> buildConversationUpdateData(Conversation conversation) {
-        Map<String, Object> data = new HashMap<>();
-        data.put("id", conversation.getId());
-        data.put("name", conversation.getName());
-        data.put("avatarUrl", conversation.getAvatarUrl());
-        data.put("conversationType", conversation.getConversationType());
-        data.put("lastActiveAt", conversation.getLastActiveAt());
-        return data;
-    }
-    
     /**
      * 从Map中获取Long值
      */
@@ -0,0 +1,191 @@
+package com.im.imcommunicationsystem.group.service.impl;
+
+import com.im.imcommunicationsystem.group.config.GroupConfig;
+import com.im.imcommunicationsystem.group.enums.PollStatus;
+import com.im.imcommunicationsystem.group.event.PollEndedEvent;
+import com.im.imcommunicationsystem.group.repository.PollRepository;
+import com.im.imcommunicationsystem.group.service.PollExpiryService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 投票到期服务实现类
+ * 已登记的投票按（结束时间，投票ID）保存在跳表中，每次检查只取出表头已到期的部分，
+ * 没有到期投票时不访问数据库；到期的投票以一条 UPDATE ... WHERE id IN 批量关闭。
+ * 只登记预读窗口内到期的投票，内存占用与即将到期的投票数相关而与进行中的投票总数无关
+ */
+@Service
+@Slf4j
+public class PollExpiryServiceImpl implements PollExpiryService {
+
+    private static final int CLOSE_BATCH_SIZE = 500;
+
+    private static final Comparator<Deadline> DEADLINE_ORDER =
+            Comparator.comparing((Deadline deadline) -> deadline.endTime).thenComparing(deadline -> deadline.pollId);
+
+    private final PollRepository pollRepository;
+    private final GroupConfig groupConfig;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * 按结束时间排序的待关闭投票
+     */
+    private final ConcurrentSkipListSet<Deadline> deadlines = new ConcurrentSkipListSet<>(DEADLINE_ORDER);
+
+    /**
+     * 已登记投票的结束时间，用于去重和替换
+     */
+    private final ConcurrentHashMap<Long, LocalDateTime> scheduled = new ConcurrentHashMap<>();
+
+    /**
+     * 串行化本实例的到期关闭
+     */
+    private final ReentrantLock closeLock = new ReentrantLock();
+
+    public PollExpiryServiceImpl(PollRepository pollRepository,
+                                 GroupConfig groupConfig,
+                                 ApplicationEventPublisher eventPublisher,
+                                 PlatformTransactionManager transactionManager) {
+        this.pollRepository = pollRepository;
+        this.groupConfig = groupConfig;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void schedule(Long pollId, LocalDateTime endTime) {
+        if (pollId == null || endTime == null) {
+            return;
+        }
+        LocalDateTime previous = scheduled.put(pollId, endTime);
+        if (previous != null) {
+            if (previous.equals(endTime)) {
+                return;
+            }
+            deadlines.remove(new Deadline(pollId, previous));
+        }
+        deadlines.add(new Deadline(pollId, endTime));
+    }
+
+    @Override
+    public int closeDuePolls() {
+        LocalDateTime now = LocalDateTime.now();
+        Deadline first = deadlines.isEmpty() ? null : deadlines.first();
+        if (first == null || first.endTime.isAfter(now)) {
+            return 0;
+        }
+
+        closeLock.lock();
+        try {
+            List<Long> due = new ArrayList<>();
+            Deadline head;
+            while ((head = deadlines.isEmpty() ? null : deadlines.first()) != null && !head.endTime.isAfter(now)) {
+                if (deadlines.remove(head)) {
+                    scheduled.remove(head.pollId, head.endTime);
+                    due.add(head.pollId);
+                }
+            }
+
+            int closed = 0;
+            for (int from = 0; from < due.size(); from += CLOSE_BATCH_SIZE) {
+                List<Long> batch = due.subList(from, Math.min(from + CLOSE_BATCH_SIZE, due.size()));
+                closed += closeBatch(batch, now);
+            }
+            if (closed > 0) {
+                log.info("投票到期自动关闭: polls={}", closed);
+            }
+            return closed;
+        } finally {
+            closeLock.unlock();
+        }
+    }
+
+    @Override
+    public int loadUpcoming() {
+        LocalDateTime until = LocalDateTime.now().plusMinutes(groupConfig.getPollExpiryHorizonMinutes());
+        List<Object[]> rows = pollRepository.findDeadlinesBefore(PollStatus.ACTIVE, until);
+        for (Object[] row : rows) {
+            schedule((Long) row[0], (LocalDateTime) row[1]);
+        }
+        log.debug("预读即将到期的投票: polls={}, scheduled={}", rows.size(), scheduled.size());
+        return rows.size();
+    }
+
+    /**
+     * 启动后立即预读，逾期未关闭的投票会在下一次检查时关闭
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        try {
+            int loaded = loadUpcoming();
+            log.info("投票到期调度已启动，登记即将到期的投票: {}", loaded);
+        } catch (Exception e) {
+            log.error("启动时预读即将到期的投票失败", e);
+        }
+    }
+
+    // ==================== 私有辅助方法 ====================
+
+    /**
+     * 在一个事务中锁定并关闭一批到期投票，只对本事务从进行中改为已结束的投票发布结束事件（事件在提交后处理），
+     * 其他实例或手动结束已关闭的投票不会重复发布；失败时重新登记，下一次检查重试
+     */
+    private int closeBatch(List<Long> pollIds, LocalDateTime now) {
+        try {
+            Integer closed = transactionTemplate.execute(status -> {
+                List<Object[]> rows = pollRepository.lockDueByIdIn(pollIds, now);
+                if (rows.isEmpty()) {
+                    return 0;
+                }
+                List<Long> ids = new ArrayList<>(rows.size());
+                for (Object[] row : rows) {
+                    ids.add(((Number) row[0]).longValue());
+                }
+                int updated = pollRepository.updateStatusByIdIn(ids, PollStatus.ACTIVE, PollStatus.ENDED);
+                if (updated != ids.size()) {
+                    // 行锁保证不会发生，防御性地回滚整批并在下次检查时重试
+                    throw new IllegalStateException("关闭到期投票时状态已变化: locked=" + ids.size() + ", updated=" + updated);
+                }
+                for (Object[] row : rows) {
+                    eventPublisher.publishEvent(new PollEndedEvent(this, ((Number) row[0]).longValue(),
+                            ((Number) row[1]).longValue(), PollEndedEvent.Reason.EXPIRED));
+                }
+                return rows.size();
+            });
+            return closed != null ? closed : 0;
+        } catch (Exception e) {
+            log.error("批量关闭到期投票失败，将在下次检查时重试: size={}, error={}", pollIds.size(), e.getMessage(), e);
+            for (Long pollId : pollIds) {
+                schedule(pollId, now);
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * 一个投票的结束时间
+     */
+    private static final class Deadline {
+        private final Long pollId;
+        private final LocalDateTime endTime;
+
+        private Deadline(Long pollId, LocalDateTime endTime) {
+            this.pollId = pollId;
+            this.endTime = endTime;
+        }
+    }
+}
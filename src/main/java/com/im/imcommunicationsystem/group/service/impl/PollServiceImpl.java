@@ -9,21 +9,26 @@ import com.im.imcommunicationsystem.group.dto.response.PollOptionResponse;
 import com.im.imcommunicationsystem.group.dto.response.PollResponse;
 import com.im.imcommunicationsystem.group.dto.response.VoterResponse;
 import com.im.imcommunicationsystem.group.entity.Group;
-import com.im.imcommunicationsystem.group.entity.GroupMember;
 import com.im.imcommunicationsystem.group.entity.Poll;
 import com.im.imcommunicationsystem.group.entity.PollOption;
 import com.im.imcommunicationsystem.group.entity.PollVote;
+import com.im.imcommunicationsystem.group.enums.GroupAction;
 import com.im.imcommunicationsystem.group.enums.GroupMemberRole;
 import com.im.imcommunicationsystem.group.enums.PollStatus;
-import com.im.imcommunicationsystem.group.repository.GroupMemberRepository;
 import com.im.imcommunicationsystem.group.repository.GroupRepository;
 import com.im.imcommunicationsystem.group.repository.PollOptionRepository;
 import com.im.imcommunicationsystem.group.repository.PollRepository;
 import com.im.imcommunicationsystem.group.repository.PollVoteRepository;
+import com.im.imcommunicationsystem.group.event.PollEndedEvent;
+import com.im.imcommunicationsystem.group.service.GroupPermissionService;
+import com.im.imcommunicationsystem.group.service.GroupPermissionService.GroupAuthorization;
+import com.im.imcommunicationsystem.group.service.PollExpiryService;
 import com.im.imcommunicationsystem.group.service.PollService;
+import com.im.imcommunicationsystem.group.service.PollTallyService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
@@ -40,7 +45,6 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.stream.Collectors;
 
 /**
@@ -55,8 +59,11 @@ public class PollServiceImpl implements PollService {
     private final PollOptionRepository pollOptionRepository;
     private final PollVoteRepository pollVoteRepository;
     private final GroupRepository groupRepository;
-    private final GroupMemberRepository groupMemberRepository;
     private final UserRepository userRepository;
+    private final PollTallyService pollTallyService;
+    private final PollExpiryService pollExpiryService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final GroupPermissionService groupPermissionService;
     
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
     
@@ -65,19 +72,19 @@ public class PollServiceImpl implements PollService {
     public PollResponse createPoll(Long groupId, Long userId, CreatePollRequest request) {
         log.info("创建群投票: groupId={}, userId={}, title={}", groupId, userId, request.getTitle());
         
-        // 检查群组是否存在
-        Group group = groupRepository.findById(groupId)
-                .orElseThrow(() -> new BusinessException("群组不存在"));
-        
-        // 检查群组是否被封禁
-        if (Boolean.TRUE.equals(group.getIsBanned())) {
-            String reason = group.getBannedReason() != null ? "，原因：" + group.getBannedReason() : "";
-            throw new BusinessException("该群组已被封禁，无法创建投票" + reason);
-        }
-        
-        // 验证用户是否为群组成员
-        if (!groupMemberRepository.findByIdGroupIdAndIdUserId(groupId, userId).isPresent()) {
-            throw new BusinessException("您不是该群组成员，无法创建投票");
+        // 检查群组状态和成员身份（来自群组权限缓存）
+        GroupAuthorization authorization = groupPermissionService.authorize(groupId, userId, GroupAction.CREATE_POLL);
+        if (!authorization.isAllowed()) {
+            switch (authorization.getDenial()) {
+                case GROUP_BANNED:
+                    String reason = authorization.getBannedReason() != null ? "，原因：" + authorization.getBannedReason() : "";
+                    throw new BusinessException("该群组已被封禁，无法创建投票" + reason);
+                case NOT_MEMBER:
+                case INSUFFICIENT_ROLE:
+                    throw new BusinessException("您不是该群组成员，无法创建投票");
+                default:
+                    throw new BusinessException(authorization.getMessage());
+            }
         }
         
         // 验证请求参数
@@ -174,41 +181,22 @@ public class PollServiceImpl implements PollService {
         options = pollOptionRepository.saveAll(options);
         poll.setOptions(options);
         
+        // 登记结束时间，到期后由调度自动关闭
+        pollExpiryService.schedule(poll.getId(), poll.getEndTime());
+        
         // 构建响应
         return buildPollResponse(poll, userId, new HashMap<>());
     }
     
     /**
-     * 检查和更新过期投票状态
-     * @param poll 投票对象
-     * @return 如果状态被更新返回true，否则返回false
-     */
-    private boolean checkAndUpdateExpiredPollStatus(Poll poll) {
-        if (poll.getStatus() == PollStatus.ACTIVE && 
-            poll.getEndTime() != null && 
-            poll.getEndTime().isBefore(LocalDateTime.now())) {
-            
-            log.info("投票已过期，更新状态: pollId={}, endTime={}", poll.getId(), poll.getEndTime());
-            poll.setStatus(PollStatus.ENDED);
-            pollRepository.save(poll);
-            return true;
-        }
-        return false;
-    }
-    
-    /**
-     * 批量检查和更新过期投票状态
-     * @param polls 投票对象列表
-     * @return 更新的投票数量
+     * 已到结束时间但尚未被到期调度关闭的投票按已结束展示（只读判断，不更新数据库）
      */
-    private int batchCheckAndUpdateExpiredPollStatus(List<Poll> polls) {
-        int updatedCount = 0;
-        for (Poll poll : polls) {
-            if (checkAndUpdateExpiredPollStatus(poll)) {
-                updatedCount++;
-            }
+    private PollStatus effectiveStatus(Poll poll) {
+        if (poll.getStatus() == PollStatus.ACTIVE && poll.getEndTime() != null
+                && !poll.getEndTime().isAfter(LocalDateTime.now())) {
+            return PollStatus.ENDED;
         }
-        return updatedCount;
+        return poll.getStatus();
     }
     
     @Override
@@ -219,14 +207,18 @@ public class PollServiceImpl implements PollService {
         Poll poll = pollRepository.findById(pollId)
                 .orElseThrow(() -> new BusinessException("投票不存在"));
         
-        // 检查是否过期
-        checkAndUpdateExpiredPollStatus(poll);
-        
         // 验证用户是否为群组成员
-        if (!groupMemberRepository.findByIdGroupIdAndIdUserId(poll.getGroupId(), userId).isPresent()) {
+        if (!groupPermissionService.authorize(poll.getGroupId(), userId, GroupAction.VIEW).isAllowed()) {
             throw new BusinessException("您不是该群组成员，无法查看投票");
         }
         
+        // 进行中的投票从内存计票读取结果
+        if (effectiveStatus(poll) == PollStatus.ACTIVE) {
+            PollTallyService.TallySnapshot tally = pollTallyService.getOrLoad(pollId, userId);
+            return buildPollResponse(poll, userId, tally.getOptions(), tally.getUserOptionIds(),
+                    tally.getOptionVoteCount());
+        }
+        
         // 获取投票选项和投票数据
         Map<Long, Long> optionVoteCount = getOptionVoteCount(pollId);
         
@@ -239,14 +231,11 @@ public class PollServiceImpl implements PollService {
         try {
             log.info("获取群组投票列表: groupId={}, userId={}, status={}", groupId, userId, status);
             
-            // 验证群组是否存在
-            if (!groupRepository.existsById(groupId)) {
-                throw new BusinessException("群组不存在");
-            }
-            
-            // 验证用户是否为群组成员
-            if (!groupMemberRepository.findByIdGroupIdAndIdUserId(groupId, userId).isPresent()) {
-                throw new BusinessException("您不是该群组成员，无法查看投票");
+            // 验证群组是否存在及用户是否为群组成员
+            GroupAuthorization authorization = groupPermissionService.authorize(groupId, userId, GroupAction.VIEW);
+            if (!authorization.isAllowed()) {
+                throw new BusinessException(authorization.getDenial() == GroupAuthorization.Denial.GROUP_NOT_FOUND
+                        ? "群组不存在" : "您不是该群组成员，无法查看投票");
             }
             
             // 获取投票列表
@@ -267,19 +256,7 @@ public class PollServiceImpl implements PollService {
             
             log.debug("查询到投票数量: {}", pollsPage.getTotalElements());
             
-            // 检查并更新过期投票状态
             List<Poll> polls = pollsPage.getContent();
-            int updatedCount = batchCheckAndUpdateExpiredPollStatus(polls);
-            if (updatedCount > 0) {
-                log.info("已将{}个过期投票状态更新为已结束", updatedCount);
-                
-                // 如果是按ACTIVE状态筛选，且有投票状态被更新，则需要重新查询
-                if (status == PollStatus.ACTIVE && updatedCount > 0) {
-                    log.debug("重新查询活动状态投票");
-                    pollsPage = pollRepository.findByGroupIdAndStatusOrderByCreatedAtDesc(groupId, status, pageable);
-                    polls = pollsPage.getContent();
-                }
-            }
             
             // 获取所有投票的选项和投票数据
             List<Long> pollIds = polls.stream()
@@ -321,8 +298,16 @@ public class PollServiceImpl implements PollService {
             
             for (Poll poll : pollsPage.getContent()) {
                 try {
-                    Map<Long, Long> optionVoteCount = allOptionVoteCounts.getOrDefault(poll.getId(), new HashMap<>());
-                    PollResponse response = buildPollResponse(poll, userId, optionVoteCount);
+                    // 已加载内存计票的投票包含尚未写回的票数
+                    PollTallyService.TallySnapshot tally = pollTallyService.getIfLoaded(poll.getId(), userId);
+                    PollResponse response;
+                    if (tally != null) {
+                        response = buildPollResponse(poll, userId, tally.getOptions(), tally.getUserOptionIds(),
+                                tally.getOptionVoteCount());
+                    } else {
+                        Map<Long, Long> optionVoteCount = allOptionVoteCounts.getOrDefault(poll.getId(), new HashMap<>());
+                        response = buildPollResponse(poll, userId, optionVoteCount);
+                    }
                     responses.add(response);
                 } catch (Exception e) {
                     log.error("构建投票响应对象时出错，投票ID={}: {}", poll.getId(), e.getMessage(), e);
@@ -340,149 +325,53 @@ public class PollServiceImpl implements PollService {
     
     /**
      * 参与投票
+     * 投票状态、群组封禁和成员身份由一条查询校验，选项校验、去重和计票在内存计票中完成，投票记录异步批量写回
      */
     @Override
-    @Transactional
     public PollResponse voteOnPoll(Long pollId, Long userId, VotePollRequest request) {
         try {
-            log.info("参与投票: pollId={}, userId={}, options={}", pollId, userId, request.getOptionIds());
-            
             if (request == null || request.getOptionIds() == null || request.getOptionIds().isEmpty()) {
                 throw new BusinessException("投票选项不能为空");
             }
+            log.info("参与投票: pollId={}, userId={}, options={}", pollId, userId, request.getOptionIds());
             
-            // 获取投票信息
-            Poll poll;
-            try {
-                poll = pollRepository.findById(pollId)
-                    .orElseThrow(() -> new BusinessException("投票不存在"));
-                log.debug("找到投票: {}", poll.getTitle());
-            } catch (Exception e) {
-                log.error("查询投票信息失败: pollId={}, error={}", pollId, e.getMessage(), e);
-                throw new BusinessException("投票不存在或已被删除");
+            List<Object[]> contextRows = pollRepository.findVoteContext(pollId, userId);
+            if (contextRows.isEmpty()) {
+                if (!pollRepository.existsById(pollId)) {
+                    throw new BusinessException("投票不存在或已被删除");
+                }
+                log.warn("非群组成员尝试参与投票: pollId={}, userId={}", pollId, userId);
+                throw new BusinessException("您不是该群组成员，无法参与投票");
             }
+            Object[] context = contextRows.get(0);
+            PollStatus status = (PollStatus) context[1];
+            LocalDateTime endTime = (LocalDateTime) context[2];
+            boolean multiple = Boolean.TRUE.equals(context[3]);
             
             // 检查群组是否被封禁
-            Group group = groupRepository.findById(poll.getGroupId())
-                    .orElseThrow(() -> new BusinessException("群组不存在"));
-            if (Boolean.TRUE.equals(group.getIsBanned())) {
-                String reason = group.getBannedReason() != null ? "，原因：" + group.getBannedReason() : "";
+            if (Boolean.TRUE.equals(context[4])) {
+                String reason = context[5] != null ? "，原因：" + context[5] : "";
                 throw new BusinessException("该群组已被封禁，无法参与投票" + reason);
             }
             
-            // 检查是否过期，如果过期则自动更新状态
-            if (checkAndUpdateExpiredPollStatus(poll)) {
+            // 已到结束时间的投票由到期调度关闭，这里只拒绝投票
+            if (status == PollStatus.ACTIVE && endTime != null && !endTime.isAfter(LocalDateTime.now())) {
+                log.info("投票已过期: pollId={}, endTime={}", pollId, endTime);
+                pollExpiryService.schedule(pollId, endTime);
                 throw new BusinessException("该投票已过期，无法参与");
             }
             
             // 验证投票是否处于活动状态
-            if (poll.getStatus() != PollStatus.ACTIVE) {
-                log.warn("尝试参与非活动状态的投票: pollId={}, userId={}, status={}", 
-                        pollId, userId, poll.getStatus());
+            if (status != PollStatus.ACTIVE) {
+                log.warn("尝试参与非活动状态的投票: pollId={}, userId={}, status={}", pollId, userId, status);
                 throw new BusinessException("该投票已结束或已取消，无法参与");
             }
             
-            // 验证结束时间
-            if (poll.getEndTime() != null && poll.getEndTime().isBefore(LocalDateTime.now())) {
-                log.info("投票已过期，自动更新状态: pollId={}, endTime={}", pollId, poll.getEndTime());
-                poll.setStatus(PollStatus.ENDED);
-                pollRepository.save(poll);
-                throw new BusinessException("该投票已过期，无法参与");
-            }
-            
-            // 验证用户是否为群组成员
-            try {
-                boolean isMember = groupMemberRepository.findByIdGroupIdAndIdUserId(poll.getGroupId(), userId).isPresent();
-                if (!isMember) {
-                    log.warn("非群组成员尝试参与投票: pollId={}, userId={}, groupId={}", 
-                            pollId, userId, poll.getGroupId());
-                    throw new BusinessException("您不是该群组成员，无法参与投票");
-                }
-            } catch (Exception e) {
-                if (e instanceof BusinessException) throw e;
-                log.error("验证群组成员资格失败: pollId={}, userId={}, error={}", 
-                        pollId, userId, e.getMessage(), e);
-                throw new BusinessException("验证用户资格失败，请稍后重试");
-            }
-            
-            // 验证用户是否已经投过票
-            try {
-                boolean hasVoted = pollVoteRepository.existsByPollIdAndUserId(pollId, userId);
-                if (hasVoted) {
-                    log.warn("用户尝试重复投票: pollId={}, userId={}", pollId, userId);
-                    throw new BusinessException("您已经参与过此投票，不能重复投票");
-                }
-            } catch (Exception e) {
-                if (e instanceof BusinessException) throw e;
-                log.error("检查用户投票状态失败: pollId={}, userId={}, error={}", 
-                        pollId, userId, e.getMessage(), e);
-                throw new BusinessException("检查投票状态失败，请稍后重试");
-            }
-            
-            // 验证是否为单选
-            if (!poll.getIsMultiple() && request.getOptionIds().size() > 1) {
-                log.warn("单选投票提交了多个选项: pollId={}, userId={}, optionCount={}", 
-                        pollId, userId, request.getOptionIds().size());
-                throw new BusinessException("此投票为单选，只能选择一个选项");
-            }
-            
-            // 获取所有选项
-            List<PollOption> options;
-            try {
-                options = pollOptionRepository.findAllById(request.getOptionIds());
-                if (options.size() != request.getOptionIds().size()) {
-                    log.warn("提交了无效的选项ID: pollId={}, requestedIds={}, foundIds={}", 
-                            pollId, request.getOptionIds(), options.stream().map(PollOption::getId).collect(Collectors.toList()));
-                    throw new BusinessException("部分选项无效");
-                }
-            } catch (Exception e) {
-                if (e instanceof BusinessException) throw e;
-                log.error("查询投票选项失败: pollId={}, optionIds={}, error={}", 
-                        pollId, request.getOptionIds(), e.getMessage(), e);
-                throw new BusinessException("投票选项查询失败，请稍后重试");
-            }
-            
-            for (PollOption option : options) {
-                if (!option.getPollId().equals(pollId)) {
-                    log.warn("选项不属于当前投票: pollId={}, optionId={}, belongsToPollId={}", 
-                            pollId, option.getId(), option.getPollId());
-                    throw new BusinessException("选项不属于当前投票");
-                }
-            }
-            
-            // 保存投票记录 - 修复关联对象设置
-            List<PollVote> votes = new ArrayList<>();
-            for (PollOption option : options) {
-                PollVote vote = PollVote.builder()
-                        .poll(poll)       // 设置关联的Poll对象而不是pollId
-                        .option(option)   // 设置关联的PollOption对象而不是optionId
-                        .userId(userId)
-                        .votedAt(LocalDateTime.now())
-                        .build();
-                votes.add(vote);
-            }
-            
-            try {
-                pollVoteRepository.saveAll(votes);
-                log.info("用户投票成功: pollId={}, userId={}, optionIds={}", 
-                        pollId, userId, request.getOptionIds());
-            } catch (Exception e) {
-                log.error("保存投票记录失败: pollId={}, userId={}, error={}", 
-                        pollId, userId, e.getMessage(), e);
-                throw new BusinessException("保存投票失败，请稍后重试");
-            }
+            PollTallyService.TallySnapshot tally = pollTallyService.castVote(pollId, userId, request.getOptionIds(), multiple);
+            log.info("用户投票成功: pollId={}, userId={}, optionIds={}", pollId, userId, request.getOptionIds());
             
-            // 更新投票信息
-            Map<Long, Long> optionVoteCount;
-            try {
-                optionVoteCount = getOptionVoteCount(pollId);
-            } catch (Exception e) {
-                log.error("获取投票统计失败: pollId={}, error={}", pollId, e.getMessage(), e);
-                // 使用空映射继续处理
-                optionVoteCount = new HashMap<>();
-            }
-            
-            return buildPollResponse(poll, userId, optionVoteCount);
+            return buildPollResponse(tally.getPoll(), userId, tally.getOptions(), tally.getUserOptionIds(),
+                    tally.getOptionVoteCount());
         } catch (BusinessException e) {
             throw e;
         } catch (Exception e) {
@@ -497,9 +386,15 @@ public class PollServiceImpl implements PollService {
     public PollResponse endPoll(Long pollId, Long groupId, Long userId) {
         log.info("结束投票: pollId={}, groupId={}, userId={}", pollId, groupId, userId);
         
-        // 获取投票信息
-        Poll poll = pollRepository.findById(pollId)
+        // 在锁定投票之前读取包含未写回投票的结果（写回投票记录需要读取投票行），计票在状态提交后关闭并写回
+        PollTallyService.TallySnapshot tally = pollTallyService.getIfLoaded(pollId, userId);
+        
+        // 获取投票信息并锁定，与到期关闭互斥，已结束的投票不再发布结束事件
+        Poll poll = pollRepository.findByIdForUpdate(pollId)
                 .orElseThrow(() -> new BusinessException("投票不存在"));
+        if (poll.getStatus() != PollStatus.ACTIVE) {
+            throw new BusinessException("该投票已结束或已取消");
+        }
         
         // 验证群组ID
         if (!poll.getGroupId().equals(groupId)) {
@@ -523,7 +418,14 @@ public class PollServiceImpl implements PollService {
         poll.setStatus(PollStatus.ENDED);
         poll = pollRepository.save(poll);
         
+        pollTallyService.release(pollId);
+        eventPublisher.publishEvent(new PollEndedEvent(this, pollId, groupId, PollEndedEvent.Reason.MANUAL));
+        
         // 更新投票信息
+        if (tally != null) {
+            return buildPollResponse(poll, userId, tally.getOptions(), tally.getUserOptionIds(),
+                    tally.getOptionVoteCount());
+        }
         Map<Long, Long> optionVoteCount = getOptionVoteCount(pollId);
         return buildPollResponse(poll, userId, optionVoteCount);
     }
@@ -547,11 +449,20 @@ public class PollServiceImpl implements PollService {
             throw new BusinessException("您没有权限取消此投票");
         }
         
+        // 在更新状态之前读取包含未写回投票的结果，计票在状态提交后关闭并写回
+        PollTallyService.TallySnapshot tally = pollTallyService.getIfLoaded(pollId, userId);
+        
         // 更新投票状态
         poll.setStatus(PollStatus.CANCELED);
         poll = pollRepository.save(poll);
         
+        pollTallyService.release(pollId);
+        
         // 更新投票信息
+        if (tally != null) {
+            return buildPollResponse(poll, userId, tally.getOptions(), tally.getUserOptionIds(),
+                    tally.getOptionVoteCount());
+        }
         Map<Long, Long> optionVoteCount = getOptionVoteCount(pollId);
         return buildPollResponse(poll, userId, optionVoteCount);
     }
@@ -580,19 +491,40 @@ public class PollServiceImpl implements PollService {
             return true;
         }
         
-        Optional<GroupMember> memberOpt = groupMemberRepository.findByIdGroupIdAndIdUserId(groupId, userId);
-        if (memberOpt.isPresent()) {
-            GroupMember member = memberOpt.get();
-            return member.getRole() == GroupMemberRole.admin || member.getRole() == GroupMemberRole.owner;
-        }
-        
-        return false;
+        return groupPermissionService.validatePermission(groupId, userId, GroupMemberRole.admin.name());
     }
     
     /**
      * 构建投票响应对象
      */
     private PollResponse buildPollResponse(Poll poll, Long currentUserId, Map<Long, Long> optionVoteCount) {
+        // 获取投票选项列表
+        List<PollOption> options;
+        try {
+            options = pollOptionRepository.findByPollIdOrderByDisplayOrder(poll.getId());
+        } catch (Exception e) {
+            log.error("获取投票选项时出错: {}", e.getMessage(), e);
+            options = Collections.emptyList();
+        }
+        
+        // 获取用户投票记录
+        List<Long> userVotedOptionIds = new ArrayList<>();
+        try {
+            userVotedOptionIds = pollVoteRepository.findByPollIdAndUserId(poll.getId(), currentUserId).stream()
+                    .map(PollVote::getOptionId)
+                    .collect(Collectors.toList());
+        } catch (Exception e) {
+            log.error("获取用户投票记录时出错: {}", e.getMessage(), e);
+        }
+        
+        return buildPollResponse(poll, currentUserId, options, userVotedOptionIds, optionVoteCount);
+    }
+    
+    /**
+     * 由已加载的选项和用户投票记录构建投票响应对象
+     */
+    private PollResponse buildPollResponse(Poll poll, Long currentUserId, List<PollOption> options,
+                                           List<Long> userVotedOptionIds, Map<Long, Long> optionVoteCount) {
         try {
             // 获取创建者信息
             User creator = null;
@@ -610,28 +542,6 @@ public class PollServiceImpl implements PollService {
                 // 继续处理，使用默认值
             }
             
-            // 获取投票选项列表
-            List<PollOption> options;
-            try {
-                options = pollOptionRepository.findByPollIdOrderByDisplayOrder(poll.getId());
-            } catch (Exception e) {
-                log.error("获取投票选项时出错: {}", e.getMessage(), e);
-                options = Collections.emptyList();
-            }
-            
-            // 获取用户投票记录
-            List<PollVote> userVotes;
-            List<Long> userVotedOptionIds = new ArrayList<>();
-            try {
-                userVotes = pollVoteRepository.findByPollIdAndUserId(poll.getId(), currentUserId);
-                userVotedOptionIds = userVotes.stream()
-                        .map(PollVote::getOptionId)
-                        .collect(Collectors.toList());
-            } catch (Exception e) {
-                log.error("获取用户投票记录时出错: {}", e.getMessage(), e);
-                userVotes = Collections.emptyList();
-            }
-            
             // 计算总投票人数和选项百分比
             long totalVotes = optionVoteCount != null ? 
                     optionVoteCount.values().stream().mapToLong(Long::longValue).sum() : 0;
@@ -670,7 +580,7 @@ public class PollServiceImpl implements PollService {
             }
             
             // 判断当前用户是否已投票
-            boolean hasVoted = !userVotes.isEmpty();
+            boolean hasVoted = !userVotedOptionIds.isEmpty();
             
             // 构建投票响应对象
             return PollResponse.builder()
@@ -683,7 +593,7 @@ public class PollServiceImpl implements PollService {
                     .description(poll.getDescription() != null ? poll.getDescription() : "")
                     .isMultiple(poll.getIsMultiple() != null ? poll.getIsMultiple() : false)
                     .isAnonymous(poll.getIsAnonymous() != null ? poll.getIsAnonymous() : false)
-                    .status(poll.getStatus())
+                    .status(effectiveStatus(poll))
                     .createdAt(poll.getCreatedAt())
                     .endTime(poll.getEndTime())
                     .totalVoters(totalVotes)
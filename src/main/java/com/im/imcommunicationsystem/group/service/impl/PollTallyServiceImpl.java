@@ -0,0 +1,592 @@
+package com.im.imcommunicationsystem.group.service.impl;
+
+import com.im.imcommunicationsystem.common.exception.BusinessException;
+import com.im.imcommunicationsystem.common.service.WebSocketService;
+import com.im.imcommunicationsystem.group.config.GroupConfig;
+import com.im.imcommunicationsystem.group.entity.Poll;
+import com.im.imcommunicationsystem.group.entity.PollOption;
+import com.im.imcommunicationsystem.group.entity.PollVote;
+import com.im.imcommunicationsystem.group.enums.PollStatus;
+import com.im.imcommunicationsystem.group.repository.PollOptionRepository;
+import com.im.imcommunicationsystem.group.repository.PollRepository;
+import com.im.imcommunicationsystem.group.repository.PollVoteRepository;
+import com.im.imcommunicationsystem.group.service.PollTallyService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 投票内存计票服务实现类
+ * 每个投票的选项票数用 LongAdder 分段累加，投票时持有计票的读锁，多个投票并发计入互不阻塞；
+ * 用户先在本实例内存中以 putIfAbsent 去重，再同步写入 (poll_id, user_id) 参与记录，由主键保证跨实例不能重复投票。
+ * 投票记录进入待写回队列，由定时任务在独立事务中以 INSERT IGNORE 批量写回，提交后才从未写回计数中扣除，
+ * 写回失败时一直保留在队列中重试。
+ * 查询结果时票数取自数据库已写回的记录加上本实例尚未写回的增量，其他实例上的投票写回后即可见；
+ * 写回提交与扣除未写回计数在写锁内完成，读取在读锁内进行，同一张选票不会被重复计算或遗漏。
+ * 释放计票需要持有写锁，有进行中的投票或未写回记录的计票不会被释放；结束或取消的投票在状态提交后关闭计票，
+ * 在其之后到达的投票即使读到旧状态也会被拒绝
+ */
+@Service
+@Slf4j
+public class PollTallyServiceImpl implements PollTallyService {
+
+    private final PollRepository pollRepository;
+    private final PollOptionRepository pollOptionRepository;
+    private final PollVoteRepository pollVoteRepository;
+    private final WebSocketService webSocketService;
+    private final GroupConfig groupConfig;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readTemplate;
+
+    /**
+     * 已加载的计票，键为投票ID
+     */
+    private final ConcurrentHashMap<Long, Tally> tallies = new ConcurrentHashMap<>();
+
+    /**
+     * 待写回的投票记录
+     */
+    private final ConcurrentLinkedQueue<PendingVote> pendingVotes = new ConcurrentLinkedQueue<>();
+
+    /**
+     * 串行化本实例的写回
+     */
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    /**
+     * 写回提交并扣除未写回计数时持有写锁，读取已写回票数和未写回增量时持有读锁
+     */
+    private final ReentrantReadWriteLock flushVisibility = new ReentrantReadWriteLock();
+
+    public PollTallyServiceImpl(PollRepository pollRepository,
+                                PollOptionRepository pollOptionRepository,
+                                PollVoteRepository pollVoteRepository,
+                                WebSocketService webSocketService,
+                                GroupConfig groupConfig,
+                                PlatformTransactionManager transactionManager) {
+        this.pollRepository = pollRepository;
+        this.pollOptionRepository = pollOptionRepository;
+        this.pollVoteRepository = pollVoteRepository;
+        this.webSocketService = webSocketService;
+        this.groupConfig = groupConfig;
+        // 写回和读取都使用独立事务，不加入调用方的事务：写回不随调用方回滚，读取能看到最新提交的记录
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTemplate = new TransactionTemplate(transactionManager);
+        this.readTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTemplate.setReadOnly(true);
+    }
+
+    @Override
+    public TallySnapshot castVote(Long pollId, Long userId, Collection<Long> optionIds, boolean multiple) {
+        Set<Long> selected = new LinkedHashSet<>(optionIds);
+        if (!multiple && selected.size() > 1) {
+            log.warn("单选投票提交了多个选项: pollId={}, userId={}, optionCount={}", pollId, userId, selected.size());
+            throw new BusinessException("此投票为单选，只能选择一个选项");
+        }
+
+        while (true) {
+            Tally tally = load(pollId);
+            tally.lock.readLock().lock();
+            try {
+                if (tally.ended) {
+                    log.warn("尝试参与已结束的投票: pollId={}, userId={}", pollId, userId);
+                    throw new BusinessException("该投票已结束或已取消，无法参与");
+                }
+                if (tally.evicted) {
+                    // 计票刚被释放，重新加载
+                    continue;
+                }
+                return castVote(tally, userId, selected);
+            } finally {
+                tally.lock.readLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * 在持有读锁的计票上计入一次投票
+     */
+    private TallySnapshot castVote(Tally tally, Long userId, Set<Long> selected) {
+        Long pollId = tally.poll.getId();
+        LocalDateTime votedAt = LocalDateTime.now();
+        if (tally.poll.getStatus() != PollStatus.ACTIVE
+                || (tally.poll.getEndTime() != null && !tally.poll.getEndTime().isAfter(votedAt))) {
+            log.warn("尝试参与非活动状态的投票: pollId={}, userId={}, status={}", pollId, userId, tally.poll.getStatus());
+            throw new BusinessException("该投票已结束或已取消，无法参与");
+        }
+
+        int[] indexes = new int[selected.size()];
+        int i = 0;
+        for (Long optionId : selected) {
+            Integer index = tally.optionIndexes.get(optionId);
+            if (index == null) {
+                log.warn("提交了无效的选项ID: pollId={}, optionId={}", pollId, optionId);
+                throw new BusinessException("部分选项无效");
+            }
+            indexes[i++] = index;
+        }
+
+        List<Long> ballot = List.copyOf(selected);
+        if (tally.ballots.putIfAbsent(userId, ballot) != null) {
+            log.warn("用户尝试重复投票: pollId={}, userId={}", pollId, userId);
+            throw new BusinessException("您已经参与过此投票，不能重复投票");
+        }
+
+        // 其他实例上的投票和刚结束的投票只有参与记录能发现
+        boolean claimed;
+        try {
+            claimed = pollVoteRepository.claimVoter(pollId, userId, votedAt) > 0;
+        } catch (RuntimeException e) {
+            tally.ballots.remove(userId, ballot);
+            throw e;
+        }
+        if (!claimed) {
+            tally.ballots.remove(userId, ballot);
+            boolean active = pollRepository.findById(pollId)
+                    .map(poll -> poll.getStatus() == PollStatus.ACTIVE)
+                    .orElse(false);
+            if (!active) {
+                log.warn("投票已在其他请求中结束: pollId={}, userId={}", pollId, userId);
+                throw new BusinessException("该投票已结束或已取消，无法参与");
+            }
+            log.warn("用户已在其他实例上投票: pollId={}, userId={}", pollId, userId);
+            throw new BusinessException("您已经参与过此投票，不能重复投票");
+        }
+
+        for (int index : indexes) {
+            tally.counts[index].increment();
+            tally.pending[index].increment();
+        }
+        tally.dirty.set(true);
+
+        for (Long optionId : ballot) {
+            tally.unflushed.incrementAndGet();
+            pendingVotes.add(new PendingVote(pollId, optionId, userId, votedAt));
+        }
+        return tally.snapshot(userId);
+    }
+
+    @Override
+    public TallySnapshot getOrLoad(Long pollId, Long userId) {
+        return currentSnapshot(load(pollId), userId);
+    }
+
+    @Override
+    public TallySnapshot getIfLoaded(Long pollId, Long userId) {
+        Tally tally = tallies.get(pollId);
+        return tally != null ? currentSnapshot(tally, userId) : null;
+    }
+
+    @Override
+    public void release(Long pollId) {
+        // 在结束状态提交后关闭计票，调用方回滚时计票继续接受投票
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    releaseNow(pollId);
+                }
+            });
+        } else {
+            releaseNow(pollId);
+        }
+    }
+
+    private void releaseNow(Long pollId) {
+        Tally tally = tallies.get(pollId);
+        if (tally == null) {
+            return;
+        }
+        // 等待进行中的投票完成，之后到达的投票都会被拒绝；已关闭的计票由闲置释放在写回完成后移除
+        tally.lock.writeLock().lock();
+        try {
+            tally.ended = true;
+        } finally {
+            tally.lock.writeLock().unlock();
+        }
+        flush();
+    }
+
+    @Override
+    public int flush() {
+        if (pendingVotes.isEmpty()) {
+            return 0;
+        }
+
+        flushLock.lock();
+        try {
+            int batchSize = groupConfig.getPollVoteFlushBatchSize();
+            int flushed = 0;
+            List<PendingVote> failed = new ArrayList<>();
+            List<PendingVote> batch = new ArrayList<>(batchSize);
+            PendingVote vote;
+            while ((vote = pendingVotes.poll()) != null) {
+                batch.add(vote);
+                if (batch.size() >= batchSize) {
+                    flushed += writeBatch(batch, failed);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                flushed += writeBatch(batch, failed);
+            }
+            // 失败的记录留到下次写回，本次不再重试
+            pendingVotes.addAll(failed);
+
+            if (flushed > 0) {
+                log.debug("投票记录写回完成: votes={}", flushed);
+            }
+            return flushed;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @Override
+    public int publishChangedResults() {
+        int published = 0;
+        for (Tally tally : tallies.values()) {
+            if (!tally.dirty.compareAndSet(true, false)) {
+                continue;
+            }
+            try {
+                webSocketService.sendGroupUpdate(tally.poll.getGroupId(), resultPayload(tally), "POLL_RESULT", null);
+                published++;
+            } catch (Exception e) {
+                log.error("推送投票结果失败: pollId={}, error={}", tally.poll.getId(), e.getMessage(), e);
+            }
+        }
+        return published;
+    }
+
+    @Override
+    public int evictIdle() {
+        long idleBefore = System.currentTimeMillis() - groupConfig.getPollTallyIdleMinutes() * 60_000L;
+        int evicted = 0;
+        for (Tally tally : tallies.values()) {
+            if (tally.lastAccessMillis >= idleBefore || tally.unflushed.get() > 0 || tally.dirty.get()) {
+                continue;
+            }
+            // 有进行中的投票时跳过，下一轮再检查
+            if (!tally.lock.writeLock().tryLock()) {
+                continue;
+            }
+            try {
+                if (tally.unflushed.get() == 0 && !tally.dirty.get() && tallies.remove(tally.poll.getId(), tally)) {
+                    tally.evicted = true;
+                    evicted++;
+                }
+            } finally {
+                tally.lock.writeLock().unlock();
+            }
+        }
+        if (evicted > 0) {
+            log.debug("释放闲置的投票计票: polls={}, remaining={}", evicted, tallies.size());
+        }
+        return evicted;
+    }
+
+    /**
+     * 应用关闭前写回剩余投票记录
+     */
+    @PreDestroy
+    public void flushOnShutdown() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("关闭前写回投票记录失败: pending={}, error={}", pendingVotes.size(), e.getMessage(), e);
+        }
+    }
+
+    // ==================== 私有辅助方法 ====================
+
+    /**
+     * 获取计票，未加载时从数据库加载投票、选项和已有的投票记录
+     * 并发加载时以先放入的为准，落选的副本上没有计入任何投票
+     */
+    private Tally load(Long pollId) {
+        Tally tally = tallies.get(pollId);
+        if (tally == null) {
+            Poll poll = pollRepository.findById(pollId)
+                    .orElseThrow(() -> new BusinessException("投票不存在"));
+            List<PollOption> options = pollOptionRepository.findByPollIdOrderByDisplayOrder(pollId);
+            List<Object[]> votes = pollVoteRepository.findUserOptionPairsByPollId(pollId);
+
+            Tally loaded = new Tally(copyOf(poll), options, votes);
+            tally = tallies.putIfAbsent(pollId, loaded);
+            if (tally == null) {
+                tally = loaded;
+                log.debug("加载投票计票: pollId={}, options={}, voters={}", pollId, options.size(), loaded.ballots.size());
+            }
+        }
+        tally.lastAccessMillis = System.currentTimeMillis();
+        return tally;
+    }
+
+    /**
+     * 在一个独立事务中写回一批投票记录，提交后才扣除未写回计数；失败的记录放入 failed 等待下次写回，不会丢弃，
+     * 连续失败达到告警次数时记录错误日志
+     */
+    private int writeBatch(List<PendingVote> batch, List<PendingVote> failed) {
+        flushVisibility.writeLock().lock();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (PendingVote vote : batch) {
+                    pollVoteRepository.insertIgnore(vote.pollId, vote.optionId, vote.userId, vote.votedAt);
+                }
+            });
+            batch.forEach(this::markFlushed);
+            return batch.size();
+        } catch (Exception e) {
+            log.error("投票记录写回失败，将在下次重试: size={}, error={}", batch.size(), e.getMessage(), e);
+            int alertAttempts = groupConfig.getPollVoteFlushAlertAttempts();
+            for (PendingVote vote : batch) {
+                if (++vote.attempts % alertAttempts == 0) {
+                    log.error("投票记录连续写回失败，仍在重试: pollId={}, optionId={}, userId={}, attempts={}",
+                            vote.pollId, vote.optionId, vote.userId, vote.attempts);
+                }
+                failed.add(vote);
+            }
+            return 0;
+        } finally {
+            flushVisibility.writeLock().unlock();
+        }
+    }
+
+    private void markFlushed(PendingVote vote) {
+        Tally tally = tallies.get(vote.pollId);
+        if (tally != null) {
+            Integer index = tally.optionIndexes.get(vote.optionId);
+            if (index != null) {
+                tally.pending[index].decrement();
+            }
+            tally.unflushed.decrementAndGet();
+        }
+    }
+
+    /**
+     * 以数据库中已写回的票数加上本实例尚未写回的增量构建结果，包含其他实例已写回的投票；
+     * 当前用户的选择优先取本实例的记录，没有时查询已写回的投票记录
+     */
+    private TallySnapshot currentSnapshot(Tally tally, Long userId) {
+        Long pollId = tally.poll.getId();
+        Map<Long, Long> counts = currentCounts(tally);
+        List<Long> userOptionIds = userId != null ? tally.ballots.get(userId) : null;
+        if (userOptionIds == null && userId != null) {
+            userOptionIds = readTemplate.execute(status -> pollVoteRepository.findByPollIdAndUserId(pollId, userId)
+                    .stream().map(PollVote::getOptionId).toList());
+        }
+        return new TallySnapshot(tally.poll, tally.options, counts, userOptionIds != null ? userOptionIds : List.of());
+    }
+
+    private Map<Long, Long> currentCounts(Tally tally) {
+        Long pollId = tally.poll.getId();
+        flushVisibility.readLock().lock();
+        try {
+            List<Object[]> rows = readTemplate.execute(status -> pollVoteRepository.countVotesByPollIdGroupByOptionId(pollId));
+            Map<Long, Long> counts = tally.pendingCounts();
+            if (rows != null) {
+                for (Object[] row : rows) {
+                    Long optionId = ((Number) row[0]).longValue();
+                    if (counts.containsKey(optionId)) {
+                        counts.merge(optionId, ((Number) row[1]).longValue(), Long::sum);
+                    }
+                }
+            }
+            return counts;
+        } finally {
+            flushVisibility.readLock().unlock();
+        }
+    }
+
+    /**
+     * 推送给群成员的结果，只包含票数，不包含投票人
+     */
+    private Map<String, Object> resultPayload(Tally tally) {
+        Long pollId = tally.poll.getId();
+        Map<Long, Long> optionVoteCount = currentCounts(tally);
+        long totalVotes = optionVoteCount.values().stream().mapToLong(Long::longValue).sum();
+        Long voterCount = readTemplate.execute(status -> pollVoteRepository.countVotersByPollId(pollId));
+
+        List<Map<String, Object>> optionResults = new ArrayList<>(optionVoteCount.size());
+        optionVoteCount.forEach((optionId, voteCount) -> {
+            Map<String, Object> optionResult = new HashMap<>();
+            optionResult.put("id", optionId);
+            optionResult.put("voteCount", voteCount);
+            optionResult.put("percentage", totalVotes > 0 ? voteCount * 100.0 / totalVotes : 0.0);
+            optionResults.add(optionResult);
+        });
+
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("pollId", pollId);
+        payload.put("totalVoters", totalVotes);
+        payload.put("voterCount", voterCount != null ? voterCount : 0L);
+        payload.put("options", optionResults);
+        return payload;
+    }
+
+    /**
+     * 复制投票基本信息，计票快照中的投票对象不与持久化上下文共享
+     */
+    private static Poll copyOf(Poll poll) {
+        return Poll.builder()
+                .id(poll.getId())
+                .groupId(poll.getGroupId())
+                .creatorId(poll.getCreatorId())
+                .title(poll.getTitle())
+                .description(poll.getDescription())
+                .isMultiple(poll.getIsMultiple())
+                .isAnonymous(poll.getIsAnonymous())
+                .status(poll.getStatus())
+                .createdAt(poll.getCreatedAt())
+                .endTime(poll.getEndTime())
+                .build();
+    }
+
+    private static PollOption copyOf(PollOption option) {
+        return PollOption.builder()
+                .id(option.getId())
+                .pollId(option.getPollId())
+                .optionText(option.getOptionText())
+                .displayOrder(option.getDisplayOrder())
+                .build();
+    }
+
+    /**
+     * 单个投票的内存计票
+     */
+    private static final class Tally {
+        private final Poll poll;
+        private final List<PollOption> options;
+        private final Map<Long, Integer> optionIndexes;
+        private final LongAdder[] counts;
+
+        /**
+         * 各选项尚未写回数据库的票数
+         */
+        private final LongAdder[] pending;
+
+        /**
+         * 用户ID到所选选项ID
+         */
+        private final ConcurrentHashMap<Long, List<Long>> ballots = new ConcurrentHashMap<>();
+
+        /**
+         * 尚未写回数据库的投票记录数
+         */
+        private final AtomicInteger unflushed = new AtomicInteger();
+
+        /**
+         * 上次推送后结果是否有变化
+         */
+        private final AtomicBoolean dirty = new AtomicBoolean();
+
+        private volatile long lastAccessMillis = System.currentTimeMillis();
+
+        /**
+         * 投票持有读锁，结束投票和释放计票持有写锁
+         */
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+        /**
+         * 投票已结束或取消，不再接受投票
+         */
+        private volatile boolean ended;
+
+        /**
+         * 计票已从缓存中移除，持有旧引用的投票需要重新加载
+         */
+        private volatile boolean evicted;
+
+        private Tally(Poll poll, List<PollOption> options, List<Object[]> votes) {
+            this.poll = poll;
+            List<PollOption> copies = new ArrayList<>(options.size());
+            Map<Long, Integer> indexes = new HashMap<>(options.size() * 2);
+            this.counts = new LongAdder[options.size()];
+            this.pending = new LongAdder[options.size()];
+            for (int i = 0; i < options.size(); i++) {
+                copies.add(copyOf(options.get(i)));
+                indexes.put(options.get(i).getId(), i);
+                counts[i] = new LongAdder();
+                pending[i] = new LongAdder();
+            }
+            this.options = Collections.unmodifiableList(copies);
+            this.optionIndexes = indexes;
+
+            Map<Long, List<Long>> loaded = new HashMap<>();
+            for (Object[] vote : votes) {
+                Long userId = ((Number) vote[0]).longValue();
+                Long optionId = ((Number) vote[1]).longValue();
+                Integer index = indexes.get(optionId);
+                if (index != null) {
+                    counts[index].increment();
+                    loaded.computeIfAbsent(userId, k -> new ArrayList<>()).add(optionId);
+                }
+            }
+            loaded.forEach((userId, optionIds) -> ballots.put(userId, List.copyOf(optionIds)));
+        }
+
+        private Map<Long, Long> counts() {
+            Map<Long, Long> result = new LinkedHashMap<>(options.size() * 2);
+            for (int i = 0; i < options.size(); i++) {
+                result.put(options.get(i).getId(), counts[i].sum());
+            }
+            return result;
+        }
+
+        private TallySnapshot snapshot(Long userId) {
+            List<Long> userOptionIds = userId != null ? ballots.get(userId) : null;
+            return new TallySnapshot(poll, options, counts(), userOptionIds != null ? userOptionIds : List.of());
+        }
+
+        private Map<Long, Long> pendingCounts() {
+            Map<Long, Long> result = new LinkedHashMap<>(options.size() * 2);
+            for (int i = 0; i < options.size(); i++) {
+                result.put(options.get(i).getId(), pending[i].sum());
+            }
+            return result;
+        }
+    }
+
+    /**
+     * 待写回的一条投票记录
+     */
+    private static final class PendingVote {
+        private final Long pollId;
+        private final Long optionId;
+        private final Long userId;
+        private final LocalDateTime votedAt;
+        private int attempts;
+
+        private PendingVote(Long pollId, Long optionId, Long userId, LocalDateTime votedAt) {
+            this.pollId = pollId;
+            this.optionId = optionId;
+            this.userId = userId;
+            this.votedAt = votedAt;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.im.imcommunicationsystem.group.task;
+
+import com.im.imcommunicationsystem.group.service.PollExpiryService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 投票到期定时任务
+ * 每秒关闭已到结束时间的投票，并周期性从数据库预读即将到期的投票
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class PollExpiryTask {
+
+    private final PollExpiryService pollExpiryService;
+
+    /**
+     * 默认每秒检查一次到期的投票，没有到期投票时不访问数据库
+     */
+    @Scheduled(fixedDelayString = "${im.group.poll.expiry-tick-ms:1000}")
+    public void closeDuePolls() {
+        try {
+            pollExpiryService.closeDuePolls();
+        } catch (Exception e) {
+            log.error("投票到期关闭任务执行失败", e);
+        }
+    }
+
+    /**
+     * 默认每分钟预读一次即将到期的投票
+     */
+    @Scheduled(fixedDelayString = "${im.group.poll.expiry-reload-interval-ms:60000}",
+            initialDelayString = "${im.group.poll.expiry-reload-interval-ms:60000}")
+    public void loadUpcomingPolls() {
+        try {
+            pollExpiryService.loadUpcoming();
+        } catch (Exception e) {
+            log.error("预读即将到期投票任务执行失败", e);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.im.imcommunicationsystem.group.task;
+
+import com.im.imcommunicationsystem.group.service.PollTallyService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 投票计票定时任务
+ * 周期性写回投票记录、推送有变化的投票结果，并释放闲置的内存计票
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class PollTallyTask {
+
+    private final PollTallyService pollTallyService;
+
+    /**
+     * 默认每秒写回一次累积的投票记录
+     */
+    @Scheduled(fixedDelayString = "${im.group.poll.vote-flush-interval-ms:1000}")
+    public void flushVotes() {
+        try {
+            pollTallyService.flush();
+        } catch (Exception e) {
+            log.error("投票记录写回任务执行失败", e);
+        }
+    }
+
+    /**
+     * 默认每秒最多向群成员推送一次同一投票的最新结果
+     */
+    @Scheduled(fixedDelayString = "${im.group.poll.result-push-interval-ms:1000}")
+    public void publishResults() {
+        try {
+            pollTallyService.publishChangedResults();
+        } catch (Exception e) {
+            log.error("投票结果推送任务执行失败", e);
+        }
+    }
+
+    /**
+     * 每分钟释放一次闲置的内存计票
+     */
+    @Scheduled(fixedDelayString = "${im.group.poll.tally-evict-interval-ms:60000}")
+    public void evictIdleTallies() {
+        try {
+            pollTallyService.evictIdle();
+        } catch (Exception e) {
+            log.error("释放闲置投票计票任务执行失败", e);
+        }
+    }
+}
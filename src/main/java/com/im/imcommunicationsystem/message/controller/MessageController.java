@@ -3,11 +3,14 @@ package com.im.imcommunicationsystem.message.controller;
 import com.im.imcommunicationsystem.common.dto.ApiResponse;
 import com.im.imcommunicationsystem.common.utils.SecurityUtils;
 import com.im.imcommunicationsystem.message.dto.request.*;
+import com.im.imcommunicationsystem.message.dto.response.BatchSyncResponse;
 import com.im.imcommunicationsystem.message.dto.response.MessageResponse;
+import com.im.imcommunicationsystem.message.dto.response.MessageSyncResponse;
 import com.im.imcommunicationsystem.message.entity.Message;
 import com.im.imcommunicationsystem.message.enums.MessageStatus;
 import com.im.imcommunicationsystem.message.service.ConversationService;
 import com.im.imcommunicationsystem.message.service.MessageService;
+import com.im.imcommunicationsystem.message.service.MessageSyncService;
 import com.im.imcommunicationsystem.message.service.ReadStatusService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -23,6 +26,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -44,6 +48,7 @@ public class MessageController {
     private final ConversationService conversationService;
     private final com.im.imcommunicationsystem.message.repository.MessageRepository messageRepository;
     private final ReadStatusService readStatusService;
+    private final MessageSyncService messageSyncService;
 
     /**
      * 发送消息
@@ -390,6 +395,96 @@ public class MessageController {
         }
     }
 
+    /**
+     * 按消息ID拉取会话中指定消息之后的消息
+     * 不自动更新已读游标，客户端展示后通过标记已读接口推进
+     * 
+     * @param conversationId 会话ID
+     * @param afterMessageId 客户端已有的最大消息ID
+     * @param limit 最多返回的条数
+     * @param authentication 认证信息
+     * @return 按消息ID升序排列的消息列表
+     */
+    @GetMapping("/conversation/{conversationId}/after")
+    public ResponseEntity<ApiResponse<List<MessageResponse>>> getMessagesAfter(
+            @PathVariable Long conversationId,
+            @RequestParam(defaultValue = "0") Long afterMessageId,
+            @RequestParam(defaultValue = "50") int limit,
+            Authentication authentication) {
+        try {
+            Long userId = getUserIdFromAuthentication(authentication);
+            if (userId == null) {
+                log.warn("Failed to get user ID from authentication");
+                return ResponseEntity.badRequest().body(ApiResponse.badRequest("用户认证失败"));
+            }
+
+            List<MessageResponse> messages = messageService.getMessagesAfter(conversationId, afterMessageId, limit, userId);
+            return ResponseEntity.ok(ApiResponse.success(messages));
+        } catch (Exception e) {
+            log.error("Error pulling messages after {} for conversation {}: {}", afterMessageId, conversationId, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.serverError("拉取会话消息失败: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * 按会话内序号补齐消息（客户端发现推送序号不连续或重连后调用）
+     * 
+     * @param conversationId 会话ID
+     * @param fromSeq 客户端已有的最大序号
+     * @param limit 最多返回的条数
+     * @param authentication 认证信息
+     * @return 补齐结果
+     */
+    @GetMapping("/conversation/{conversationId}/sync")
+    public ResponseEntity<ApiResponse<MessageSyncResponse>> syncMessages(
+            @PathVariable Long conversationId,
+            @RequestParam(defaultValue = "0") Long fromSeq,
+            @RequestParam(defaultValue = "100") int limit,
+            Authentication authentication) {
+        try {
+            Long userId = getUserIdFromAuthentication(authentication);
+            if (userId == null) {
+                log.warn("Failed to get user ID from authentication");
+                return ResponseEntity.badRequest().body(ApiResponse.badRequest("用户认证失败"));
+            }
+
+            MessageSyncResponse response = messageService.syncMessages(conversationId, fromSeq, limit, userId);
+            return ResponseEntity.ok(ApiResponse.success(response));
+        } catch (Exception e) {
+            log.error("Error syncing messages from seq {} for conversation {}: {}", fromSeq, conversationId, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.serverError("补齐会话消息失败: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * 多会话增量同步（客户端重连后一次补齐所有打开的会话）
+     * 
+     * @param request 各会话的同步位置
+     * @param authentication 认证信息
+     * @return 各会话的新消息、变化的会话信息和已读位置
+     */
+    @PostMapping("/sync")
+    public ResponseEntity<ApiResponse<BatchSyncResponse>> syncConversations(
+            @Valid @RequestBody BatchSyncRequest request,
+            Authentication authentication) {
+        try {
+            Long userId = getUserIdFromAuthentication(authentication);
+            if (userId == null) {
+                log.warn("Failed to get user ID from authentication");
+                return ResponseEntity.badRequest().body(ApiResponse.badRequest("用户认证失败"));
+            }
+
+            BatchSyncResponse response = messageSyncService.syncConversations(request, userId);
+            return ResponseEntity.ok(ApiResponse.success(response));
+        } catch (Exception e) {
+            log.error("Error syncing conversations: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.serverError("多会话同步失败: " + e.getMessage()));
+        }
+    }
+
     /**
      * 获取消息历史记录
      * 
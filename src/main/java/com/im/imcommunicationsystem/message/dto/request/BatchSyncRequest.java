@@ -0,0 +1,38 @@
+package com.im.imcommunicationsystem.message.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.Map;
+
+/**
+ * 多会话增量同步请求类
+ * 客户端重连后一次提交所有打开会话的同步位置，代替逐个会话重新分页加载
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchSyncRequest {
+
+    /**
+     * 会话ID -> 客户端已有的最大消息序号
+     */
+    @NotEmpty(message = "同步会话不能为空")
+    @Size(max = 100, message = "单次最多同步100个会话")
+    private Map<Long, Long> cursors;
+
+    /**
+     * 上次同步的服务端时间（毫秒），此后有变化的会话才返回会话信息；为空时全部返回
+     */
+    private Long since;
+
+    /**
+     * 每个会话最多返回的消息条数
+     */
+    private Integer limit;
+}
@@ -0,0 +1,33 @@
+package com.im.imcommunicationsystem.message.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 多会话增量同步响应
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchSyncResponse {
+
+    /**
+     * 各会话的同步结果
+     */
+    private List<ConversationDeltaResponse> conversations;
+
+    /**
+     * 无权访问或同步失败的会话ID，客户端需单独补齐
+     */
+    private List<Long> skippedConversationIds;
+
+    /**
+     * 本次同步的服务端时间（毫秒），作为下次同步的 since
+     */
+    private Long serverTime;
+}
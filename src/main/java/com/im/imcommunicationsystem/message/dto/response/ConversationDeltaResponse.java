@@ -0,0 +1,36 @@
+package com.im.imcommunicationsystem.message.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 单个会话的增量同步结果
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConversationDeltaResponse {
+
+    /**
+     * 会话ID
+     */
+    private Long conversationId;
+
+    /**
+     * 会话信息，自上次同步以来没有变化时为 null
+     */
+    private ConversationDTO conversation;
+
+    /**
+     * 同步位置之后的新消息
+     */
+    private MessageSyncResponse messages;
+
+    /**
+     * 当前用户在该会话的已读位置（消息ID）
+     */
+    private Long lastReadMessageId;
+}
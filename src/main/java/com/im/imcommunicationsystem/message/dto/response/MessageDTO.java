@@ -33,6 +33,11 @@ public class MessageDTO {
      */
     private Long conversationId;
 
+    /**
+     * 会话内消息序号
+     */
+    private Long seq;
+
     /**
      * 发送者ID
      */
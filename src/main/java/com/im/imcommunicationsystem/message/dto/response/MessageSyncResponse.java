@@ -0,0 +1,44 @@
+package com.im.imcommunicationsystem.message.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 按序号补齐消息的响应
+ * 客户端从 fromSeq 之后补齐消息，hasMore 为 true 时以最后一条消息的序号继续拉取
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessageSyncResponse {
+
+    /**
+     * 会话ID
+     */
+    private Long conversationId;
+
+    /**
+     * 请求的起始序号（不包含）
+     */
+    private Long fromSeq;
+
+    /**
+     * 会话当前已分配的最大序号
+     */
+    private Long latestSeq;
+
+    /**
+     * 是否还有更多消息
+     */
+    private Boolean hasMore;
+
+    /**
+     * 按序号升序排列的消息
+     */
+    private List<MessageDTO> messages;
+}
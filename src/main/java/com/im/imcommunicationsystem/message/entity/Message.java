@@ -1,5 +1,6 @@
 package com.im.imcommunicationsystem.message.entity;
 
+import com.im.imcommunicationsystem.common.listener.StatEntityListener;
 import com.im.imcommunicationsystem.message.enums.MessageStatus;
 import com.im.imcommunicationsystem.message.enums.MessageType;
 import jakarta.persistence.*;
@@ -21,6 +22,7 @@ import java.time.LocalDateTime;
  * @since 2024-01-01
  */
 @Entity
+@EntityListeners(StatEntityListener.class)
 @Table(name = "messages", indexes = {
         @Index(name = "idx_conversation_created", columnList = "conversation_id, created_at"),
         @Index(name = "idx_sender_created", columnList = "sender_id, created_at"),
@@ -48,6 +50,12 @@ public class Message {
     @Column(name = "conversation_id", nullable = false)
     private Long conversationId;
 
+    /**
+     * 会话内消息序号（同一会话内严格递增）
+     */
+    @Column(name = "seq")
+    private Long seq;
+
     /**
      * 发送者ID
      */
@@ -7,6 +7,7 @@ import com.im.imcommunicationsystem.message.entity.Message;
 import com.im.imcommunicationsystem.message.repository.ConversationMemberRepository;
 import com.im.imcommunicationsystem.message.repository.MessageRepository;
 import com.im.imcommunicationsystem.message.service.ConversationService;
+import com.im.imcommunicationsystem.relationship.event.ContactBatchEvent;
 import com.im.imcommunicationsystem.relationship.event.ContactBlockEvent;
 import com.im.imcommunicationsystem.relationship.event.ContactUnblockEvent;
 import lombok.RequiredArgsConstructor;
@@ -43,6 +44,37 @@ public class ContactEventListener {
         
         log.info("收到拉黑联系人事件: userId={}, friendId={}", userId, friendId);
         
+        applyBlock(userId, friendId);
+    }
+
+    /**
+     * 处理联系人批量拉黑事件
+     * 每个私聊会话的截止消息不同，逐个好友设置
+     */
+    @EventListener
+    @Transactional
+    public void handleContactBatchEvent(ContactBatchEvent event) {
+        if (event.getType() != ContactBatchEvent.Type.BLOCK) {
+            return;
+        }
+        log.info("收到批量拉黑联系人事件: userId={}, count={}", event.getUserId(), event.getFriendIds().size());
+        for (Long friendId : event.getFriendIds()) {
+            applyBlock(event.getUserId(), friendId);
+        }
+    }
+
+    /**
+     * 处理联系人解除拉黑事件
+     * 将last_acceptable_message_id设置为NULL
+     */
+    @EventListener
+    @Transactional
+    public void handleContactUnblockEvent(ContactUnblockEvent event) {
+        Long userId = event.getUserId();
+        Long friendId = event.getFriendId();
+        
+        log.info("收到解除拉黑联系人事件: userId={}, friendId={}", userId, friendId);
+        
         try {
             // 获取私聊会话
             Conversation conversation = conversationService.getOrCreatePrivateConversation(userId, friendId);
@@ -50,54 +82,32 @@ public class ContactEventListener {
                 log.warn("设置last_acceptable_message_id失败: 会话不存在, userId={}, friendId={}", userId, friendId);
                 return;
             }
-
-            // 直接从MessageRepository获取最后一条消息
-            Long lastMessageId = null;
-            Optional<Message> lastMessageOpt = messageRepository.findFirstByConversationIdOrderByIdDesc(conversation.getId());
             
-            if (lastMessageOpt.isPresent()) {
-                lastMessageId = lastMessageOpt.get().getId();
-                log.info("从MessageRepository获取到最后一条消息ID: conversationId={}, messageId={}", 
-                        conversation.getId(), lastMessageId);
-            } else {
-                log.warn("会话中没有消息，无法设置last_acceptable_message_id: conversationId={}", conversation.getId());
-                // 虽然没有消息，我们仍然需要标记会话成员记录为已拉黑状态
-                // 这里我们可以设置lastMessageId为0或者保持null
-            }
-            
-            // 设置会话成员的last_acceptable_message_id
+            // 设置会话成员的last_acceptable_message_id为null
             Optional<ConversationMember> memberOpt = conversationMemberRepository.findById(
                     new ConversationMemberId(conversation.getId(), userId));
             
             if (memberOpt.isPresent()) {
                 ConversationMember member = memberOpt.get();
-                member.setLastAcceptableMessageId(lastMessageId); // 可能为null
+                member.setLastAcceptableMessageId(null);
                 conversationMemberRepository.save(member);
                 
-                log.info("设置last_acceptable_message_id成功: conversationId={}, userId={}, messageId={}", 
-                        conversation.getId(), userId, lastMessageId);
+                log.info("清除last_acceptable_message_id成功: conversationId={}, userId={}", 
+                        conversation.getId(), userId);
             } else {
-                log.warn("设置last_acceptable_message_id失败: 会话成员不存在, conversationId={}, userId={}", 
+                log.warn("清除last_acceptable_message_id失败: 会话成员不存在, conversationId={}, userId={}", 
                         conversation.getId(), userId);
             }
         } catch (Exception e) {
-            log.error("处理拉黑事件异常: userId={}, friendId={}, error={}", 
+            log.error("处理解除拉黑事件异常: userId={}, friendId={}, error={}", 
                     userId, friendId, e.getMessage(), e);
         }
     }
 
     /**
-     * 处理联系人解除拉黑事件
-     * 将last_acceptable_message_id设置为NULL
+     * 将用户在私聊会话中的last_acceptable_message_id设置为当前最后一条消息
      */
-    @EventListener
-    @Transactional
-    public void handleContactUnblockEvent(ContactUnblockEvent event) {
-        Long userId = event.getUserId();
-        Long friendId = event.getFriendId();
-        
-        log.info("收到解除拉黑联系人事件: userId={}, friendId={}", userId, friendId);
-        
+    private void applyBlock(Long userId, Long friendId) {
         try {
             // 获取私聊会话
             Conversation conversation = conversationService.getOrCreatePrivateConversation(userId, friendId);
@@ -105,25 +115,39 @@ public class ContactEventListener {
                 log.warn("设置last_acceptable_message_id失败: 会话不存在, userId={}, friendId={}", userId, friendId);
                 return;
             }
+
+            // 直接从MessageRepository获取最后一条消息
+            Long lastMessageId = null;
+            Optional<Message> lastMessageOpt = messageRepository.findFirstByConversationIdOrderByIdDesc(conversation.getId());
             
-            // 设置会话成员的last_acceptable_message_id为null
+            if (lastMessageOpt.isPresent()) {
+                lastMessageId = lastMessageOpt.get().getId();
+                log.info("从MessageRepository获取到最后一条消息ID: conversationId={}, messageId={}", 
+                        conversation.getId(), lastMessageId);
+            } else {
+                log.warn("会话中没有消息，无法设置last_acceptable_message_id: conversationId={}", conversation.getId());
+                // 虽然没有消息，我们仍然需要标记会话成员记录为已拉黑状态
+                // 这里我们可以设置lastMessageId为0或者保持null
+            }
+            
+            // 设置会话成员的last_acceptable_message_id
             Optional<ConversationMember> memberOpt = conversationMemberRepository.findById(
                     new ConversationMemberId(conversation.getId(), userId));
             
             if (memberOpt.isPresent()) {
                 ConversationMember member = memberOpt.get();
-                member.setLastAcceptableMessageId(null);
+                member.setLastAcceptableMessageId(lastMessageId); // 可能为null
                 conversationMemberRepository.save(member);
                 
-                log.info("清除last_acceptable_message_id成功: conversationId={}, userId={}", 
-                        conversation.getId(), userId);
+                log.info("设置last_acceptable_message_id成功: conversationId={}, userId={}, messageId={}", 
+                        conversation.getId(), userId, lastMessageId);
             } else {
-                log.warn("清除last_acceptable_message_id失败: 会话成员不存在, conversationId={}, userId={}", 
+                log.warn("设置last_acceptable_message_id失败: 会话成员不存在, conversationId={}, userId={}", 
                         conversation.getId(), userId);
             }
         } catch (Exception e) {
-            log.error("处理解除拉黑事件异常: userId={}, friendId={}, error={}", 
+            log.error("处理拉黑事件异常: userId={}, friendId={}, error={}", 
                     userId, friendId, e.getMessage(), e);
         }
     }
-} 
\ No newline at end of file
+}
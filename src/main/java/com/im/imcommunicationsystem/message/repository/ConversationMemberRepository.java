@@ -10,6 +10,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -173,4 +174,20 @@ public interface ConversationMemberRepository extends JpaRepository<Conversation
      */
     @Query("SELECT cm.conversationId FROM ConversationMember cm WHERE cm.userId = :userId")
     List<Long> findConversationIdsByUserId(@Param("userId") Long userId);
+
+    /**
+     * 批量查询用户在多个会话中的成员信息
+     * 
+     * @param userId 用户ID
+     * @param conversationIds 会话ID集合
+     * @return 会话成员列表
+     */
+    List<ConversationMember> findByUserIdAndConversationIdIn(Long userId, Collection<Long> conversationIds);
+
+    /**
+     * 分批删除会话成员（后台清理任务使用）
+     */
+    @Modifying
+    @Query(value = "DELETE FROM conversation_members WHERE conversation_id = :conversationId LIMIT :limit", nativeQuery = true)
+    int deleteChunkByConversationId(@Param("conversationId") Long conversationId, @Param("limit") int limit);
 }
\ No newline at end of file
@@ -171,4 +171,50 @@ public interface ConversationRepository extends JpaRepository<Conversation, Long
      * @return 会话
      */
     Conversation findByRelatedGroupId(Long groupId);
+
+    /**
+     * 把会话的序号上限加一并锁定会话行直到事务结束，新的序号写入本连接的 LAST_INSERT_ID()，
+     * 需与 {@link #findLastInsertId()} 在同一事务中调用
+     * 
+     * @param conversationId 会话ID
+     * @return 更新的记录数
+     */
+    @Modifying
+    @Query(value = "UPDATE conversations SET seq_ceiling = LAST_INSERT_ID(seq_ceiling + 1) WHERE id = :conversationId",
+            nativeQuery = true)
+    int incrementSeqCeiling(@Param("conversationId") Long conversationId);
+
+    /**
+     * 读取本连接最近一次 LAST_INSERT_ID(expr) 的值
+     * 
+     * @return 最近一次分配的序号
+     */
+    @Query(value = "SELECT LAST_INSERT_ID()", nativeQuery = true)
+    Long findLastInsertId();
+
+    /**
+     * 查询群组关联的会话ID
+     * 
+     * @param groupId 群组ID
+     * @return 会话ID列表
+     */
+    @Query("SELECT c.id FROM Conversation c WHERE c.relatedGroupId = :groupId")
+    List<Long> findIdsByRelatedGroupId(@Param("groupId") Long groupId);
+
+    /**
+     * 同步群组关联会话的名称和头像
+     * 
+     * @param groupId 群组ID
+     * @param name 群组名称
+     * @param avatarUrl 群组头像
+     * @param updatedAt 更新时间
+     * @return 更新的记录数
+     */
+    @Modifying
+    @Query("UPDATE Conversation c SET c.name = :name, c.avatarUrl = :avatarUrl, c.updatedAt = :updatedAt " +
+           "WHERE c.relatedGroupId = :groupId")
+    int updateGroupProfile(@Param("groupId") Long groupId,
+                           @Param("name") String name,
+                           @Param("avatarUrl") String avatarUrl,
+                           @Param("updatedAt") LocalDateTime updatedAt);
 }
\ No newline at end of file
@@ -3,11 +3,13 @@ package com.im.imcommunicationsystem.message.repository;
 import com.im.imcommunicationsystem.message.entity.Message;
 import com.im.imcommunicationsystem.message.enums.MessageStatus;
 import com.im.imcommunicationsystem.message.enums.MessageType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -301,4 +303,46 @@ public interface MessageRepository extends JpaRepository<Message, Long> {
      * @return 消息数量
      */
     Long countByConversationIdAndIdBetweenAndSenderIdNot(Long conversationId, Long startMessageId, Long endMessageId, Long userId);
+
+    /**
+     * 按消息ID顺序拉取会话中指定ID之后的消息
+     * 
+     * @param conversationId 会话ID
+     * @param afterMessageId 起始消息ID（不包含）
+     * @param status 排除的状态
+     * @param pageable 分页参数（只使用条数）
+     * @return 消息列表
+     */
+    List<Message> findByConversationIdAndIdGreaterThanAndStatusNotOrderByIdAsc(
+            Long conversationId, Long afterMessageId, MessageStatus status, Pageable pageable);
+
+    /**
+     * 查询会话当前最大的消息序号
+     * 
+     * @param conversationId 会话ID
+     * @return 最大序号，没有消息时返回 null
+     */
+    @Query("SELECT MAX(m.seq) FROM Message m WHERE m.conversationId = :conversationId")
+    Long findMaxSeqByConversationId(@Param("conversationId") Long conversationId);
+
+    /**
+     * 按序号顺序拉取会话中指定序号之后的消息
+     * 设置查询超时，多会话同步超时放弃的会话不会继续占用数据库连接
+     * 
+     * @param conversationId 会话ID
+     * @param fromSeq 起始序号（不包含）
+     * @param status 排除的状态
+     * @param pageable 分页参数（只使用条数）
+     * @return 消息列表
+     */
+    @QueryHints(@QueryHint(name = "jakarta.persistence.query.timeout", value = "10000"))
+    List<Message> findByConversationIdAndSeqGreaterThanAndStatusNotOrderBySeqAsc(
+            Long conversationId, Long fromSeq, MessageStatus status, Pageable pageable);
+
+    /**
+     * 分批删除会话消息（后台清理任务使用）
+     */
+    @Modifying
+    @Query(value = "DELETE FROM messages WHERE conversation_id = :conversationId LIMIT :limit", nativeQuery = true)
+    int deleteChunkByConversationId(@Param("conversationId") Long conversationId, @Param("limit") int limit);
 }
\ No newline at end of file
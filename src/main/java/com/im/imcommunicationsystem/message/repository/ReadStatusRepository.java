@@ -8,6 +8,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -107,4 +108,20 @@ public interface ReadStatusRepository extends JpaRepository<ReadStatus, Long> {
      * @return 删除的记录数
      */
     int deleteByConversationId(Long conversationId);
+
+    /**
+     * 批量查询用户在多个会话中的已读状态
+     * 
+     * @param userId 用户ID
+     * @param conversationIds 会话ID集合
+     * @return 已读状态列表
+     */
+    List<ReadStatus> findByUserIdAndConversationIdIn(Long userId, Collection<Long> conversationIds);
+
+    /**
+     * 分批删除会话的已读状态（后台清理任务使用）
+     */
+    @Modifying
+    @Query(value = "DELETE FROM read_status WHERE conversation_id = :conversationId LIMIT :limit", nativeQuery = true)
+    int deleteChunkByConversationId(@Param("conversationId") Long conversationId, @Param("limit") int limit);
 } 
\ No newline at end of file
@@ -0,0 +1,25 @@
+package com.im.imcommunicationsystem.message.service;
+
+/**
+ * 会话消息序号服务接口
+ * 为每个会话分配连续递增的消息序号，序号顺序即提交顺序，客户端据此发现漏收的推送并按序号补齐
+ */
+public interface ConversationSeqService {
+
+    /**
+     * 分配会话的下一个消息序号，必须在写入消息的事务中调用；
+     * 会话行在该事务结束前保持锁定，事务回滚时序号一并撤销
+     *
+     * @param conversationId 会话ID
+     * @return 新序号
+     */
+    long nextSeq(Long conversationId);
+
+    /**
+     * 获取会话已写入消息的最大序号
+     *
+     * @param conversationId 会话ID
+     * @return 最大序号，没有消息时返回 0
+     */
+    long currentSeq(Long conversationId);
+}
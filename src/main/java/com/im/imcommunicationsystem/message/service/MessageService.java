@@ -1,7 +1,9 @@
 package com.im.imcommunicationsystem.message.service;
 
 import com.im.imcommunicationsystem.message.dto.request.*;
+import com.im.imcommunicationsystem.message.dto.response.MessageDTO;
 import com.im.imcommunicationsystem.message.dto.response.MessageResponse;
+import com.im.imcommunicationsystem.message.dto.response.MessageSyncResponse;
 import com.im.imcommunicationsystem.message.entity.Message;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -72,6 +74,37 @@ public interface MessageService {
      */
     Page<MessageResponse> getConversationMessages(Long conversationId, Long userId, Pageable pageable);
 
+    /**
+     * 按消息ID顺序拉取会话中指定消息之后的消息
+     * 
+     * @param conversationId 会话ID
+     * @param afterMessageId 起始消息ID（不包含）
+     * @param limit 最多返回的条数
+     * @param userId 用户ID
+     * @return 按消息ID升序排列的消息列表
+     */
+    List<MessageResponse> getMessagesAfter(Long conversationId, Long afterMessageId, int limit, Long userId);
+
+    /**
+     * 按会话内序号补齐消息，客户端发现序号不连续或重连后调用
+     * 
+     * @param conversationId 会话ID
+     * @param fromSeq 客户端已有的最大序号（不包含）
+     * @param limit 最多返回的条数
+     * @param userId 用户ID
+     * @return 补齐结果
+     */
+    MessageSyncResponse syncMessages(Long conversationId, Long fromSeq, int limit, Long userId);
+
+    /**
+     * 批量转换消息并填充发送者信息，同一发送者的资料只查询一次
+     * 
+     * @param messages 消息实体
+     * @param userId 当前用户ID
+     * @return 顺序与输入一致的消息DTO列表
+     */
+    List<MessageDTO> convertToMessageDTOs(List<Message> messages, Long userId);
+
     /**
      * 获取消息历史记录
      * 
@@ -0,0 +1,20 @@
+package com.im.imcommunicationsystem.message.service;
+
+import com.im.imcommunicationsystem.message.dto.request.BatchSyncRequest;
+import com.im.imcommunicationsystem.message.dto.response.BatchSyncResponse;
+
+/**
+ * 多会话增量同步服务接口
+ * 一次请求返回多个会话的新消息、变化的会话信息和已读位置，用于客户端重连后的集中补齐
+ */
+public interface MessageSyncService {
+
+    /**
+     * 同步多个会话自客户端同步位置以来的变化
+     *
+     * @param request 同步请求
+     * @param userId 用户ID
+     * @return 同步结果
+     */
+    BatchSyncResponse syncConversations(BatchSyncRequest request, Long userId);
+}
@@ -0,0 +1,42 @@
+package com.im.imcommunicationsystem.message.service;
+
+import com.im.imcommunicationsystem.message.entity.Conversation;
+
+/**
+ * 超大群投递服务接口
+ * 成员数达到阈值的群聊采用读扩散：消息只写入一次会话消息表，
+ * 在线成员只收到合并后的"最新序号"通知，再按序号拉取消息；每个成员只保留一个已读游标
+ */
+public interface SupergroupDeliveryService {
+
+    /**
+     * 判断会话是否按超大群模式投递
+     *
+     * @param conversation 会话
+     * @return 是否为超大群
+     */
+    boolean isSupergroup(Conversation conversation);
+
+    /**
+     * 记录会话的新消息，同一会话在一个推送周期内的多条消息合并为一次通知；在事务中调用时等事务提交后才登记
+     *
+     * @param conversation 会话
+     * @param messageId 新消息ID
+     * @param seq 新消息的会话内序号
+     */
+    void notifyNewMessage(Conversation conversation, Long messageId, Long seq);
+
+    /**
+     * 向在线成员推送各会话的最新序号
+     *
+     * @return 推送的会话数
+     */
+    int publishPending();
+
+    /**
+     * 清理过期的群成员缓存
+     *
+     * @return 清理的群组数
+     */
+    int evictExpired();
+}
@@ -0,0 +1,47 @@
+package com.im.imcommunicationsystem.message.service.impl;
+
+import com.im.imcommunicationsystem.message.repository.ConversationRepository;
+import com.im.imcommunicationsystem.message.repository.MessageRepository;
+import com.im.imcommunicationsystem.message.service.ConversationSeqService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * 会话消息序号服务实现类
+ * 序号在发送消息的事务中以 UPDATE conversations SET seq_ceiling = LAST_INSERT_ID(seq_ceiling + 1) 分配，
+ * 会话行锁一直持有到发送事务结束：同一会话的发送按序号顺序提交，回滚的发送连同序号一起撤销，
+ * 因此已提交的序号连续且不会在更小的序号之前可见，多个实例共用同一个计数
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ConversationSeqServiceImpl implements ConversationSeqService {
+
+    private final ConversationRepository conversationRepository;
+    private final MessageRepository messageRepository;
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public long nextSeq(Long conversationId) {
+        int updated = conversationRepository.incrementSeqCeiling(conversationId);
+        if (updated == 0) {
+            throw new IllegalStateException("会话不存在: " + conversationId);
+        }
+        Long seq = conversationRepository.findLastInsertId();
+        if (seq == null) {
+            throw new IllegalStateException("分配消息序号失败: " + conversationId);
+        }
+        return seq;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long currentSeq(Long conversationId) {
+        // 以已提交的最大序号为准，不读取尚未提交的发送占用的序号
+        Long maxSeq = messageRepository.findMaxSeqByConversationId(conversationId);
+        return maxSeq != null ? maxSeq : 0L;
+    }
+}
@@ -11,7 +11,9 @@ import com.im.imcommunicationsystem.message.service.MessageService;
 import com.im.imcommunicationsystem.message.service.ConversationService;
 import com.im.imcommunicationsystem.message.enums.ConversationType;
 import com.im.imcommunicationsystem.relationship.service.ContactService;
-import com.im.imcommunicationsystem.group.service.GroupMemberService;
+import com.im.imcommunicationsystem.group.enums.GroupAction;
+import com.im.imcommunicationsystem.group.service.GroupPermissionService;
+import com.im.imcommunicationsystem.group.service.GroupPermissionService.GroupAuthorization;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Lazy;
 import lombok.extern.slf4j.Slf4j;
@@ -33,12 +35,14 @@ import java.util.HashMap;
 import com.im.imcommunicationsystem.common.service.impl.WebSocketServiceImpl.WebSocketMessageEvent;
 import org.springframework.context.event.EventListener;
 import java.util.ArrayList;
-import com.im.imcommunicationsystem.group.entity.GroupMember;
 import com.im.imcommunicationsystem.message.repository.ConversationMemberRepository;
 import com.im.imcommunicationsystem.message.entity.ConversationMember;
 import java.util.Optional;
 import com.im.imcommunicationsystem.message.service.ReadStatusService;
-import com.im.imcommunicationsystem.group.service.GroupService;
+import com.im.imcommunicationsystem.message.service.SupergroupDeliveryService;
+import com.im.imcommunicationsystem.message.service.ConversationSeqService;
+import com.im.imcommunicationsystem.message.dto.response.MessageSyncResponse;
+import org.springframework.data.domain.PageRequest;
 
 /**
  * 消息服务实现类
@@ -59,12 +63,12 @@ public class MessageServiceImpl implements MessageService {
     private final @Lazy UserProfileService userProfileService;
     private final com.im.imcommunicationsystem.common.service.WebSocketService webSocketService;
     private final @Lazy ContactService contactService;
-    private final @Lazy GroupMemberService groupMemberService;
+    private final GroupPermissionService groupPermissionService;
     private final @Lazy ConversationMemberRepository conversationMemberRepository;
     // 添加 ReadStatusService 依赖
     private final ReadStatusService readStatusService;
-    // 添加 GroupService 依赖
-    private final @Lazy com.im.imcommunicationsystem.group.service.GroupService groupService;
+    private final SupergroupDeliveryService supergroupDeliveryService;
+    private final ConversationSeqService conversationSeqService;
 
     @Override
     public MessageResponse sendMessage(SendMessageRequest request, Long senderId) {
@@ -96,42 +100,23 @@ public class MessageServiceImpl implements MessageService {
                         log.warn("Group conversation {} has null groupId, group has been dissolved", conversation.getId());
                         return MessageResponse.error("该群组已解散，无法发送消息");
                     }
-                    if (groupId != null) {
-                        try {
-                            // 检查群组是否存在（如果群组已解散，会抛出异常）
-                            com.im.imcommunicationsystem.group.entity.Group group = 
-                                groupService.getGroupEntityById(groupId);
-                            
-                            // 检查群组是否被封禁
-                            if (group != null && Boolean.TRUE.equals(group.getIsBanned())) {
-                                String reason = group.getBannedReason() != null ? 
-                                    "原因：" + group.getBannedReason() : "";
-                                
-                                log.warn("Group {} is banned, user {} cannot send message. Reason: {}", 
-                                    groupId, senderId, group.getBannedReason());
-                                    
+                    // 群组状态、成员身份和禁言状态均来自群组权限缓存
+                    GroupAuthorization authorization =
+                            groupPermissionService.authorize(groupId, senderId, GroupAction.SEND_MESSAGE);
+                    if (!authorization.isAllowed()) {
+                        log.warn("User {} cannot send message to group {}: {}", senderId, groupId, authorization.getDenial());
+                        switch (authorization.getDenial()) {
+                            case GROUP_NOT_FOUND:
+                            case GROUP_DISSOLVED:
+                                return MessageResponse.error("该群组已解散，无法发送消息");
+                            case GROUP_BANNED:
+                                String reason = authorization.getBannedReason() != null ?
+                                    "原因：" + authorization.getBannedReason() : "";
                                 return MessageResponse.error("该群组已被封禁，无法发送消息。" + reason);
-                            }
-                            
-                            // 尝试获取群成员信息，如果不是群成员会抛出异常
-                            GroupMember groupMember = groupMemberService.getGroupMember(groupId, senderId);
-                            
-                            // 检查用户是否被禁言
-                            if (groupMember.isMuted()) {
-                                log.warn("User {} is muted in group {}, cannot send message", senderId, groupId);
+                            case MUTED:
                                 return MessageResponse.error("您已被禁言，无法发送消息");
-                            }
-                        } catch (com.im.imcommunicationsystem.group.exception.GroupException e) {
-                            // 群组不存在，说明群组已被解散
-                            if (e.getMessage().contains("群组不存在")) {
-                                log.warn("Group {} has been dissolved, user {} cannot send message", groupId, senderId);
-                                return MessageResponse.error("该群组已解散，无法发送消息");
-                            }
-                            log.warn("Group error for user {} in group {}: {}", senderId, groupId, e.getMessage());
-                            return MessageResponse.error(e.getMessage());
-                        } catch (Exception e) {
-                            log.warn("User {} is not a member of group {}, cannot send message", senderId, groupId);
-                            return MessageResponse.error("您不是群组成员，无法发送消息");
+                            default:
+                                return MessageResponse.error("您不是群组成员，无法发送消息");
                         }
                     }
                 }
@@ -211,6 +196,7 @@ public class MessageServiceImpl implements MessageService {
             // 3. 创建消息实体
             Message message = Message.builder()
                     .conversationId(conversation.getId())
+                    .seq(conversationSeqService.nextSeq(conversation.getId()))
                     .senderId(senderId) // 确保使用当前发送者的ID，而不是会话创建者ID
                     .messageType(request.getMessageType())
                     .content(request.getContent())
@@ -255,20 +241,27 @@ public class MessageServiceImpl implements MessageService {
             log.info("Successfully sent message {} from user {} to conversation {}", message.getId(), senderId, conversation.getId());
             
             // 7. 通过WebSocket发送实时消息
-                try {
-                    // 创建WebSocket消息
-                    Map<String, Object> wsMessage = new HashMap<>();
-                    wsMessage.put("type", "MESSAGE");
-                    wsMessage.put("data", messageDTO);
-                    
-                // 发送给会话的所有成员（包括接收者和发送者）
-                // 修改: 不再排除发送者自己，确保发送者也能收到消息
-                webSocketService.sendMessageToConversation(conversation.getId(), wsMessage, null);
-                log.debug("WebSocket消息已发送给会话{}的所有成员（包括发送者）", conversation.getId());
-                } catch (Exception e) {
-                    log.error("发送WebSocket消息失败: {}", e.getMessage(), e);
-                    // 不影响主流程，继续执行
+            try {
+                // 创建WebSocket消息
+                Map<String, Object> wsMessage = new HashMap<>();
+                wsMessage.put("type", "MESSAGE");
+                wsMessage.put("data", messageDTO);
+
+                if (supergroupDeliveryService.isSupergroup(conversation)) {
+                    // 超大群读扩散：只把完整消息发给发送者，其他成员收到合并后的序号通知后自行拉取
+                    webSocketService.sendMessageToUser(senderId, wsMessage);
+                    supergroupDeliveryService.notifyNewMessage(conversation, message.getId(), message.getSeq());
+                    log.debug("超大群会话{}的新消息{}已登记序号通知", conversation.getId(), message.getId());
+                } else {
+                    // 发送给会话的所有成员（包括接收者和发送者）
+                    // 修改: 不再排除发送者自己，确保发送者也能收到消息
+                    webSocketService.sendMessageToConversation(conversation.getId(), wsMessage, null);
+                    log.debug("WebSocket消息已发送给会话{}的所有成员（包括发送者）", conversation.getId());
                 }
+            } catch (Exception e) {
+                log.error("发送WebSocket消息失败: {}", e.getMessage(), e);
+                // 不影响主流程，继续执行
+            }
             
             // 8. 发送确认消息给发送者
             try {
@@ -279,6 +272,7 @@ public class MessageServiceImpl implements MessageService {
                     "messageId", message.getId(),
                     "tempId", request.getTempId(), // 临时ID，用于前端消息确认
                     "conversationId", conversation.getId(),
+                    "seq", message.getSeq(),
                     "status", message.getStatus().toString(),
                     "timestamp", System.currentTimeMillis()
                 ));
@@ -315,6 +309,7 @@ public class MessageServiceImpl implements MessageService {
         return MessageDTO.builder()
                 .id(message.getId())
                 .conversationId(message.getConversationId())
+                .seq(message.getSeq())
                 .senderId(message.getSenderId())
                 .messageType(message.getMessageType())
                 .content(message.getContent())
@@ -694,6 +689,12 @@ public class MessageServiceImpl implements MessageService {
                 throw new RuntimeException("您没有权限访问此会话");
             }
             
+            // 超大群只推进用户的已读游标，不逐条更新消息
+            if (supergroupDeliveryService.isSupergroup(conversationService.getConversationById(request.getConversationId()))) {
+                advanceReadCursor(request, userId);
+                return;
+            }
+            
             // 3. 根据请求类型执行不同的标记已读逻辑
             if (request.isMarkAllAsRead()) {
                 // 标记会话中所有消息为已读
@@ -724,6 +725,29 @@ public class MessageServiceImpl implements MessageService {
         }
     }
     
+    /**
+     * 推进用户在会话中的已读游标（超大群使用，每个成员只有一条已读状态记录）
+     * 
+     * @param request 标记已读请求
+     * @param userId 用户ID
+     */
+    private void advanceReadCursor(MarkAsReadRequest request, Long userId) {
+        Long conversationId = request.getConversationId();
+        Long lastReadMessageId = null;
+        if (request.isBatchMarkToMessage()) {
+            lastReadMessageId = request.getLastReadMessageId();
+        } else if (request.isSpecificMessages()) {
+            lastReadMessageId = request.getMessageIds().stream().max(Long::compareTo).orElse(null);
+        }
+
+        if (lastReadMessageId != null) {
+            readStatusService.updateReadStatus(userId, conversationId, lastReadMessageId);
+        } else {
+            readStatusService.markAllAsRead(userId, conversationId);
+        }
+        log.info("超大群会话{}已推进用户{}的已读游标", conversationId, userId);
+    }
+
     /**
      * 标记会话中所有消息为已读
      * 
@@ -935,9 +959,13 @@ public class MessageServiceImpl implements MessageService {
             // 记录最终结果
             log.info("成功转换会话{}的消息，共{}条", conversationId, responsePage.getContent().size());
             
-            // 标记消息为已读
+            // 标记消息为已读（超大群只推进已读游标）
             try {
+                if (supergroupDeliveryService.isSupergroup(conversation)) {
+                    readStatusService.markAllAsRead(userId, conversationId);
+                } else {
                 markAllMessagesAsRead(conversationId, userId);
+                }
             } catch (Exception e) {
                 log.warn("标记会话{}消息为已读失败: {}", conversationId, e.getMessage());
                 // 不影响主要返回
@@ -950,6 +978,94 @@ public class MessageServiceImpl implements MessageService {
         }
     }
     
+    @Override
+    @Transactional(readOnly = true)
+    public List<MessageResponse> getMessagesAfter(Long conversationId, Long afterMessageId, int limit, Long userId) {
+        if (!conversationService.isUserInConversation(conversationId, userId)) {
+            log.warn("用户{}不在会话{}中", userId, conversationId);
+            throw new RuntimeException("您不在此会话中，无法访问消息");
+        }
+
+        int size = Math.min(Math.max(limit, 1), 200);
+        long after = afterMessageId != null ? afterMessageId : 0L;
+        List<Message> messages = messageRepository.findByConversationIdAndIdGreaterThanAndStatusNotOrderByIdAsc(
+                conversationId, after, MessageStatus.DELETED, PageRequest.of(0, size));
+
+        // 与分页查询一致：拉黑后超过可接受消息ID的消息不返回
+        Long lastAcceptableMessageId = conversationMemberRepository.findByConversationIdAndUserId(conversationId, userId)
+                .map(ConversationMember::getLastAcceptableMessageId)
+                .orElse(null);
+        if (lastAcceptableMessageId != null) {
+            messages = messages.stream()
+                    .filter(message -> message.getId() <= lastAcceptableMessageId)
+                    .collect(Collectors.toList());
+        }
+
+        List<MessageResponse> responses = convertToMessageDTOs(messages, userId).stream()
+                .map(MessageResponse::success)
+                .collect(Collectors.toList());
+        log.debug("按消息ID拉取会话{}的消息: after={}, count={}", conversationId, after, responses.size());
+        return responses;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public MessageSyncResponse syncMessages(Long conversationId, Long fromSeq, int limit, Long userId) {
+        if (!conversationService.isUserInConversation(conversationId, userId)) {
+            log.warn("用户{}不在会话{}中", userId, conversationId);
+            throw new RuntimeException("您不在此会话中，无法访问消息");
+        }
+
+        int size = Math.min(Math.max(limit, 1), 200);
+        long from = fromSeq != null ? fromSeq : 0L;
+        List<Message> messages = messageRepository.findByConversationIdAndSeqGreaterThanAndStatusNotOrderBySeqAsc(
+                conversationId, from, MessageStatus.DELETED, PageRequest.of(0, size));
+        boolean hasMore = messages.size() == size;
+
+        // 与分页查询一致：拉黑后超过可接受消息ID的消息不返回
+        Long lastAcceptableMessageId = conversationMemberRepository.findByConversationIdAndUserId(conversationId, userId)
+                .map(ConversationMember::getLastAcceptableMessageId)
+                .orElse(null);
+        if (lastAcceptableMessageId != null) {
+            messages = messages.stream()
+                    .filter(message -> message.getId() <= lastAcceptableMessageId)
+                    .collect(Collectors.toList());
+        }
+
+        log.debug("按序号补齐会话{}的消息: fromSeq={}, count={}, hasMore={}", conversationId, from, messages.size(), hasMore);
+        return MessageSyncResponse.builder()
+                .conversationId(conversationId)
+                .fromSeq(from)
+                .latestSeq(conversationSeqService.currentSeq(conversationId))
+                .hasMore(hasMore)
+                .messages(convertToMessageDTOs(messages, userId))
+                .build();
+    }
+
+    @Override
+    public List<MessageDTO> convertToMessageDTOs(List<Message> messages, Long userId) {
+        Map<Long, UserProfileResponse> senderProfiles = new HashMap<>();
+        List<MessageDTO> messageDTOs = new ArrayList<>(messages.size());
+        for (Message message : messages) {
+            MessageDTO messageDTO = convertToMessageDTO(message);
+            UserProfileResponse senderProfile = senderProfiles.computeIfAbsent(message.getSenderId(), senderId -> {
+                try {
+                    return userProfileService.getUserProfile(senderId);
+                } catch (Exception e) {
+                    log.warn("获取用户{}资料失败: {}", senderId, e.getMessage());
+                    return null;
+                }
+            });
+            if (senderProfile != null) {
+                messageDTO.setSenderNickname(senderProfile.getNickname());
+                messageDTO.setSenderAvatar(senderProfile.getAvatarUrl());
+            }
+            messageDTO.setIsSentByCurrentUser(message.getSenderId().equals(userId));
+            messageDTOs.add(messageDTO);
+        }
+        return messageDTOs;
+    }
+    
     /**
      * 将Message实体转换为MessageResponse
      * 
@@ -0,0 +1,236 @@
+package com.im.imcommunicationsystem.message.service.impl;
+
+import com.im.imcommunicationsystem.message.dto.request.BatchSyncRequest;
+import com.im.imcommunicationsystem.message.dto.response.BatchSyncResponse;
+import com.im.imcommunicationsystem.message.dto.response.ConversationDTO;
+import com.im.imcommunicationsystem.message.dto.response.ConversationDeltaResponse;
+import com.im.imcommunicationsystem.message.dto.response.MessageDTO;
+import com.im.imcommunicationsystem.message.dto.response.MessageSyncResponse;
+import com.im.imcommunicationsystem.message.entity.Conversation;
+import com.im.imcommunicationsystem.message.entity.ConversationMember;
+import com.im.imcommunicationsystem.message.entity.Message;
+import com.im.imcommunicationsystem.message.entity.ReadStatus;
+import com.im.imcommunicationsystem.message.enums.MessageStatus;
+import com.im.imcommunicationsystem.message.repository.ConversationMemberRepository;
+import com.im.imcommunicationsystem.message.repository.ConversationRepository;
+import com.im.imcommunicationsystem.message.repository.MessageRepository;
+import com.im.imcommunicationsystem.message.repository.ReadStatusRepository;
+import com.im.imcommunicationsystem.message.service.ConversationSeqService;
+import com.im.imcommunicationsystem.message.service.ConversationService;
+import com.im.imcommunicationsystem.message.service.MessageService;
+import com.im.imcommunicationsystem.message.service.MessageSyncService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 多会话增量同步服务实现类
+ * 成员身份、会话和已读位置各用一条批量查询取出；各会话的消息查询和会话信息构建
+ * 在有界线程池中并行执行，线程池满时被拒绝的会话放入 skippedConversationIds 由客户端单独补齐，
+ * 重连高峰时数据库并发受线程池大小限制；超时的会话取消排队中的任务，已开始的查询受查询超时限制；
+ * 所有会话的消息最后一起转换，同一发送者的资料只查询一次
+ */
+@Service
+@Slf4j
+public class MessageSyncServiceImpl implements MessageSyncService {
+
+    private static final int DEFAULT_LIMIT = 50;
+    private static final int MAX_LIMIT = 200;
+    private static final long SYNC_TIMEOUT_MILLIS = 10_000L;
+
+    private final ConversationMemberRepository conversationMemberRepository;
+    private final ConversationRepository conversationRepository;
+    private final ReadStatusRepository readStatusRepository;
+    private final MessageRepository messageRepository;
+    private final ConversationService conversationService;
+    private final MessageService messageService;
+    private final ConversationSeqService conversationSeqService;
+    private final Executor syncExecutor;
+
+    public MessageSyncServiceImpl(ConversationMemberRepository conversationMemberRepository,
+                                  ConversationRepository conversationRepository,
+                                  ReadStatusRepository readStatusRepository,
+                                  MessageRepository messageRepository,
+                                  @Lazy ConversationService conversationService,
+                                  @Lazy MessageService messageService,
+                                  ConversationSeqService conversationSeqService,
+                                  @Qualifier("messageSyncExecutor") Executor syncExecutor) {
+        this.conversationMemberRepository = conversationMemberRepository;
+        this.conversationRepository = conversationRepository;
+        this.readStatusRepository = readStatusRepository;
+        this.messageRepository = messageRepository;
+        this.conversationService = conversationService;
+        this.messageService = messageService;
+        this.conversationSeqService = conversationSeqService;
+        this.syncExecutor = syncExecutor;
+    }
+
+    @Override
+    public BatchSyncResponse syncConversations(BatchSyncRequest request, Long userId) {
+        long serverTime = System.currentTimeMillis();
+        Map<Long, Long> cursors = request.getCursors();
+        int limit = Math.min(Math.max(request.getLimit() != null ? request.getLimit() : DEFAULT_LIMIT, 1), MAX_LIMIT);
+        LocalDateTime since = request.getSince() != null
+                ? LocalDateTime.ofInstant(Instant.ofEpochMilli(request.getSince()), ZoneId.systemDefault())
+                : null;
+
+        // 批量校验成员身份，同时取出拉黑后的可接受消息ID
+        Map<Long, ConversationMember> members = conversationMemberRepository
+                .findByUserIdAndConversationIdIn(userId, cursors.keySet()).stream()
+                .collect(Collectors.toMap(ConversationMember::getConversationId, member -> member, (a, b) -> a));
+        List<Long> skipped = new ArrayList<>();
+        for (Long conversationId : cursors.keySet()) {
+            if (!members.containsKey(conversationId)) {
+                skipped.add(conversationId);
+            }
+        }
+
+        Map<Long, Conversation> conversations = new HashMap<>();
+        Map<Long, Long> lastReadIds = new HashMap<>();
+        if (!members.isEmpty()) {
+            for (Conversation conversation : conversationRepository.findAllById(members.keySet())) {
+                conversations.put(conversation.getId(), conversation);
+            }
+            for (ReadStatus readStatus : readStatusRepository.findByUserIdAndConversationIdIn(userId, members.keySet())) {
+                lastReadIds.put(readStatus.getConversationId(), readStatus.getLastReadMessageId());
+            }
+        }
+
+        // 各会话并行加载
+        Map<Long, CompletableFuture<Delta>> futures = new LinkedHashMap<>();
+        for (Map.Entry<Long, ConversationMember> entry : members.entrySet()) {
+            Long conversationId = entry.getKey();
+            Conversation conversation = conversations.get(conversationId);
+            if (conversation == null || Boolean.TRUE.equals(conversation.getDeleted())) {
+                skipped.add(conversationId);
+                continue;
+            }
+            Long cursor = cursors.get(conversationId);
+            long fromSeq = cursor != null ? Math.max(cursor, 0L) : 0L;
+            Long lastAcceptableMessageId = entry.getValue().getLastAcceptableMessageId();
+            boolean includeConversation = since == null || isChangedSince(conversation, since);
+            try {
+                futures.put(conversationId, CompletableFuture.supplyAsync(
+                        () -> loadDelta(conversation, fromSeq, limit, lastAcceptableMessageId, includeConversation, userId),
+                        syncExecutor));
+            } catch (RejectedExecutionException e) {
+                log.warn("同步线程池已满，会话{}由客户端单独补齐: userId={}", conversationId, userId);
+                skipped.add(conversationId);
+            }
+        }
+
+        List<Delta> deltas = new ArrayList<>(futures.size());
+        long deadline = System.currentTimeMillis() + SYNC_TIMEOUT_MILLIS;
+        for (Map.Entry<Long, CompletableFuture<Delta>> entry : futures.entrySet()) {
+            try {
+                long remaining = Math.max(deadline - System.currentTimeMillis(), 0L);
+                deltas.add(entry.getValue().get(remaining, TimeUnit.MILLISECONDS));
+            } catch (Exception e) {
+                log.warn("会话{}增量同步失败，由客户端单独补齐: {}", entry.getKey(), e.getMessage());
+                entry.getValue().cancel(true);
+                skipped.add(entry.getKey());
+            }
+        }
+
+        // 所有会话的消息一起转换，发送者资料跨会话去重
+        List<Message> allMessages = new ArrayList<>();
+        for (Delta delta : deltas) {
+            allMessages.addAll(delta.messages);
+        }
+        List<MessageDTO> allDTOs = messageService.convertToMessageDTOs(allMessages, userId);
+
+        List<ConversationDeltaResponse> results = new ArrayList<>(deltas.size());
+        int offset = 0;
+        for (Delta delta : deltas) {
+            List<MessageDTO> messageDTOs = allDTOs.subList(offset, offset + delta.messages.size());
+            offset += delta.messages.size();
+            results.add(ConversationDeltaResponse.builder()
+                    .conversationId(delta.conversationId)
+                    .conversation(delta.conversation)
+                    .messages(MessageSyncResponse.builder()
+                            .conversationId(delta.conversationId)
+                            .fromSeq(delta.fromSeq)
+                            .latestSeq(delta.latestSeq)
+                            .hasMore(delta.hasMore)
+                            .messages(new ArrayList<>(messageDTOs))
+                            .build())
+                    .lastReadMessageId(lastReadIds.get(delta.conversationId))
+                    .build());
+        }
+
+        log.info("多会话增量同步完成: userId={}, requested={}, synced={}, skipped={}, messages={}",
+                userId, cursors.size(), results.size(), skipped.size(), allMessages.size());
+        return BatchSyncResponse.builder()
+                .conversations(results)
+                .skippedConversationIds(skipped)
+                .serverTime(serverTime)
+                .build();
+    }
+
+    // ==================== 私有辅助方法 ====================
+
+    /**
+     * 加载单个会话的新消息和会话信息（在同步线程池中执行）
+     */
+    private Delta loadDelta(Conversation conversation, long fromSeq, int limit, Long lastAcceptableMessageId,
+                            boolean includeConversation, Long userId) {
+        Long conversationId = conversation.getId();
+        List<Message> messages = messageRepository.findByConversationIdAndSeqGreaterThanAndStatusNotOrderBySeqAsc(
+                conversationId, fromSeq, MessageStatus.DELETED, PageRequest.of(0, limit));
+        boolean hasMore = messages.size() == limit;
+        if (lastAcceptableMessageId != null) {
+            messages = messages.stream()
+                    .filter(message -> message.getId() <= lastAcceptableMessageId)
+                    .collect(Collectors.toList());
+        }
+
+        ConversationDTO conversationDTO = includeConversation
+                ? conversationService.buildConversationDTO(conversation, userId)
+                : null;
+        return new Delta(conversationId, conversationDTO, messages, hasMore, fromSeq,
+                conversationSeqService.currentSeq(conversationId));
+    }
+
+    private boolean isChangedSince(Conversation conversation, LocalDateTime since) {
+        return (conversation.getUpdatedAt() != null && conversation.getUpdatedAt().isAfter(since))
+                || (conversation.getLastActiveAt() != null && conversation.getLastActiveAt().isAfter(since));
+    }
+
+    /**
+     * 单个会话的加载结果
+     */
+    private static final class Delta {
+        private final Long conversationId;
+        private final ConversationDTO conversation;
+        private final List<Message> messages;
+        private final boolean hasMore;
+        private final long fromSeq;
+        private final long latestSeq;
+
+        private Delta(Long conversationId, ConversationDTO conversation, List<Message> messages,
+                      boolean hasMore, long fromSeq, long latestSeq) {
+            this.conversationId = conversationId;
+            this.conversation = conversation;
+            this.messages = messages;
+            this.hasMore = hasMore;
+            this.fromSeq = fromSeq;
+            this.latestSeq = latestSeq;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.im.imcommunicationsystem.message.service.impl;
+
+import com.im.imcommunicationsystem.common.service.WebSocketService;
+import com.im.imcommunicationsystem.group.config.GroupConfig;
+import com.im.imcommunicationsystem.group.repository.GroupMemberRepository;
+import com.im.imcommunicationsystem.message.entity.Conversation;
+import com.im.imcommunicationsystem.message.enums.ConversationType;
+import com.im.imcommunicationsystem.message.service.SupergroupDeliveryService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 超大群投递服务实现类
+ * 群成员ID按群缓存一分钟，判断是否超大群和推送通知都不再逐条消息查询成员；
+ * 待推送序号按会话合并，只保留最大的序号，由定时任务统一推送；
+ * 在事务中登记的序号等事务提交后才进入待推送队列，成员收到通知时消息已经可以拉取
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class SupergroupDeliveryServiceImpl implements SupergroupDeliveryService {
+
+    private static final long MEMBER_CACHE_TTL_MILLIS = 60_000L;
+
+    private final GroupMemberRepository groupMemberRepository;
+    private final GroupConfig groupConfig;
+    private final WebSocketService webSocketService;
+
+    /**
+     * 群组ID -> 成员缓存
+     */
+    private final ConcurrentHashMap<Long, GroupMembers> memberCache = new ConcurrentHashMap<>();
+
+    /**
+     * 会话ID -> 待推送的最新序号
+     */
+    private final ConcurrentHashMap<Long, PendingSeq> pending = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean isSupergroup(Conversation conversation) {
+        if (conversation == null
+                || conversation.getConversationType() != ConversationType.GROUP
+                || conversation.getRelatedGroupId() == null
+                || groupConfig.getSupergroupMemberThreshold() <= 0) {
+            return false;
+        }
+        return members(conversation.getRelatedGroupId()).supergroup;
+    }
+
+    @Override
+    public void notifyNewMessage(Conversation conversation, Long messageId, Long seq) {
+        if (conversation == null || messageId == null || seq == null || conversation.getRelatedGroupId() == null) {
+            return;
+        }
+        Long conversationId = conversation.getId();
+        PendingSeq pendingSeq = new PendingSeq(conversation.getRelatedGroupId(), messageId, seq);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(conversationId, pendingSeq);
+                }
+            });
+        } else {
+            enqueue(conversationId, pendingSeq);
+        }
+    }
+
+    @Override
+    public int publishPending() {
+        if (pending.isEmpty()) {
+            return 0;
+        }
+
+        int published = 0;
+        for (Long conversationId : pending.keySet()) {
+            PendingSeq seq = pending.remove(conversationId);
+            if (seq == null) {
+                continue;
+            }
+            try {
+                List<Long> memberIds = members(seq.groupId).userIds;
+
+                Map<String, Object> data = new HashMap<>();
+                data.put("conversationId", conversationId);
+                data.put("groupId", seq.groupId);
+                data.put("seq", seq.seq);
+                data.put("messageId", seq.messageId);
+                data.put("timestamp", System.currentTimeMillis());
+
+                Map<String, Object> wsMessage = new HashMap<>();
+                wsMessage.put("type", "CONVERSATION_SEQ");
+                wsMessage.put("data", data);
+
+                int online = webSocketService.sendMessageToUsers(memberIds, wsMessage);
+                log.debug("超大群序号通知已推送: conversationId={}, seq={}, online={}/{}",
+                        conversationId, seq.seq, online, memberIds.size());
+                published++;
+            } catch (Exception e) {
+                log.error("推送超大群序号通知失败: conversationId={}, error={}", conversationId, e.getMessage(), e);
+            }
+        }
+        return published;
+    }
+
+    @Override
+    public int evictExpired() {
+        long now = System.currentTimeMillis();
+        int before = memberCache.size();
+        memberCache.values().removeIf(members -> members.expiresAt <= now);
+        return before - memberCache.size();
+    }
+
+    // ==================== 私有辅助方法 ====================
+
+    private void enqueue(Long conversationId, PendingSeq pendingSeq) {
+        pending.merge(conversationId, pendingSeq,
+                (current, next) -> next.seq > current.seq ? next : current);
+    }
+
+    /**
+     * 获取群成员缓存，过期时重新加载；普通群只缓存判定结果，不保留成员列表
+     */
+    private GroupMembers members(Long groupId) {
+        long now = System.currentTimeMillis();
+        GroupMembers cached = memberCache.get(groupId);
+        if (cached != null && cached.expiresAt > now) {
+            return cached;
+        }
+
+        List<Long> userIds = groupMemberRepository.findUserIdsByGroupId(groupId);
+        boolean supergroup = userIds.size() >= groupConfig.getSupergroupMemberThreshold();
+        GroupMembers loaded = new GroupMembers(
+                supergroup ? Collections.unmodifiableList(userIds) : Collections.emptyList(),
+                supergroup, now + MEMBER_CACHE_TTL_MILLIS);
+        memberCache.put(groupId, loaded);
+        if (supergroup && (cached == null || !cached.supergroup)) {
+            log.info("群组{}成员数{}达到超大群阈值，消息改为读扩散投递", groupId, userIds.size());
+        }
+        return loaded;
+    }
+
+    /**
+     * 一个群组的成员缓存
+     */
+    private static final class GroupMembers {
+        private final List<Long> userIds;
+        private final boolean supergroup;
+        private final long expiresAt;
+
+        private GroupMembers(List<Long> userIds, boolean supergroup, long expiresAt) {
+            this.userIds = userIds;
+            this.supergroup = supergroup;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * 一个会话待推送的最新序号
+     */
+    private static final class PendingSeq {
+        private final Long groupId;
+        private final Long messageId;
+        private final long seq;
+
+        private PendingSeq(Long groupId, Long messageId, long seq) {
+            this.groupId = groupId;
+            this.messageId = messageId;
+            this.seq = seq;
+        }
+    }
+}
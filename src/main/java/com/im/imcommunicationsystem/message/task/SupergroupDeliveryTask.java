@@ -0,0 +1,43 @@
+package com.im.imcommunicationsystem.message.task;
+
+import com.im.imcommunicationsystem.message.service.SupergroupDeliveryService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 超大群投递定时任务
+ * 周期性推送合并后的最新序号，并清理过期的群成员缓存
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class SupergroupDeliveryTask {
+
+    private final SupergroupDeliveryService supergroupDeliveryService;
+
+    /**
+     * 默认每200毫秒推送一次，同一会话在此期间的多条消息只通知一次
+     */
+    @Scheduled(fixedDelayString = "${im.message.supergroup.notify-interval-ms:200}")
+    public void publishSeq() {
+        try {
+            supergroupDeliveryService.publishPending();
+        } catch (Exception e) {
+            log.error("超大群序号推送任务执行失败", e);
+        }
+    }
+
+    /**
+     * 每分钟清理一次过期的群成员缓存
+     */
+    @Scheduled(fixedDelayString = "${im.message.supergroup.member-cache-evict-interval-ms:60000}")
+    public void evictMemberCache() {
+        try {
+            supergroupDeliveryService.evictExpired();
+        } catch (Exception e) {
+            log.error("清理超大群成员缓存任务执行失败", e);
+        }
+    }
+}
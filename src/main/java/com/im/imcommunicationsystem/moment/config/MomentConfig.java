@@ -27,16 +27,61 @@ public class MomentConfig {
      */
     private int timelinePageSize = 10;
     
+    /**
+     * 写扩散阈值：好友数超过该值的作者改为读扩散，动态不再写入好友收件箱
+     */
+    private int timelineFanoutThreshold = 2000;
+    
+    /**
+     * 新增好友或解除屏蔽时，回填到收件箱的作者最近动态条数
+     */
+    private int timelineBackfillSize = 50;
+    
+    /**
+     * 读取时间线时单次请求最多检查的读扩散作者动态条数，达到后本页截止到已检查的位置
+     */
+    private int timelinePullMaxExamined = 500;
+    
     /**
      * 评论分页大小
      */
     private int commentPageSize = 20;
     
+    /**
+     * 评论树中每条一级评论内联预览的回复条数
+     */
+    private int commentPreviewReplies = 3;
+    
     /**
      * 缓存过期时间（秒）
      */
     private int cacheTtl = 300;
     
+    /**
+     * 可见性判定器缓存的最大条数
+     */
+    private int visibilityCacheSize = 10000;
+    
+    /**
+     * 媒体URL解析结果缓存的最大条数
+     */
+    private int mediaUrlsCacheSize = 10000;
+    
+    /**
+     * 互动计数每次写回事务包含的动态数
+     */
+    private int engagementFlushBatchSize = 500;
+    
+    /**
+     * 互动计数对账每批处理的动态数
+     */
+    private int engagementReconcileBatchSize = 500;
+    
+    /**
+     * 互动计数对账两次检查偏差的间隔（毫秒），应大于所有实例的写回间隔
+     */
+    private long engagementReconcileSettleMillis = 10000;
+    
     /**
      * 是否启用通知
      */
@@ -2,6 +2,7 @@ package com.im.imcommunicationsystem.moment.controller;
 
 import com.im.imcommunicationsystem.common.dto.ApiResponse;
 import com.im.imcommunicationsystem.moment.dto.request.CreateCommentRequest;
+import com.im.imcommunicationsystem.moment.dto.response.CommentPageResponse;
 import com.im.imcommunicationsystem.moment.dto.response.CommentResponse;
 import com.im.imcommunicationsystem.moment.service.MomentCommentService;
 import lombok.RequiredArgsConstructor;
@@ -144,6 +145,54 @@ public class MomentCommentController {
         return ResponseEntity.ok(ApiResponse.success(comments));
     }
 
+    /**
+     * 游标分页获取评论树（一级评论 + 内联预览回复）
+     *
+     * @param momentId 动态ID
+     * @param after 上一页最后一条一级评论ID，首页不传
+     * @param size 每页大小
+     * @param userDetails 当前用户
+     * @return 一级评论分页
+     */
+    @GetMapping("/{momentId}/comments/tree")
+    public ResponseEntity<ApiResponse<CommentPageResponse>> getCommentTree(
+            @PathVariable Long momentId,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "20") int size,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        
+        Long userId = extractUserId(userDetails);
+        log.info("获取动态 {} 的评论树, 游标: {}, 请求者: {}", momentId, after, userId);
+        
+        CommentPageResponse comments = commentService.getCommentTree(momentId, userId, after, size);
+        return ResponseEntity.ok(ApiResponse.success(comments));
+    }
+
+    /**
+     * 游标分页展开评论的回复
+     *
+     * @param momentId 动态ID
+     * @param commentId 评论ID
+     * @param after 已展开的最后一条回复ID，首次展开不传
+     * @param size 每页大小
+     * @param userDetails 当前用户
+     * @return 回复分页
+     */
+    @GetMapping("/{momentId}/comments/{commentId}/replies")
+    public ResponseEntity<ApiResponse<CommentPageResponse>> getCommentReplies(
+            @PathVariable Long momentId,
+            @PathVariable Long commentId,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "20") int size,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        
+        Long userId = extractUserId(userDetails);
+        log.info("展开评论 {} 的回复, 游标: {}, 请求者: {}", commentId, after, userId);
+        
+        CommentPageResponse replies = commentService.getCommentReplies(momentId, commentId, userId, after, size);
+        return ResponseEntity.ok(ApiResponse.success(replies));
+    }
+
     /**
      * 删除评论
      *
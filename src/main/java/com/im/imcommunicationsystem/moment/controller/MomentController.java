@@ -278,6 +278,39 @@ public class MomentController {
         }
     }
 
+    /**
+     * 按游标获取朋友圈动态列表
+     *
+     * @param before 游标（上一页最后一条动态的ID，首页不传）
+     * @param size 每页大小
+     * @param userDetails 当前用户
+     * @return 动态列表
+     */
+    @GetMapping("/timeline/cursor")
+    public ResponseEntity<ApiResponse<List<MomentResponse>>> getFriendTimelineByCursor(
+            @RequestParam(required = false) Long before,
+            @RequestParam(defaultValue = "10") int size,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        
+        try {
+            Long userId = extractUserId(userDetails);
+            log.info("游标获取用户 {} 的朋友圈动态列表, 游标: {}, 大小: {}", userId, before, size);
+            
+            if (userId == null) {
+                log.error("获取朋友圈动态失败: 用户ID为null");
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                        .body(ApiResponse.error(401, "未登录或会话已过期"));
+            }
+            
+            List<MomentResponse> moments = momentService.getFriendTimeline(userId, before, size);
+            return ResponseEntity.ok(ApiResponse.success(moments));
+        } catch (Exception e) {
+            log.error("获取朋友圈动态时发生异常", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error(500, "获取朋友圈动态失败: " + e.getMessage()));
+        }
+    }
+
     /**
      * 获取动态详情
      *
@@ -0,0 +1,33 @@
+package com.im.imcommunicationsystem.moment.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 评论游标分页响应DTO
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CommentPageResponse {
+    
+    /**
+     * 本页评论
+     */
+    private List<CommentResponse> comments;
+    
+    /**
+     * 下一页游标（本页最后一条评论ID），没有更多时为null
+     */
+    private Long nextCursor;
+    
+    /**
+     * 是否还有更多
+     */
+    private Boolean hasMore;
+}
@@ -71,4 +71,14 @@ public class CommentResponse {
      * 回复列表
      */
     private List<CommentResponse> replies;
+    
+    /**
+     * 可见的直接回复总数（评论树接口返回）
+     */
+    private Long replyCount;
+    
+    /**
+     * 是否还有未展开的回复（评论树接口返回，可按最后一条回复ID继续展开）
+     */
+    private Boolean hasMoreReplies;
 } 
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.im.imcommunicationsystem.moment.entity;
 
+import com.im.imcommunicationsystem.common.listener.StatEntityListener;
 import com.im.imcommunicationsystem.moment.enums.MediaType;
 import com.im.imcommunicationsystem.moment.enums.VisibilityType;
 import jakarta.persistence.*;
@@ -17,6 +18,7 @@ import java.time.LocalDateTime;
  */
 @Data
 @Entity
+@EntityListeners(StatEntityListener.class)
 @Table(name = "moments")
 @Builder
 @NoArgsConstructor
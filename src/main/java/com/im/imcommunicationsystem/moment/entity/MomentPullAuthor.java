@@ -0,0 +1,37 @@
+package com.im.imcommunicationsystem.moment.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * 读扩散作者实体类
+ * 好友数超过写扩散阈值的作者不再写入好友收件箱，由读取方在拉取时合并其动态
+ */
+@Data
+@Entity
+@Table(name = "moment_pull_authors")
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MomentPullAuthor {
+
+    /**
+     * 作者用户ID
+     */
+    @Id
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    /**
+     * 转为读扩散的时间
+     */
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
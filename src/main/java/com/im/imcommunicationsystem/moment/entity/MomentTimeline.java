@@ -0,0 +1,49 @@
+package com.im.imcommunicationsystem.moment.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 动态时间线收件箱实体类
+ * 发布动态时写扩散到每个可见用户的收件箱，朋友圈按 (user_id, moment_id) 游标读取
+ */
+@Data
+@Entity
+@Table(name = "moment_timeline")
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@IdClass(MomentTimelineId.class)
+public class MomentTimeline {
+
+    /**
+     * 收件箱所属用户ID（复合主键）
+     */
+    @Id
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    /**
+     * 动态ID（复合主键）
+     */
+    @Id
+    @Column(name = "moment_id", nullable = false)
+    private Long momentId;
+
+    /**
+     * 动态作者ID
+     */
+    @Column(name = "author_id", nullable = false)
+    private Long authorId;
+
+    /**
+     * 动态发布时间
+     */
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
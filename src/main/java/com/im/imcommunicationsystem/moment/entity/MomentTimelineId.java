@@ -0,0 +1,31 @@
+package com.im.imcommunicationsystem.moment.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * 动态时间线收件箱复合主键类
+ * 用于MomentTimeline实体的复合主键
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class MomentTimelineId implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 收件箱所属用户ID
+     */
+    private Long userId;
+
+    /**
+     * 动态ID
+     */
+    private Long momentId;
+}
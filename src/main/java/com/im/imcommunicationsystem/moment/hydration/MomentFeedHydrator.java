@@ -0,0 +1,202 @@
+package com.im.imcommunicationsystem.moment.hydration;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.im.imcommunicationsystem.auth.entity.User;
+import com.im.imcommunicationsystem.auth.repository.UserRepository;
+import com.im.imcommunicationsystem.moment.config.MomentConfig;
+import com.im.imcommunicationsystem.moment.dto.response.MomentDetailResponse;
+import com.im.imcommunicationsystem.moment.dto.response.MomentResponse;
+import com.im.imcommunicationsystem.moment.entity.Moment;
+import com.im.imcommunicationsystem.moment.repository.MomentLikeRepository;
+import com.im.imcommunicationsystem.moment.service.MomentEngagementCounterService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 动态列表组装器
+ * 按页批量补全动态响应：作者信息一次 findAllById，当前用户的点赞状态一次 IN 查询，
+ * 媒体URL列表按动态ID缓存解析结果；一页动态的查询次数为常数，与条数无关
+ */
+@Component
+@Slf4j
+public class MomentFeedHydrator {
+
+    private static final TypeReference<List<String>> MEDIA_URLS_TYPE = new TypeReference<>() {};
+
+    private final UserRepository userRepository;
+    private final MomentLikeRepository likeRepository;
+    private final MomentEngagementCounterService counterService;
+    private final ObjectMapper objectMapper;
+    private final Map<Long, MediaUrls> mediaCache;
+
+    public MomentFeedHydrator(UserRepository userRepository, MomentLikeRepository likeRepository,
+                              MomentEngagementCounterService counterService, ObjectMapper objectMapper,
+                              MomentConfig momentConfig) {
+        this.userRepository = userRepository;
+        this.likeRepository = likeRepository;
+        this.counterService = counterService;
+        this.objectMapper = objectMapper;
+        int maxEntries = momentConfig.getMediaUrlsCacheSize();
+        this.mediaCache = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, MediaUrls> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    /**
+     * 组装单条动态的响应
+     *
+     * @param moment 动态
+     * @param viewerId 当前用户ID
+     * @return 动态响应
+     */
+    public MomentResponse hydrate(Moment moment, Long viewerId) {
+        return hydrate(List.of(moment), viewerId).get(0);
+    }
+
+    /**
+     * 批量组装一页动态的响应（保持原顺序）
+     *
+     * @param moments 动态列表
+     * @param viewerId 当前用户ID
+     * @return 动态响应列表
+     */
+    public List<MomentResponse> hydrate(List<Moment> moments, Long viewerId) {
+        if (moments.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Set<Long> authorIds = new HashSet<>();
+        List<Long> momentIds = new ArrayList<>(moments.size());
+        for (Moment moment : moments) {
+            authorIds.add(moment.getUserId());
+            momentIds.add(moment.getId());
+        }
+
+        Map<Long, User> authors = loadUsers(authorIds);
+        Set<Long> likedIds = viewerId != null
+                ? new HashSet<>(likeRepository.findLikedMomentIds(viewerId, momentIds))
+                : Collections.emptySet();
+
+        List<MomentResponse> responses = new ArrayList<>(moments.size());
+        for (Moment moment : moments) {
+            MomentResponse response = MomentResponse.builder()
+                    .id(moment.getId())
+                    .userId(moment.getUserId())
+                    .content(moment.getContent())
+                    .mediaType(moment.getMediaType())
+                    .mediaUrls(getMediaUrls(moment))
+                    .likeCount(Math.max(0, (moment.getLikeCount() != null ? moment.getLikeCount() : 0)
+                            + counterService.getPendingLikeDelta(moment.getId())))
+                    .commentCount(Math.max(0, (moment.getCommentCount() != null ? moment.getCommentCount() : 0)
+                            + counterService.getPendingCommentDelta(moment.getId())))
+                    .isLiked(likedIds.contains(moment.getId()))
+                    .createdAt(moment.getCreatedAt())
+                    .build();
+
+            User author = authors.get(moment.getUserId());
+            if (author != null) {
+                response.setUserNickname(author.getNickname());
+                response.setUserAvatar(author.getAvatarUrl());
+            }
+            responses.add(response);
+        }
+        return responses;
+    }
+
+    /**
+     * 批量组装用户简要信息（保持原顺序，不存在的用户保留空信息）
+     *
+     * @param userIds 用户ID列表
+     * @return 用户简要信息列表
+     */
+    public List<MomentDetailResponse.UserBriefInfo> toUserBriefs(List<Long> userIds) {
+        Map<Long, User> users = loadUsers(userIds);
+        List<MomentDetailResponse.UserBriefInfo> briefs = new ArrayList<>(userIds.size());
+        for (Long userId : userIds) {
+            User user = users.get(userId);
+            briefs.add(user != null
+                    ? new MomentDetailResponse.UserBriefInfo(user.getId(), user.getNickname(), user.getAvatarUrl())
+                    : new MomentDetailResponse.UserBriefInfo());
+        }
+        return briefs;
+    }
+
+    /**
+     * 获取动态的媒体URL列表，命中缓存时不再解析JSON
+     *
+     * @param moment 动态
+     * @return 不可修改的媒体URL列表
+     */
+    public List<String> getMediaUrls(Moment moment) {
+        String json = moment.getMediaUrls();
+        if (json == null || json.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        MediaUrls cached = mediaCache.get(moment.getId());
+        if (cached != null && cached.json.equals(json)) {
+            return cached.urls;
+        }
+
+        List<String> urls;
+        try {
+            List<String> parsed = objectMapper.readValue(json, MEDIA_URLS_TYPE);
+            urls = parsed != null ? Collections.unmodifiableList(parsed) : Collections.emptyList();
+        } catch (Exception e) {
+            log.error("解析动态 {} 的媒体URL列表时出错: {}", moment.getId(), e.getMessage());
+            urls = Collections.emptyList();
+        }
+        mediaCache.put(moment.getId(), new MediaUrls(json, urls));
+        return urls;
+    }
+
+    /**
+     * 使动态的媒体URL缓存失效（删除动态时调用）
+     *
+     * @param momentId 动态ID
+     */
+    public void invalidate(Long momentId) {
+        mediaCache.remove(momentId);
+    }
+
+    private Map<Long, User> loadUsers(Collection<Long> userIds) {
+        Set<Long> distinct = new LinkedHashSet<>(userIds);
+        distinct.remove(null);
+        if (distinct.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<Long, User> users = new HashMap<>();
+        for (User user : userRepository.findAllById(distinct)) {
+            users.put(user.getId(), user);
+        }
+        return users;
+    }
+
+    /**
+     * 媒体URL解析结果，保留原始JSON用于校验缓存是否过期
+     */
+    private static final class MediaUrls {
+        private final String json;
+        private final List<String> urls;
+
+        private MediaUrls(String json, List<String> urls) {
+            this.json = json;
+            this.urls = urls;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.im.imcommunicationsystem.moment.listener;
+
+import com.im.imcommunicationsystem.moment.service.MomentTimelineService;
+import com.im.imcommunicationsystem.relationship.event.ContactAddEvent;
+import com.im.imcommunicationsystem.relationship.event.ContactBatchEvent;
+import com.im.imcommunicationsystem.relationship.event.ContactBlockEvent;
+import com.im.imcommunicationsystem.relationship.event.ContactDeleteEvent;
+import com.im.imcommunicationsystem.relationship.event.ContactUnblockEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * 朋友圈时间线联系人事件监听器
+ * 好友关系或屏蔽状态变化提交后调整收件箱，保证收件箱中只包含当前可见的动态；
+ * 回填或清理失败只记录日志，不会回滚好友变更
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class MomentTimelineContactListener {
+
+    private final MomentTimelineService timelineService;
+
+    /**
+     * 新增好友：双方互相回填最近的可见动态
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleContactAddEvent(ContactAddEvent event) {
+        try {
+            timelineService.backfillAuthor(event.getUserId(), event.getFriendId());
+            timelineService.backfillAuthor(event.getFriendId(), event.getUserId());
+        } catch (Exception e) {
+            log.error("新增好友后回填朋友圈收件箱失败: userId={}, friendId={}", event.getUserId(), event.getFriendId(), e);
+        }
+    }
+
+    /**
+     * 删除好友：双方收件箱中移除对方的动态
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleContactDeleteEvent(ContactDeleteEvent event) {
+        try {
+            timelineService.removeAuthor(event.getUserId(), event.getFriendId());
+            timelineService.removeAuthor(event.getFriendId(), event.getUserId());
+        } catch (Exception e) {
+            log.error("删除好友后清理朋友圈收件箱失败: userId={}, friendId={}", event.getUserId(), event.getFriendId(), e);
+        }
+    }
+
+    /**
+     * 屏蔽好友：屏蔽方不再看到被屏蔽方的动态
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleContactBlockEvent(ContactBlockEvent event) {
+        try {
+            timelineService.removeAuthor(event.getUserId(), event.getFriendId());
+        } catch (Exception e) {
+            log.error("屏蔽好友后清理朋友圈收件箱失败: userId={}, friendId={}", event.getUserId(), event.getFriendId(), e);
+        }
+    }
+
+    /**
+     * 解除屏蔽：回填被屏蔽方最近的可见动态
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleContactUnblockEvent(ContactUnblockEvent event) {
+        try {
+            timelineService.backfillAuthor(event.getUserId(), event.getFriendId());
+        } catch (Exception e) {
+            log.error("解除屏蔽后回填朋友圈收件箱失败: userId={}, friendId={}", event.getUserId(), event.getFriendId(), e);
+        }
+    }
+
+    /**
+     * 批量变更：删除、屏蔽各用一条语句清理收件箱；新增好友仍需按作者回填
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleContactBatchEvent(ContactBatchEvent event) {
+        try {
+            switch (event.getType()) {
+                case DELETE -> timelineService.removeAuthors(event.getUserId(), event.getFriendIds(), true);
+                case BLOCK -> timelineService.removeAuthors(event.getUserId(), event.getFriendIds(), false);
+                case ADD -> {
+                    for (Long friendId : event.getFriendIds()) {
+                        try {
+                            timelineService.backfillAuthor(event.getUserId(), friendId);
+                            timelineService.backfillAuthor(friendId, event.getUserId());
+                        } catch (Exception e) {
+                            log.error("批量新增好友后回填朋友圈收件箱失败: userId={}, friendId={}", event.getUserId(), friendId, e);
+                        }
+                    }
+                }
+            }
+        } catch (Exception e) {
+            log.error("批量变更好友后同步朋友圈收件箱失败: userId={}, type={}, count={}",
+                    event.getUserId(), event.getType(), event.getFriendIds().size(), e);
+        }
+    }
+}
@@ -4,10 +4,13 @@ import com.im.imcommunicationsystem.moment.entity.MomentComment;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -60,4 +63,87 @@ public interface MomentCommentRepository extends JpaRepository<MomentComment, Lo
      */
     @Query("SELECT c FROM MomentComment c WHERE c.momentId = :momentId ORDER BY c.createdAt ASC")
     List<MomentComment> findAllCommentsAndRepliesByMomentId(@Param("momentId") Long momentId);
-} 
\ No newline at end of file
+
+    /**
+     * 按ID游标读取动态的一级评论，私密评论只对动态作者和评论作者可见
+     * 
+     * @param momentId 动态ID
+     * @param afterId 游标，只返回ID大于该值的评论
+     * @param viewerId 当前用户ID
+     * @param momentOwner 当前用户是否为动态作者
+     * @param pageable 读取条数
+     * @return 评论列表
+     */
+    @Query("SELECT c FROM MomentComment c WHERE c.momentId = :momentId AND c.parentCommentId IS NULL " +
+           "AND c.id > :afterId AND (c.isPrivate = false OR c.userId = :viewerId OR :momentOwner = true) " +
+           "ORDER BY c.id ASC")
+    List<MomentComment> findVisibleRootComments(@Param("momentId") Long momentId,
+                                                @Param("afterId") Long afterId,
+                                                @Param("viewerId") Long viewerId,
+                                                @Param("momentOwner") boolean momentOwner,
+                                                Pageable pageable);
+
+    /**
+     * 按ID游标读取评论的直接回复，私密回复只对动态作者和回复作者可见
+     * 
+     * @param parentCommentId 父评论ID
+     * @param afterId 游标，只返回ID大于该值的回复
+     * @param viewerId 当前用户ID
+     * @param momentOwner 当前用户是否为动态作者
+     * @param pageable 读取条数
+     * @return 回复列表
+     */
+    @Query("SELECT c FROM MomentComment c WHERE c.parentCommentId = :parentCommentId " +
+           "AND c.id > :afterId AND (c.isPrivate = false OR c.userId = :viewerId OR :momentOwner = true) " +
+           "ORDER BY c.id ASC")
+    List<MomentComment> findVisibleReplies(@Param("parentCommentId") Long parentCommentId,
+                                           @Param("afterId") Long afterId,
+                                           @Param("viewerId") Long viewerId,
+                                           @Param("momentOwner") boolean momentOwner,
+                                           Pageable pageable);
+
+    /**
+     * 一次查询取出多条评论各自最早的若干条可见回复的ID（用于评论树内联预览）
+     * 
+     * @param parentCommentIds 父评论ID列表
+     * @param viewerId 当前用户ID
+     * @param momentOwner 当前用户是否为动态作者
+     * @param limit 每条评论的预览条数
+     * @return 回复ID列表
+     */
+    @Query(value = "SELECT t.id FROM (" +
+                   "  SELECT c.id, ROW_NUMBER() OVER (PARTITION BY c.parent_comment_id ORDER BY c.id) AS rn " +
+                   "  FROM moment_comments c WHERE c.parent_comment_id IN (:parentCommentIds) " +
+                   "  AND (c.is_private = false OR c.user_id = :viewerId OR :momentOwner = true)" +
+                   ") t WHERE t.rn <= :limit", nativeQuery = true)
+    List<Long> findPreviewReplyIds(@Param("parentCommentIds") Collection<Long> parentCommentIds,
+                                   @Param("viewerId") Long viewerId,
+                                   @Param("momentOwner") boolean momentOwner,
+                                   @Param("limit") int limit);
+
+    /**
+     * 统计多条评论各自的可见回复数
+     * 
+     * @param parentCommentIds 父评论ID列表
+     * @param viewerId 当前用户ID
+     * @param momentOwner 当前用户是否为动态作者
+     * @return [父评论ID, 回复数] 列表
+     */
+    @Query("SELECT c.parentCommentId, COUNT(c) FROM MomentComment c WHERE c.parentCommentId IN :parentCommentIds " +
+           "AND (c.isPrivate = false OR c.userId = :viewerId OR :momentOwner = true) " +
+           "GROUP BY c.parentCommentId")
+    List<Object[]> countVisibleReplies(@Param("parentCommentIds") Collection<Long> parentCommentIds,
+                                       @Param("viewerId") Long viewerId,
+                                       @Param("momentOwner") boolean momentOwner);
+
+    /**
+     * 批量删除评论的直接回复（更深层的回复由外键级联删除）
+     * 
+     * @param parentCommentId 父评论ID
+     * @return 删除的回复数
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM MomentComment c WHERE c.parentCommentId = :parentCommentId")
+    int deleteByParentCommentId(@Param("parentCommentId") Long parentCommentId);
+}
@@ -4,8 +4,11 @@ import com.im.imcommunicationsystem.moment.entity.MomentLike;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -57,4 +60,14 @@ public interface MomentLikeRepository extends JpaRepository<MomentLike, Long> {
      * @return 动态ID列表
      */
     List<Long> findMomentIdsByUserId(Long userId);
-} 
\ No newline at end of file
+
+    /**
+     * 查询用户在给定动态中点赞过的动态ID（用于一页动态的点赞状态）
+     * 
+     * @param userId 用户ID
+     * @param momentIds 动态ID列表
+     * @return 已点赞的动态ID列表
+     */
+    @Query("SELECT l.momentId FROM MomentLike l WHERE l.userId = :userId AND l.momentId IN :momentIds")
+    List<Long> findLikedMomentIds(@Param("userId") Long userId, @Param("momentIds") Collection<Long> momentIds);
+}
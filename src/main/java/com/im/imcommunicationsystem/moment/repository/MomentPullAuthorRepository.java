@@ -0,0 +1,28 @@
+package com.im.imcommunicationsystem.moment.repository;
+
+import com.im.imcommunicationsystem.moment.entity.MomentPullAuthor;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * 读扩散作者数据仓库
+ */
+@Repository
+public interface MomentPullAuthorRepository extends JpaRepository<MomentPullAuthor, Long> {
+
+    /**
+     * 查找与用户互为好友且未被该用户屏蔽的读扩散作者
+     *
+     * @param viewerId 查看者用户ID
+     * @return 作者用户ID列表
+     */
+    @Query(value = "SELECT p.user_id FROM moment_pull_authors p " +
+                   "JOIN contacts c ON c.user_id = :viewerId AND c.friend_id = p.user_id AND c.is_blocked = false " +
+                   "JOIN contacts r ON r.user_id = p.user_id AND r.friend_id = :viewerId",
+           nativeQuery = true)
+    List<Long> findVisiblePullAuthorIds(@Param("viewerId") Long viewerId);
+}
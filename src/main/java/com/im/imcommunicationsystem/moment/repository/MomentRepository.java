@@ -4,10 +4,13 @@ import com.im.imcommunicationsystem.moment.entity.Moment;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,6 +20,15 @@ import java.util.Optional;
 @Repository
 public interface MomentRepository extends JpaRepository<Moment, Long> {
     
+    /**
+     * 只查询动态的更新时间，用于校验缓存的可见性判定器是否仍然有效
+     *
+     * @param ids 动态ID列表
+     * @return [动态ID, 更新时间] 列表（不存在的动态不在结果中）
+     */
+    @Query("SELECT m.id, m.updatedAt FROM Moment m WHERE m.id IN :ids")
+    List<Object[]> findUpdatedAtByIdIn(@Param("ids") Collection<Long> ids);
+    
     /**
      * 按时间倒序查找用户动态
      * 
@@ -61,4 +73,56 @@ public interface MomentRepository extends JpaRepository<Moment, Long> {
      */
     @Query("SELECT m FROM Moment m WHERE m.userId IN :userIds ORDER BY m.createdAt DESC")
     Page<Moment> findFriendMoments(@Param("userIds") List<Long> userIds, Pageable pageable);
-} 
\ No newline at end of file
+
+    /**
+     * 按动态ID倒序游标读取多个作者的动态
+     * 
+     * @param userIds 作者ID列表
+     * @param beforeId 游标，只返回ID小于该值的动态
+     * @param pageable 读取条数
+     * @return 动态列表
+     */
+    List<Moment> findByUserIdInAndIdLessThanOrderByIdDesc(Collection<Long> userIds, Long beforeId, Pageable pageable);
+
+    /**
+     * 以相对增量原子更新动态的点赞数与评论数
+     * 不读取实体，不依赖内存中的旧值，结果不会小于0
+     * 
+     * @param id 动态ID
+     * @param likeDelta 点赞数增量
+     * @param commentDelta 评论数增量
+     * @return 更新的行数（动态已删除时为0）
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE moments SET like_count = GREATEST(like_count + :likeDelta, 0), " +
+            "comment_count = GREATEST(comment_count + :commentDelta, 0) WHERE id = :id", nativeQuery = true)
+    int applyEngagementDelta(@Param("id") Long id,
+                             @Param("likeDelta") int likeDelta,
+                             @Param("commentDelta") int commentDelta);
+
+    /**
+     * 按ID升序游标读取动态ID（用于分批对账）
+     * 
+     * @param afterId 游标，只返回ID大于该值的动态
+     * @param pageable 读取条数
+     * @return 动态ID列表
+     */
+    @Query("SELECT m.id FROM Moment m WHERE m.id > :afterId ORDER BY m.id ASC")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * 按点赞、评论明细表计算计数偏差（明细数 - 计数字段），只返回存在偏差的动态
+     * 
+     * @param ids 动态ID列表
+     * @return [动态ID, 点赞数偏差, 评论数偏差] 列表
+     */
+    @Query(value = "SELECT d.id, d.like_drift, d.comment_drift FROM (" +
+            "SELECT m.id, " +
+            "  (SELECT COUNT(*) FROM moment_likes l WHERE l.moment_id = m.id) - m.like_count AS like_drift, " +
+            "  (SELECT COUNT(*) FROM moment_comments c WHERE c.moment_id = m.id) - m.comment_count AS comment_drift " +
+            "FROM moments m WHERE m.id IN (:ids)) d " +
+            "WHERE d.like_drift <> 0 OR d.comment_drift <> 0",
+            nativeQuery = true)
+    List<Object[]> findEngagementDrift(@Param("ids") Collection<Long> ids);
+}
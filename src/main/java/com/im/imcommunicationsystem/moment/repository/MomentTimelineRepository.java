@@ -0,0 +1,174 @@
+package com.im.imcommunicationsystem.moment.repository;
+
+import com.im.imcommunicationsystem.moment.entity.Moment;
+import com.im.imcommunicationsystem.moment.entity.MomentTimeline;
+import com.im.imcommunicationsystem.moment.entity.MomentTimelineId;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 动态时间线收件箱数据仓库
+ * 写扩散的目标用户 = 与作者互为好友、且未屏蔽作者的用户（与 ContactService.isFriend 及朋友圈的屏蔽过滤一致）
+ */
+@Repository
+public interface MomentTimelineRepository extends JpaRepository<MomentTimeline, MomentTimelineId> {
+
+    /**
+     * 按动态ID倒序游标读取用户收件箱中的动态
+     * 读扩散作者的动态由读取时拉取，转为读扩散之前写入的记录在此排除，用户自己的动态除外
+     *
+     * @param userId 收件箱所属用户ID
+     * @param beforeMomentId 游标，只返回ID小于该值的动态
+     * @param pageable 读取条数
+     * @return 动态列表（按ID倒序）
+     */
+    @Query("SELECT m FROM MomentTimeline t JOIN Moment m ON m.id = t.momentId " +
+           "WHERE t.userId = :userId AND t.momentId < :beforeMomentId " +
+           "AND (t.authorId = t.userId OR NOT EXISTS (SELECT p FROM MomentPullAuthor p WHERE p.userId = t.authorId)) " +
+           "ORDER BY t.momentId DESC")
+    List<Moment> findTimelineMoments(@Param("userId") Long userId,
+                                     @Param("beforeMomentId") Long beforeMomentId,
+                                     Pageable pageable);
+
+    /**
+     * 写入单条收件箱记录（已存在则忽略）
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT IGNORE INTO moment_timeline (user_id, moment_id, author_id, created_at) " +
+                   "VALUES (:userId, :momentId, :authorId, :createdAt)",
+           nativeQuery = true)
+    int insertEntry(@Param("userId") Long userId, @Param("momentId") Long momentId,
+                    @Param("authorId") Long authorId, @Param("createdAt") LocalDateTime createdAt);
+
+    /**
+     * 统计作者的写扩散目标用户数
+     */
+    @Query(value = "SELECT COUNT(*) FROM contacts c " +
+                   "JOIN contacts r ON r.user_id = c.friend_id AND r.friend_id = c.user_id " +
+                   "WHERE c.friend_id = :authorId AND c.is_blocked = false",
+           nativeQuery = true)
+    long countFanOutTargets(@Param("authorId") Long authorId);
+
+    /**
+     * 判断查看者是否为作者的写扩散目标用户
+     */
+    @Query(value = "SELECT COUNT(*) FROM contacts c " +
+                   "JOIN contacts r ON r.user_id = c.friend_id AND r.friend_id = c.user_id " +
+                   "WHERE c.friend_id = :authorId AND c.user_id = :viewerId AND c.is_blocked = false",
+           nativeQuery = true)
+    long countFanOutTarget(@Param("authorId") Long authorId, @Param("viewerId") Long viewerId);
+
+    /**
+     * 将动态写扩散到作者全部好友的收件箱
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT IGNORE INTO moment_timeline (user_id, moment_id, author_id, created_at) " +
+                   "SELECT c.user_id, :momentId, :authorId, :createdAt FROM contacts c " +
+                   "JOIN contacts r ON r.user_id = c.friend_id AND r.friend_id = c.user_id " +
+                   "WHERE c.friend_id = :authorId AND c.is_blocked = false",
+           nativeQuery = true)
+    int fanOutToFriends(@Param("momentId") Long momentId, @Param("authorId") Long authorId,
+                        @Param("createdAt") LocalDateTime createdAt);
+
+    /**
+     * 将动态写扩散到允许名单内的好友收件箱
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT IGNORE INTO moment_timeline (user_id, moment_id, author_id, created_at) " +
+                   "SELECT c.user_id, :momentId, :authorId, :createdAt FROM contacts c " +
+                   "JOIN contacts r ON r.user_id = c.friend_id AND r.friend_id = c.user_id " +
+                   "WHERE c.friend_id = :authorId AND c.is_blocked = false AND c.user_id IN (:userIds)",
+           nativeQuery = true)
+    int fanOutToFriendsIn(@Param("momentId") Long momentId, @Param("authorId") Long authorId,
+                          @Param("createdAt") LocalDateTime createdAt, @Param("userIds") Collection<Long> userIds);
+
+    /**
+     * 将动态写扩散到屏蔽名单以外的好友收件箱
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT IGNORE INTO moment_timeline (user_id, moment_id, author_id, created_at) " +
+                   "SELECT c.user_id, :momentId, :authorId, :createdAt FROM contacts c " +
+                   "JOIN contacts r ON r.user_id = c.friend_id AND r.friend_id = c.user_id " +
+                   "WHERE c.friend_id = :authorId AND c.is_blocked = false AND c.user_id NOT IN (:userIds)",
+           nativeQuery = true)
+    int fanOutToFriendsNotIn(@Param("momentId") Long momentId, @Param("authorId") Long authorId,
+                             @Param("createdAt") LocalDateTime createdAt, @Param("userIds") Collection<Long> userIds);
+
+    /**
+     * 删除动态的全部收件箱记录
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM MomentTimeline t WHERE t.momentId = :momentId")
+    int deleteByMomentId(@Param("momentId") Long momentId);
+
+    /**
+     * 删除动态在除作者外其他用户收件箱中的记录
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM MomentTimeline t WHERE t.momentId = :momentId AND t.userId <> t.authorId")
+    int deleteFanOutByMomentId(@Param("momentId") Long momentId);
+
+    /**
+     * 从用户收件箱中移除某个作者的全部动态
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM MomentTimeline t WHERE t.userId = :userId AND t.authorId = :authorId")
+    int deleteByUserIdAndAuthorId(@Param("userId") Long userId, @Param("authorId") Long authorId);
+
+    /**
+     * 从用户收件箱中移除多个作者的全部动态
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM MomentTimeline t WHERE t.userId = :userId AND t.authorId IN :authorIds")
+    int deleteByUserIdAndAuthorIdIn(@Param("userId") Long userId, @Param("authorIds") Collection<Long> authorIds);
+
+    /**
+     * 从多个用户的收件箱中移除某个作者的全部动态
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM MomentTimeline t WHERE t.userId IN :userIds AND t.authorId = :authorId")
+    int deleteByUserIdInAndAuthorId(@Param("userIds") Collection<Long> userIds, @Param("authorId") Long authorId);
+
+    /**
+     * 分批删除动态的收件箱记录（后台清理任务使用）
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM moment_timeline WHERE moment_id = :momentId LIMIT :limit", nativeQuery = true)
+    int deleteChunkByMomentId(@Param("momentId") Long momentId, @Param("limit") int limit);
+
+    /**
+     * 分批删除用户的收件箱（后台清理任务使用）
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM moment_timeline WHERE user_id = :userId LIMIT :limit", nativeQuery = true)
+    int deleteChunkByUserId(@Param("userId") Long userId, @Param("limit") int limit);
+
+    /**
+     * 分批删除某个作者的动态在各收件箱中的记录（后台清理任务使用）
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM moment_timeline WHERE moment_id IN (SELECT m.id FROM moments m WHERE m.user_id = :authorId) LIMIT :limit",
+            nativeQuery = true)
+    int deleteChunkByAuthorMoments(@Param("authorId") Long authorId, @Param("limit") int limit);
+}
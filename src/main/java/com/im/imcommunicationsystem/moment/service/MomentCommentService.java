@@ -1,6 +1,7 @@
 package com.im.imcommunicationsystem.moment.service;
 
 import com.im.imcommunicationsystem.moment.dto.request.CreateCommentRequest;
+import com.im.imcommunicationsystem.moment.dto.response.CommentPageResponse;
 import com.im.imcommunicationsystem.moment.dto.response.CommentResponse;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -41,6 +42,30 @@ public interface MomentCommentService {
      */
     List<CommentResponse> getMomentCommentsWithReplies(Long momentId, Long currentUserId);
 
+    /**
+     * 游标分页获取评论树：一级评论按ID升序分页，每条内联少量最早的回复，
+     * 其余回复通过 {@link #getCommentReplies} 按需展开
+     *
+     * @param momentId 动态ID
+     * @param currentUserId 当前用户ID
+     * @param afterCommentId 游标（上一页最后一条一级评论ID），首页传null
+     * @param size 每页条数
+     * @return 一级评论分页
+     */
+    CommentPageResponse getCommentTree(Long momentId, Long currentUserId, Long afterCommentId, int size);
+
+    /**
+     * 游标分页展开评论的直接回复
+     *
+     * @param momentId 动态ID
+     * @param commentId 父评论ID
+     * @param currentUserId 当前用户ID
+     * @param afterReplyId 游标（已展开的最后一条回复ID），首次展开传null
+     * @param size 每页条数
+     * @return 回复分页
+     */
+    CommentPageResponse getCommentReplies(Long momentId, Long commentId, Long currentUserId, Long afterReplyId, int size);
+
     /**
      * 删除评论
      *
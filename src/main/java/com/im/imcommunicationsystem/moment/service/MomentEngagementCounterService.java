@@ -0,0 +1,62 @@
+package com.im.imcommunicationsystem.moment.service;
+
+/**
+ * 动态互动计数服务接口
+ * 点赞、评论数的变化先累积为内存中的增量，再定时批量写回数据库，
+ * 避免热门动态的每次互动都竞争同一行锁
+ */
+public interface MomentEngagementCounterService {
+
+    /**
+     * 记录点赞数变化
+     *
+     * @param momentId 动态ID
+     * @param delta 增量（点赞为1，取消点赞为-1）
+     */
+    void recordLike(Long momentId, int delta);
+
+    /**
+     * 记录评论数变化
+     *
+     * @param momentId 动态ID
+     * @param delta 增量（新增评论为正，删除评论为负）
+     */
+    void recordComment(Long momentId, int delta);
+
+    /**
+     * 获取尚未写回数据库的点赞数增量
+     *
+     * @param momentId 动态ID
+     * @return 待写回的增量
+     */
+    int getPendingLikeDelta(Long momentId);
+
+    /**
+     * 获取尚未写回数据库的评论数增量
+     *
+     * @param momentId 动态ID
+     * @return 待写回的增量
+     */
+    int getPendingCommentDelta(Long momentId);
+
+    /**
+     * 丢弃动态的待写回增量（动态已删除时使用）
+     *
+     * @param momentId 动态ID
+     */
+    void discard(Long momentId);
+
+    /**
+     * 将累积的增量批量写回数据库
+     *
+     * @return 写回的动态数
+     */
+    int flush();
+
+    /**
+     * 按点赞、评论明细表对账全部动态的计数，只修正两次检查间保持不变的偏差
+     *
+     * @return 被修正的动态数
+     */
+    int reconcileAll();
+}
@@ -6,6 +6,8 @@ import com.im.imcommunicationsystem.moment.dto.response.MomentResponse;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.List;
+
 /**
  * 动态服务接口
  */
@@ -38,6 +40,16 @@ public interface MomentService {
      */
     Page<MomentResponse> getFriendTimeline(Long userId, Pageable pageable);
 
+    /**
+     * 按游标获取好友动态时间线
+     *
+     * @param userId 当前用户ID
+     * @param beforeMomentId 游标，只返回ID小于该值的动态（为null时从最新开始）
+     * @param size 读取条数
+     * @return 动态列表（按发布时间倒序）
+     */
+    List<MomentResponse> getFriendTimeline(Long userId, Long beforeMomentId, int size);
+
     /**
      * 获取动态详情
      *
@@ -0,0 +1,70 @@
+package com.im.imcommunicationsystem.moment.service;
+
+import com.im.imcommunicationsystem.moment.entity.Moment;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 动态时间线收件箱服务接口
+ * 发布时写扩散到可见用户的收件箱，读取朋友圈时只需一次游标查询；
+ * 好友数过多的作者改为读扩散，读取时再合并其动态
+ */
+public interface MomentTimelineService {
+
+    /**
+     * 将新发布的动态写入作者本人及所有可见好友的收件箱
+     *
+     * @param moment 已保存的动态
+     */
+    void fanOut(Moment moment);
+
+    /**
+     * 可见性变更后重新写扩散动态
+     *
+     * @param moment 已更新可见性的动态
+     */
+    void refanOut(Moment moment);
+
+    /**
+     * 删除动态在所有收件箱中的记录（提交后台任务分批删除）
+     *
+     * @param momentId 动态ID
+     */
+    void removeMoment(Long momentId);
+
+    /**
+     * 按动态ID倒序游标读取朋友圈
+     *
+     * @param userId 当前用户ID
+     * @param beforeMomentId 游标，只返回ID小于该值的动态（为null时从最新开始）
+     * @param limit 读取条数
+     * @return 当前用户可见的动态列表（按ID倒序）
+     */
+    List<Moment> getTimeline(Long userId, Long beforeMomentId, int limit);
+
+    /**
+     * 从用户收件箱中移除某个作者的全部动态（屏蔽或删除好友时）
+     *
+     * @param userId 收件箱所属用户ID
+     * @param authorId 作者ID
+     */
+    void removeAuthor(Long userId, Long authorId);
+
+    /**
+     * 批量移除好友关系时清理收件箱（批量删除或屏蔽好友时）
+     *
+     * @param userId 操作用户ID
+     * @param friendIds 好友ID列表
+     * @param bidirectional 是否同时从好友的收件箱中移除操作用户的动态（删除好友时为 true）
+     */
+    void removeAuthors(Long userId, Collection<Long> friendIds, boolean bidirectional);
+
+    /**
+     * 将作者最近的可见动态回填到用户收件箱（新增好友或解除屏蔽时）
+     *
+     * @param userId 收件箱所属用户ID
+     * @param authorId 作者ID
+     */
+    void backfillAuthor(Long userId, Long authorId);
+}
@@ -1,6 +1,7 @@
 package com.im.imcommunicationsystem.moment.service;
 
 import com.im.imcommunicationsystem.moment.dto.request.CreateMomentRequest.VisibilityRules;
+import com.im.imcommunicationsystem.moment.entity.Moment;
 import com.im.imcommunicationsystem.moment.enums.VisibilityType;
 
 import java.util.List;
@@ -39,6 +40,15 @@ public interface MomentVisibilityService {
      */
     List<Long> getVisibleMoments(Long userId, List<Long> momentIds);
 
+    /**
+     * 批量判定一页动态对同一查看者的可见性
+     *
+     * @param viewerId 查看者ID
+     * @param moments 已加载的动态列表
+     * @return 可见的动态列表（保持原顺序）
+     */
+    List<Moment> filterVisibleMoments(Long viewerId, List<Moment> moments);
+
     /**
      * 根据可见性过滤动态
      *
@@ -1,6 +1,8 @@
 package com.im.imcommunicationsystem.moment.service.impl;
 
+import com.im.imcommunicationsystem.moment.config.MomentConfig;
 import com.im.imcommunicationsystem.moment.dto.request.CreateCommentRequest;
+import com.im.imcommunicationsystem.moment.dto.response.CommentPageResponse;
 import com.im.imcommunicationsystem.moment.dto.response.CommentResponse;
 import com.im.imcommunicationsystem.moment.entity.Moment;
 import com.im.imcommunicationsystem.moment.entity.MomentComment;
@@ -8,6 +10,7 @@ import com.im.imcommunicationsystem.moment.exception.MomentNotFoundException;
 import com.im.imcommunicationsystem.moment.repository.MomentCommentRepository;
 import com.im.imcommunicationsystem.moment.repository.MomentRepository;
 import com.im.imcommunicationsystem.moment.service.MomentCommentService;
+import com.im.imcommunicationsystem.moment.service.MomentEngagementCounterService;
 import com.im.imcommunicationsystem.auth.repository.UserRepository;
 import com.im.imcommunicationsystem.auth.entity.User;
 
@@ -20,10 +23,13 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 
@@ -35,6 +41,8 @@ public class MomentCommentServiceImpl implements MomentCommentService {
     private final MomentCommentRepository commentRepository;
     private final MomentRepository momentRepository;
     private final UserRepository userRepository;
+    private final MomentEngagementCounterService counterService;
+    private final MomentConfig momentConfig;
 
     @Override
     @Transactional
@@ -57,8 +65,9 @@ public class MomentCommentServiceImpl implements MomentCommentService {
             }
             
         // 检查动态是否存在
-        Moment moment = momentRepository.findById(momentId)
-                .orElseThrow(() -> new MomentNotFoundException("动态不存在"));
+        if (!momentRepository.existsById(momentId)) {
+            throw new MomentNotFoundException("动态不存在");
+        }
         
             // 检查用户是否存在
             User user = userRepository.findById(userId)
@@ -81,14 +90,12 @@ public class MomentCommentServiceImpl implements MomentCommentService {
             log.debug("保存评论实体到数据库");
         MomentComment savedComment = commentRepository.save(comment);
         
-        // 更新动态评论计数
-            log.debug("更新动态评论计数: momentId={}, 当前评论数={}", momentId, moment.getCommentCount());
-            moment.setCommentCount(moment.getCommentCount() != null ? moment.getCommentCount() + 1 : 1);
-        momentRepository.save(moment);
+        // 记录评论数增量，由计数服务批量写回
+            counterService.recordComment(momentId, 1);
         
         // 返回评论响应
             log.info("评论创建成功: commentId={}", savedComment.getId());
-        return convertToCommentResponse(savedComment);
+        return toCommentResponses(List.of(savedComment)).get(0);
         } catch (Exception e) {
             log.error("创建评论失败: momentId={}, userId={}, error={}", momentId, userId, e.getMessage(), e);
             throw e;
@@ -113,7 +120,7 @@ public class MomentCommentServiceImpl implements MomentCommentService {
         // 根据当前用户身份过滤私密评论
         boolean isMomentOwner = momentOwnerId.equals(currentUserId);
         
-        List<CommentResponse> filteredComments = comments.getContent().stream()
+        List<MomentComment> filteredComments = comments.getContent().stream()
             .filter(comment -> {
                 // 如果是私密评论且当前用户不是动态发布者也不是评论作者，则不可见
                 if (comment.getIsPrivate() != null && comment.getIsPrivate() 
@@ -122,10 +129,9 @@ public class MomentCommentServiceImpl implements MomentCommentService {
                 }
                 return true;
             })
-            .map(this::convertToCommentResponse)
             .collect(Collectors.toList());
         
-        return new PageImpl<>(filteredComments, pageable, comments.getTotalElements());
+        return new PageImpl<>(toCommentResponses(filteredComments), pageable, comments.getTotalElements());
     }
 
     @Override
@@ -149,15 +155,16 @@ public class MomentCommentServiceImpl implements MomentCommentService {
         Map<Long, CommentResponse> commentMap = new HashMap<>();
         List<CommentResponse> rootComments = new ArrayList<>();
         
-        // 转换所有评论为响应对象，并过滤私密评论
-        for (MomentComment comment : allComments) {
-            // 如果是私密评论且当前用户不是动态发布者也不是评论作者，则跳过
-            if (comment.getIsPrivate() != null && comment.getIsPrivate() 
-                    && !isMomentOwner && !comment.getUserId().equals(currentUserId)) {
-                continue;
-            }
-            
-            CommentResponse response = convertToCommentResponse(comment);
+        // 过滤私密评论后批量转换为响应对象
+        List<MomentComment> visibleComments = allComments.stream()
+                .filter(comment -> !(comment.getIsPrivate() != null && comment.getIsPrivate()
+                        && !isMomentOwner && !comment.getUserId().equals(currentUserId)))
+                .collect(Collectors.toList());
+        List<CommentResponse> visibleResponses = toCommentResponses(visibleComments);
+        
+        for (int i = 0; i < visibleComments.size(); i++) {
+            MomentComment comment = visibleComments.get(i);
+            CommentResponse response = visibleResponses.get(i);
             commentMap.put(response.getId(), response);
             
             if (comment.getParentCommentId() == null) {
@@ -179,6 +186,114 @@ public class MomentCommentServiceImpl implements MomentCommentService {
         return rootComments;
     }
 
+    @Override
+    public CommentPageResponse getCommentTree(Long momentId, Long currentUserId, Long afterCommentId, int size) {
+        boolean isMomentOwner = isMomentOwner(momentId, currentUserId);
+        int pageSize = normalizePageSize(size);
+        
+        // 多读一条用于判断是否还有下一页
+        List<MomentComment> roots = commentRepository.findVisibleRootComments(momentId, cursorOf(afterCommentId),
+                currentUserId, isMomentOwner, PageRequest.of(0, pageSize + 1));
+        boolean hasMore = roots.size() > pageSize;
+        if (hasMore) {
+            roots = roots.subList(0, pageSize);
+        }
+        if (roots.isEmpty()) {
+            return CommentPageResponse.builder().comments(new ArrayList<>()).hasMore(false).build();
+        }
+        
+        List<Long> rootIds = roots.stream().map(MomentComment::getId).collect(Collectors.toList());
+        
+        // 每条一级评论的可见回复数与最早若干条预览回复，各一次查询
+        Map<Long, Long> replyCounts = new HashMap<>();
+        for (Object[] row : commentRepository.countVisibleReplies(rootIds, currentUserId, isMomentOwner)) {
+            replyCounts.put((Long) row[0], ((Number) row[1]).longValue());
+        }
+        
+        List<MomentComment> previews = new ArrayList<>();
+        int previewSize = momentConfig.getCommentPreviewReplies();
+        if (previewSize > 0 && !replyCounts.isEmpty()) {
+            List<Long> previewIds = commentRepository.findPreviewReplyIds(replyCounts.keySet(), currentUserId,
+                    isMomentOwner, previewSize);
+            if (!previewIds.isEmpty()) {
+                previews = new ArrayList<>(commentRepository.findAllById(previewIds));
+                previews.sort(Comparator.comparing(MomentComment::getId));
+            }
+        }
+        
+        // 一级评论与预览回复一起批量补全用户信息
+        List<MomentComment> all = new ArrayList<>(roots.size() + previews.size());
+        all.addAll(roots);
+        all.addAll(previews);
+        List<CommentResponse> responses = toCommentResponses(all);
+        
+        Map<Long, CommentResponse> rootResponses = new LinkedHashMap<>();
+        for (int i = 0; i < roots.size(); i++) {
+            CommentResponse response = responses.get(i);
+            response.setReplies(new ArrayList<>());
+            response.setReplyCount(replyCounts.getOrDefault(response.getId(), 0L));
+            rootResponses.put(response.getId(), response);
+        }
+        for (int i = roots.size(); i < responses.size(); i++) {
+            CommentResponse reply = responses.get(i);
+            CommentResponse parent = rootResponses.get(reply.getParentCommentId());
+            if (parent != null) {
+                parent.getReplies().add(reply);
+            }
+        }
+        for (CommentResponse response : rootResponses.values()) {
+            response.setHasMoreReplies(response.getReplyCount() > response.getReplies().size());
+        }
+        
+        return CommentPageResponse.builder()
+                .comments(new ArrayList<>(rootResponses.values()))
+                .nextCursor(hasMore ? rootIds.get(rootIds.size() - 1) : null)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    @Override
+    public CommentPageResponse getCommentReplies(Long momentId, Long commentId, Long currentUserId, Long afterReplyId, int size) {
+        // 评论必须属于该动态，否则动态作者身份不能用于查看其他动态评论下的私密回复
+        MomentComment parentComment = commentRepository.findById(commentId)
+                .orElseThrow(() -> new MomentNotFoundException("评论不存在"));
+        if (!momentId.equals(parentComment.getMomentId())) {
+            throw new MomentNotFoundException("评论不存在");
+        }
+        
+        boolean isMomentOwner = isMomentOwner(momentId, currentUserId);
+        int pageSize = normalizePageSize(size);
+        
+        List<MomentComment> replies = commentRepository.findVisibleReplies(commentId, cursorOf(afterReplyId),
+                currentUserId, isMomentOwner, PageRequest.of(0, pageSize + 1));
+        boolean hasMore = replies.size() > pageSize;
+        if (hasMore) {
+            replies = replies.subList(0, pageSize);
+        }
+        
+        List<CommentResponse> responses = toCommentResponses(replies);
+        
+        // 回复本身也可能被回复，返回其回复数以便继续展开
+        if (!responses.isEmpty()) {
+            List<Long> replyIds = replies.stream().map(MomentComment::getId).collect(Collectors.toList());
+            Map<Long, Long> replyCounts = new HashMap<>();
+            for (Object[] row : commentRepository.countVisibleReplies(replyIds, currentUserId, isMomentOwner)) {
+                replyCounts.put((Long) row[0], ((Number) row[1]).longValue());
+            }
+            for (CommentResponse response : responses) {
+                long count = replyCounts.getOrDefault(response.getId(), 0L);
+                response.setReplyCount(count);
+                response.setHasMoreReplies(count > 0);
+            }
+        }
+        
+        return CommentPageResponse.builder()
+                .comments(responses)
+                .nextCursor(hasMore ? replies.get(replies.size() - 1).getId() : null)
+                .hasMore(hasMore)
+                .build();
+    }
+
     @Override
     @Transactional
     public boolean deleteComment(Long commentId, Long userId) {
@@ -190,25 +305,15 @@ public class MomentCommentServiceImpl implements MomentCommentService {
             throw new RuntimeException("没有权限删除该评论");
         }
         
-        // 获取所有回复（注意使用正确的方法签名）
-        Page<MomentComment> repliesPage = commentRepository.findByParentCommentIdOrderByCreatedAtAsc(commentId, PageRequest.of(0, Integer.MAX_VALUE));
-        List<MomentComment> replies = repliesPage.getContent();
-        
-        if (!replies.isEmpty()) {
-            commentRepository.deleteAll(replies);
-        }
+        // 批量删除直接回复（更深层的回复由外键级联删除，计数偏差由定时对账修正）
+        int deletedReplies = commentRepository.deleteByParentCommentId(commentId);
         
         // 删除评论
         commentRepository.delete(comment);
         
-        // 更新动态评论计数
-        Moment moment = momentRepository.findById(comment.getMomentId())
-                .orElseThrow(() -> new MomentNotFoundException("动态不存在"));
-        
         // 减去删除的评论数（1 + 所有回复）
-        int deletedCommentsCount = 1 + replies.size();
-        moment.setCommentCount(Math.max(0, moment.getCommentCount() - deletedCommentsCount));
-        momentRepository.save(moment);
+        int deletedCommentsCount = 1 + deletedReplies;
+        counterService.recordComment(comment.getMomentId(), -deletedCommentsCount);
         
         return true;
     }
@@ -217,8 +322,9 @@ public class MomentCommentServiceImpl implements MomentCommentService {
     @Transactional
     public CommentResponse replyToComment(Long momentId, Long commentId, Long userId, CreateCommentRequest request) {
         // 检查动态是否存在
-        Moment moment = momentRepository.findById(momentId)
-                .orElseThrow(() -> new MomentNotFoundException("动态不存在"));
+        if (!momentRepository.existsById(momentId)) {
+            throw new MomentNotFoundException("动态不存在");
+        }
         
         // 检查父评论是否存在
         MomentComment parentComment = commentRepository.findById(commentId)
@@ -242,12 +348,11 @@ public class MomentCommentServiceImpl implements MomentCommentService {
         // 保存评论
         MomentComment savedReply = commentRepository.save(reply);
         
-        // 更新动态评论计数
-        moment.setCommentCount(moment.getCommentCount() + 1);
-        momentRepository.save(moment);
+        // 记录评论数增量，由计数服务批量写回
+        counterService.recordComment(momentId, 1);
         
         // 返回评论响应
-        return convertToCommentResponse(savedReply);
+        return toCommentResponses(List.of(savedReply)).get(0);
     }
 
     @Override
@@ -255,31 +360,71 @@ public class MomentCommentServiceImpl implements MomentCommentService {
         return commentRepository.countByMomentId(momentId);
     }
     
-    // 辅助方法：将评论实体转换为响应对象
-    private CommentResponse convertToCommentResponse(MomentComment comment) {
-        CommentResponse response = CommentResponse.builder()
-            .id(comment.getId())
-            .userId(comment.getUserId())
-            .content(comment.getContent())
-            .parentCommentId(comment.getParentCommentId())
-            .replyToUserId(comment.getReplyToUserId())
-            .isPrivate(comment.getIsPrivate())
-            .createdAt(comment.getCreatedAt())
-            .build();
-        
-        // 获取用户信息
-        Optional<User> user = userRepository.findById(comment.getUserId());
-        user.ifPresent(u -> {
-            response.setUserNickname(u.getNickname());
-            response.setUserAvatar(u.getAvatarUrl());
-        });
-        
-        // 如果有回复目标用户，添加其信息
-        if (comment.getReplyToUserId() != null) {
-            Optional<User> replyToUser = userRepository.findById(comment.getReplyToUserId());
-            replyToUser.ifPresent(u -> response.setReplyToUserNickname(u.getNickname()));
+    // ==================== 私有辅助方法 ====================
+
+    /**
+     * 判断当前用户是否为动态作者（用于私密评论可见性）
+     */
+    private boolean isMomentOwner(Long momentId, Long currentUserId) {
+        Long momentOwnerId = momentRepository.findById(momentId)
+                .map(Moment::getUserId)
+                .orElseThrow(() -> new MomentNotFoundException("动态不存在"));
+        return momentOwnerId.equals(currentUserId);
+    }
+
+    private int normalizePageSize(int size) {
+        return size > 0 ? Math.min(size, 100) : momentConfig.getCommentPageSize();
+    }
+
+    private long cursorOf(Long afterId) {
+        return afterId != null ? afterId : 0L;
+    }
+
+    /**
+     * 批量将评论实体转换为响应对象（保持原顺序），评论者与回复目标用户一次查询加载
+     */
+    private List<CommentResponse> toCommentResponses(List<MomentComment> comments) {
+        Set<Long> userIds = new HashSet<>();
+        for (MomentComment comment : comments) {
+            userIds.add(comment.getUserId());
+            if (comment.getReplyToUserId() != null) {
+                userIds.add(comment.getReplyToUserId());
+            }
+        }
+        Map<Long, User> users = new HashMap<>();
+        if (!userIds.isEmpty()) {
+            for (User user : userRepository.findAllById(userIds)) {
+                users.put(user.getId(), user);
+            }
         }
         
-        return response;
+        List<CommentResponse> responses = new ArrayList<>(comments.size());
+        for (MomentComment comment : comments) {
+            CommentResponse response = CommentResponse.builder()
+                .id(comment.getId())
+                .userId(comment.getUserId())
+                .content(comment.getContent())
+                .parentCommentId(comment.getParentCommentId())
+                .replyToUserId(comment.getReplyToUserId())
+                .isPrivate(comment.getIsPrivate())
+                .createdAt(comment.getCreatedAt())
+                .build();
+            
+            User user = users.get(comment.getUserId());
+            if (user != null) {
+                response.setUserNickname(user.getNickname());
+                response.setUserAvatar(user.getAvatarUrl());
+            }
+            
+            // 如果有回复目标用户，添加其信息
+            if (comment.getReplyToUserId() != null) {
+                User replyToUser = users.get(comment.getReplyToUserId());
+                if (replyToUser != null) {
+                    response.setReplyToUserNickname(replyToUser.getNickname());
+                }
+            }
+            responses.add(response);
+        }
+        return responses;
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,321 @@
+package com.im.imcommunicationsystem.moment.service.impl;
+
+import com.im.imcommunicationsystem.moment.config.MomentConfig;
+import com.im.imcommunicationsystem.moment.repository.MomentRepository;
+import com.im.imcommunicationsystem.moment.service.MomentEngagementCounterService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 动态互动计数服务实现类
+ * 增量按动态ID分散在 ConcurrentHashMap 的各个桶中，只在桶内加锁合并，
+ * 写回时以 like_count = like_count + ? 的相对更新批量提交，不读取也不锁定整行实体；
+ * 对账同样以相对增量修正，不会覆盖其他实例尚未写回的增量
+ */
+@Service
+@Slf4j
+public class MomentEngagementCounterServiceImpl implements MomentEngagementCounterService {
+
+    private final MomentRepository momentRepository;
+    private final MomentConfig momentConfig;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * 待写回的增量，键为动态ID；值只在 compute/remove 的桶锁内读写
+     */
+    private final ConcurrentHashMap<Long, Delta> pending = new ConcurrentHashMap<>();
+
+    /**
+     * 串行化本实例的写回与对账，对账读取偏差时待写回增量与计数字段保持一致
+     */
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    public MomentEngagementCounterServiceImpl(MomentRepository momentRepository,
+                                              MomentConfig momentConfig,
+                                              PlatformTransactionManager transactionManager) {
+        this.momentRepository = momentRepository;
+        this.momentConfig = momentConfig;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void recordLike(Long momentId, int delta) {
+        afterCommit(() -> merge(momentId, delta, 0));
+    }
+
+    @Override
+    public void recordComment(Long momentId, int delta) {
+        afterCommit(() -> merge(momentId, 0, delta));
+    }
+
+    @Override
+    public int getPendingLikeDelta(Long momentId) {
+        int[] result = new int[1];
+        pending.computeIfPresent(momentId, (id, delta) -> {
+            result[0] = delta.likes;
+            return delta;
+        });
+        return result[0];
+    }
+
+    @Override
+    public int getPendingCommentDelta(Long momentId) {
+        int[] result = new int[1];
+        pending.computeIfPresent(momentId, (id, delta) -> {
+            result[0] = delta.comments;
+            return delta;
+        });
+        return result[0];
+    }
+
+    @Override
+    public void discard(Long momentId) {
+        afterCommit(() -> pending.remove(momentId));
+    }
+
+    @Override
+    public int flush() {
+        if (pending.isEmpty()) {
+            return 0;
+        }
+
+        flushLock.lock();
+        try {
+            int batchSize = Math.max(1, momentConfig.getEngagementFlushBatchSize());
+            int flushed = 0;
+            Map<Long, Delta> batch = new LinkedHashMap<>();
+
+            for (Long momentId : pending.keySet()) {
+                Delta delta = pending.remove(momentId);
+                if (delta == null || delta.isZero()) {
+                    continue;
+                }
+                batch.put(momentId, delta);
+                if (batch.size() >= batchSize) {
+                    flushed += writeBatch(batch);
+                    batch = new LinkedHashMap<>();
+                }
+            }
+            if (!batch.isEmpty()) {
+                flushed += writeBatch(batch);
+            }
+
+            if (flushed > 0) {
+                log.debug("动态互动计数写回完成: moments={}", flushed);
+            }
+            return flushed;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * 对账分两轮：第一轮记录每个动态的偏差（明细数 - 计数字段 - 本实例待写回增量），
+     * 等待所有实例至少写回一次后第二轮重新计算，只修正两轮完全一致的偏差。
+     * 其他实例尚未写回的增量、对账期间新增的互动都会让偏差在两轮之间变化，这些动态留到下次对账；
+     * 修正以相对增量写入，不覆盖其他实例并发写回的增量
+     */
+    @Override
+    public int reconcileAll() {
+        int batchSize = Math.max(1, momentConfig.getEngagementReconcileBatchSize());
+        log.info("开始动态互动计数对账，批大小: {}", batchSize);
+
+        flush();
+
+        Pageable page = PageRequest.of(0, batchSize);
+        long lastId = 0L;
+        Map<Long, Drift> suspected = new LinkedHashMap<>();
+        while (true) {
+            List<Long> ids = momentRepository.findIdsAfter(lastId, page);
+            if (ids.isEmpty()) {
+                break;
+            }
+            lastId = ids.get(ids.size() - 1);
+            try {
+                suspected.putAll(findDrift(ids));
+            } catch (Exception e) {
+                log.error("动态互动计数对账批次失败: lastId={}, error={}", lastId, e.getMessage(), e);
+            }
+            if (ids.size() < batchSize) {
+                break;
+            }
+        }
+        if (suspected.isEmpty()) {
+            log.info("动态互动计数对账完成，没有存在偏差的动态");
+            return 0;
+        }
+
+        try {
+            Thread.sleep(Math.max(0L, momentConfig.getEngagementReconcileSettleMillis()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("动态互动计数对账被中断，待确认动态数: {}", suspected.size());
+            return 0;
+        }
+        flush();
+
+        int corrected = 0;
+        List<Long> suspectedIds = new ArrayList<>(suspected.keySet());
+        for (int from = 0; from < suspectedIds.size(); from += batchSize) {
+            List<Long> ids = suspectedIds.subList(from, Math.min(from + batchSize, suspectedIds.size()));
+            flushLock.lock();
+            try {
+                Map<Long, Drift> stable = new LinkedHashMap<>();
+                findDrift(ids).forEach((id, drift) -> {
+                    if (drift.equals(suspected.get(id))) {
+                        stable.put(id, drift);
+                    }
+                });
+                if (!stable.isEmpty()) {
+                    transactionTemplate.executeWithoutResult(status -> stable.forEach((id, drift) ->
+                            momentRepository.applyEngagementDelta(id, drift.likes, drift.comments)));
+                    corrected += stable.size();
+                }
+            } catch (Exception e) {
+                log.error("动态互动计数修正批次失败: size={}, error={}", ids.size(), e.getMessage(), e);
+            } finally {
+                flushLock.unlock();
+            }
+        }
+
+        log.info("动态互动计数对账完成，存在偏差: {}，修正: {}", suspected.size(), corrected);
+        return corrected;
+    }
+
+    /**
+     * 应用关闭前写回剩余增量
+     */
+    @PreDestroy
+    public void flushOnShutdown() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("关闭前写回动态互动计数失败: pending={}, error={}", pending.size(), e.getMessage(), e);
+        }
+    }
+
+    // ==================== 私有辅助方法 ====================
+
+    /**
+     * 在一个事务中写回一批增量；失败时把增量合并回待写回集合，等待下次重试
+     */
+    private int writeBatch(Map<Long, Delta> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (Map.Entry<Long, Delta> entry : batch.entrySet()) {
+                    Delta delta = entry.getValue();
+                    momentRepository.applyEngagementDelta(entry.getKey(), delta.likes, delta.comments);
+                }
+            });
+            return batch.size();
+        } catch (Exception e) {
+            log.error("动态互动计数写回失败，增量将在下次重试: size={}, error={}", batch.size(), e.getMessage(), e);
+            batch.forEach((momentId, delta) -> merge(momentId, delta.likes, delta.comments));
+            return 0;
+        }
+    }
+
+    /**
+     * 计算一批动态扣除本实例待写回增量后的偏差，在写回锁内读取，待写回增量与计数字段一致
+     */
+    private Map<Long, Drift> findDrift(List<Long> ids) {
+        Map<Long, Drift> drifts = new LinkedHashMap<>();
+        flushLock.lock();
+        try {
+            for (Object[] row : momentRepository.findEngagementDrift(ids)) {
+                Long id = ((Number) row[0]).longValue();
+                int likes = ((Number) row[1]).intValue() - getPendingLikeDelta(id);
+                int comments = ((Number) row[2]).intValue() - getPendingCommentDelta(id);
+                if (likes != 0 || comments != 0) {
+                    drifts.put(id, new Drift(likes, comments));
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+        return drifts;
+    }
+
+    private void merge(Long momentId, int likes, int comments) {
+        if (momentId == null || (likes == 0 && comments == 0)) {
+            return;
+        }
+        pending.compute(momentId, (id, delta) -> {
+            Delta target = delta != null ? delta : new Delta();
+            target.likes += likes;
+            target.comments += comments;
+            return target;
+        });
+    }
+
+    /**
+     * 调用方事务提交后再记录增量，事务回滚时计数不变
+     */
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * 对账发现的单个动态计数偏差
+     */
+    private static final class Drift {
+        private final int likes;
+        private final int comments;
+
+        private Drift(int likes, int comments) {
+            this.likes = likes;
+            this.comments = comments;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Drift other)) {
+                return false;
+            }
+            return likes == other.likes && comments == other.comments;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * likes + comments;
+        }
+    }
+
+    /**
+     * 单个动态的待写回增量
+     */
+    private static final class Delta {
+        private int likes;
+        private int comments;
+
+        private boolean isZero() {
+            return likes == 0 && comments == 0;
+        }
+    }
+}
@@ -1,17 +1,17 @@
 package com.im.imcommunicationsystem.moment.service.impl;
 
 import com.im.imcommunicationsystem.moment.dto.response.MomentDetailResponse;
-import com.im.imcommunicationsystem.moment.entity.Moment;
 import com.im.imcommunicationsystem.moment.entity.MomentLike;
 import com.im.imcommunicationsystem.moment.exception.MomentNotFoundException;
+import com.im.imcommunicationsystem.moment.hydration.MomentFeedHydrator;
 import com.im.imcommunicationsystem.moment.repository.MomentLikeRepository;
 import com.im.imcommunicationsystem.moment.repository.MomentRepository;
+import com.im.imcommunicationsystem.moment.service.MomentEngagementCounterService;
 import com.im.imcommunicationsystem.moment.service.MomentLikeService;
-import com.im.imcommunicationsystem.auth.entity.User;
-import com.im.imcommunicationsystem.auth.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -19,6 +19,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -27,16 +28,18 @@ public class MomentLikeServiceImpl implements MomentLikeService {
 
     private final MomentRepository momentRepository;
     private final MomentLikeRepository likeRepository;
-    private final UserRepository userRepository;
+    private final MomentFeedHydrator feedHydrator;
+    private final MomentEngagementCounterService counterService;
 
     @Override
     @Transactional
     public boolean likeMoment(Long momentId, Long userId) {
         log.info("用户 {} 点赞动态 {}", userId, momentId);
         
-        // 检查动态是否存在
-        Moment moment = momentRepository.findById(momentId)
-                .orElseThrow(() -> new MomentNotFoundException("动态不存在"));
+        // 检查动态是否存在（不加载实体，计数通过增量更新）
+        if (!momentRepository.existsById(momentId)) {
+            throw new MomentNotFoundException("动态不存在");
+        }
         
         // 检查是否已经点赞
         Optional<MomentLike> existingLike = likeRepository.findByMomentIdAndUserId(momentId, userId);
@@ -52,14 +55,8 @@ public class MomentLikeServiceImpl implements MomentLikeService {
         like.setUserId(userId);
         likeRepository.save(like);
         
-        // 更新动态点赞数 - 处理likeCount可能为null的情况
-        Integer currentLikes = moment.getLikeCount();
-        if (currentLikes == null) {
-            moment.setLikeCount(1); // 如果为null，设为1
-        } else {
-            moment.setLikeCount(currentLikes + 1);
-        }
-        momentRepository.save(moment);
+        // 记录点赞数增量，由计数服务批量写回
+        counterService.recordLike(momentId, 1);
         
         log.info("用户 {} 成功点赞动态 {}", userId, momentId);
         return true;
@@ -70,9 +67,10 @@ public class MomentLikeServiceImpl implements MomentLikeService {
     public boolean unlikeMoment(Long momentId, Long userId) {
         log.info("用户 {} 取消点赞动态 {}", userId, momentId);
         
-        // 检查动态是否存在
-        Moment moment = momentRepository.findById(momentId)
-                .orElseThrow(() -> new MomentNotFoundException("动态不存在"));
+        // 检查动态是否存在（不加载实体，计数通过增量更新）
+        if (!momentRepository.existsById(momentId)) {
+            throw new MomentNotFoundException("动态不存在");
+        }
         
         // 检查是否已经点赞
         Optional<MomentLike> existingLike = likeRepository.findByMomentIdAndUserId(momentId, userId);
@@ -82,17 +80,13 @@ public class MomentLikeServiceImpl implements MomentLikeService {
             return false;
         }
         
-        // 删除点赞记录
-        likeRepository.delete(existingLike.get());
-        
-        // 更新动态点赞数 - 处理likeCount可能为null的情况
-        Integer currentLikes = moment.getLikeCount();
-        if (currentLikes == null || currentLikes <= 0) {
-            moment.setLikeCount(0); // 如果为null或已经是0，确保不会小于0
-        } else {
-            moment.setLikeCount(currentLikes - 1);
+        // 删除点赞记录（并发取消时只有实际删除成功的一方扣减计数）
+        if (likeRepository.deleteByMomentIdAndUserId(momentId, userId) == 0) {
+            return false;
         }
-        momentRepository.save(moment);
+        
+        // 记录点赞数增量，由计数服务批量写回
+        counterService.recordLike(momentId, -1);
         
         log.info("用户 {} 成功取消点赞动态 {}", userId, momentId);
         return true;
@@ -113,19 +107,11 @@ public class MomentLikeServiceImpl implements MomentLikeService {
         // 获取点赞记录
         Page<MomentLike> likes = likeRepository.findByMomentIdOrderByCreatedAtDesc(momentId, pageable);
         
-        // 转换为用户简要信息
-        return likes.map(like -> {
-            MomentDetailResponse.UserBriefInfo userInfo = new MomentDetailResponse.UserBriefInfo();
-            
-            // 获取用户信息
-            userRepository.findById(like.getUserId()).ifPresent(user -> {
-                userInfo.setId(user.getId());
-                userInfo.setNickname(user.getNickname());
-                userInfo.setAvatar(user.getAvatarUrl());
-            });
-            
-            return userInfo;
-        });
+        // 批量转换为用户简要信息
+        List<Long> userIds = likes.getContent().stream()
+                .map(MomentLike::getUserId)
+                .collect(Collectors.toList());
+        return new PageImpl<>(feedHydrator.toUserBriefs(userIds), pageable, likes.getTotalElements());
     }
 
     @Override
@@ -0,0 +1,30 @@
+package com.im.imcommunicationsystem.moment.service.impl;
+
+import com.im.imcommunicationsystem.common.enums.PurgeJobType;
+import com.im.imcommunicationsystem.common.service.PurgeJobHandler;
+import com.im.imcommunicationsystem.moment.repository.MomentTimelineRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 动态删除清理处理器
+ * 动态本身（及级联的评论、点赞、媒体）同步删除，写扩散到各收件箱的记录在后台分批删除
+ */
+@Component
+@RequiredArgsConstructor
+public class MomentPurgeHandler implements PurgeJobHandler {
+
+    private final MomentTimelineRepository timelineRepository;
+
+    @Override
+    public PurgeJobType getType() {
+        return PurgeJobType.MOMENT_DELETE;
+    }
+
+    @Override
+    public List<PurgeStep> getSteps() {
+        return List.of(new PurgeStep("moment_timeline", timelineRepository::deleteChunkByMomentId));
+    }
+}
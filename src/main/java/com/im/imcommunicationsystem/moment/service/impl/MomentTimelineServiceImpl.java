@@ -0,0 +1,215 @@
+package com.im.imcommunicationsystem.moment.service.impl;
+
+import com.im.imcommunicationsystem.common.enums.PurgeJobType;
+import com.im.imcommunicationsystem.common.service.PurgeJobService;
+import com.im.imcommunicationsystem.moment.config.MomentConfig;
+import com.im.imcommunicationsystem.moment.entity.Moment;
+import com.im.imcommunicationsystem.moment.entity.MomentPullAuthor;
+import com.im.imcommunicationsystem.moment.enums.VisibilityType;
+import com.im.imcommunicationsystem.moment.repository.MomentPullAuthorRepository;
+import com.im.imcommunicationsystem.moment.repository.MomentRepository;
+import com.im.imcommunicationsystem.moment.repository.MomentTimelineRepository;
+import com.im.imcommunicationsystem.moment.service.MomentTimelineService;
+import com.im.imcommunicationsystem.moment.visibility.MomentVisibilityEvaluator;
+import com.im.imcommunicationsystem.moment.visibility.MomentVisibilityEvaluatorCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 动态时间线收件箱服务实现类
+ * 好友关系变化引起的收件箱调整在联系人事务提交后调用，使用独立事务，失败不影响已提交的好友变更
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MomentTimelineServiceImpl implements MomentTimelineService {
+
+    private final MomentTimelineRepository timelineRepository;
+    private final MomentPullAuthorRepository pullAuthorRepository;
+    private final MomentRepository momentRepository;
+    private final MomentConfig momentConfig;
+    private final MomentVisibilityEvaluatorCache evaluatorCache;
+    private final PurgeJobService purgeJobService;
+
+    @Override
+    @Transactional
+    public void fanOut(Moment moment) {
+        Long authorId = moment.getUserId();
+        LocalDateTime createdAt = createdAtOf(moment);
+
+        // 作者本人的收件箱总是包含自己的动态
+        timelineRepository.insertEntry(authorId, moment.getId(), authorId, createdAt);
+
+        if (moment.getVisibilityType() == VisibilityType.PRIVATE) {
+            return;
+        }
+
+        if (pullAuthorRepository.existsById(authorId)) {
+            log.debug("作者为读扩散模式，跳过写扩散: momentId={}, authorId={}", moment.getId(), authorId);
+            return;
+        }
+
+        long targets = timelineRepository.countFanOutTargets(authorId);
+        if (targets > momentConfig.getTimelineFanoutThreshold()) {
+            pullAuthorRepository.save(MomentPullAuthor.builder().userId(authorId).build());
+            log.info("作者好友数超过写扩散阈值，转为读扩散: authorId={}, targets={}, threshold={}",
+                    authorId, targets, momentConfig.getTimelineFanoutThreshold());
+            return;
+        }
+
+        int delivered = deliver(moment, createdAt);
+        log.info("动态写扩散完成: momentId={}, authorId={}, delivered={}", moment.getId(), authorId, delivered);
+    }
+
+    @Override
+    @Transactional
+    public void refanOut(Moment moment) {
+        int removed = timelineRepository.deleteFanOutByMomentId(moment.getId());
+        log.debug("可见性变更，清除原收件箱记录: momentId={}, removed={}", moment.getId(), removed);
+        fanOut(moment);
+    }
+
+    @Override
+    @Transactional
+    public void removeMoment(Long momentId) {
+        // 收件箱查询关联动态表，动态删除后残留的记录不可见，由后台任务分批清理
+        purgeJobService.submit(PurgeJobType.MOMENT_DELETE, momentId);
+        log.debug("提交动态收件箱记录清理任务: momentId={}", momentId);
+    }
+
+    @Override
+    public List<Moment> getTimeline(Long userId, Long beforeMomentId, int limit) {
+        long cursor = beforeMomentId != null ? beforeMomentId : Long.MAX_VALUE;
+        PageRequest page = PageRequest.of(0, limit);
+
+        List<Moment> inbox = timelineRepository.findTimelineMoments(userId, cursor, page);
+
+        // 读扩散作者的动态未写入收件箱，按同一游标拉取后合并
+        List<Long> pullAuthorIds = pullAuthorRepository.findVisiblePullAuthorIds(userId);
+        if (pullAuthorIds.isEmpty()) {
+            return inbox;
+        }
+
+        // 可见性过滤在分页之后进行，持续向后读取直到凑满 limit 条可见动态、没有更多动态或检查条数达到上限，
+        // 保证合并截断后返回的最后一条之前的读扩散动态都已检查过，下一页游标不会跳过可见动态
+        List<Moment> pulled = new ArrayList<>();
+        long pullCursor = cursor;
+        int examined = 0;
+        boolean exhausted = false;
+        int maxExamined = Math.max(limit, momentConfig.getTimelinePullMaxExamined());
+        while (pulled.size() < limit && examined < maxExamined) {
+            List<Moment> batch = momentRepository.findByUserIdInAndIdLessThanOrderByIdDesc(pullAuthorIds, pullCursor, page);
+            for (Moment moment : batch) {
+                if (evaluatorCache.get(moment).permitsFriend(userId)) {
+                    pulled.add(moment);
+                }
+            }
+            examined += batch.size();
+            if (batch.size() < limit) {
+                exhausted = true;
+                break;
+            }
+            pullCursor = batch.get(batch.size() - 1).getId();
+        }
+        // 检查条数达到上限时，比最后检查的位置更早的读扩散动态尚未检查，本页截止到该位置
+        long pullFloor = pulled.size() < limit && !exhausted ? pullCursor : 0L;
+        log.debug("合并读扩散作者动态: userId={}, pullAuthors={}, examined={}, pulled={}, floor={}",
+                userId, pullAuthorIds.size(), examined, pulled.size(), pullFloor);
+
+        List<Moment> merged = new ArrayList<>(Math.min(limit, inbox.size() + pulled.size()));
+        int i = 0;
+        int j = 0;
+        while (merged.size() < limit && (i < inbox.size() || j < pulled.size())) {
+            Moment next;
+            if (j >= pulled.size() || (i < inbox.size() && inbox.get(i).getId() > pulled.get(j).getId())) {
+                next = inbox.get(i++);
+            } else {
+                next = pulled.get(j++);
+            }
+            if (next.getId() < pullFloor) {
+                break;
+            }
+            // 同一条动态同时出现在收件箱和拉取结果中时只保留一条
+            if (merged.isEmpty() || !merged.get(merged.size() - 1).getId().equals(next.getId())) {
+                merged.add(next);
+            }
+        }
+        return merged;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void removeAuthor(Long userId, Long authorId) {
+        int removed = timelineRepository.deleteByUserIdAndAuthorId(userId, authorId);
+        log.info("从收件箱移除作者动态: userId={}, authorId={}, removed={}", userId, authorId, removed);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void removeAuthors(Long userId, Collection<Long> friendIds, boolean bidirectional) {
+        if (friendIds == null || friendIds.isEmpty()) {
+            return;
+        }
+        int removed = timelineRepository.deleteByUserIdAndAuthorIdIn(userId, friendIds);
+        if (bidirectional) {
+            removed += timelineRepository.deleteByUserIdInAndAuthorId(friendIds, userId);
+        }
+        log.info("批量从收件箱移除作者动态: userId={}, friends={}, bidirectional={}, removed={}",
+                userId, friendIds.size(), bidirectional, removed);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void backfillAuthor(Long userId, Long authorId) {
+        if (pullAuthorRepository.existsById(authorId)) {
+            return;
+        }
+        if (timelineRepository.countFanOutTarget(authorId, userId) == 0) {
+            return;
+        }
+
+        int backfilled = 0;
+        PageRequest recent = PageRequest.of(0, momentConfig.getTimelineBackfillSize());
+        for (Moment moment : momentRepository.findByUserIdOrderByCreatedAtDesc(authorId, recent)) {
+            if (evaluatorCache.get(moment).permitsFriend(userId)) {
+                backfilled += timelineRepository.insertEntry(userId, moment.getId(), authorId, createdAtOf(moment));
+            }
+        }
+        log.info("回填作者动态到收件箱: userId={}, authorId={}, backfilled={}", userId, authorId, backfilled);
+    }
+
+    // ==================== 私有辅助方法 ====================
+
+    /**
+     * 按编译后的可见性模式选择写扩散语句
+     */
+    private int deliver(Moment moment, LocalDateTime createdAt) {
+        Long momentId = moment.getId();
+        Long authorId = moment.getUserId();
+        MomentVisibilityEvaluator evaluator = evaluatorCache.get(moment);
+
+        switch (evaluator.getMode()) {
+            case FRIENDS:
+                return timelineRepository.fanOutToFriends(momentId, authorId, createdAt);
+            case ALLOW_LIST:
+                return timelineRepository.fanOutToFriendsIn(momentId, authorId, createdAt, evaluator.getRuleUserIds());
+            case BLOCK_LIST:
+                return timelineRepository.fanOutToFriendsNotIn(momentId, authorId, createdAt, evaluator.getRuleUserIds());
+            default:
+                return 0;
+        }
+    }
+
+    private LocalDateTime createdAtOf(Moment moment) {
+        return moment.getCreatedAt() != null ? moment.getCreatedAt() : LocalDateTime.now();
+    }
+}
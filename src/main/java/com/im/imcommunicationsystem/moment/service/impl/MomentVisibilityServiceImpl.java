@@ -5,9 +5,11 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.im.imcommunicationsystem.moment.dto.request.CreateMomentRequest.VisibilityRules;
 import com.im.imcommunicationsystem.moment.entity.Moment;
 import com.im.imcommunicationsystem.moment.enums.VisibilityType;
-import com.im.imcommunicationsystem.moment.exception.MomentNotFoundException;
 import com.im.imcommunicationsystem.moment.repository.MomentRepository;
+import com.im.imcommunicationsystem.moment.service.MomentTimelineService;
 import com.im.imcommunicationsystem.moment.service.MomentVisibilityService;
+import com.im.imcommunicationsystem.moment.visibility.MomentVisibilityEvaluator;
+import com.im.imcommunicationsystem.moment.visibility.MomentVisibilityEvaluatorCache;
 import com.im.imcommunicationsystem.relationship.service.ContactService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -15,8 +17,12 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -29,6 +35,8 @@ public class MomentVisibilityServiceImpl implements MomentVisibilityService {
 
     private final MomentRepository momentRepository;
     private final ContactService contactService;
+    private final MomentTimelineService timelineService;
+    private final MomentVisibilityEvaluatorCache evaluatorCache;
     private final ObjectMapper objectMapper;
 
     @Override
@@ -69,8 +77,10 @@ public class MomentVisibilityServiceImpl implements MomentVisibilityService {
                 moment.setVisibilityRules(null);
             }
             
-            // 保存更新
+            // 保存更新，使判定器缓存失效并按新的可见性重新写扩散
             momentRepository.save(moment);
+            evaluatorCache.invalidate(momentId);
+            timelineService.refanOut(moment);
             
             log.info("动态可见性设置成功: momentId={}, visibilityType={}", momentId, visibilityType);
             return true;
@@ -82,78 +92,27 @@ public class MomentVisibilityServiceImpl implements MomentVisibilityService {
 
     @Override
     public boolean checkVisibilityPermission(Long momentId, Long viewerId) {
-        log.info("检查动态可见性权限: momentId={}, viewerId={}", momentId, viewerId);
+        log.debug("检查动态可见性权限: momentId={}, viewerId={}", momentId, viewerId);
         
         try {
-            // 获取动态
-            Moment moment = momentRepository.findById(momentId)
-                    .orElseThrow(() -> new MomentNotFoundException("动态不存在"));
+            MomentVisibilityEvaluator evaluator = evaluatorCache.get(momentId);
+            if (evaluator == null) {
+                log.warn("动态不存在: momentId={}", momentId);
+                return false;
+            }
             
             // 动态作者总是可以查看自己的动态
-            if (moment.getUserId().equals(viewerId)) {
-                log.info("动态作者查看自己的动态: momentId={}, userId={}", momentId, viewerId);
+            if (evaluator.isAuthor(viewerId)) {
                 return true;
             }
             
-            // 根据可见性类型判断
-            switch (moment.getVisibilityType()) {
-                case PUBLIC:
-                    // 公开动态需要是好友关系才能查看
-                    boolean isFriend = contactService.isFriend(moment.getUserId(), viewerId);
-                    log.info("公开动态可见性检查: momentId={}, viewerId={}, isFriend={}", momentId, viewerId, isFriend);
-                    return isFriend;
-                    
-                case PRIVATE:
-                    // 私密动态仅作者可见
-                    log.info("私密动态仅作者可见: momentId={}, viewerId={}", momentId, viewerId);
-                    return false;
-                    
-                case CUSTOM:
-                    // 自定义可见性需要解析规则
-                    if (moment.getVisibilityRules() == null) {
-                        log.warn("自定义可见性规则为空: momentId={}", momentId);
-                        return false;
-                    }
-                    
-                    try {
-                        // 解析可见性规则
-                        VisibilityRules rules = objectMapper.readValue(
-                                moment.getVisibilityRules(),
-                                VisibilityRules.class
-                        );
-                        
-                        // 检查是否是好友
-                        boolean isFriendForCustom = contactService.isFriend(moment.getUserId(), viewerId);
-                        if (!isFriendForCustom) {
-                            log.info("非好友用户无法查看自定义可见性动态: momentId={}, viewerId={}", momentId, viewerId);
-                            return false;
-                        }
-                        
-                        // 检查是否在允许列表中
-                        if (rules.getAllowedUserIds() != null && !rules.getAllowedUserIds().isEmpty()) {
-                            boolean isAllowed = rules.getAllowedUserIds().contains(viewerId);
-                            log.info("检查用户是否在允许列表: momentId={}, viewerId={}, isAllowed={}", momentId, viewerId, isAllowed);
-                            return isAllowed;
-                        }
-                        
-                        // 检查是否在阻止列表中
-                        if (rules.getBlockedUserIds() != null && !rules.getBlockedUserIds().isEmpty()) {
-                            boolean isBlocked = rules.getBlockedUserIds().contains(viewerId);
-                            log.info("检查用户是否在阻止列表: momentId={}, viewerId={}, isBlocked={}", momentId, viewerId, isBlocked);
-                            return !isBlocked;
-                        }
-                        
-                        // 默认情况下，好友可见
-                        return true;
-                        
-                    } catch (Exception e) {
-                        log.error("解析可见性规则失败: momentId={}, error={}", momentId, e.getMessage(), e);
-                        return false;
-                    }
-                    
-                default:
-                    return false;
+            // 规则已排除该用户时无需再查询好友关系
+            if (!evaluator.permitsFriend(viewerId)) {
+                log.debug("可见性规则不允许查看: momentId={}, viewerId={}, mode={}", momentId, viewerId, evaluator.getMode());
+                return false;
             }
+            
+            return contactService.isFriend(evaluator.getAuthorId(), viewerId);
         } catch (Exception e) {
             log.error("检查动态可见性权限失败: momentId={}, viewerId={}, error={}", 
                     momentId, viewerId, e.getMessage(), e);
@@ -163,16 +122,23 @@ public class MomentVisibilityServiceImpl implements MomentVisibilityService {
 
     @Override
     public List<Long> getVisibleMoments(Long userId, List<Long> momentIds) {
-        log.info("获取用户可见的动态ID列表: userId={}, momentIds.size={}", userId, momentIds.size());
-        
         if (momentIds == null || momentIds.isEmpty()) {
             return new ArrayList<>();
         }
+        log.info("获取用户可见的动态ID列表: userId={}, momentIds.size={}", userId, momentIds.size());
         
         try {
-            // 过滤出用户有权限查看的动态
-            List<Long> visibleMomentIds = momentIds.stream()
-                    .filter(momentId -> checkVisibilityPermission(momentId, userId))
+            Map<Long, MomentVisibilityEvaluator> evaluators = evaluatorCache.getAll(momentIds);
+            List<MomentVisibilityEvaluator> ordered = new ArrayList<>(momentIds.size());
+            for (Long momentId : momentIds) {
+                MomentVisibilityEvaluator evaluator = evaluators.get(momentId);
+                if (evaluator != null) {
+                    ordered.add(evaluator);
+                }
+            }
+            
+            List<Long> visibleMomentIds = evaluateBatch(userId, ordered).stream()
+                    .map(MomentVisibilityEvaluator::getMomentId)
                     .collect(Collectors.toList());
             
             log.info("用户可见的动态数量: userId={}, visible={}, total={}", 
@@ -186,17 +152,37 @@ public class MomentVisibilityServiceImpl implements MomentVisibilityService {
     }
 
     @Override
-    public List<Long> filterUsersByVisibility(Long userId, List<Long> userIds) {
-        log.info("根据可见性过滤用户列表: userId={}, userIds.size={}", userId, userIds.size());
+    public List<Moment> filterVisibleMoments(Long viewerId, List<Moment> moments) {
+        if (moments == null || moments.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        List<MomentVisibilityEvaluator> evaluators = new ArrayList<>(moments.size());
+        for (Moment moment : moments) {
+            evaluators.add(evaluatorCache.get(moment));
+        }
+        
+        Set<Long> visibleIds = evaluateBatch(viewerId, evaluators).stream()
+                .map(MomentVisibilityEvaluator::getMomentId)
+                .collect(Collectors.toSet());
         
+        return moments.stream()
+                .filter(moment -> visibleIds.contains(moment.getId()))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Long> filterUsersByVisibility(Long userId, List<Long> userIds) {
         if (userIds == null || userIds.isEmpty()) {
             return new ArrayList<>();
         }
+        log.info("根据可见性过滤用户列表: userId={}, userIds.size={}", userId, userIds.size());
         
         try {
-            // 过滤出与当前用户互为好友的用户ID
+            // 一次查询筛选出与当前用户互为好友的用户ID
+            Set<Long> friendIds = contactService.findMutualFriendIds(userId, userIds);
             List<Long> friendUserIds = userIds.stream()
-                    .filter(friendId -> contactService.isFriend(userId, friendId))
+                    .filter(friendIds::contains)
                     .collect(Collectors.toList());
             
             log.info("过滤后的好友用户数量: userId={}, friends={}, total={}", 
@@ -208,4 +194,29 @@ public class MomentVisibilityServiceImpl implements MomentVisibilityService {
             return new ArrayList<>();
         }
     }
-} 
\ No newline at end of file
+
+    /**
+     * 对同一查看者批量判定一页动态的可见性
+     * 先用判定器排除规则不允许的动态，再对剩余作者做一次批量好友关系查询
+     */
+    private List<MomentVisibilityEvaluator> evaluateBatch(Long viewerId, List<MomentVisibilityEvaluator> evaluators) {
+        Set<Long> authorsToCheck = new HashSet<>();
+        for (MomentVisibilityEvaluator evaluator : evaluators) {
+            if (!evaluator.isAuthor(viewerId) && evaluator.permitsFriend(viewerId)) {
+                authorsToCheck.add(evaluator.getAuthorId());
+            }
+        }
+        
+        Set<Long> friendAuthors = authorsToCheck.isEmpty()
+                ? Collections.emptySet()
+                : contactService.findMutualFriendIds(viewerId, authorsToCheck);
+        
+        List<MomentVisibilityEvaluator> visible = new ArrayList<>(evaluators.size());
+        for (MomentVisibilityEvaluator evaluator : evaluators) {
+            if (evaluator.isVisibleTo(viewerId, friendAuthors.contains(evaluator.getAuthorId()))) {
+                visible.add(evaluator);
+            }
+        }
+        return visible;
+    }
+}
@@ -0,0 +1,34 @@
+package com.im.imcommunicationsystem.moment.service.impl;
+
+import com.im.imcommunicationsystem.common.enums.PurgeJobType;
+import com.im.imcommunicationsystem.common.service.PurgeJobHandler;
+import com.im.imcommunicationsystem.moment.repository.MomentTimelineRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 用户注销清理处理器
+ * 删除用户自己的朋友圈收件箱，并将其动态从好友的收件箱中移除；
+ * 用户账号按软删除处理，动态、联系人等数据保留
+ */
+@Component
+@RequiredArgsConstructor
+public class UserTimelinePurgeHandler implements PurgeJobHandler {
+
+    private final MomentTimelineRepository timelineRepository;
+
+    @Override
+    public PurgeJobType getType() {
+        return PurgeJobType.USER_ACCOUNT;
+    }
+
+    @Override
+    public List<PurgeStep> getSteps() {
+        return List.of(
+                new PurgeStep("moment_timeline_inbox", timelineRepository::deleteChunkByUserId),
+                new PurgeStep("moment_timeline_fanout", timelineRepository::deleteChunkByAuthorMoments)
+        );
+    }
+}
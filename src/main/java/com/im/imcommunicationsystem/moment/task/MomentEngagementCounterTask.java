@@ -0,0 +1,47 @@
+package com.im.imcommunicationsystem.moment.task;
+
+import com.im.imcommunicationsystem.moment.service.MomentEngagementCounterService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 动态互动计数定时任务
+ * 周期性写回点赞、评论数增量，并每晚按明细表对账计数
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class MomentEngagementCounterTask {
+
+    private final MomentEngagementCounterService counterService;
+
+    /**
+     * 默认每2秒写回一次累积的增量
+     */
+    @Scheduled(fixedDelayString = "${moment.engagement-flush-interval-ms:2000}")
+    public void flushEngagementCounters() {
+        try {
+            counterService.flush();
+        } catch (Exception e) {
+            log.error("动态互动计数写回任务执行失败", e);
+        }
+    }
+
+    /**
+     * 每天凌晨5点按点赞、评论明细表对账计数
+     */
+    @Scheduled(cron = "${moment.engagement-reconcile-cron:0 0 5 * * ?}")
+    public void reconcileEngagementCounters() {
+        log.info("开始执行动态互动计数对账任务");
+
+        try {
+            int corrected = counterService.reconcileAll();
+            log.info("动态互动计数对账任务完成，修正动态数: {}", corrected);
+
+        } catch (Exception e) {
+            log.error("动态互动计数对账任务执行失败", e);
+        }
+    }
+}
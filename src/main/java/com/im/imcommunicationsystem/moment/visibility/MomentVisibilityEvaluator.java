@@ -0,0 +1,191 @@
+package com.im.imcommunicationsystem.moment.visibility;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.im.imcommunicationsystem.common.utils.LongHashSet;
+import com.im.imcommunicationsystem.moment.dto.request.CreateMomentRequest.VisibilityRules;
+import com.im.imcommunicationsystem.moment.entity.Moment;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 预编译的动态可见性判定器（不可变）
+ * 每条动态的可见性类型与规则JSON只解析一次，名单保存在基于 long 的开放寻址哈希集合中，
+ * 判定时不再反序列化规则、也不对 List 做线性查找
+ *
+ * 判定语义与原有实现一致：
+ * 作者本人总是可见；其他用户必须与作者互为好友，且满足可见性规则：
+ * PUBLIC 好友可见；PRIVATE 仅作者可见；
+ * CUSTOM 有允许名单时仅名单内可见，否则屏蔽名单外可见，规则缺失时仅作者可见
+ */
+@Slf4j
+public final class MomentVisibilityEvaluator {
+
+    /**
+     * 编译后的判定模式
+     */
+    public enum Mode {
+        /**
+         * 所有好友可见
+         */
+        FRIENDS,
+
+        /**
+         * 仅允许名单内的好友可见
+         */
+        ALLOW_LIST,
+
+        /**
+         * 屏蔽名单以外的好友可见
+         */
+        BLOCK_LIST,
+
+        /**
+         * 仅作者可见
+         */
+        AUTHOR_ONLY
+    }
+
+    private final long momentId;
+    private final long authorId;
+    private final Mode mode;
+    private final LongHashSet ruleUserIds;
+    private final LocalDateTime version;
+    private final long compiledAt;
+
+    private MomentVisibilityEvaluator(long momentId, long authorId, Mode mode, LongHashSet ruleUserIds,
+                                      LocalDateTime version) {
+        this.momentId = momentId;
+        this.authorId = authorId;
+        this.mode = mode;
+        this.ruleUserIds = ruleUserIds;
+        this.version = version;
+        this.compiledAt = System.currentTimeMillis();
+    }
+
+    /**
+     * 将动态的可见性类型与规则编译为判定器
+     *
+     * @param moment 动态
+     * @param objectMapper 用于解析规则JSON
+     * @return 判定器
+     */
+    public static MomentVisibilityEvaluator compile(Moment moment, ObjectMapper objectMapper) {
+        Mode mode = Mode.AUTHOR_ONLY;
+        LongHashSet userIds = new LongHashSet(0);
+
+        if (moment.getVisibilityType() != null) {
+            switch (moment.getVisibilityType()) {
+                case PUBLIC:
+                    mode = Mode.FRIENDS;
+                    break;
+                case CUSTOM:
+                    VisibilityRules rules = parseRules(moment, objectMapper);
+                    if (rules == null) {
+                        break;
+                    }
+                    if (rules.getAllowedUserIds() != null && !rules.getAllowedUserIds().isEmpty()) {
+                        mode = Mode.ALLOW_LIST;
+                        userIds = LongHashSet.of(rules.getAllowedUserIds());
+                    } else if (rules.getBlockedUserIds() != null && !rules.getBlockedUserIds().isEmpty()) {
+                        mode = Mode.BLOCK_LIST;
+                        userIds = LongHashSet.of(rules.getBlockedUserIds());
+                    } else {
+                        mode = Mode.FRIENDS;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        return new MomentVisibilityEvaluator(moment.getId(), moment.getUserId(), mode, userIds, moment.getUpdatedAt());
+    }
+
+    /**
+     * 是否为动态作者
+     */
+    public boolean isAuthor(long viewerId) {
+        return viewerId == authorId;
+    }
+
+    /**
+     * 假设查看者是作者的好友时，规则是否允许其查看
+     * 返回false时无需再查询好友关系
+     *
+     * @param viewerId 查看者ID
+     * @return 规则是否允许
+     */
+    public boolean permitsFriend(long viewerId) {
+        if (viewerId == authorId) {
+            return true;
+        }
+        switch (mode) {
+            case FRIENDS:
+                return true;
+            case ALLOW_LIST:
+                return ruleUserIds.contains(viewerId);
+            case BLOCK_LIST:
+                return !ruleUserIds.contains(viewerId);
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * 结合好友关系判定是否可见
+     *
+     * @param viewerId 查看者ID
+     * @param friendOfAuthor 查看者是否与作者互为好友
+     * @return 是否可见
+     */
+    public boolean isVisibleTo(long viewerId, boolean friendOfAuthor) {
+        return viewerId == authorId || (friendOfAuthor && permitsFriend(viewerId));
+    }
+
+    public long getMomentId() {
+        return momentId;
+    }
+
+    public long getAuthorId() {
+        return authorId;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * 获取规则名单（允许名单或屏蔽名单）
+     */
+    public List<Long> getRuleUserIds() {
+        return ruleUserIds.toList();
+    }
+
+    /**
+     * 判定器是否由指定版本（动态更新时间）的数据编译而来
+     */
+    public boolean isCompiledFrom(LocalDateTime updatedAt) {
+        return version == null ? updatedAt == null : version.equals(updatedAt);
+    }
+
+    /**
+     * 编译时间（毫秒时间戳）
+     */
+    public long getCompiledAt() {
+        return compiledAt;
+    }
+
+    private static VisibilityRules parseRules(Moment moment, ObjectMapper objectMapper) {
+        if (moment.getVisibilityRules() == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(moment.getVisibilityRules(), VisibilityRules.class);
+        } catch (Exception e) {
+            log.error("解析动态 {} 的可见性规则时出错: {}", moment.getId(), e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.im.imcommunicationsystem.moment.visibility;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.im.imcommunicationsystem.moment.config.MomentConfig;
+import com.im.imcommunicationsystem.moment.entity.Moment;
+import com.im.imcommunicationsystem.moment.repository.MomentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 动态可见性判定器缓存
+ * 按动态ID缓存预编译的判定器（LRU，条数与过期时间由 moment 配置决定），
+ * 供可见性服务、朋友圈时间线等共享；可见性变更或删除动态时需调用 invalidate。
+ * 命中时总是与动态当前的更新时间比对，其他实例上的可见性变更不会等到缓存过期才生效
+ */
+@Component
+@Slf4j
+public class MomentVisibilityEvaluatorCache {
+
+    private final MomentRepository momentRepository;
+    private final ObjectMapper objectMapper;
+    private final MomentConfig momentConfig;
+    private final Map<Long, MomentVisibilityEvaluator> cache;
+
+    public MomentVisibilityEvaluatorCache(MomentRepository momentRepository, ObjectMapper objectMapper,
+                                          MomentConfig momentConfig) {
+        this.momentRepository = momentRepository;
+        this.objectMapper = objectMapper;
+        this.momentConfig = momentConfig;
+        int maxEntries = momentConfig.getVisibilityCacheSize();
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, MomentVisibilityEvaluator> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    /**
+     * 获取已加载动态的判定器，动态更新时间变化时重新编译
+     *
+     * @param moment 动态
+     * @return 判定器
+     */
+    public MomentVisibilityEvaluator get(Moment moment) {
+        MomentVisibilityEvaluator evaluator = cache.get(moment.getId());
+        if (evaluator != null && !isExpired(evaluator) && evaluator.isCompiledFrom(moment.getUpdatedAt())) {
+            return evaluator;
+        }
+        return compileAndCache(moment);
+    }
+
+    /**
+     * 按动态ID获取判定器，未命中或动态已更新时加载动态
+     *
+     * @param momentId 动态ID
+     * @return 判定器，动态不存在时返回null
+     */
+    public MomentVisibilityEvaluator get(Long momentId) {
+        return getAll(List.of(momentId)).get(momentId);
+    }
+
+    /**
+     * 批量获取判定器：先用一次查询取出各动态的更新时间校验已缓存的判定器，
+     * 未命中或已更新的动态再通过一次查询加载
+     *
+     * @param momentIds 动态ID列表
+     * @return 动态ID -> 判定器（不存在的动态不在结果中）
+     */
+    public Map<Long, MomentVisibilityEvaluator> getAll(Collection<Long> momentIds) {
+        Map<Long, MomentVisibilityEvaluator> result = new HashMap<>();
+        if (momentIds == null || momentIds.isEmpty()) {
+            return result;
+        }
+        Map<Long, LocalDateTime> versions = new HashMap<>();
+        for (Object[] row : momentRepository.findUpdatedAtByIdIn(new LinkedHashSet<>(momentIds))) {
+            versions.put((Long) row[0], (LocalDateTime) row[1]);
+        }
+
+        Set<Long> missing = new LinkedHashSet<>();
+        for (Long momentId : momentIds) {
+            if (!versions.containsKey(momentId)) {
+                // 动态已删除
+                cache.remove(momentId);
+                continue;
+            }
+            MomentVisibilityEvaluator evaluator = cache.get(momentId);
+            if (evaluator != null && !isExpired(evaluator) && evaluator.isCompiledFrom(versions.get(momentId))) {
+                result.put(momentId, evaluator);
+            } else {
+                missing.add(momentId);
+            }
+        }
+        if (!missing.isEmpty()) {
+            for (Moment moment : momentRepository.findAllById(new ArrayList<>(missing))) {
+                result.put(moment.getId(), compileAndCache(moment));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 使判定器失效（可见性变更、删除动态时调用）
+     *
+     * @param momentId 动态ID
+     */
+    public void invalidate(Long momentId) {
+        cache.remove(momentId);
+    }
+
+    private MomentVisibilityEvaluator compileAndCache(Moment moment) {
+        MomentVisibilityEvaluator evaluator = MomentVisibilityEvaluator.compile(moment, objectMapper);
+        cache.put(moment.getId(), evaluator);
+        log.debug("编译动态可见性判定器: momentId={}, mode={}", moment.getId(), evaluator.getMode());
+        return evaluator;
+    }
+
+    private boolean isExpired(MomentVisibilityEvaluator evaluator) {
+        return System.currentTimeMillis() - evaluator.getCompiledAt() > momentConfig.getCacheTtl() * 1000L;
+    }
+}
@@ -45,6 +45,18 @@ public class RelationshipConfig {
     @NotNull
     private Cache cache = new Cache();
 
+    /**
+     * 好友推荐配置
+     */
+    @NotNull
+    private Recommendation recommendation = new Recommendation();
+
+    /**
+     * 用户搜索配置
+     */
+    @NotNull
+    private Search search = new Search();
+
     /**
      * 联系人配置类
      */
@@ -75,6 +87,34 @@ public class RelationshipConfig {
         @Min(value = 10, message = "分页大小不能少于10")
         @Max(value = 100, message = "分页大小不能超过100")
         private Integer pageSize = 20;
+
+        /**
+         * 单次增量同步最多返回的变更数，超过时改为全量同步
+         */
+        @Min(value = 100, message = "增量同步最大变更数不能少于100")
+        @Max(value = 10000, message = "增量同步最大变更数不能超过10000")
+        private Integer syncMaxChanges = 1000;
+
+        /**
+         * 联系人变更日志保留天数，早于该时间的版本只能全量同步
+         */
+        @Min(value = 7, message = "变更日志保留天数不能少于7天")
+        @Max(value = 365, message = "变更日志保留天数不能超过365天")
+        private Integer changeLogRetentionDays = 30;
+
+        /**
+         * 单次批量删除、拉黑联系人的最大数量
+         */
+        @Min(value = 10, message = "批量操作最大数量不能少于10")
+        @Max(value = 5000, message = "批量操作最大数量不能超过5000")
+        private Integer maxBatchSize = 500;
+
+        /**
+         * 本地联系人搜索最多返回的结果数
+         */
+        @Min(value = 10, message = "联系人搜索最大结果数不能少于10")
+        @Max(value = 500, message = "联系人搜索最大结果数不能超过500")
+        private Integer searchMaxResults = 50;
     }
 
     /**
@@ -208,5 +248,118 @@ public class RelationshipConfig {
         @Min(value = 100, message = "本地缓存最大条目数不能少于100")
         @Max(value = 10000, message = "本地缓存最大条目数不能超过10000")
         private Integer localCacheMaxSize = 1000;
+
+        /**
+         * 社交关系图在内存中保留邻接表的最大用户数
+         */
+        @Min(value = 100, message = "社交关系图最大用户数不能少于100")
+        @Max(value = 1000000, message = "社交关系图最大用户数不能超过1000000")
+        private Integer graphMaxUsers = 50000;
+
+        /**
+         * 社交关系图邻接表的有效期（秒），过期后重新查询联系人和拉黑状态，
+         * 其他实例上的加好友、删好友和拉黑最多延迟该时间生效
+         */
+        @Min(value = 1, message = "社交关系图有效期不能少于1秒")
+        @Max(value = 60, message = "社交关系图有效期不能超过60秒")
+        private Long graphRevalidateSeconds = 5L;
+
+        /**
+         * 在内存中保留联系人列表快照的最大用户数
+         */
+        @Min(value = 100, message = "联系人快照最大用户数不能少于100")
+        @Max(value = 100000, message = "联系人快照最大用户数不能超过100000")
+        private Integer contactSnapshotMaxUsers = 2000;
+    }
+
+    /**
+     * 好友推荐配置类
+     */
+    @Data
+    public static class Recommendation {
+        /**
+         * 是否启用后台推荐计算
+         */
+        private Boolean enabled = true;
+
+        /**
+         * 每个用户物化的推荐候选数量
+         */
+        @Min(value = 5, message = "推荐候选数量不能少于5")
+        @Max(value = 100, message = "推荐候选数量不能超过100")
+        private Integer topK = 20;
+
+        /**
+         * 最少共同好友数
+         */
+        @Min(value = 1, message = "最少共同好友数不能少于1")
+        @Max(value = 10, message = "最少共同好友数不能超过10")
+        private Integer minMutualFriends = 1;
+
+        /**
+         * 计算单个用户时最多扫描的好友数
+         */
+        @Min(value = 50, message = "最多扫描好友数不能少于50")
+        @Max(value = 10000, message = "最多扫描好友数不能超过10000")
+        private Integer maxFriendsScanned = 500;
+
+        /**
+         * 批大小（每批加载的好友邻接表数、每批处理的待重算用户数）
+         */
+        @Min(value = 10, message = "批大小不能少于10")
+        @Max(value = 1000, message = "批大小不能超过1000")
+        private Integer batchSize = 200;
+
+        /**
+         * 单次任务最多重算的用户数
+         */
+        @Min(value = 100, message = "单次任务最多重算用户数不能少于100")
+        @Max(value = 100000, message = "单次任务最多重算用户数不能超过100000")
+        private Integer maxUsersPerRun = 2000;
+
+        /**
+         * 推荐结果的最长保留天数，超过后重新计算
+         */
+        @Min(value = 1, message = "推荐结果保留天数不能少于1天")
+        @Max(value = 90, message = "推荐结果保留天数不能超过90天")
+        private Integer staleDays = 7;
+    }
+
+    /**
+     * 用户搜索配置类
+     */
+    @Data
+    public static class Search {
+        /**
+         * 是否使用进程内用户目录索引（关闭或索引尚未建好时回退到数据库模糊查询）
+         */
+        private Boolean indexEnabled = true;
+
+        /**
+         * 是否为昵称中间片段建立索引（占用更多内存）
+         */
+        private Boolean indexInfixes = true;
+
+        /**
+         * 昵称搜索最多返回的结果数
+         */
+        @Min(value = 5, message = "搜索最大结果数不能少于5")
+        @Max(value = 100, message = "搜索最大结果数不能超过100")
+        private Integer maxResults = 20;
+
+        /**
+         * 增量覆盖层的最大用户数，超过后合并重建主索引
+         */
+        @Min(value = 100, message = "增量覆盖层最大用户数不能少于100")
+        @Max(value = 100000, message = "增量覆盖层最大用户数不能超过100000")
+        private Integer maxOverlaySize = 5000;
+
+        /**
+         * 增量同步时水位线回退的秒数，应大于修改用户资料的最长事务耗时：
+         * updated_at 取自语句执行时间，事务晚于水位线提交的变更靠重读这段时间补上
+         */
+        @Min(value = 1, message = "增量同步回退时间不能少于1秒")
+        @Max(value = 3600, message = "增量同步回退时间不能超过3600秒")
+        private Integer changeOverlapSeconds = 120;
     }
-}
\ No newline at end of file
+}
@@ -4,8 +4,11 @@ import com.im.imcommunicationsystem.common.dto.ApiResponse;
 import com.im.imcommunicationsystem.relationship.dto.request.SearchContactRequest;
 import com.im.imcommunicationsystem.relationship.dto.response.ContactResponse;
 import com.im.imcommunicationsystem.relationship.dto.response.ContactSearchResponse;
+import com.im.imcommunicationsystem.relationship.dto.response.ContactSyncResponse;
+import com.im.imcommunicationsystem.relationship.exception.ContactException;
 import com.im.imcommunicationsystem.relationship.service.ContactService;
 import com.im.imcommunicationsystem.relationship.service.ContactSearchService;
+import com.im.imcommunicationsystem.relationship.service.ContactSyncService;
 import com.im.imcommunicationsystem.relationship.service.ContactTagAssignmentService;
 import com.im.imcommunicationsystem.relationship.dto.response.ContactTagResponse;
 import com.im.imcommunicationsystem.relationship.dto.request.ContactTagAssignRequest;
@@ -37,6 +40,7 @@ public class ContactController {
     private final ContactSearchService contactSearchService;
     private final JwtUtils jwtUtils;
     private final ContactTagAssignmentService contactTagAssignmentService;
+    private final ContactSyncService contactSyncService;
 
     /**
      * 获取联系人列表
@@ -65,6 +69,24 @@ public class ContactController {
         }
     }
 
+    /**
+     * 增量同步联系人列表
+     */
+    @Operation(summary = "增量同步联系人", description = "返回指定版本之后新增、变化和删除的联系人；未携带版本号时返回全量")
+    @GetMapping("/sync")
+    public ApiResponse<ContactSyncResponse> syncContacts(
+            @Parameter(description = "用户ID") @RequestParam Long userId,
+            @Parameter(description = "客户端已同步的版本号") @RequestParam(required = false) Long sinceVersion) {
+        try {
+            log.info("联系人同步请求: userId={}, sinceVersion={}", userId, sinceVersion);
+            ContactSyncResponse response = contactSyncService.syncContacts(userId, sinceVersion);
+            return ApiResponse.success(response);
+        } catch (Exception e) {
+            log.error("联系人同步失败: userId={}, sinceVersion={}, error={}", userId, sinceVersion, e.getMessage(), e);
+            return ApiResponse.error(500, "联系人同步失败: " + e.getMessage());
+        }
+    }
+
     /**
      * 获取联系人详情
      */
@@ -290,8 +312,32 @@ public class ContactController {
     @GetMapping("/blocked")
     public ApiResponse<List<ContactResponse>> getBlockedContacts(
             @Parameter(description = "用户ID") @RequestParam Long userId) {
-        // 实现获取屏蔽列表逻辑
-        return null;
+        try {
+            log.info("获取屏蔽列表请求: userId={}", userId);
+            List<ContactResponse> blocked = contactService.getBlockedContacts(userId);
+            return ApiResponse.success(blocked);
+        } catch (Exception e) {
+            log.error("获取屏蔽列表失败: userId={}, error={}", userId, e.getMessage(), e);
+            return ApiResponse.error(500, "获取屏蔽列表失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 在自己的联系人中搜索
+     */
+    @Operation(summary = "搜索我的联系人", description = "按备注名、昵称的开头或其中单词、汉字开头的片段搜索自己的联系人")
+    @GetMapping("/search/local")
+    public ApiResponse<List<ContactResponse>> searchLocalContacts(
+            @Parameter(description = "用户ID") @RequestParam Long userId,
+            @Parameter(description = "搜索关键词") @RequestParam String keyword) {
+        try {
+            log.info("搜索我的联系人请求: userId={}, keyword={}", userId, keyword);
+            List<ContactResponse> results = contactService.searchContacts(userId, keyword);
+            return ApiResponse.success(results);
+        } catch (Exception e) {
+            log.error("搜索我的联系人失败: userId={}, keyword={}, error={}", userId, keyword, e.getMessage(), e);
+            return ApiResponse.error(500, "搜索失败: " + e.getMessage());
+        }
     }
 
     /**
@@ -301,8 +347,13 @@ public class ContactController {
     @GetMapping("/count")
     public ApiResponse<Long> getFriendCount(
             @Parameter(description = "用户ID") @RequestParam Long userId) {
-        // 实现获取好友数量逻辑
-        return null;
+        try {
+            long count = contactService.getFriendCount(userId);
+            return ApiResponse.success(count);
+        } catch (Exception e) {
+            log.error("获取好友数量失败: userId={}, error={}", userId, e.getMessage(), e);
+            return ApiResponse.error(500, "获取好友数量失败: " + e.getMessage());
+        }
     }
 
     /**
@@ -313,8 +364,17 @@ public class ContactController {
     public ApiResponse<Integer> batchDeleteContacts(
             @Parameter(description = "用户ID") @RequestParam Long userId,
             @Parameter(description = "好友ID列表") @RequestBody List<Long> friendIds) {
-        // 实现批量删除联系人逻辑
-        return null;
+        try {
+            log.info("批量删除联系人请求: userId={}, count={}", userId, friendIds.size());
+            int deletedCount = contactService.batchDeleteContacts(userId, friendIds);
+            return ApiResponse.success(deletedCount);
+        } catch (ContactException e) {
+            log.warn("批量删除联系人被拒绝: userId={}, reason={}", userId, e.getMessage());
+            return ApiResponse.badRequest(e.getMessage());
+        } catch (Exception e) {
+            log.error("批量删除联系人失败: userId={}, error={}", userId, e.getMessage(), e);
+            return ApiResponse.error(500, "批量删除联系人失败: " + e.getMessage());
+        }
     }
 
     /**
@@ -325,8 +385,17 @@ public class ContactController {
     public ApiResponse<Integer> batchBlockContacts(
             @Parameter(description = "用户ID") @RequestParam Long userId,
             @Parameter(description = "好友ID列表") @RequestBody List<Long> friendIds) {
-        // 实现批量屏蔽联系人逻辑
-        return null;
+        try {
+            log.info("批量屏蔽联系人请求: userId={}, count={}", userId, friendIds.size());
+            int blockedCount = contactService.batchBlockContacts(userId, friendIds);
+            return ApiResponse.success(blockedCount);
+        } catch (ContactException e) {
+            log.warn("批量屏蔽联系人被拒绝: userId={}, reason={}", userId, e.getMessage());
+            return ApiResponse.badRequest(e.getMessage());
+        } catch (Exception e) {
+            log.error("批量屏蔽联系人失败: userId={}, error={}", userId, e.getMessage(), e);
+            return ApiResponse.error(500, "批量屏蔽联系人失败: " + e.getMessage());
+        }
     }
 
     /**
@@ -3,7 +3,9 @@ package com.im.imcommunicationsystem.relationship.controller;
 import com.im.imcommunicationsystem.common.dto.ApiResponse;
 import com.im.imcommunicationsystem.relationship.dto.request.SearchContactRequest;
 import com.im.imcommunicationsystem.relationship.dto.response.ContactSearchResponse;
+import com.im.imcommunicationsystem.relationship.dto.response.FriendRecommendationResponse;
 import com.im.imcommunicationsystem.relationship.service.ContactSearchService;
+import com.im.imcommunicationsystem.relationship.service.FriendRecommendationService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -31,6 +33,7 @@ import java.util.Optional;
 public class ContactSearchController {
 
     private final ContactSearchService contactSearchService;
+    private final FriendRecommendationService friendRecommendationService;
 
     /**
      * 根据用户ID精确搜索用户
@@ -135,6 +138,25 @@ public class ContactSearchController {
         }
     }
 
+    /**
+     * 获取可能认识的人
+     */
+    @Operation(summary = "可能认识的人", description = "按共同好友数推荐可能认识的用户")
+    @GetMapping("/recommendations")
+    public ApiResponse<List<FriendRecommendationResponse>> getRecommendations(
+            @Parameter(description = "当前用户ID") @RequestParam @NotNull Long currentUserId,
+            @Parameter(description = "返回数量") @RequestParam(defaultValue = "10") int limit) {
+        try {
+            log.info("获取好友推荐: currentUserId={}, limit={}", currentUserId, limit);
+
+            List<FriendRecommendationResponse> results = friendRecommendationService.getRecommendations(currentUserId, limit);
+            return ApiResponse.success(results);
+        } catch (Exception e) {
+            log.error("获取好友推荐失败: currentUserId={}, error={}", currentUserId, e.getMessage(), e);
+            return ApiResponse.error(500, "获取推荐失败: " + e.getMessage());
+        }
+    }
+
     /**
      * 检查用户关系状态
      */
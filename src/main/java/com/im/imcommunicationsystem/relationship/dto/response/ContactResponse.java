@@ -10,7 +10,7 @@ import java.util.List;
  * 联系人响应DTO
  */
 @Data
-@Builder
+@Builder(toBuilder = true)
 public class ContactResponse {
 
     /**
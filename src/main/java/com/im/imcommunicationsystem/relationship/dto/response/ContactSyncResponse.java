@@ -0,0 +1,44 @@
+package com.im.imcommunicationsystem.relationship.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 联系人增量同步响应
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "联系人增量同步响应")
+public class ContactSyncResponse {
+
+    /**
+     * 当前版本号，下次同步时携带
+     */
+    @Schema(description = "当前版本号，下次同步时携带", example = "1024")
+    private Long version;
+
+    /**
+     * 是否为全量结果（为true时客户端应以contacts替换本地全部联系人）
+     */
+    @Schema(description = "是否为全量结果", example = "false")
+    private Boolean fullSync;
+
+    /**
+     * 新增或发生变化的联系人（全量时为全部联系人）
+     */
+    @Schema(description = "新增或发生变化的联系人")
+    private List<ContactResponse> contacts;
+
+    /**
+     * 已删除的好友ID
+     */
+    @Schema(description = "已删除的好友ID")
+    private List<Long> deletedFriendIds;
+}
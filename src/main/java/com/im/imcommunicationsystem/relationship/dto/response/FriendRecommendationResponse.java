@@ -0,0 +1,54 @@
+package com.im.imcommunicationsystem.relationship.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 好友推荐响应（可能认识的人）
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "好友推荐响应")
+public class FriendRecommendationResponse {
+
+    /**
+     * 用户ID
+     */
+    @Schema(description = "用户ID", example = "1")
+    private Long userId;
+
+    /**
+     * 用户自定义ID字符串
+     */
+    @Schema(description = "用户自定义ID字符串", example = "user123")
+    private String userIdString;
+
+    /**
+     * 用户昵称
+     */
+    @Schema(description = "用户昵称", example = "张三")
+    private String nickname;
+
+    /**
+     * 用户头像URL
+     */
+    @Schema(description = "用户头像URL", example = "https://example.com/avatar.jpg")
+    private String avatarUrl;
+
+    /**
+     * 用户个性签名
+     */
+    @Schema(description = "用户个性签名", example = "这是一个个性签名")
+    private String signature;
+
+    /**
+     * 共同好友数
+     */
+    @Schema(description = "共同好友数", example = "3")
+    private Integer mutualFriendCount;
+}
@@ -0,0 +1,52 @@
+package com.im.imcommunicationsystem.relationship.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * 联系人变更日志实体类
+ * 对应数据库表：contact_change_log
+ * 每条记录表示用户联系人列表中的某个好友发生了变化（新增、删除、备注、拉黑、标签或资料变更），
+ * 自增ID即变更后的版本号
+ */
+@Entity
+@Table(name = "contact_change_log")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ContactChangeLog {
+
+    /**
+     * 变更ID（版本号）
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    /**
+     * 联系人列表所属用户ID
+     */
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    /**
+     * 发生变化的好友ID
+     */
+    @Column(name = "friend_id", nullable = false)
+    private Long friendId;
+
+    /**
+     * 变更时间
+     */
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,34 @@
+package com.im.imcommunicationsystem.relationship.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 联系人同步版本实体类
+ * 对应数据库表：contact_sync_versions
+ * 保存用户联系人列表的当前版本号，变更日志被清理后版本号仍然保留
+ */
+@Entity
+@Table(name = "contact_sync_versions")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ContactSyncVersion {
+
+    /**
+     * 用户ID
+     */
+    @Id
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    /**
+     * 联系人列表当前版本号
+     */
+    @Column(name = "version", nullable = false)
+    private Long version;
+}
@@ -0,0 +1,50 @@
+package com.im.imcommunicationsystem.relationship.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 好友推荐实体类
+ * 对应数据库表：friend_recommendations
+ * 后台任务为每个用户物化的前K个"可能认识的人"及共同好友数
+ */
+@Entity
+@Table(name = "friend_recommendations")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@IdClass(FriendRecommendationId.class)
+public class FriendRecommendation {
+
+    /**
+     * 被推荐用户ID（复合主键）
+     */
+    @Id
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    /**
+     * 推荐候选用户ID（复合主键）
+     */
+    @Id
+    @Column(name = "candidate_id", nullable = false)
+    private Long candidateId;
+
+    /**
+     * 共同好友数
+     */
+    @Column(name = "mutual_count", nullable = false)
+    private Integer mutualCount;
+
+    /**
+     * 计算时间
+     */
+    @Column(name = "computed_at", nullable = false)
+    private LocalDateTime computedAt;
+}
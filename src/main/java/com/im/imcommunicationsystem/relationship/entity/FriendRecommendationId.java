@@ -0,0 +1,31 @@
+package com.im.imcommunicationsystem.relationship.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * 好友推荐复合主键类
+ * 用于FriendRecommendation实体的复合主键
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class FriendRecommendationId implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 被推荐用户ID
+     */
+    private Long userId;
+
+    /**
+     * 推荐候选用户ID
+     */
+    private Long candidateId;
+}
@@ -0,0 +1,49 @@
+package com.im.imcommunicationsystem.relationship.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 好友推荐计算状态实体类
+ * 对应数据库表：friend_recommendation_state
+ * 记录用户的推荐结果是否需要重算，后台任务只处理被标记的用户
+ */
+@Entity
+@Table(name = "friend_recommendation_state")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FriendRecommendationState {
+
+    /**
+     * 用户ID
+     */
+    @Id
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    /**
+     * 是否待重算
+     */
+    @Column(name = "dirty", nullable = false)
+    @Builder.Default
+    private Boolean dirty = true;
+
+    /**
+     * 最近一次标记待重算的时间
+     */
+    @Column(name = "marked_at")
+    private LocalDateTime markedAt;
+
+    /**
+     * 最近一次计算完成的时间
+     */
+    @Column(name = "computed_at")
+    private LocalDateTime computedAt;
+}
@@ -0,0 +1,29 @@
+package com.im.imcommunicationsystem.relationship.event;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * 好友关系建立事件
+ * 当好友请求被接受、双向好友关系写入后触发
+ * 用于通知依赖好友关系的模块（如朋友圈时间线收件箱）
+ */
+@Getter
+public class ContactAddEvent extends ApplicationEvent {
+
+    private final Long userId;
+    private final Long friendId;
+
+    /**
+     * 创建好友关系建立事件
+     *
+     * @param source 事件源
+     * @param userId 用户ID
+     * @param friendId 好友ID
+     */
+    public ContactAddEvent(Object source, Long userId, Long friendId) {
+        super(source);
+        this.userId = userId;
+        this.friendId = friendId;
+    }
+}
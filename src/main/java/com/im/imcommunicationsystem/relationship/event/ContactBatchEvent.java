@@ -0,0 +1,44 @@
+package com.im.imcommunicationsystem.relationship.event;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 联系人批量变更事件
+ * 批量添加、删除、拉黑好友时每批只发布一次，监听器据此做集合级别的同步，
+ * 语义与逐个发布 ContactAddEvent / ContactDeleteEvent / ContactBlockEvent 相同
+ */
+@Getter
+public class ContactBatchEvent extends ApplicationEvent {
+
+    /**
+     * 变更类型
+     */
+    public enum Type {
+        ADD,     // 批量建立双向好友关系
+        DELETE,  // 批量删除双向好友关系
+        BLOCK    // 批量拉黑（只影响操作方）
+    }
+
+    private final Long userId;
+    private final List<Long> friendIds;
+    private final Type type;
+
+    /**
+     * 创建联系人批量变更事件
+     *
+     * @param source 事件源
+     * @param userId 操作方用户ID
+     * @param friendIds 实际发生变更的好友ID列表
+     * @param type 变更类型
+     */
+    public ContactBatchEvent(Object source, Long userId, List<Long> friendIds, Type type) {
+        super(source);
+        this.userId = userId;
+        this.friendIds = Collections.unmodifiableList(friendIds);
+        this.type = type;
+    }
+}
@@ -0,0 +1,29 @@
+package com.im.imcommunicationsystem.relationship.event;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * 好友关系删除事件
+ * 当双向好友关系被删除后触发
+ * 用于通知依赖好友关系的模块（如朋友圈时间线收件箱）
+ */
+@Getter
+public class ContactDeleteEvent extends ApplicationEvent {
+
+    private final Long userId;
+    private final Long friendId;
+
+    /**
+     * 创建好友关系删除事件
+     *
+     * @param source 事件源
+     * @param userId 用户ID
+     * @param friendId 好友ID
+     */
+    public ContactDeleteEvent(Object source, Long userId, Long friendId) {
+        super(source);
+        this.userId = userId;
+        this.friendId = friendId;
+    }
+}
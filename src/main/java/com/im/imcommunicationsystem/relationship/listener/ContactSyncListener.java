@@ -0,0 +1,101 @@
+package com.im.imcommunicationsystem.relationship.listener;
+
+import com.im.imcommunicationsystem.relationship.event.ContactAddEvent;
+import com.im.imcommunicationsystem.relationship.event.ContactBatchEvent;
+import com.im.imcommunicationsystem.relationship.event.ContactBlockEvent;
+import com.im.imcommunicationsystem.relationship.event.ContactDeleteEvent;
+import com.im.imcommunicationsystem.relationship.event.ContactUnblockEvent;
+import com.im.imcommunicationsystem.relationship.sync.ContactChangeTracker;
+import com.im.imcommunicationsystem.user.event.UserProfileUpdateEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 联系人同步事件监听器
+ * 在关系变更所在的事务内记录变更日志，与变更一起提交；涉及多个用户时按用户ID升序锁定版本行，
+ * 并发的双向变更以相同顺序加锁，不会互相等待形成死锁。
+ * 好友资料变化时，在资料更新提交后为所有联系人中包含该用户的用户记录变更
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ContactSyncListener {
+
+    private final ContactChangeTracker contactChangeTracker;
+
+    @EventListener
+    public void handleContactAddEvent(ContactAddEvent event) {
+        recordBothSides(event.getUserId(), event.getFriendId());
+    }
+
+    @EventListener
+    public void handleContactDeleteEvent(ContactDeleteEvent event) {
+        recordBothSides(event.getUserId(), event.getFriendId());
+    }
+
+    @EventListener
+    public void handleContactBlockEvent(ContactBlockEvent event) {
+        contactChangeTracker.recordChange(event.getUserId(), event.getFriendId());
+    }
+
+    @EventListener
+    public void handleContactUnblockEvent(ContactUnblockEvent event) {
+        contactChangeTracker.recordChange(event.getUserId(), event.getFriendId());
+    }
+
+    /**
+     * 批量变更：操作方一次记录全部好友；添加、删除时对方列表中也各记录一条
+     */
+    @EventListener
+    public void handleContactBatchEvent(ContactBatchEvent event) {
+        Long userId = event.getUserId();
+        if (event.getType() == ContactBatchEvent.Type.BLOCK || event.getFriendIds() == null) {
+            contactChangeTracker.recordChanges(userId, event.getFriendIds());
+            return;
+        }
+
+        List<Long> friendIds = new ArrayList<>(event.getFriendIds());
+        friendIds.removeIf(id -> id == null);
+        Collections.sort(friendIds);
+        boolean ownRecorded = false;
+        for (Long friendId : friendIds) {
+            if (!ownRecorded && userId != null && userId < friendId) {
+                contactChangeTracker.recordChanges(userId, event.getFriendIds());
+                ownRecorded = true;
+            }
+            contactChangeTracker.recordChange(friendId, userId);
+        }
+        if (!ownRecorded) {
+            contactChangeTracker.recordChanges(userId, event.getFriendIds());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleUserProfileUpdateEvent(UserProfileUpdateEvent event) {
+        try {
+            contactChangeTracker.recordContactsOf(event.getUserId());
+        } catch (Exception e) {
+            log.error("记录好友资料变更失败: userId={}, error={}", event.getUserId(), e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 双向变更按用户ID升序记录
+     */
+    private void recordBothSides(Long userId, Long friendId) {
+        if (userId != null && friendId != null && friendId < userId) {
+            contactChangeTracker.recordChange(friendId, userId);
+            contactChangeTracker.recordChange(userId, friendId);
+        } else {
+            contactChangeTracker.recordChange(userId, friendId);
+            contactChangeTracker.recordChange(friendId, userId);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.im.imcommunicationsystem.relationship.listener;
+
+import com.im.imcommunicationsystem.relationship.event.ContactAddEvent;
+import com.im.imcommunicationsystem.relationship.event.ContactBatchEvent;
+import com.im.imcommunicationsystem.relationship.event.ContactBlockEvent;
+import com.im.imcommunicationsystem.relationship.event.ContactDeleteEvent;
+import com.im.imcommunicationsystem.relationship.event.ContactUnblockEvent;
+import com.im.imcommunicationsystem.relationship.service.FriendRecommendationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 好友推荐联系人事件监听器
+ * 好友关系变更提交后，把好友列表发生变化的用户及其二度关系受影响的用户标记为待重算；
+ * 拉黑、解除拉黑只改变操作方的有效好友列表
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class FriendRecommendationContactListener {
+
+    private final FriendRecommendationService friendRecommendationService;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleContactAddEvent(ContactAddEvent event) {
+        markDirty(event.getUserId(), event.getFriendId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleContactDeleteEvent(ContactDeleteEvent event) {
+        markDirty(event.getUserId(), event.getFriendId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleContactBlockEvent(ContactBlockEvent event) {
+        markDirty(event.getUserId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleContactUnblockEvent(ContactUnblockEvent event) {
+        markDirty(event.getUserId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleContactBatchEvent(ContactBatchEvent event) {
+        if (event.getType() == ContactBatchEvent.Type.BLOCK) {
+            markDirty(event.getUserId());
+            return;
+        }
+        List<Long> userIds = new ArrayList<>(event.getFriendIds().size() + 1);
+        userIds.add(event.getUserId());
+        userIds.addAll(event.getFriendIds());
+        markDirty(userIds.toArray(new Long[0]));
+    }
+
+    private void markDirty(Long... userIds) {
+        try {
+            friendRecommendationService.onFriendListChanged(userIds);
+        } catch (Exception e) {
+            // 标记失败时由定期过期重算兜底
+            log.error("标记好友推荐待重算失败: userIds={}", (Object) userIds, e);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.im.imcommunicationsystem.relationship.listener;
+
+import com.im.imcommunicationsystem.relationship.event.ContactAddEvent;
+import com.im.imcommunicationsystem.relationship.event.ContactBatchEvent;
+import com.im.imcommunicationsystem.relationship.event.ContactBlockEvent;
+import com.im.imcommunicationsystem.relationship.event.ContactDeleteEvent;
+import com.im.imcommunicationsystem.relationship.event.ContactUnblockEvent;
+import com.im.imcommunicationsystem.relationship.service.SocialGraphService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * 社交关系图联系人事件监听器
+ * 在关系变更的事务提交后同步内存中的邻接表；事务回滚时不应用变更
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class SocialGraphContactListener {
+
+    private final SocialGraphService socialGraphService;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleContactAddEvent(ContactAddEvent event) {
+        try {
+            socialGraphService.onContactAdded(event.getUserId(), event.getFriendId());
+        } catch (Exception e) {
+            log.error("同步社交关系图失败(添加好友): userId={}, friendId={}", event.getUserId(), event.getFriendId(), e);
+            socialGraphService.invalidate(event.getUserId());
+            socialGraphService.invalidate(event.getFriendId());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleContactDeleteEvent(ContactDeleteEvent event) {
+        try {
+            socialGraphService.onContactDeleted(event.getUserId(), event.getFriendId());
+        } catch (Exception e) {
+            log.error("同步社交关系图失败(删除好友): userId={}, friendId={}", event.getUserId(), event.getFriendId(), e);
+            socialGraphService.invalidate(event.getUserId());
+            socialGraphService.invalidate(event.getFriendId());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleContactBlockEvent(ContactBlockEvent event) {
+        try {
+            socialGraphService.onBlockChanged(event.getUserId(), event.getFriendId(), true);
+        } catch (Exception e) {
+            log.error("同步社交关系图失败(拉黑): userId={}, friendId={}", event.getUserId(), event.getFriendId(), e);
+            socialGraphService.invalidate(event.getUserId());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleContactUnblockEvent(ContactUnblockEvent event) {
+        try {
+            socialGraphService.onBlockChanged(event.getUserId(), event.getFriendId(), false);
+        } catch (Exception e) {
+            log.error("同步社交关系图失败(解除拉黑): userId={}, friendId={}", event.getUserId(), event.getFriendId(), e);
+            socialGraphService.invalidate(event.getUserId());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleContactBatchEvent(ContactBatchEvent event) {
+        try {
+            switch (event.getType()) {
+                case ADD -> socialGraphService.onContactsChanged(event.getUserId(), event.getFriendIds(), true);
+                case DELETE -> socialGraphService.onContactsChanged(event.getUserId(), event.getFriendIds(), false);
+                case BLOCK -> socialGraphService.onContactsBlocked(event.getUserId(), event.getFriendIds());
+            }
+        } catch (Exception e) {
+            log.error("同步社交关系图失败(批量{}): userId={}, count={}", event.getType(), event.getUserId(), event.getFriendIds().size(), e);
+            socialGraphService.invalidate(event.getUserId());
+            if (event.getType() != ContactBatchEvent.Type.BLOCK) {
+                event.getFriendIds().forEach(socialGraphService::invalidate);
+            }
+        }
+    }
+}
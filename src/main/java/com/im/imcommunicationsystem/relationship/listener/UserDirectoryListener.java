@@ -0,0 +1,30 @@
+package com.im.imcommunicationsystem.relationship.listener;
+
+import com.im.imcommunicationsystem.relationship.search.UserDirectoryIndex;
+import com.im.imcommunicationsystem.user.event.UserProfileUpdateEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * 用户目录索引监听器
+ * 在资料更新的事务提交后刷新索引中该用户的昵称等字段，使搜索立即可见
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class UserDirectoryListener {
+
+    private final UserDirectoryIndex userDirectoryIndex;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleUserProfileUpdateEvent(UserProfileUpdateEvent event) {
+        try {
+            userDirectoryIndex.refresh(event.getUserId());
+        } catch (Exception e) {
+            // 定时同步会按更新时间补上该用户
+            log.error("刷新用户目录索引失败: userId={}", event.getUserId(), e);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.im.imcommunicationsystem.relationship.repository;
+
+import com.im.imcommunicationsystem.relationship.entity.ContactChangeLog;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 联系人变更日志数据访问接口
+ */
+@Repository
+public interface ContactChangeLogRepository extends JpaRepository<ContactChangeLog, Long> {
+
+    /**
+     * 查询用户在指定版本之后发生变化的好友ID（按版本升序，可能重复）
+     *
+     * @param userId 用户ID
+     * @param sinceVersion 客户端已同步的版本号
+     * @param pageable 分页参数（只使用大小）
+     * @return 好友ID列表
+     */
+    @Query("SELECT l.friendId FROM ContactChangeLog l WHERE l.userId = :userId AND l.id > :sinceVersion " +
+           "ORDER BY l.id ASC")
+    List<Long> findChangedFriendIds(@Param("userId") Long userId,
+                                    @Param("sinceVersion") Long sinceVersion,
+                                    Pageable pageable);
+
+    /**
+     * 查询仍保留的最小变更ID（早于该ID的变更已被清理）
+     *
+     * @return 最小变更ID，日志为空时返回null
+     */
+    @Query("SELECT MIN(l.id) FROM ContactChangeLog l")
+    Long findMinId();
+
+    /**
+     * 查询当前最大变更ID
+     *
+     * @return 最大变更ID，日志为空时返回null
+     */
+    @Query("SELECT MAX(l.id) FROM ContactChangeLog l")
+    Long findMaxId();
+
+    /**
+     * 查询指定时间之后的第一条变更ID（清理边界）
+     *
+     * @param createdAt 时间下限
+     * @return 变更ID，不存在时返回null
+     */
+    @Query("SELECT MIN(l.id) FROM ContactChangeLog l WHERE l.createdAt >= :createdAt")
+    Long findFirstIdSince(@Param("createdAt") LocalDateTime createdAt);
+
+    /**
+     * 为联系人中包含指定好友的所有用户记录一次变更（好友资料变化时使用）
+     *
+     * @param friendId 好友ID
+     * @return 插入的记录数
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO contact_change_log (user_id, friend_id, created_at) " +
+                   "SELECT c.user_id, c.friend_id, NOW() FROM contacts c WHERE c.friend_id = :friendId " +
+                   "ORDER BY c.user_id",
+           nativeQuery = true)
+    int insertForContactsOf(@Param("friendId") Long friendId);
+
+    /**
+     * 分批删除早于指定ID的变更
+     *
+     * @param beforeId ID上限（不含）
+     * @param limit 单批删除数量
+     * @return 删除的记录数
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM contact_change_log WHERE id < :beforeId ORDER BY id LIMIT :limit",
+           nativeQuery = true)
+    int deleteBatchBefore(@Param("beforeId") Long beforeId, @Param("limit") int limit);
+}
@@ -3,10 +3,13 @@ package com.im.imcommunicationsystem.relationship.repository;
 import com.im.imcommunicationsystem.relationship.entity.Contact;
 import com.im.imcommunicationsystem.relationship.entity.ContactId;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -32,6 +35,14 @@ public interface ContactRepository extends JpaRepository<Contact, ContactId> {
      */
     List<Contact> findByUserId(Long userId);
 
+    /**
+     * 批量查找用户与指定好友的联系人关系
+     * @param userId 用户ID
+     * @param friendIds 好友ID列表
+     * @return 联系人列表
+     */
+    List<Contact> findByUserIdAndFriendIdIn(Long userId, Collection<Long> friendIds);
+
     /**
      * 查找用户的所有联系人（排除被屏蔽的）
      * @param userId 用户ID
@@ -87,4 +98,94 @@ public interface ContactRepository extends JpaRepository<Contact, ContactId> {
      */
     @Query("SELECT c FROM Contact c WHERE c.userId = :userId AND c.alias LIKE %:alias%")
     List<Contact> findByUserIdAndAliasContaining(@Param("userId") Long userId, @Param("alias") String alias);
-}
\ No newline at end of file
+
+    /**
+     * 批量筛选与用户互为好友的用户ID
+     * @param userId 用户ID
+     * @param candidateIds 候选用户ID列表
+     * @return 候选用户中与用户互为好友的ID列表
+     */
+    @Query("SELECT c.friendId FROM Contact c WHERE c.userId = :userId AND c.friendId IN :candidateIds " +
+           "AND EXISTS (SELECT 1 FROM Contact r WHERE r.userId = c.friendId AND r.friendId = c.userId)")
+    List<Long> findMutualFriendIds(@Param("userId") Long userId, @Param("candidateIds") Collection<Long> candidateIds);
+
+    /**
+     * 查询用户的全部联系人及拉黑状态（用于加载社交关系图中该用户的邻接表）
+     *
+     * @param userId 用户ID
+     * @return [好友ID, 是否拉黑] 列表
+     */
+    @Query("SELECT c.friendId, c.isBlocked FROM Contact c WHERE c.userId = :userId")
+    List<Object[]> findAdjacencyByUserId(@Param("userId") Long userId);
+
+    /**
+     * 批量查询多个用户未拉黑的好友（按用户ID、好友ID排序，用于构建有序邻接数组）
+     *
+     * @param userIds 用户ID列表
+     * @return [用户ID, 好友ID] 列表
+     */
+    @Query("SELECT c.userId, c.friendId FROM Contact c WHERE c.userId IN :userIds AND c.isBlocked = false " +
+           "ORDER BY c.userId ASC, c.friendId ASC")
+    List<Object[]> findUnblockedAdjacencyByUserIds(@Param("userIds") Collection<Long> userIds);
+
+    /**
+     * 查询联系人中包含指定用户的用户ID（反向邻接）
+     *
+     * @param friendId 好友ID
+     * @return 用户ID列表
+     */
+    @Query("SELECT c.userId FROM Contact c WHERE c.friendId = :friendId")
+    List<Long> findUserIdsByFriendId(@Param("friendId") Long friendId);
+
+    /**
+     * 批量删除用户与指定好友之间的双向关系（单条语句）
+     *
+     * @param userId 用户ID
+     * @param friendIds 好友ID列表
+     * @return 删除的行数（双向合计）
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM Contact c WHERE (c.userId = :userId AND c.friendId IN :friendIds) " +
+           "OR (c.friendId = :userId AND c.userId IN :friendIds)")
+    int deleteBidirectional(@Param("userId") Long userId, @Param("friendIds") Collection<Long> friendIds);
+
+    /**
+     * 批量设置用户对指定好友的拉黑状态（单条语句）
+     *
+     * @param userId 用户ID
+     * @param friendIds 好友ID列表
+     * @param blocked 是否拉黑
+     * @return 更新的行数
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Contact c SET c.isBlocked = :blocked WHERE c.userId = :userId AND c.friendId IN :friendIds")
+    int updateBlocked(@Param("userId") Long userId, @Param("friendIds") Collection<Long> friendIds,
+                      @Param("blocked") boolean blocked);
+
+    /**
+     * 按好友请求批量建立双向好友关系（单条多行插入，已存在的关系忽略）
+     *
+     * @param requestIds 好友请求ID列表
+     * @return 插入的行数
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT IGNORE INTO contacts (user_id, friend_id, is_blocked, created_at) " +
+                   "SELECT fr.requester_id, fr.recipient_id, FALSE, NOW() FROM friend_requests fr WHERE fr.id IN (:requestIds) " +
+                   "UNION ALL " +
+                   "SELECT fr.recipient_id, fr.requester_id, FALSE, NOW() FROM friend_requests fr WHERE fr.id IN (:requestIds)",
+           nativeQuery = true)
+    int insertFromRequests(@Param("requestIds") Collection<Long> requestIds);
+
+    /**
+     * 在指定用户中查找拉黑了某用户的用户（用于批量过滤搜索结果）
+     *
+     * @param friendId 被拉黑的用户ID
+     * @param userIds 候选用户ID列表
+     * @return 拉黑了该用户的用户ID列表
+     */
+    @Query("SELECT c.userId FROM Contact c WHERE c.friendId = :friendId AND c.userId IN :userIds AND c.isBlocked = true")
+    List<Long> findUserIdsBlocking(@Param("friendId") Long friendId, @Param("userIds") Collection<Long> userIds);
+}
@@ -2,13 +2,16 @@ package com.im.imcommunicationsystem.relationship.repository;
 
 import com.im.imcommunicationsystem.relationship.entity.ContactRequest;
 import com.im.imcommunicationsystem.relationship.enums.ContactRequestStatus;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -82,6 +85,40 @@ public interface ContactRequestRepository extends JpaRepository<ContactRequest,
     @Query("DELETE FROM ContactRequest cr WHERE cr.status = :status AND cr.createdAt < :expireTime")
     int deleteExpiredRequests(@Param("expireTime") LocalDateTime expireTime, @Param("status") ContactRequestStatus status);
 
+    /**
+     * 查找好友请求并加行锁直到事务结束，处理单个请求时与批量处理互斥
+     * @param id 请求ID
+     * @return 好友请求
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT cr FROM ContactRequest cr WHERE cr.id = :id")
+    Optional<ContactRequest> findByIdForUpdate(@Param("id") Long id);
+
+    /**
+     * 批量查找发给指定接收者的、处于指定状态的好友请求，并按ID顺序加行锁直到事务结束，
+     * 并发处理同一请求的事务等待锁释放后读到已更新的状态
+     * @param ids 请求ID列表
+     * @param recipientId 接收者ID
+     * @param status 请求状态
+     * @return 好友请求列表
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<ContactRequest> findByIdInAndRecipientIdAndStatusOrderByIdAsc(Collection<Long> ids, Long recipientId, ContactRequestStatus status);
+
+    /**
+     * 批量更新请求状态（单条语句，只更新仍处于原状态的请求）
+     * @param ids 请求ID列表
+     * @param fromStatus 原状态
+     * @param toStatus 新状态
+     * @param handledAt 处理时间
+     * @return 更新的记录数
+     */
+    @Modifying
+    @Query("UPDATE ContactRequest cr SET cr.status = :toStatus, cr.handledAt = :handledAt " +
+           "WHERE cr.id IN :ids AND cr.status = :fromStatus")
+    int updateStatus(@Param("ids") Collection<Long> ids, @Param("fromStatus") ContactRequestStatus fromStatus,
+                     @Param("toStatus") ContactRequestStatus toStatus, @Param("handledAt") LocalDateTime handledAt);
+
     /**
      * 统计用户收到的待处理请求数量
      * @param recipientId 接收者ID
@@ -195,4 +232,30 @@ public interface ContactRequestRepository extends JpaRepository<ContactRequest,
      * @return 请求数量
      */
     long countByRequesterIdAndCreatedAtBetween(Long requesterId, LocalDateTime startTime, LocalDateTime endTime);
+
+    /**
+     * 查找请求者向指定用户中哪些人发送了特定状态的请求
+     * @param requesterId 请求者ID
+     * @param recipientIds 候选接收者ID列表
+     * @param status 请求状态
+     * @return 接收者ID列表
+     */
+    @Query("SELECT cr.recipientId FROM ContactRequest cr WHERE cr.requesterId = :requesterId " +
+           "AND cr.recipientId IN :recipientIds AND cr.status = :status")
+    List<Long> findRecipientIdsByRequesterIdAndStatus(@Param("requesterId") Long requesterId,
+                                                      @Param("recipientIds") Collection<Long> recipientIds,
+                                                      @Param("status") ContactRequestStatus status);
+    
+    /**
+     * 查找指定用户中哪些人向接收者发送了特定状态的请求
+     * @param recipientId 接收者ID
+     * @param requesterIds 候选请求者ID列表
+     * @param status 请求状态
+     * @return 请求者ID列表
+     */
+    @Query("SELECT cr.requesterId FROM ContactRequest cr WHERE cr.recipientId = :recipientId " +
+           "AND cr.requesterId IN :requesterIds AND cr.status = :status")
+    List<Long> findRequesterIdsByRecipientIdAndStatus(@Param("recipientId") Long recipientId,
+                                                      @Param("requesterIds") Collection<Long> requesterIds,
+                                                      @Param("status") ContactRequestStatus status);
 }
\ No newline at end of file
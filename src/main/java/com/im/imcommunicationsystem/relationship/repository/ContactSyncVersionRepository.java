@@ -0,0 +1,84 @@
+package com.im.imcommunicationsystem.relationship.repository;
+
+import com.im.imcommunicationsystem.relationship.entity.ContactSyncVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * 联系人同步版本数据访问接口
+ * 写入变更日志前先锁定版本行，使同一用户的变更ID按提交顺序递增，
+ * 客户端按版本号增量同步时不会跳过晚提交、ID却更小的变更
+ */
+@Repository
+public interface ContactSyncVersionRepository extends JpaRepository<ContactSyncVersion, Long> {
+
+    /**
+     * 查询用户联系人列表的当前版本号
+     *
+     * @param userId 用户ID
+     * @return 版本号，从未变更过时返回null
+     */
+    @Query("SELECT v.version FROM ContactSyncVersion v WHERE v.userId = :userId")
+    Long findVersion(@Param("userId") Long userId);
+
+    /**
+     * 锁定用户的版本行（不存在时创建），持有到事务结束
+     *
+     * @param userId 用户ID
+     * @return 影响的行数
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO contact_sync_versions (user_id, version) VALUES (:userId, 0) " +
+                   "ON DUPLICATE KEY UPDATE version = version",
+           nativeQuery = true)
+    int lock(@Param("userId") Long userId);
+
+    /**
+     * 锁定联系人中包含指定好友的所有用户的版本行（按用户ID顺序加锁）
+     *
+     * @param friendId 好友ID
+     * @return 影响的行数
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO contact_sync_versions (user_id, version) " +
+                   "SELECT c.user_id, 0 FROM contacts c WHERE c.friend_id = :friendId ORDER BY c.user_id " +
+                   "ON DUPLICATE KEY UPDATE version = contact_sync_versions.version",
+           nativeQuery = true)
+    int lockContactsOf(@Param("friendId") Long friendId);
+
+    /**
+     * 推进用户的版本号
+     *
+     * @param userId 用户ID
+     * @param version 新版本号
+     * @return 影响的行数
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE contact_sync_versions SET version = GREATEST(version, :version) WHERE user_id = :userId",
+           nativeQuery = true)
+    int advance(@Param("userId") Long userId, @Param("version") Long version);
+
+    /**
+     * 按变更日志推进联系人中包含指定好友的所有用户的版本号
+     *
+     * @param friendId 好友ID
+     * @param afterId 本次写入前的最大变更ID
+     * @return 影响的行数
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE contact_sync_versions v " +
+                   "JOIN (SELECT l.user_id, MAX(l.id) AS max_id FROM contact_change_log l " +
+                   "      WHERE l.friend_id = :friendId AND l.id > :afterId GROUP BY l.user_id) t " +
+                   "ON t.user_id = v.user_id " +
+                   "SET v.version = GREATEST(v.version, t.max_id)",
+           nativeQuery = true)
+    int advanceForContactsOf(@Param("friendId") Long friendId, @Param("afterId") Long afterId);
+}
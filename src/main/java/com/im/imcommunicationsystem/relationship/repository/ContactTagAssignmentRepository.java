@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -68,6 +69,16 @@ public interface ContactTagAssignmentRepository extends JpaRepository<ContactTag
     @Query("DELETE FROM ContactTagAssignment cta WHERE cta.userId = :userId AND cta.friendId = :friendId")
     int deleteByUserIdAndFriendId(@Param("userId") Long userId, @Param("friendId") Long friendId);
 
+    /**
+     * 批量删除用户为多个好友分配的标签
+     * @param userId 用户ID
+     * @param friendIds 好友ID列表
+     * @return 删除的数量
+     */
+    @Modifying
+    @Query("DELETE FROM ContactTagAssignment cta WHERE cta.userId = :userId AND cta.friendId IN :friendIds")
+    int deleteByUserIdAndFriendIdIn(@Param("userId") Long userId, @Param("friendIds") Collection<Long> friendIds);
+
     /**
      * 删除指定标签的所有分配
      * @param tagId 标签ID
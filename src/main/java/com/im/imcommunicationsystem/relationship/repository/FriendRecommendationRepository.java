@@ -0,0 +1,42 @@
+package com.im.imcommunicationsystem.relationship.repository;
+
+import com.im.imcommunicationsystem.relationship.entity.FriendRecommendation;
+import com.im.imcommunicationsystem.relationship.entity.FriendRecommendationId;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * 好友推荐数据访问接口
+ */
+@Repository
+public interface FriendRecommendationRepository extends JpaRepository<FriendRecommendation, FriendRecommendationId> {
+
+    /**
+     * 按共同好友数降序查询用户的推荐结果
+     *
+     * @param userId 用户ID
+     * @param pageable 分页参数
+     * @return 推荐结果列表
+     */
+    @Query("SELECT r FROM FriendRecommendation r WHERE r.userId = :userId " +
+           "ORDER BY r.mutualCount DESC, r.candidateId ASC")
+    List<FriendRecommendation> findTopByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    /**
+     * 删除用户的全部推荐结果（重算前调用）
+     *
+     * @param userId 用户ID
+     * @return 删除的记录数
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM FriendRecommendation r WHERE r.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+}
@@ -0,0 +1,96 @@
+package com.im.imcommunicationsystem.relationship.repository;
+
+import com.im.imcommunicationsystem.relationship.entity.FriendRecommendationState;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 好友推荐计算状态数据访问接口
+ */
+@Repository
+public interface FriendRecommendationStateRepository extends JpaRepository<FriendRecommendationState, Long> {
+
+    /**
+     * 将指定用户标记为待重算
+     *
+     * @param userIds 用户ID列表
+     * @param markedAt 标记时间
+     * @return 影响的行数
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO friend_recommendation_state (user_id, dirty, marked_at) " +
+                   "SELECT u.id, TRUE, :markedAt FROM users u WHERE u.id IN (:userIds) " +
+                   "ON DUPLICATE KEY UPDATE dirty = TRUE, marked_at = :markedAt",
+           nativeQuery = true)
+    int markDirty(@Param("userIds") Collection<Long> userIds, @Param("markedAt") LocalDateTime markedAt);
+
+    /**
+     * 将联系人中包含指定用户的所有用户标记为待重算
+     * 这些用户的二度好友随指定用户的好友列表变化
+     *
+     * @param userIds 好友列表发生变化的用户ID列表
+     * @param markedAt 标记时间
+     * @return 影响的行数
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO friend_recommendation_state (user_id, dirty, marked_at) " +
+                   "SELECT DISTINCT c.user_id, TRUE, :markedAt FROM contacts c WHERE c.friend_id IN (:userIds) " +
+                   "ON DUPLICATE KEY UPDATE dirty = TRUE, marked_at = :markedAt",
+           nativeQuery = true)
+    int markContactsOfDirty(@Param("userIds") Collection<Long> userIds, @Param("markedAt") LocalDateTime markedAt);
+
+    /**
+     * 游标分页查询待重算的用户ID
+     *
+     * @param afterUserId 上一批最后一个用户ID
+     * @param pageable 分页参数（只使用大小）
+     * @return 用户ID列表
+     */
+    @Query("SELECT s.userId FROM FriendRecommendationState s WHERE s.dirty = true AND s.userId > :afterUserId " +
+           "ORDER BY s.userId ASC")
+    List<Long> findDirtyUserIds(@Param("afterUserId") Long afterUserId, Pageable pageable);
+
+    /**
+     * 记录用户推荐结果已计算完成
+     * 计算开始后再次被标记的用户保持待重算状态，避免丢失计算期间发生的关系变更
+     *
+     * @param userId 用户ID
+     * @param computedAt 计算完成时间
+     * @param startedAt 计算开始时间
+     * @return 影响的行数
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO friend_recommendation_state (user_id, dirty, computed_at) " +
+                   "VALUES (:userId, FALSE, :computedAt) " +
+                   "ON DUPLICATE KEY UPDATE computed_at = :computedAt, " +
+                   "dirty = IF(marked_at IS NULL OR marked_at < :startedAt, FALSE, dirty)",
+           nativeQuery = true)
+    int markComputed(@Param("userId") Long userId,
+                     @Param("computedAt") LocalDateTime computedAt,
+                     @Param("startedAt") LocalDateTime startedAt);
+
+    /**
+     * 将计算时间早于指定时间的用户标记为待重算（兜底二度关系之外的变化，如用户被封禁或注销）
+     *
+     * @param before 计算时间上限
+     * @param markedAt 标记时间
+     * @return 影响的行数
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE FriendRecommendationState s SET s.dirty = true, s.markedAt = :markedAt " +
+           "WHERE s.dirty = false AND s.computedAt < :before")
+    int markStaleDirty(@Param("before") LocalDateTime before, @Param("markedAt") LocalDateTime markedAt);
+}
@@ -0,0 +1,438 @@
+package com.im.imcommunicationsystem.relationship.search;
+
+import com.im.imcommunicationsystem.auth.repository.UserRepository;
+import com.im.imcommunicationsystem.common.utils.PinyinInitials;
+import com.im.imcommunicationsystem.common.utils.PrefixIndex;
+import com.im.imcommunicationsystem.relationship.config.RelationshipConfig;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 用户目录索引
+ * 在进程内为全部用户的昵称（含中间片段）、昵称拼音首字母和个人ID建立前缀索引。
+ * 由不可变的主索引和小的增量覆盖层组成：资料变化时只复制并替换覆盖层，
+ * 覆盖层超过上限或定时全量重建时合并进新的主索引。封禁状态保存在索引项中，查询时直接过滤。
+ * 其他实例上的资料变化由定时按 updated_at 拉取同步；updated_at 早于提交时间，
+ * 每次拉取都回退一段时间重读，晚于水位线提交的长事务变更也能被拉到
+ */
+@Component
+@Slf4j
+public class UserDirectoryIndex {
+
+    private static final int LOAD_BATCH_SIZE = 5000;
+
+    private final UserRepository userRepository;
+    private final RelationshipConfig relationshipConfig;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private final Object overlayLock = new Object();
+
+    /**
+     * 主索引，首次构建完成前为 null
+     */
+    private volatile Generation generation;
+
+    private volatile Overlay overlay = Overlay.EMPTY;
+
+    /**
+     * 已同步到的最大 updated_at
+     */
+    private volatile LocalDateTime watermark;
+
+    public UserDirectoryIndex(UserRepository userRepository, RelationshipConfig relationshipConfig) {
+        this.userRepository = userRepository;
+        this.relationshipConfig = relationshipConfig;
+    }
+
+    /**
+     * 主索引是否已构建
+     */
+    public boolean isReady() {
+        return generation != null;
+    }
+
+    /**
+     * 搜索可被搜索的用户
+     * 按匹配级别排序：昵称、拼音首字母或个人ID开头匹配优先，其次是词首匹配，最后是昵称中间片段匹配
+     *
+     * @param keyword 关键词
+     * @param excludeUserId 排除的用户ID（当前用户）
+     * @param limit 最多返回的数量
+     * @return 索引项列表，索引未就绪时为空
+     */
+    public List<Entry> search(String keyword, Long excludeUserId, int limit) {
+        return search(keyword, excludeUserId, limit, false);
+    }
+
+    /**
+     * 搜索全部用户（含封禁中的用户，供管理后台使用），排序同 {@link #search(String, Long, int)}
+     *
+     * @param keyword 关键词
+     * @param limit 最多返回的数量
+     * @return 索引项列表，索引未就绪时为空
+     */
+    public List<Entry> searchIncludingBanned(String keyword, int limit) {
+        return search(keyword, null, limit, true);
+    }
+
+    private List<Entry> search(String keyword, Long excludeUserId, int limit, boolean includeBanned) {
+        Generation current = generation;
+        if (current == null || limit <= 0) {
+            return Collections.emptyList();
+        }
+        Overlay changes = overlay;
+        LocalDateTime now = LocalDateTime.now();
+
+        // 覆盖层和被封禁用户会过滤掉一部分主索引结果，按可能被过滤的数量多取
+        int fetch = limit * 2 + changes.entries.length + 1;
+
+        List<Entry> result = new ArrayList<>(limit);
+        Set<Long> seen = new HashSet<>();
+        for (int rank = 0; rank < PrefixIndex.RANK_COUNT && result.size() < limit; rank++) {
+            for (Integer position : changes.index.searchRank(keyword, rank, fetch)) {
+                collect(changes.entries[position], excludeUserId, includeBanned, now, seen, result, limit);
+            }
+            for (Integer position : current.index.searchRank(keyword, rank, fetch)) {
+                Entry entry = current.entries[position];
+                if (!changes.supersedes(entry.userId)) {
+                    collect(entry, excludeUserId, includeBanned, now, seen, result, limit);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 从数据库重新读取单个用户并更新覆盖层（本实例上资料变化时调用）
+     *
+     * @param userId 用户ID
+     */
+    public void refresh(Long userId) {
+        if (userId == null || generation == null) {
+            return;
+        }
+        List<Object[]> rows = userRepository.findDirectoryRowById(userId);
+        if (rows.isEmpty()) {
+            applyChanges(Map.of(userId, Optional.empty()));
+        } else {
+            applyChanges(Map.of(userId, Optional.of(toEntry(rows.get(0)))));
+        }
+    }
+
+    /**
+     * 拉取 updated_at 不早于水位线的用户并更新覆盖层；主索引未构建时先全量构建
+     *
+     * @return 同步的用户数
+     */
+    public int pollChanges() {
+        if (generation == null) {
+            rebuild();
+            return 0;
+        }
+
+        // 回退重读边界之前的记录，覆盖时间戳精度和仍未提交的事务，未变化的记录不会进入覆盖层
+        LocalDateTime since = watermark.minusSeconds(relationshipConfig.getSearch().getChangeOverlapSeconds());
+        int total = 0;
+        while (true) {
+            List<Object[]> rows = userRepository.findDirectoryRowsUpdatedSince(since, PageRequest.of(0, LOAD_BATCH_SIZE));
+            Map<Long, Optional<Entry>> changes = new HashMap<>();
+            LocalDateTime latest = since;
+            for (Object[] row : rows) {
+                Entry entry = toEntry(row);
+                if (!entry.equals(visibleEntry(entry.userId))) {
+                    changes.put(entry.userId, Optional.of(entry));
+                }
+                if (entry.updatedAt != null && entry.updatedAt.isAfter(latest)) {
+                    latest = entry.updatedAt;
+                }
+            }
+            applyChanges(changes);
+            total += changes.size();
+            if (latest.isAfter(watermark)) {
+                watermark = latest;
+            }
+
+            if (rows.size() < LOAD_BATCH_SIZE) {
+                break;
+            }
+            if (!latest.isAfter(since)) {
+                // 同一秒内的变更超过一批，无法按时间推进，改为全量重建
+                rebuild();
+                return total;
+            }
+            since = latest;
+        }
+
+        if (overlay.entries.length > relationshipConfig.getSearch().getMaxOverlaySize()) {
+            rebuild();
+        }
+        return total;
+    }
+
+    /**
+     * 全量重建主索引，并丢弃重建开始前已存在的覆盖层记录
+     */
+    public void rebuild() {
+        if (!rebuildLock.tryLock()) {
+            return;
+        }
+        try {
+            long started = System.currentTimeMillis();
+            long startSequence = sequence.get();
+
+            List<Entry> entries = new ArrayList<>();
+            LocalDateTime latest = LocalDateTime.of(1970, 1, 1, 0, 0);
+            long afterId = 0L;
+            List<Object[]> rows;
+            do {
+                rows = userRepository.findDirectoryRowsAfter(afterId, PageRequest.of(0, LOAD_BATCH_SIZE));
+                for (Object[] row : rows) {
+                    Entry entry = toEntry(row);
+                    entries.add(entry);
+                    afterId = entry.userId;
+                    if (entry.updatedAt != null && entry.updatedAt.isAfter(latest)) {
+                        latest = entry.updatedAt;
+                    }
+                }
+            } while (rows.size() >= LOAD_BATCH_SIZE);
+
+            Generation built = Generation.of(entries, indexInfixes());
+            synchronized (overlayLock) {
+                generation = built;
+                overlay = overlay.retainAfter(startSequence, indexInfixes());
+            }
+            if (watermark == null || latest.isAfter(watermark)) {
+                watermark = latest;
+            }
+            log.info("用户目录索引重建完成: users={}, indexEntries={}, overlay={}, elapsedMs={}",
+                    entries.size(), built.index.size(), overlay.entries.length, System.currentTimeMillis() - started);
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    // ==================== 私有辅助方法 ====================
+
+    private void collect(Entry entry, Long excludeUserId, boolean includeBanned, LocalDateTime now,
+                         Set<Long> seen, List<Entry> result, int limit) {
+        if (result.size() >= limit || entry.userId.equals(excludeUserId) || (!includeBanned && !entry.isSearchable(now))) {
+            return;
+        }
+        if (seen.add(entry.userId)) {
+            result.add(entry);
+        }
+    }
+
+    /**
+     * 用户当前在索引中可见的索引项（覆盖层优先）
+     */
+    private Entry visibleEntry(Long userId) {
+        Overlay changes = overlay;
+        if (changes.supersedes(userId)) {
+            return changes.byUserId.get(userId).entry;
+        }
+        Generation current = generation;
+        Integer position = current != null ? current.positions.get(userId) : null;
+        return position != null ? current.entries[position] : null;
+    }
+
+    /**
+     * 复制覆盖层并整体替换；值为空表示用户已不存在
+     */
+    private void applyChanges(Map<Long, Optional<Entry>> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        synchronized (overlayLock) {
+            Map<Long, Change> merged = new HashMap<>(overlay.byUserId);
+            for (Map.Entry<Long, Optional<Entry>> change : changes.entrySet()) {
+                merged.put(change.getKey(), new Change(change.getValue().orElse(null), sequence.incrementAndGet()));
+            }
+            overlay = Overlay.of(merged, indexInfixes());
+        }
+    }
+
+    private boolean indexInfixes() {
+        return Boolean.TRUE.equals(relationshipConfig.getSearch().getIndexInfixes());
+    }
+
+    private static Entry toEntry(Object[] row) {
+        return new Entry((Long) row[0], (String) row[1], (String) row[2], (String) row[3], (String) row[4],
+                (LocalDateTime) row[5], (LocalDateTime) row[6], Boolean.TRUE.equals(row[7]), (LocalDateTime) row[8]);
+    }
+
+    private static void addToIndex(PrefixIndex.Builder builder, int position, Entry entry, boolean infixes) {
+        if (infixes) {
+            builder.addWithInfixes(position, entry.nickname);
+        } else {
+            builder.add(position, entry.nickname);
+        }
+        builder.add(position, PinyinInitials.of(entry.nickname));
+        builder.add(position, entry.userIdStr);
+    }
+
+    /**
+     * 用户目录索引项（不可变）
+     */
+    @Getter
+    public static final class Entry {
+        private final Long userId;
+        private final String nickname;
+        private final String avatarUrl;
+        private final String signature;
+        private final String userIdStr;
+        private final LocalDateTime createdAt;
+        private final LocalDateTime updatedAt;
+        private final boolean banned;
+        private final LocalDateTime bannedUntil;
+
+        private Entry(Long userId, String nickname, String avatarUrl, String signature, String userIdStr,
+                      LocalDateTime createdAt, LocalDateTime updatedAt, boolean banned, LocalDateTime bannedUntil) {
+            this.userId = userId;
+            this.nickname = nickname;
+            this.avatarUrl = avatarUrl;
+            this.signature = signature;
+            this.userIdStr = userIdStr;
+            this.createdAt = createdAt;
+            this.updatedAt = updatedAt;
+            this.banned = banned;
+            this.bannedUntil = bannedUntil;
+        }
+
+        /**
+         * 封禁中的用户不出现在搜索结果中；有截止时间的封禁到期后自动恢复
+         */
+        public boolean isSearchable(LocalDateTime now) {
+            return !banned || (bannedUntil != null && bannedUntil.isBefore(now));
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Entry other)) {
+                return false;
+            }
+            return banned == other.banned
+                    && Objects.equals(userId, other.userId)
+                    && Objects.equals(nickname, other.nickname)
+                    && Objects.equals(avatarUrl, other.avatarUrl)
+                    && Objects.equals(signature, other.signature)
+                    && Objects.equals(userIdStr, other.userIdStr)
+                    && Objects.equals(bannedUntil, other.bannedUntil);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, nickname, avatarUrl, signature, userIdStr, banned, bannedUntil);
+        }
+    }
+
+    /**
+     * 主索引：索引编号为用户在 entries 中的位置
+     */
+    private static final class Generation {
+        private final Entry[] entries;
+        private final Map<Long, Integer> positions;
+        private final PrefixIndex index;
+
+        private Generation(Entry[] entries, Map<Long, Integer> positions, PrefixIndex index) {
+            this.entries = entries;
+            this.positions = positions;
+            this.index = index;
+        }
+
+        private static Generation of(List<Entry> entries, boolean infixes) {
+            Entry[] array = entries.toArray(new Entry[0]);
+            Map<Long, Integer> positions = new HashMap<>(array.length * 2);
+            PrefixIndex.Builder builder = PrefixIndex.builder();
+            for (int i = 0; i < array.length; i++) {
+                positions.put(array[i].userId, i);
+                addToIndex(builder, i, array[i], infixes);
+            }
+            return new Generation(array, positions, builder.build());
+        }
+    }
+
+    /**
+     * 覆盖层中的一次变更，entry 为空表示用户已不存在
+     */
+    private static final class Change {
+        private final Entry entry;
+        private final long sequence;
+
+        private Change(Entry entry, long sequence) {
+            this.entry = entry;
+            this.sequence = sequence;
+        }
+    }
+
+    /**
+     * 增量覆盖层（不可变）：覆盖层中出现的用户以覆盖层为准，主索引中的旧记录被忽略
+     */
+    private static final class Overlay {
+        private static final Overlay EMPTY = new Overlay(Collections.emptyMap(), new Entry[0], PrefixIndex.empty());
+
+        private final Map<Long, Change> byUserId;
+        private final Entry[] entries;
+        private final PrefixIndex index;
+
+        private Overlay(Map<Long, Change> byUserId, Entry[] entries, PrefixIndex index) {
+            this.byUserId = byUserId;
+            this.entries = entries;
+            this.index = index;
+        }
+
+        private static Overlay of(Map<Long, Change> byUserId, boolean infixes) {
+            if (byUserId.isEmpty()) {
+                return EMPTY;
+            }
+            List<Entry> live = new ArrayList<>(byUserId.size());
+            for (Change change : byUserId.values()) {
+                if (change.entry != null) {
+                    live.add(change.entry);
+                }
+            }
+            Entry[] entries = live.toArray(new Entry[0]);
+            PrefixIndex.Builder builder = PrefixIndex.builder();
+            for (int i = 0; i < entries.length; i++) {
+                addToIndex(builder, i, entries[i], infixes);
+            }
+            return new Overlay(byUserId, entries, builder.build());
+        }
+
+        private boolean supersedes(Long userId) {
+            return byUserId.containsKey(userId);
+        }
+
+        /**
+         * 只保留序号大于指定值的变更（重建开始后发生的变更可能未被扫描到）
+         */
+        private Overlay retainAfter(long sequence, boolean infixes) {
+            Map<Long, Change> retained = new HashMap<>();
+            for (Map.Entry<Long, Change> change : byUserId.entrySet()) {
+                if (change.getValue().sequence > sequence) {
+                    retained.put(change.getKey(), change.getValue());
+                }
+            }
+            return of(retained, infixes);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.im.imcommunicationsystem.relationship.service;
 
+import com.im.imcommunicationsystem.auth.entity.User;
 import com.im.imcommunicationsystem.relationship.dto.request.SearchContactRequest;
 import com.im.imcommunicationsystem.relationship.dto.response.ContactSearchResponse;
 
@@ -48,6 +49,13 @@ public interface ContactSearchService {
      */
     boolean validateSearchPermission(Long targetUserId, Long currentUserId);
 
+    /**
+     * 检查用户是否允许被搜索（好友推荐同样遵循该设置）
+     * @param user 目标用户
+     * @return 是否允许被搜索
+     */
+    boolean canBeSearched(User user);
+
     /**
      * 检查用户关系状态
      * @param currentUserId 当前用户ID
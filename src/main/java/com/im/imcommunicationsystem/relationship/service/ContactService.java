@@ -3,8 +3,10 @@ package com.im.imcommunicationsystem.relationship.service;
 import com.im.imcommunicationsystem.relationship.dto.response.ContactResponse;
 import com.im.imcommunicationsystem.relationship.entity.Contact;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * 联系人服务接口
@@ -85,6 +87,14 @@ public interface ContactService {
      */
     boolean isFriend(Long userId1, Long userId2);
 
+    /**
+     * 批量筛选与用户互为好友的用户
+     * @param userId 用户ID
+     * @param candidateIds 候选用户ID列表
+     * @return 候选用户中与用户互为好友的ID集合
+     */
+    Set<Long> findMutualFriendIds(Long userId, Collection<Long> candidateIds);
+
     /**
      * 检查是否被屏蔽
      * @param userId 用户ID
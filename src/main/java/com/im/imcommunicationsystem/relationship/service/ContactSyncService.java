@@ -0,0 +1,49 @@
+package com.im.imcommunicationsystem.relationship.service;
+
+import com.im.imcommunicationsystem.relationship.dto.response.ContactResponse;
+import com.im.imcommunicationsystem.relationship.dto.response.ContactSyncResponse;
+
+import java.util.List;
+
+/**
+ * 联系人同步服务接口
+ * 联系人列表按用户缓存为带版本号的快照，客户端可按版本号只拉取变化部分
+ */
+public interface ContactSyncService {
+
+    /**
+     * 获取用户的联系人列表（由快照提供）
+     *
+     * @param userId 用户ID
+     * @param includeBlocked 是否包含已拉黑的联系人
+     * @return 联系人列表
+     */
+    List<ContactResponse> getContacts(Long userId, boolean includeBlocked);
+
+    /**
+     * 获取指定版本之后的联系人变化
+     * 未携带版本号、版本号无效或对应的变更日志已被清理时返回全量结果
+     *
+     * @param userId 用户ID
+     * @param sinceVersion 客户端已同步的版本号
+     * @return 同步结果
+     */
+    ContactSyncResponse syncContacts(Long userId, Long sinceVersion);
+
+    /**
+     * 在用户的联系人中按备注名、昵称搜索（不含已拉黑的联系人）
+     * 按名称开头匹配优先、其次为名称中单词或汉字开头的片段匹配
+     *
+     * @param userId 用户ID
+     * @param keyword 关键词
+     * @return 匹配的联系人列表
+     */
+    List<ContactResponse> searchContacts(Long userId, String keyword);
+
+    /**
+     * 清理过期的联系人变更日志
+     *
+     * @return 删除的记录数
+     */
+    int pruneChangeLog();
+}
@@ -4,6 +4,7 @@ import com.im.imcommunicationsystem.relationship.dto.request.ContactTagAssignReq
 import com.im.imcommunicationsystem.relationship.dto.response.ContactTagAssignmentResponse;
 import com.im.imcommunicationsystem.relationship.dto.response.ContactTagResponse;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -86,6 +87,14 @@ public interface ContactTagAssignmentService {
      */
     int clearContactTags(Long userId, Long friendId);
 
+    /**
+     * 批量清除多个联系人的所有标签（单条语句，用于批量删除好友，联系人变更由删除事件记录）
+     * @param userId 用户ID
+     * @param friendIds 好友ID列表
+     * @return 清除的数量
+     */
+    int batchClearContactTags(Long userId, Collection<Long> friendIds);
+
     /**
      * 获取使用指定标签的联系人数量
      * @param userId 用户ID
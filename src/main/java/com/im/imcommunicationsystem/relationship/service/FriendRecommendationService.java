@@ -0,0 +1,51 @@
+package com.im.imcommunicationsystem.relationship.service;
+
+import com.im.imcommunicationsystem.relationship.dto.response.FriendRecommendationResponse;
+
+import java.util.List;
+
+/**
+ * 好友推荐服务接口（可能认识的人）
+ * 推荐结果由后台任务按共同好友数预先计算并物化，查询时只读取结果表
+ */
+public interface FriendRecommendationService {
+
+    /**
+     * 获取用户的好友推荐列表（按共同好友数降序）
+     * 用户从未计算过推荐时同步计算一次
+     *
+     * @param userId 用户ID
+     * @param limit 返回数量
+     * @return 推荐列表
+     */
+    List<FriendRecommendationResponse> getRecommendations(Long userId, int limit);
+
+    /**
+     * 重新计算并物化用户的推荐结果
+     *
+     * @param userId 用户ID
+     * @return 物化的推荐候选数
+     */
+    int recompute(Long userId);
+
+    /**
+     * 重算待重算的用户（单次最多处理配置的用户数）
+     *
+     * @return 重算的用户数
+     */
+    int recomputeDirty();
+
+    /**
+     * 将推荐结果过期的用户标记为待重算
+     *
+     * @return 标记的用户数
+     */
+    int markStale();
+
+    /**
+     * 好友列表发生变化时，标记用户本人及其二度关系受影响的用户为待重算
+     *
+     * @param userIds 好友列表发生变化的用户ID
+     */
+    void onFriendListChanged(Long... userIds);
+}
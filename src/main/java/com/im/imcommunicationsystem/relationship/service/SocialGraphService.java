@@ -0,0 +1,99 @@
+package com.im.imcommunicationsystem.relationship.service;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * 社交关系图服务接口
+ * 在内存中按用户保存联系人邻接表与拉黑集合，好友、拉黑判断不访问数据库；
+ * 邻接表按需加载，并由好友添加、删除、拉黑、解除拉黑事件同步更新
+ */
+public interface SocialGraphService {
+
+    /**
+     * 是否互为好友（双向联系人关系均存在）
+     *
+     * @param userId1 用户1 ID
+     * @param userId2 用户2 ID
+     * @return 是否互为好友
+     */
+    boolean isFriend(Long userId1, Long userId2);
+
+    /**
+     * 用户是否存在指向对方的联系人关系
+     *
+     * @param userId 用户ID
+     * @param friendId 对方ID
+     * @return 是否存在联系人关系
+     */
+    boolean hasContact(Long userId, Long friendId);
+
+    /**
+     * 用户是否拉黑了对方
+     *
+     * @param userId 用户ID
+     * @param friendId 对方ID
+     * @return 是否拉黑
+     */
+    boolean isBlocked(Long userId, Long friendId);
+
+    /**
+     * 从候选用户中筛选与用户互为好友的用户
+     *
+     * @param userId 用户ID
+     * @param candidateIds 候选用户ID
+     * @return 互为好友的用户ID
+     */
+    Set<Long> filterMutualFriends(Long userId, Collection<Long> candidateIds);
+
+    /**
+     * 统计用户未拉黑的联系人数量（由邻接表维护，不查询数据库）
+     *
+     * @param userId 用户ID
+     * @return 好友数量
+     */
+    long countFriends(Long userId);
+
+    /**
+     * 记录联系人关系已建立（双向）
+     */
+    void onContactAdded(Long userId, Long friendId);
+
+    /**
+     * 记录联系人关系已删除（双向）
+     */
+    void onContactDeleted(Long userId, Long friendId);
+
+    /**
+     * 记录拉黑状态变化
+     *
+     * @param userId 操作用户ID
+     * @param friendId 被操作的联系人ID
+     * @param blocked 是否拉黑
+     */
+    void onBlockChanged(Long userId, Long friendId, boolean blocked);
+
+    /**
+     * 记录批量联系人关系变更，每个受影响用户的邻接表只复制一次
+     *
+     * @param userId 操作用户ID
+     * @param friendIds 发生变更的联系人ID
+     * @param added true 为批量建立关系，false 为批量删除关系（均为双向）
+     */
+    void onContactsChanged(Long userId, Collection<Long> friendIds, boolean added);
+
+    /**
+     * 记录批量拉黑
+     *
+     * @param userId 操作用户ID
+     * @param friendIds 被拉黑的联系人ID
+     */
+    void onContactsBlocked(Long userId, Collection<Long> friendIds);
+
+    /**
+     * 丢弃用户的邻接表，下次访问时重新加载
+     *
+     * @param userId 用户ID
+     */
+    void invalidate(Long userId);
+}
@@ -7,6 +7,8 @@ import com.im.imcommunicationsystem.relationship.entity.Contact;
 import com.im.imcommunicationsystem.relationship.entity.ContactId;
 import com.im.imcommunicationsystem.relationship.entity.ContactRequest;
 import com.im.imcommunicationsystem.relationship.enums.ContactRequestStatus;
+import com.im.imcommunicationsystem.relationship.event.ContactAddEvent;
+import com.im.imcommunicationsystem.relationship.event.ContactBatchEvent;
 import com.im.imcommunicationsystem.relationship.exception.ContactRequestException;
 import com.im.imcommunicationsystem.relationship.repository.ContactRepository;
 import com.im.imcommunicationsystem.relationship.repository.ContactRequestRepository;
@@ -15,13 +17,18 @@ import com.im.imcommunicationsystem.auth.entity.User;
 import com.im.imcommunicationsystem.auth.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -35,6 +42,7 @@ public class ContactRequestServiceImpl implements ContactRequestService {
     private final ContactRequestRepository contactRequestRepository;
     private final ContactRepository contactRepository;
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional
@@ -88,7 +96,7 @@ public class ContactRequestServiceImpl implements ContactRequestService {
         log.info("接受好友请求: requestId={}, recipientId={}", requestId, recipientId);
         
         // 查找好友请求
-        Optional<ContactRequest> requestOpt = contactRequestRepository.findById(requestId);
+        Optional<ContactRequest> requestOpt = contactRequestRepository.findByIdForUpdate(requestId);
         if (!requestOpt.isPresent()) {
             throw new ContactRequestException("好友请求不存在");
         }
@@ -128,6 +136,8 @@ public class ContactRequestServiceImpl implements ContactRequestService {
         contactRepository.save(contact1);
         contactRepository.save(contact2);
         
+        eventPublisher.publishEvent(new ContactAddEvent(this, contactRequest.getRequesterId(), contactRequest.getRecipientId()));
+        
         log.info("好友请求接受成功，已建立好友关系: requestId={}", requestId);
         return true;
     }
@@ -138,7 +148,7 @@ public class ContactRequestServiceImpl implements ContactRequestService {
         log.info("拒绝好友请求: requestId={}, recipientId={}", requestId, recipientId);
         
         // 查找好友请求
-        Optional<ContactRequest> requestOpt = contactRequestRepository.findById(requestId);
+        Optional<ContactRequest> requestOpt = contactRequestRepository.findByIdForUpdate(requestId);
         if (!requestOpt.isPresent()) {
             throw new ContactRequestException("好友请求不存在");
         }
@@ -170,7 +180,7 @@ public class ContactRequestServiceImpl implements ContactRequestService {
         log.info("撤回好友请求: requestId={}, requesterId={}", requestId, requesterId);
         
         // 查找好友请求
-        Optional<ContactRequest> requestOpt = contactRequestRepository.findById(requestId);
+        Optional<ContactRequest> requestOpt = contactRequestRepository.findByIdForUpdate(requestId);
         if (!requestOpt.isPresent()) {
             throw new ContactRequestException("好友请求不存在");
         }
@@ -265,17 +275,45 @@ public class ContactRequestServiceImpl implements ContactRequestService {
             return 0;
         }
         
-        int processedCount = 0;
-        for (Long requestId : requestIds) {
-            try {
-                if (accept) {
-                    acceptContactRequest(requestId, userId);
-                } else {
-                    rejectContactRequest(requestId, userId);
+        // 一次查询筛出发给当前用户且仍待处理的请求并锁定，其余请求与逐个处理时一样视为失败；
+        // 并发撤回、拒绝的请求要么已被排除，要么等本事务提交后才能修改，之后的状态更新与建立好友关系只针对这些请求
+        List<ContactRequest> pending = contactRequestRepository.findByIdInAndRecipientIdAndStatusOrderByIdAsc(
+                new LinkedHashSet<>(requestIds), userId, ContactRequestStatus.PENDING);
+        
+        List<Long> ids = new ArrayList<>(pending.size());
+        Set<Long> requesterIds = new LinkedHashSet<>();
+        if (accept) {
+            // 已经是好友的请求不再接受
+            Set<Long> requesters = new HashSet<>();
+            for (ContactRequest request : pending) {
+                requesters.add(request.getRequesterId());
+            }
+            Set<Long> existingFriends = new HashSet<>();
+            for (Contact contact : contactRepository.findByUserIdAndFriendIdIn(userId, requesters)) {
+                existingFriends.add(contact.getFriendId());
+            }
+            for (ContactRequest request : pending) {
+                if (!existingFriends.contains(request.getRequesterId())) {
+                    ids.add(request.getId());
+                    requesterIds.add(request.getRequesterId());
                 }
-                processedCount++;
-            } catch (Exception e) {
-                log.warn("批量处理好友请求失败: requestId={}, error={}", requestId, e.getMessage());
+            }
+        } else {
+            for (ContactRequest request : pending) {
+                ids.add(request.getId());
+            }
+        }
+        
+        int processedCount = 0;
+        if (!ids.isEmpty()) {
+            ContactRequestStatus target = accept ? ContactRequestStatus.ACCEPTED : ContactRequestStatus.REJECTED;
+            processedCount = contactRequestRepository.updateStatus(ids, ContactRequestStatus.PENDING, target, LocalDateTime.now());
+            
+            if (accept) {
+                // 双向好友关系由一条多行插入建立，整批只发布一次事件
+                int inserted = contactRepository.insertFromRequests(ids);
+                eventPublisher.publishEvent(new ContactBatchEvent(this, userId, new ArrayList<>(requesterIds), ContactBatchEvent.Type.ADD));
+                log.info("批量建立好友关系: userId={}, 好友数={}, 插入关系行数={}", userId, requesterIds.size(), inserted);
             }
         }
         
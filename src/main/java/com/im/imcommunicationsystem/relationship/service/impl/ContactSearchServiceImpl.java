@@ -2,26 +2,29 @@ package com.im.imcommunicationsystem.relationship.service.impl;
 
 import com.im.imcommunicationsystem.auth.entity.User;
 import com.im.imcommunicationsystem.auth.repository.UserRepository;
+import com.im.imcommunicationsystem.relationship.config.RelationshipConfig;
 import com.im.imcommunicationsystem.relationship.dto.request.SearchContactRequest;
 import com.im.imcommunicationsystem.relationship.dto.response.ContactSearchResponse;
-import com.im.imcommunicationsystem.relationship.entity.Contact;
 import com.im.imcommunicationsystem.relationship.entity.ContactRequest;
 import com.im.imcommunicationsystem.relationship.enums.ContactRequestStatus;
 import com.im.imcommunicationsystem.relationship.repository.ContactRepository;
 import com.im.imcommunicationsystem.relationship.repository.ContactRequestRepository;
+import com.im.imcommunicationsystem.relationship.search.UserDirectoryIndex;
 import com.im.imcommunicationsystem.relationship.service.ContactSearchService;
+import com.im.imcommunicationsystem.relationship.service.SocialGraphService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * 联系人搜索服务实现类
@@ -35,6 +38,9 @@ public class ContactSearchServiceImpl implements ContactSearchService {
     private final UserRepository userRepository;
     private final ContactRepository contactRepository;
     private final ContactRequestRepository contactRequestRepository;
+    private final SocialGraphService socialGraphService;
+    private final UserDirectoryIndex userDirectoryIndex;
+    private final RelationshipConfig relationshipConfig;
 
     @Override
     @Transactional(readOnly = true)
@@ -86,34 +92,28 @@ public class ContactSearchServiceImpl implements ContactSearchService {
         
         String nickname = searchRequest.getKeyword();
         Long currentUserId = searchRequest.getUserId();
-        int page = 0; // 默认页码
-        int size = 10; // 默认大小
+        RelationshipConfig.Search searchConfig = relationshipConfig.getSearch();
+        int limit = searchConfig.getMaxResults();
         
         try {
-            Pageable pageable = PageRequest.of(page, size);
-            Page<User> userPage = userRepository.findByNicknameContainingIgnoreCase(nickname, pageable);
-            
-            List<ContactSearchResponse> results = new ArrayList<>();
-            for (User user : userPage.getContent()) {
-                // 排除自己
-                if (user.getId().equals(currentUserId)) {
-                    continue;
-                }
-                
-                // 检查是否允许被搜索
-                if (!canBeSearched(user)) {
-                    continue;
+            List<ContactSearchResponse> candidates = new ArrayList<>();
+            if (Boolean.TRUE.equals(searchConfig.getIndexEnabled()) && userDirectoryIndex.isReady()) {
+                // 索引已排除自己和封禁中的用户，并按匹配级别排好序
+                for (UserDirectoryIndex.Entry entry : userDirectoryIndex.search(nickname, currentUserId, limit)) {
+                    candidates.add(buildBaseResponse(entry));
                 }
-                
-                // 检查搜索权限
-                if (!validateSearchPermission(user.getId(), currentUserId)) {
-                    continue;
+            } else {
+                Page<User> userPage = userRepository.findByNicknameContainingIgnoreCase(nickname, PageRequest.of(0, limit));
+                for (User user : userPage.getContent()) {
+                    // 排除自己，并检查是否允许被搜索
+                    if (user.getId().equals(currentUserId) || !canBeSearched(user)) {
+                        continue;
+                    }
+                    candidates.add(buildBaseResponse(user));
                 }
-                
-                ContactSearchResponse response = buildContactSearchResponse(user, currentUserId);
-                results.add(response);
             }
             
+            List<ContactSearchResponse> results = applyRelationshipStatus(candidates, currentUserId);
             log.info("昵称搜索完成: nickname={}, 找到{}个结果", nickname, results.size());
             return results;
             
@@ -195,8 +195,7 @@ public class ContactSearchServiceImpl implements ContactSearchService {
         }
         
         // 检查是否被屏蔽
-        Optional<Contact> contact = contactRepository.findByUserIdAndFriendId(targetUserId, currentUserId);
-        if (contact.isPresent() && contact.get().getIsBlocked()) {
+        if (socialGraphService.isBlocked(targetUserId, currentUserId)) {
             log.info("用户被目标用户屏蔽: currentUserId={}, targetUserId={}", currentUserId, targetUserId);
             return false;
         }
@@ -218,12 +217,9 @@ public class ContactSearchServiceImpl implements ContactSearchService {
         }
         
         // 检查是否为好友
-        Optional<Contact> contact = contactRepository.findByUserIdAndFriendId(currentUserId, targetUserId);
-        if (contact.isPresent()) {
-            if (contact.get().getIsBlocked()) {
-                return "已屏蔽";
-            }
-            return "好友";
+        String contactStatus = contactStatus(currentUserId, targetUserId);
+        if (contactStatus != null) {
+            return contactStatus;
         }
         
         // 检查是否有待处理的好友请求
@@ -231,47 +227,119 @@ public class ContactSearchServiceImpl implements ContactSearchService {
             Optional<ContactRequest> sentRequest = contactRequestRepository
                     .findByRequesterIdAndRecipientIdAndStatus(currentUserId, targetUserId, ContactRequestStatus.PENDING);
             if (sentRequest.isPresent()) {
-                return "已发送请求";
+                return pendingStatus(true, false);
             }
             
             Optional<ContactRequest> receivedRequest = contactRequestRepository
                     .findByRequesterIdAndRecipientIdAndStatus(targetUserId, currentUserId, ContactRequestStatus.PENDING);
-            if (receivedRequest.isPresent()) {
-                return "待处理请求";
-            }
+            return pendingStatus(false, receivedRequest.isPresent());
         } catch (Exception e) {
             log.warn("检查好友请求状态时发生错误: currentUserId={}, targetUserId={}, error={}", currentUserId, targetUserId, e.getMessage());
             // 如果查询失败，继续执行，返回陌生人状态
         }
         
-        return "陌生人";
+        return pendingStatus(false, false);
     }
 
     /**
-     * 构建联系人搜索响应对象
+     * 好友关系状态：好友返回"好友"或"已屏蔽"，非好友返回 null
      */
-    private ContactSearchResponse buildContactSearchResponse(User user, Long currentUserId) {
-        String relationshipStatus = checkRelationshipStatus(currentUserId, user.getId());
-        
+    private String contactStatus(Long currentUserId, Long targetUserId) {
+        if (!socialGraphService.hasContact(currentUserId, targetUserId)) {
+            return null;
+        }
+        return socialGraphService.isBlocked(currentUserId, targetUserId) ? "已屏蔽" : "好友";
+    }
+
+    /**
+     * 非好友的关系状态
+     */
+    private String pendingStatus(boolean requestSent, boolean requestReceived) {
+        if (requestSent) {
+            return "已发送请求";
+        }
+        return requestReceived ? "待处理请求" : "陌生人";
+    }
+
+    /**
+     * 批量过滤屏蔽了当前用户的候选人，并填充关系状态
+     * 屏蔽关系和待处理请求各用一条 IN 查询，好友关系读内存中的社交关系图
+     */
+    private List<ContactSearchResponse> applyRelationshipStatus(List<ContactSearchResponse> candidates, Long currentUserId) {
+        if (candidates.isEmpty()) {
+            return candidates;
+        }
+        List<Long> candidateIds = candidates.stream().map(ContactSearchResponse::getUserId).toList();
+        Set<Long> blockingIds = new HashSet<>(contactRepository.findUserIdsBlocking(currentUserId, candidateIds));
+        Set<Long> sentIds = new HashSet<>(contactRequestRepository
+                .findRecipientIdsByRequesterIdAndStatus(currentUserId, candidateIds, ContactRequestStatus.PENDING));
+        Set<Long> receivedIds = new HashSet<>(contactRequestRepository
+                .findRequesterIdsByRecipientIdAndStatus(currentUserId, candidateIds, ContactRequestStatus.PENDING));
+
+        List<ContactSearchResponse> results = new ArrayList<>(candidates.size());
+        for (ContactSearchResponse response : candidates) {
+            Long targetUserId = response.getUserId();
+            if (blockingIds.contains(targetUserId)) {
+                continue;
+            }
+            String relationshipStatus = contactStatus(currentUserId, targetUserId);
+            if (relationshipStatus == null) {
+                relationshipStatus = pendingStatus(sentIds.contains(targetUserId), receivedIds.contains(targetUserId));
+            }
+            applyStatus(response, relationshipStatus);
+            results.add(response);
+        }
+        return results;
+    }
+
+    /**
+     * 构建不含关系状态的搜索响应
+     */
+    private ContactSearchResponse buildBaseResponse(User user) {
         return ContactSearchResponse.builder()
                 .userId(user.getId())
                 .nickname(user.getNickname())
                 .avatarUrl(user.getAvatarUrl())
                 .signature(user.getSignature())
                 .userIdString(user.getUserIdStr())
-                .isFriend("好友".equals(relationshipStatus))
-                .hasRequestSent("已发送请求".equals(relationshipStatus))
-                .isBlocked("已屏蔽".equals(relationshipStatus))
-                .relationshipStatus(relationshipStatus)
                 .registeredAt(user.getCreatedAt())
                 .allowSearch(canBeSearched(user))
                 .build();
     }
 
     /**
-     * 检查用户是否允许被搜索
+     * 由用户目录索引项构建不含关系状态的搜索响应
+     */
+    private ContactSearchResponse buildBaseResponse(UserDirectoryIndex.Entry entry) {
+        return ContactSearchResponse.builder()
+                .userId(entry.getUserId())
+                .nickname(entry.getNickname())
+                .avatarUrl(entry.getAvatarUrl())
+                .signature(entry.getSignature())
+                .userIdString(entry.getUserIdStr())
+                .registeredAt(entry.getCreatedAt())
+                .allowSearch(true)
+                .build();
+    }
+
+    private void applyStatus(ContactSearchResponse response, String relationshipStatus) {
+        response.setIsFriend("好友".equals(relationshipStatus));
+        response.setHasRequestSent("已发送请求".equals(relationshipStatus));
+        response.setIsBlocked("已屏蔽".equals(relationshipStatus));
+        response.setRelationshipStatus(relationshipStatus);
+    }
+
+    /**
+     * 构建联系人搜索响应对象
      */
-    private boolean canBeSearched(User user) {
+    private ContactSearchResponse buildContactSearchResponse(User user, Long currentUserId) {
+        ContactSearchResponse response = buildBaseResponse(user);
+        applyStatus(response, checkRelationshipStatus(currentUserId, user.getId()));
+        return response;
+    }
+
+    @Override
+    public boolean canBeSearched(User user) {
         // 这里可以根据用户的隐私设置来判断
         // 目前默认所有用户都允许被搜索
         return true;
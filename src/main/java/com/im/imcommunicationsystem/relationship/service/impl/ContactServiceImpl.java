@@ -2,15 +2,22 @@ package com.im.imcommunicationsystem.relationship.service.impl;
 
 import com.im.imcommunicationsystem.auth.entity.User;
 import com.im.imcommunicationsystem.auth.repository.UserRepository;
+import com.im.imcommunicationsystem.relationship.config.RelationshipConfig;
 import com.im.imcommunicationsystem.relationship.dto.response.ContactResponse;
 import com.im.imcommunicationsystem.relationship.dto.response.ContactTagResponse;
 import com.im.imcommunicationsystem.relationship.entity.Contact;
 import com.im.imcommunicationsystem.relationship.entity.ContactId;
+import com.im.imcommunicationsystem.relationship.event.ContactBatchEvent;
 import com.im.imcommunicationsystem.relationship.event.ContactBlockEvent;
+import com.im.imcommunicationsystem.relationship.event.ContactDeleteEvent;
 import com.im.imcommunicationsystem.relationship.event.ContactUnblockEvent;
+import com.im.imcommunicationsystem.relationship.exception.ContactException;
 import com.im.imcommunicationsystem.relationship.repository.ContactRepository;
 import com.im.imcommunicationsystem.relationship.service.ContactService;
+import com.im.imcommunicationsystem.relationship.service.ContactSyncService;
 import com.im.imcommunicationsystem.relationship.service.ContactTagAssignmentService;
+import com.im.imcommunicationsystem.relationship.service.SocialGraphService;
+import com.im.imcommunicationsystem.relationship.sync.ContactChangeTracker;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.ApplicationEventPublisher;
@@ -18,10 +25,12 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 /**
  * 联系人服务实现类
@@ -35,6 +44,10 @@ public class ContactServiceImpl implements ContactService {
     private final UserRepository userRepository;
     private final ContactTagAssignmentService contactTagAssignmentService;
     private final ApplicationEventPublisher eventPublisher;
+    private final SocialGraphService socialGraphService;
+    private final ContactSyncService contactSyncService;
+    private final ContactChangeTracker contactChangeTracker;
+    private final RelationshipConfig relationshipConfig;
 
     @Override
     @Transactional(readOnly = true)
@@ -42,67 +55,8 @@ public class ContactServiceImpl implements ContactService {
         log.info("获取用户联系人列表: userId={}, includeBlocked={}", userId, includeBlocked);
         
         try {
-            List<Contact> contacts;
-            if (includeBlocked) {
-                contacts = contactRepository.findByUserId(userId);
-            } else {
-                contacts = contactRepository.findByUserIdAndIsBlockedFalse(userId);
-            }
-            
-            if (contacts.isEmpty()) {
-                log.info("用户没有联系人: userId={}", userId);
-                return new ArrayList<>();
-            }
-            
-            // 批量获取所有联系人的标签信息
-            List<Long> friendIds = contacts.stream()
-                    .map(Contact::getFriendId)
-                    .collect(Collectors.toList());
-            
-            Map<Long, List<ContactTagResponse>> contactTagsMap = 
-                    contactTagAssignmentService.getBatchContactTags(userId, friendIds);
-            
-            List<ContactResponse> contactResponses = new ArrayList<>();
-            for (Contact contact : contacts) {
-                log.info("处理联系人关系: userId={}, friendId={}, alias={}", 
-                        contact.getUserId(), contact.getFriendId(), contact.getAlias());
-                
-                Optional<User> friendUser = userRepository.findById(contact.getFriendId());
-                if (friendUser.isPresent()) {
-                    User friend = friendUser.get();
-                    log.info("找到好友用户: friendId={}, email={}, nickname={}", 
-                            friend.getId(), friend.getEmail(), friend.getNickname());
-                    
-                    // 获取该联系人的标签信息
-                    List<ContactTagResponse> tags = contactTagsMap.getOrDefault(contact.getFriendId(), new ArrayList<>());
-                    
-                    // 记录原始isBlocked值
-                    log.info("联系人拉黑状态详情: userId={}, friendId={}, isBlocked={}", 
-                            userId, friend.getId(), contact.getIsBlocked());
-                    
-                    ContactResponse response = ContactResponse.builder()
-                             .userId(userId)
-                             .friendId(friend.getId())
-                             .friendUsername(friend.getEmail())
-                             .nickname(friend.getNickname())
-                             .avatarUrl(friend.getAvatarUrl())
-                             .alias(contact.getAlias())
-                             .isBlocked(contact.getIsBlocked())
-                             .addedAt(contact.getCreatedAt())
-                             .lastContactTime(contact.getCreatedAt())
-                             .tags(tags)
-                             .tagCount(tags.size())
-                             .build();
-                    
-                    log.info("构建ContactResponse: userId={}, friendId={}, nickname={}, alias={}, isBlocked={}, tagCount={}", 
-                            response.getUserId(), response.getFriendId(), response.getNickname(), 
-                            response.getAlias(), response.getIsBlocked(), response.getTagCount());
-                    
-                    contactResponses.add(response);
-                } else {
-                    log.warn("未找到好友用户: friendId={}", contact.getFriendId());
-                }
-            }
+            // 由带版本号的联系人快照提供，未命中时批量加载
+            List<ContactResponse> contactResponses = contactSyncService.getContacts(userId, includeBlocked);
             
             log.info("成功获取联系人列表: userId={}, 联系人数量={}", userId, contactResponses.size());
             return contactResponses;
@@ -200,6 +154,7 @@ public class ContactServiceImpl implements ContactService {
             Contact contact = contactOpt.get();
             contact.setAlias(alias);
             contactRepository.save(contact);
+            contactChangeTracker.recordChange(userId, friendId);
             
             log.info("成功设置好友备注: userId={}, friendId={}, alias={}", userId, friendId, alias);
             return true;
@@ -327,6 +282,8 @@ public class ContactServiceImpl implements ContactService {
             // 删除 friendId -> userId 的关系
             contactRepository.deleteById(new ContactId(friendId, userId));
             
+            eventPublisher.publishEvent(new ContactDeleteEvent(this, userId, friendId));
+            
             log.info("Successfully deleted contact relationship between user {} and friend {}", userId, friendId);
             return true;
         } catch (Exception e) {
@@ -350,17 +307,15 @@ public class ContactServiceImpl implements ContactService {
 
     @Override
     public boolean isFriend(Long userId1, Long userId2) {
-        log.info("检查用户是否为好友关系: userId1={}, userId2={}", userId1, userId2);
-        
         if (userId1 == null || userId2 == null || userId1.equals(userId2)) {
             log.warn("检查好友关系失败: 无效的用户ID, userId1={}, userId2={}", userId1, userId2);
         return false;
         }
         
         try {
-            // 使用仓库中的方法直接检查双向好友关系
-            boolean areFriends = contactRepository.existsMutualFriendship(userId1, userId2);
-            log.info("用户好友关系检查结果: userId1={}, userId2={}, areFriends={}", userId1, userId2, areFriends);
+            // 由内存中的社交关系图判断双向好友关系
+            boolean areFriends = socialGraphService.isFriend(userId1, userId2);
+            log.debug("用户好友关系检查结果: userId1={}, userId2={}, areFriends={}", userId1, userId2, areFriends);
             
             return areFriends;
         } catch (Exception e) {
@@ -370,20 +325,27 @@ public class ContactServiceImpl implements ContactService {
     }
 
     @Override
-    public boolean isBlocked(Long userId, Long friendId) {
-        log.info("检查用户是否被屏蔽: userId={}, friendId={}", userId, friendId);
+    public Set<Long> findMutualFriendIds(Long userId, Collection<Long> candidateIds) {
+        if (userId == null || candidateIds == null || candidateIds.isEmpty()) {
+            return new HashSet<>();
+        }
         
+        Set<Long> friendIds = socialGraphService.filterMutualFriends(userId, candidateIds);
+        log.debug("批量好友关系检查结果: userId={}, candidates={}, friends={}", userId, candidateIds.size(), friendIds.size());
+        return friendIds;
+    }
+
+    @Override
+    public boolean isBlocked(Long userId, Long friendId) {
         if (userId == null || friendId == null || userId.equals(friendId)) {
             log.warn("检查屏蔽状态失败: 无效的用户ID, userId={}, friendId={}", userId, friendId);
         return false;
         }
         
         try {
-            // 检查是否存在屏蔽关系
-            Optional<Contact> contact = contactRepository.findByUserIdAndFriendId(userId, friendId);
-            
-            boolean isBlocked = contact.isPresent() && Boolean.TRUE.equals(contact.get().getIsBlocked());
-            log.info("用户屏蔽状态检查结果: userId={}, friendId={}, isBlocked={}", userId, friendId, isBlocked);
+            // 由内存中的社交关系图判断屏蔽关系
+            boolean isBlocked = socialGraphService.isBlocked(userId, friendId);
+            log.debug("用户屏蔽状态检查结果: userId={}, friendId={}, isBlocked={}", userId, friendId, isBlocked);
             
             return isBlocked;
         } catch (Exception e) {
@@ -394,33 +356,135 @@ public class ContactServiceImpl implements ContactService {
 
     @Override
     public long getFriendCount(Long userId) {
-        // TODO: 实现获取好友数量逻辑
-        return 0;
+        if (userId == null) {
+            return 0L;
+        }
+        
+        try {
+            // 由社交关系图中的邻接表维护，关系变更事件提交后随之增减
+            return socialGraphService.countFriends(userId);
+        } catch (Exception e) {
+            log.error("获取好友数量失败，改为查询数据库: userId={}, error={}", userId, e.getMessage(), e);
+            return contactRepository.countByUserIdAndIsBlockedFalse(userId);
+        }
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ContactResponse> searchContacts(Long userId, String keyword) {
-        // TODO: 实现搜索联系人逻辑
-        return null;
+        log.info("搜索联系人: userId={}, keyword={}", userId, keyword);
+        
+        if (userId == null || keyword == null || keyword.isBlank()) {
+            return new ArrayList<>();
+        }
+        
+        try {
+            // 在联系人快照的备注名、昵称前缀索引上查询
+            List<ContactResponse> results = contactSyncService.searchContacts(userId, keyword);
+            log.info("搜索联系人完成: userId={}, keyword={}, 结果数量={}", userId, keyword, results.size());
+            return results;
+        } catch (Exception e) {
+            log.error("搜索联系人失败: userId={}, keyword={}, error={}", userId, keyword, e.getMessage(), e);
+            return new ArrayList<>();
+        }
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ContactResponse> getBlockedContacts(Long userId) {
-        // TODO: 实现获取被屏蔽的联系人列表逻辑
-        return null;
+        log.info("获取被屏蔽的联系人列表: userId={}", userId);
+        
+        try {
+            List<ContactResponse> blocked = new ArrayList<>();
+            for (ContactResponse contact : contactSyncService.getContacts(userId, true)) {
+                if (Boolean.TRUE.equals(contact.getIsBlocked())) {
+                    blocked.add(contact);
+                }
+            }
+            log.info("成功获取被屏蔽的联系人列表: userId={}, 数量={}", userId, blocked.size());
+            return blocked;
+        } catch (Exception e) {
+            log.error("获取被屏蔽的联系人列表失败: userId={}, error={}", userId, e.getMessage(), e);
+            return new ArrayList<>();
+        }
     }
 
     @Override
     @Transactional
     public int batchDeleteContacts(Long userId, List<Long> friendIds) {
-        // TODO: 实现批量删除联系人逻辑
-        return 0;
+        List<Long> targets = normalizeBatch(userId, friendIds);
+        log.info("批量删除联系人: userId={}, 请求数量={}", userId, targets.size());
+        if (targets.isEmpty()) {
+            return 0;
+        }
+        
+        // 一次查询确认哪些确实是联系人，只删除这些关系
+        List<Long> existing = new ArrayList<>();
+        for (Contact contact : contactRepository.findByUserIdAndFriendIdIn(userId, targets)) {
+            existing.add(contact.getFriendId());
+        }
+        if (existing.isEmpty()) {
+            log.info("批量删除联系人: 没有需要删除的联系人关系, userId={}", userId);
+            return 0;
+        }
+        
+        int clearedTags = contactTagAssignmentService.batchClearContactTags(userId, existing);
+        int deletedRows = contactRepository.deleteBidirectional(userId, existing);
+        eventPublisher.publishEvent(new ContactBatchEvent(this, userId, existing, ContactBatchEvent.Type.DELETE));
+        
+        log.info("批量删除联系人完成: userId={}, 删除好友数={}, 删除关系行数={}, 清除标签数={}",
+                userId, existing.size(), deletedRows, clearedTags);
+        return existing.size();
     }
 
     @Override
     @Transactional
     public int batchBlockContacts(Long userId, List<Long> friendIds) {
-        // TODO: 实现批量屏蔽联系人逻辑
-        return 0;
+        List<Long> targets = normalizeBatch(userId, friendIds);
+        log.info("批量拉黑联系人: userId={}, 请求数量={}", userId, targets.size());
+        if (targets.isEmpty()) {
+            return 0;
+        }
+        
+        // 已拉黑的联系人视为成功但不重复发布事件，与单个拉黑一致
+        List<Long> toBlock = new ArrayList<>();
+        int alreadyBlocked = 0;
+        for (Contact contact : contactRepository.findByUserIdAndFriendIdIn(userId, targets)) {
+            if (Boolean.TRUE.equals(contact.getIsBlocked())) {
+                alreadyBlocked++;
+            } else {
+                toBlock.add(contact.getFriendId());
+            }
+        }
+        
+        if (!toBlock.isEmpty()) {
+            contactRepository.updateBlocked(userId, toBlock, true);
+            eventPublisher.publishEvent(new ContactBatchEvent(this, userId, toBlock, ContactBatchEvent.Type.BLOCK));
+        }
+        
+        log.info("批量拉黑联系人完成: userId={}, 新拉黑={}, 已拉黑={}", userId, toBlock.size(), alreadyBlocked);
+        return toBlock.size() + alreadyBlocked;
+    }
+
+    // ==================== 私有辅助方法 ====================
+
+    /**
+     * 批量操作的好友ID去重并去掉空值和自己，超过上限时拒绝整批
+     */
+    private List<Long> normalizeBatch(Long userId, List<Long> friendIds) {
+        if (userId == null || friendIds == null || friendIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        Set<Long> distinct = new LinkedHashSet<>(friendIds);
+        distinct.remove(null);
+        distinct.remove(userId);
+        
+        int maxBatchSize = relationshipConfig.getContact().getMaxBatchSize();
+        if (distinct.size() > maxBatchSize) {
+            throw new ContactException("BATCH_TOO_LARGE",
+                    String.format("单次最多操作%d个联系人，当前为%d个", maxBatchSize, distinct.size()));
+        }
+        return new ArrayList<>(distinct);
     }
-}
\ No newline at end of file
+}
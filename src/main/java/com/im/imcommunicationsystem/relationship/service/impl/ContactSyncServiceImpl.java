@@ -0,0 +1,320 @@
+package com.im.imcommunicationsystem.relationship.service.impl;
+
+import com.im.imcommunicationsystem.auth.entity.User;
+import com.im.imcommunicationsystem.auth.repository.UserRepository;
+import com.im.imcommunicationsystem.common.utils.PrefixIndex;
+import com.im.imcommunicationsystem.relationship.config.RelationshipConfig;
+import com.im.imcommunicationsystem.relationship.dto.response.ContactResponse;
+import com.im.imcommunicationsystem.relationship.dto.response.ContactSyncResponse;
+import com.im.imcommunicationsystem.relationship.dto.response.ContactTagResponse;
+import com.im.imcommunicationsystem.relationship.entity.Contact;
+import com.im.imcommunicationsystem.relationship.repository.ContactChangeLogRepository;
+import com.im.imcommunicationsystem.relationship.repository.ContactRepository;
+import com.im.imcommunicationsystem.relationship.repository.ContactSyncVersionRepository;
+import com.im.imcommunicationsystem.relationship.service.ContactSyncService;
+import com.im.imcommunicationsystem.relationship.service.ContactTagAssignmentService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 联系人同步服务实现类
+ * 快照在一个只读事务内加载：先读版本号，再用一次 findByUserId、一次 findAllById 和一次批量标签查询组装，
+ * 因此快照内容与版本号一致。读取时只需比较数据库中的版本号，其他实例上的变更同样能使快照失效。
+ * 快照中的联系人对象被多个请求共享，返回给调用方的都是副本
+ */
+@Service
+@Slf4j
+public class ContactSyncServiceImpl implements ContactSyncService {
+
+    private static final int PRUNE_BATCH_SIZE = 5000;
+
+    private final ContactRepository contactRepository;
+    private final UserRepository userRepository;
+    private final ContactTagAssignmentService contactTagAssignmentService;
+    private final ContactChangeLogRepository changeLogRepository;
+    private final ContactSyncVersionRepository versionRepository;
+    private final RelationshipConfig relationshipConfig;
+    private final Map<Long, Snapshot> snapshots;
+
+    public ContactSyncServiceImpl(ContactRepository contactRepository, UserRepository userRepository,
+                                  ContactTagAssignmentService contactTagAssignmentService,
+                                  ContactChangeLogRepository changeLogRepository,
+                                  ContactSyncVersionRepository versionRepository,
+                                  RelationshipConfig relationshipConfig) {
+        this.contactRepository = contactRepository;
+        this.userRepository = userRepository;
+        this.contactTagAssignmentService = contactTagAssignmentService;
+        this.changeLogRepository = changeLogRepository;
+        this.versionRepository = versionRepository;
+        this.relationshipConfig = relationshipConfig;
+        int maxEntries = relationshipConfig.getCache().getContactSnapshotMaxUsers();
+        this.snapshots = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Snapshot> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ContactResponse> getContacts(Long userId, boolean includeBlocked) {
+        Snapshot snapshot = snapshotOf(userId);
+        List<ContactResponse> result = new ArrayList<>(snapshot.contacts.size());
+        for (ContactResponse contact : snapshot.contacts) {
+            if (includeBlocked || !Boolean.TRUE.equals(contact.getIsBlocked())) {
+                result.add(copyOf(contact));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ContactSyncResponse syncContacts(Long userId, Long sinceVersion) {
+        Snapshot snapshot = snapshotOf(userId);
+        long current = snapshot.version;
+
+        if (sinceVersion == null || sinceVersion < 0 || sinceVersion > current) {
+            return fullSync(snapshot);
+        }
+        if (sinceVersion == current) {
+            return ContactSyncResponse.builder()
+                    .version(current)
+                    .fullSync(false)
+                    .contacts(new ArrayList<>())
+                    .deletedFriendIds(new ArrayList<>())
+                    .build();
+        }
+
+        // 客户端版本之后的变更已被清理时无法给出完整增量
+        Long minId = changeLogRepository.findMinId();
+        if (minId == null || sinceVersion + 1 < minId) {
+            log.debug("联系人变更日志已清理，改为全量同步: userId={}, sinceVersion={}, minId={}", userId, sinceVersion, minId);
+            return fullSync(snapshot);
+        }
+
+        int maxChanges = relationshipConfig.getContact().getSyncMaxChanges();
+        List<Long> changed = changeLogRepository.findChangedFriendIds(userId, sinceVersion, PageRequest.of(0, maxChanges + 1));
+        if (changed.size() > maxChanges) {
+            return fullSync(snapshot);
+        }
+
+        List<ContactResponse> upserts = new ArrayList<>();
+        List<Long> deleted = new ArrayList<>();
+        for (Long friendId : new LinkedHashSet<>(changed)) {
+            ContactResponse contact = snapshot.byFriendId.get(friendId);
+            if (contact != null) {
+                upserts.add(copyOf(contact));
+            } else {
+                deleted.add(friendId);
+            }
+        }
+
+        log.debug("联系人增量同步: userId={}, sinceVersion={}, version={}, upserts={}, deleted={}",
+                userId, sinceVersion, current, upserts.size(), deleted.size());
+        return ContactSyncResponse.builder()
+                .version(current)
+                .fullSync(false)
+                .contacts(upserts)
+                .deletedFriendIds(deleted)
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ContactResponse> searchContacts(Long userId, String keyword) {
+        Snapshot snapshot = snapshotOf(userId);
+        int limit = relationshipConfig.getContact().getSearchMaxResults();
+
+        // 已拉黑的联系人在排序后的结果中过滤，因此不在索引查询时截断
+        List<ContactResponse> result = new ArrayList<>();
+        for (Integer position : snapshot.nameIndex().search(keyword, snapshot.contacts.size())) {
+            ContactResponse contact = snapshot.contacts.get(position);
+            if (!Boolean.TRUE.equals(contact.getIsBlocked())) {
+                result.add(copyOf(contact));
+                if (result.size() >= limit) {
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public int pruneChangeLog() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(relationshipConfig.getContact().getChangeLogRetentionDays());
+
+        // 按ID确定边界：早于边界的变更全部删除，保证"最小保留ID"之前没有残留
+        Long boundary = changeLogRepository.findFirstIdSince(cutoff);
+        if (boundary == null) {
+            Long maxId = changeLogRepository.findMaxId();
+            if (maxId == null) {
+                return 0;
+            }
+            boundary = maxId + 1;
+        }
+
+        int total = 0;
+        int deleted;
+        do {
+            deleted = changeLogRepository.deleteBatchBefore(boundary, PRUNE_BATCH_SIZE);
+            total += deleted;
+        } while (deleted >= PRUNE_BATCH_SIZE);
+
+        log.info("清理联系人变更日志完成: boundary={}, deleted={}", boundary, total);
+        return total;
+    }
+
+    // ==================== 私有辅助方法 ====================
+
+    private ContactSyncResponse fullSync(Snapshot snapshot) {
+        List<ContactResponse> contacts = new ArrayList<>(snapshot.contacts.size());
+        for (ContactResponse contact : snapshot.contacts) {
+            contacts.add(copyOf(contact));
+        }
+        return ContactSyncResponse.builder()
+                .version(snapshot.version)
+                .fullSync(true)
+                .contacts(contacts)
+                .deletedFriendIds(new ArrayList<>())
+                .build();
+    }
+
+    /**
+     * 复制快照中的联系人，调用方修改返回对象（如补充在线状态）不影响快照
+     */
+    private static ContactResponse copyOf(ContactResponse contact) {
+        List<ContactTagResponse> tags = null;
+        if (contact.getTags() != null) {
+            tags = new ArrayList<>(contact.getTags().size());
+            for (ContactTagResponse tag : contact.getTags()) {
+                ContactTagResponse copy = new ContactTagResponse();
+                copy.setTagId(tag.getTagId());
+                copy.setUserId(tag.getUserId());
+                copy.setName(tag.getName());
+                copy.setColor(tag.getColor());
+                copy.setCreatedAt(tag.getCreatedAt());
+                copy.setContactCount(tag.getContactCount());
+                copy.setIsDefault(tag.getIsDefault());
+                copy.setSortOrder(tag.getSortOrder());
+                tags.add(copy);
+            }
+        }
+        return contact.toBuilder().tags(tags).build();
+    }
+
+    private Snapshot snapshotOf(Long userId) {
+        Long stored = versionRepository.findVersion(userId);
+        long version = stored != null ? stored : 0L;
+
+        Snapshot cached = snapshots.get(userId);
+        long maxAgeMillis = relationshipConfig.getCache().getExpireSeconds() * 1000L;
+        if (cached != null && cached.version == version
+                && System.currentTimeMillis() - cached.loadedAt <= maxAgeMillis) {
+            return cached;
+        }
+
+        Snapshot loaded = load(userId, version);
+        snapshots.put(userId, loaded);
+        return loaded;
+    }
+
+    /**
+     * 加载联系人快照：联系人、好友用户信息、标签各一次批量查询
+     */
+    private Snapshot load(Long userId, long version) {
+        List<Contact> contacts = contactRepository.findByUserId(userId);
+        if (contacts.isEmpty()) {
+            return new Snapshot(version, Collections.emptyList());
+        }
+
+        List<Long> friendIds = new ArrayList<>(contacts.size());
+        for (Contact contact : contacts) {
+            friendIds.add(contact.getFriendId());
+        }
+
+        Map<Long, User> friends = new HashMap<>();
+        for (User user : userRepository.findAllById(friendIds)) {
+            friends.put(user.getId(), user);
+        }
+        Map<Long, List<ContactTagResponse>> tagsByFriend = contactTagAssignmentService.getBatchContactTags(userId, friendIds);
+
+        List<ContactResponse> responses = new ArrayList<>(contacts.size());
+        for (Contact contact : contacts) {
+            User friend = friends.get(contact.getFriendId());
+            if (friend == null) {
+                log.warn("未找到好友用户: friendId={}", contact.getFriendId());
+                continue;
+            }
+            List<ContactTagResponse> tags = tagsByFriend.getOrDefault(contact.getFriendId(), Collections.emptyList());
+            responses.add(ContactResponse.builder()
+                    .userId(userId)
+                    .friendId(friend.getId())
+                    .friendUsername(friend.getEmail())
+                    .nickname(friend.getNickname())
+                    .avatarUrl(friend.getAvatarUrl())
+                    .alias(contact.getAlias())
+                    .isBlocked(contact.getIsBlocked())
+                    .addedAt(contact.getCreatedAt())
+                    .lastContactTime(contact.getCreatedAt())
+                    .tags(tags)
+                    .tagCount(tags.size())
+                    .build());
+        }
+
+        log.debug("加载联系人快照: userId={}, version={}, contacts={}", userId, version, responses.size());
+        return new Snapshot(version, responses);
+    }
+
+    /**
+     * 用户联系人列表快照（加载后不再修改，名称索引在首次搜索时构建）
+     */
+    private static final class Snapshot {
+        private final long version;
+        private final long loadedAt;
+        private final List<ContactResponse> contacts;
+        private final Map<Long, ContactResponse> byFriendId;
+        private volatile PrefixIndex nameIndex;
+
+        private Snapshot(long version, List<ContactResponse> contacts) {
+            this.version = version;
+            this.loadedAt = System.currentTimeMillis();
+            this.contacts = Collections.unmodifiableList(contacts);
+            Map<Long, ContactResponse> index = new HashMap<>(contacts.size() * 2);
+            for (ContactResponse contact : contacts) {
+                index.put(contact.getFriendId(), contact);
+            }
+            this.byFriendId = index;
+        }
+
+        /**
+         * 备注名和昵称的前缀索引，索引编号为联系人在列表中的位置；并发构建时结果相同，无需加锁
+         */
+        private PrefixIndex nameIndex() {
+            PrefixIndex built = nameIndex;
+            if (built == null) {
+                PrefixIndex.Builder builder = PrefixIndex.builder();
+                for (int i = 0; i < contacts.size(); i++) {
+                    builder.add(i, contacts.get(i).getAlias());
+                    builder.add(i, contacts.get(i).getNickname());
+                }
+                built = builder.build();
+                nameIndex = built;
+            }
+            return built;
+        }
+    }
+}
@@ -14,13 +14,13 @@ import com.im.imcommunicationsystem.relationship.repository.ContactRepository;
 import com.im.imcommunicationsystem.relationship.repository.ContactTagAssignmentRepository;
 import com.im.imcommunicationsystem.relationship.repository.ContactTagRepository;
 import com.im.imcommunicationsystem.relationship.service.ContactTagAssignmentService;
+import com.im.imcommunicationsystem.relationship.sync.ContactChangeTracker;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.*;
 import java.util.stream.Collectors;
-import java.util.Optional;
 
 /**
  * 联系人标签分配服务实现类
@@ -34,6 +34,7 @@ public class ContactTagAssignmentServiceImpl implements ContactTagAssignmentServ
     private final ContactTagRepository contactTagRepository;
     private final UserRepository userRepository;
     private final ContactRepository contactRepository;
+    private final ContactChangeTracker contactChangeTracker;
 
     @Override
     public List<ContactTagAssignmentResponse> assignTagsToContact(ContactTagAssignRequest request) {
@@ -73,6 +74,9 @@ public class ContactTagAssignmentServiceImpl implements ContactTagAssignmentServ
             }
         }
 
+        if (!responses.isEmpty()) {
+            contactChangeTracker.recordChange(request.getUserId(), request.getFriendId());
+        }
         return responses;
     }
 
@@ -90,6 +94,9 @@ public class ContactTagAssignmentServiceImpl implements ContactTagAssignmentServ
             }
         }
 
+        if (removedCount > 0) {
+            contactChangeTracker.recordChange(userId, friendId);
+        }
         return removedCount;
     }
 
@@ -157,10 +164,12 @@ public class ContactTagAssignmentServiceImpl implements ContactTagAssignmentServ
             result.put(friendId, new ArrayList<>());
         }
 
+        // 同一标签只转换一次（转换时会统计标签使用次数）
+        Map<Long, ContactTagResponse> tagResponses = new HashMap<>();
         for (ContactTagAssignment assignment : assignments) {
             ContactTag tag = tagMap.get(assignment.getTagId());
             if (tag != null) {
-                ContactTagResponse tagResponse = convertTagToResponse(tag);
+                ContactTagResponse tagResponse = tagResponses.computeIfAbsent(tag.getId(), id -> convertTagToResponse(tag));
                 result.get(assignment.getFriendId()).add(tagResponse);
             }
         }
@@ -220,11 +229,20 @@ public class ContactTagAssignmentServiceImpl implements ContactTagAssignmentServ
         
         if (!assignments.isEmpty()) {
             assignmentRepository.deleteAll(assignments);
+            contactChangeTracker.recordChange(userId, friendId);
         }
         
         return assignments.size();
     }
 
+    @Override
+    public int batchClearContactTags(Long userId, Collection<Long> friendIds) {
+        if (friendIds == null || friendIds.isEmpty()) {
+            return 0;
+        }
+        return assignmentRepository.deleteByUserIdAndFriendIdIn(userId, friendIds);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public long getTagUsageCount(Long userId, Long tagId) {
@@ -318,27 +336,21 @@ public class ContactTagAssignmentServiceImpl implements ContactTagAssignmentServ
             return new ArrayList<>();
         }
 
-        // 获取联系人详细信息
+        // 批量获取联系人关系、好友用户信息和标签
+        List<Contact> relations = contactRepository.findByUserIdAndFriendIdIn(userId, contactIds);
+        Map<Long, User> friends = userRepository.findAllById(contactIds)
+                .stream()
+                .collect(Collectors.toMap(User::getId, user -> user));
+        Map<Long, List<ContactTagResponse>> tagsByFriend = getBatchContactTags(userId, contactIds);
+
         List<ContactResponse> contacts = new ArrayList<>();
-        for (Long contactId : contactIds) {
-            // 查找联系人关系
-            Optional<Contact> contactOpt = contactRepository.findByUserIdAndFriendId(userId, contactId);
-            if (contactOpt.isEmpty()) {
+        for (Contact contact : relations) {
+            User friend = friends.get(contact.getFriendId());
+            if (friend == null) {
                 continue;
             }
             
-            Contact contact = contactOpt.get();
-            
-            // 查找好友用户信息
-            Optional<User> friendUserOpt = userRepository.findById(contactId);
-            if (friendUserOpt.isEmpty()) {
-                continue;
-            }
-            
-            User friend = friendUserOpt.get();
-            
-            // 获取联系人的标签信息
-            List<ContactTagResponse> tags = getContactTags(userId, contactId);
+            List<ContactTagResponse> tags = tagsByFriend.getOrDefault(contact.getFriendId(), new ArrayList<>());
             
             ContactResponse response = ContactResponse.builder()
                     .userId(userId)
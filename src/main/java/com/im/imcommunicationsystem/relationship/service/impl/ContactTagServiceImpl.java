@@ -4,10 +4,12 @@ import com.im.imcommunicationsystem.relationship.dto.request.ContactTagCreateReq
 import com.im.imcommunicationsystem.relationship.dto.request.ContactTagUpdateRequest;
 import com.im.imcommunicationsystem.relationship.dto.response.ContactTagResponse;
 import com.im.imcommunicationsystem.relationship.entity.ContactTag;
+import com.im.imcommunicationsystem.relationship.entity.ContactTagAssignment;
 import com.im.imcommunicationsystem.relationship.exception.ContactTagException;
 import com.im.imcommunicationsystem.relationship.repository.ContactTagRepository;
 import com.im.imcommunicationsystem.relationship.repository.ContactTagAssignmentRepository;
 import com.im.imcommunicationsystem.relationship.service.ContactTagService;
+import com.im.imcommunicationsystem.relationship.sync.ContactChangeTracker;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -28,6 +30,7 @@ public class ContactTagServiceImpl implements ContactTagService {
 
     private final ContactTagRepository contactTagRepository;
     private final ContactTagAssignmentRepository contactTagAssignmentRepository;
+    private final ContactChangeTracker contactChangeTracker;
 
     // 默认标签颜色列表
     private static final List<String> DEFAULT_COLORS = Arrays.asList(
@@ -85,6 +88,7 @@ public class ContactTagServiceImpl implements ContactTagService {
 
         // 保存更新
         ContactTag updatedTag = contactTagRepository.save(contactTag);
+        recordTaggedContactsChanged(userId, tagId);
 
         return convertToResponse(updatedTag);
     }
@@ -103,6 +107,7 @@ public class ContactTagServiceImpl implements ContactTagService {
 
         try {
             // 先删除所有相关的标签分配
+            recordTaggedContactsChanged(userId, tagId);
             contactTagAssignmentRepository.deleteByTagId(tagId);
             
             // 删除标签
@@ -198,6 +203,7 @@ public class ContactTagServiceImpl implements ContactTagService {
             try {
                 if (validateTagPermission(tagId, userId)) {
                     // 删除标签分配
+                    recordTaggedContactsChanged(userId, tagId);
                     contactTagAssignmentRepository.deleteByTagId(tagId);
                     // 删除标签
                     contactTagRepository.deleteById(tagId);
@@ -298,6 +304,17 @@ public class ContactTagServiceImpl implements ContactTagService {
         return response;
     }
 
+    /**
+     * 标签名称、颜色变化或标签被删除时，为使用该标签的联系人记录变更
+     */
+    private void recordTaggedContactsChanged(Long userId, Long tagId) {
+        List<Long> friendIds = contactTagAssignmentRepository.findByUserIdAndTagId(userId, tagId)
+                .stream()
+                .map(ContactTagAssignment::getFriendId)
+                .collect(Collectors.toList());
+        contactChangeTracker.recordChanges(userId, friendIds);
+    }
+
     /**
      * 获取随机默认颜色
      */
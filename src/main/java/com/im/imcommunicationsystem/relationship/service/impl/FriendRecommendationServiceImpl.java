@@ -0,0 +1,380 @@
+package com.im.imcommunicationsystem.relationship.service.impl;
+
+import com.im.imcommunicationsystem.auth.entity.User;
+import com.im.imcommunicationsystem.auth.repository.UserRepository;
+import com.im.imcommunicationsystem.common.utils.LongHashSet;
+import com.im.imcommunicationsystem.relationship.config.RelationshipConfig;
+import com.im.imcommunicationsystem.relationship.dto.response.FriendRecommendationResponse;
+import com.im.imcommunicationsystem.relationship.entity.ContactRequest;
+import com.im.imcommunicationsystem.relationship.entity.FriendRecommendation;
+import com.im.imcommunicationsystem.relationship.entity.FriendRecommendationState;
+import com.im.imcommunicationsystem.relationship.enums.ContactRequestStatus;
+import com.im.imcommunicationsystem.relationship.repository.ContactRepository;
+import com.im.imcommunicationsystem.relationship.repository.ContactRequestRepository;
+import com.im.imcommunicationsystem.relationship.repository.FriendRecommendationRepository;
+import com.im.imcommunicationsystem.relationship.repository.FriendRecommendationStateRepository;
+import com.im.imcommunicationsystem.relationship.service.ContactSearchService;
+import com.im.imcommunicationsystem.relationship.service.FriendRecommendationService;
+import com.im.imcommunicationsystem.relationship.service.SocialGraphService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * 好友推荐服务实现类
+ * 二度好友及共同好友数通过对各好友的有序邻接数组做多路归并得到：
+ * 同一候选在归并中连续出现的次数即为共同好友数，只保留前K个，内存占用与好友的好友总数成正比，
+ * 数据库侧只有按主键顺序读取的邻接查询，不做 contacts 自连接
+ */
+@Service
+@Slf4j
+public class FriendRecommendationServiceImpl implements FriendRecommendationService {
+
+    private final ContactRepository contactRepository;
+    private final ContactRequestRepository contactRequestRepository;
+    private final FriendRecommendationRepository recommendationRepository;
+    private final FriendRecommendationStateRepository stateRepository;
+    private final UserRepository userRepository;
+    private final ContactSearchService contactSearchService;
+    private final SocialGraphService socialGraphService;
+    private final RelationshipConfig relationshipConfig;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * 标记待重算使用独立事务，推荐表写入失败不影响好友关系变更本身
+     */
+    private final TransactionTemplate requiresNewTemplate;
+
+    public FriendRecommendationServiceImpl(ContactRepository contactRepository,
+                                           ContactRequestRepository contactRequestRepository,
+                                           FriendRecommendationRepository recommendationRepository,
+                                           FriendRecommendationStateRepository stateRepository,
+                                           UserRepository userRepository,
+                                           ContactSearchService contactSearchService,
+                                           SocialGraphService socialGraphService,
+                                           RelationshipConfig relationshipConfig,
+                                           PlatformTransactionManager transactionManager) {
+        this.contactRepository = contactRepository;
+        this.contactRequestRepository = contactRequestRepository;
+        this.recommendationRepository = recommendationRepository;
+        this.stateRepository = stateRepository;
+        this.userRepository = userRepository;
+        this.contactSearchService = contactSearchService;
+        this.socialGraphService = socialGraphService;
+        this.relationshipConfig = relationshipConfig;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.requiresNewTemplate = new TransactionTemplate(transactionManager);
+        this.requiresNewTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public List<FriendRecommendationResponse> getRecommendations(Long userId, int limit) {
+        RelationshipConfig.Recommendation config = relationshipConfig.getRecommendation();
+        int size = Math.max(1, Math.min(limit, config.getTopK()));
+
+        Optional<FriendRecommendationState> state = stateRepository.findById(userId);
+        if (state.isEmpty() || state.get().getComputedAt() == null) {
+            recompute(userId);
+        }
+
+        List<FriendRecommendation> rows = recommendationRepository.findTopByUserId(userId, PageRequest.of(0, config.getTopK()));
+        if (rows.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<Long> candidateIds = new ArrayList<>(rows.size());
+        for (FriendRecommendation row : rows) {
+            candidateIds.add(row.getCandidateId());
+        }
+        Map<Long, User> users = new HashMap<>();
+        for (User user : userRepository.findAllById(candidateIds)) {
+            users.put(user.getId(), user);
+        }
+        Set<Long> requested = new LinkedHashSet<>();
+        for (ContactRequest request : contactRequestRepository.findByRequesterIdAndStatus(userId, ContactRequestStatus.PENDING)) {
+            requested.add(request.getRecipientId());
+        }
+
+        // 物化结果可能落后于关系变更，返回前按当前状态再过滤一次
+        List<FriendRecommendationResponse> responses = new ArrayList<>(size);
+        for (FriendRecommendation row : rows) {
+            Long candidateId = row.getCandidateId();
+            User user = users.get(candidateId);
+            if (user == null || requested.contains(candidateId) || !isRecommendable(user)
+                    || socialGraphService.hasContact(userId, candidateId)
+                    || socialGraphService.hasContact(candidateId, userId)) {
+                continue;
+            }
+            responses.add(FriendRecommendationResponse.builder()
+                    .userId(user.getId())
+                    .userIdString(user.getUserIdStr())
+                    .nickname(user.getNickname())
+                    .avatarUrl(user.getAvatarUrl())
+                    .signature(user.getSignature())
+                    .mutualFriendCount(row.getMutualCount())
+                    .build());
+            if (responses.size() >= size) {
+                break;
+            }
+        }
+        return responses;
+    }
+
+    @Override
+    public int recompute(Long userId) {
+        RelationshipConfig.Recommendation config = relationshipConfig.getRecommendation();
+        LocalDateTime startedAt = LocalDateTime.now();
+
+        // 排除集合：本人、已有联系人（含拉黑）、把本人加为联系人的用户、待处理的好友请求双方
+        List<Object[]> own = contactRepository.findAdjacencyByUserId(userId);
+        LongHashSet excluded = new LongHashSet(own.size() + 16);
+        excluded.add(userId);
+        List<Long> friends = new ArrayList<>(own.size());
+        for (Object[] row : own) {
+            Long friendId = (Long) row[0];
+            excluded.add(friendId);
+            if (!Boolean.TRUE.equals(row[1])) {
+                friends.add(friendId);
+            }
+        }
+        for (Long id : contactRepository.findUserIdsByFriendId(userId)) {
+            excluded.add(id);
+        }
+        for (ContactRequest request : contactRequestRepository.findByRequesterIdAndStatus(userId, ContactRequestStatus.PENDING)) {
+            excluded.add(request.getRecipientId());
+        }
+        for (ContactRequest request : contactRequestRepository.findByRecipientIdAndStatus(userId, ContactRequestStatus.PENDING)) {
+            excluded.add(request.getRequesterId());
+        }
+
+        Collections.sort(friends);
+        if (friends.size() > config.getMaxFriendsScanned()) {
+            friends = friends.subList(0, config.getMaxFriendsScanned());
+        }
+
+        List<long[]> adjacency = loadSortedAdjacency(friends, config.getBatchSize());
+        List<long[]> top = selectRecommendable(adjacency, excluded, config.getTopK(), config.getMinMutualFriends());
+
+        LocalDateTime computedAt = LocalDateTime.now();
+        List<FriendRecommendation> recommendations = new ArrayList<>(top.size());
+        for (long[] candidate : top) {
+            recommendations.add(FriendRecommendation.builder()
+                    .userId(userId)
+                    .candidateId(candidate[0])
+                    .mutualCount((int) candidate[1])
+                    .computedAt(computedAt)
+                    .build());
+        }
+
+        // DATETIME 精度为秒，开始时间向前取整一秒，同一秒内的标记一律保留待重算
+        LocalDateTime markedBefore = startedAt.minusSeconds(1);
+        transactionTemplate.executeWithoutResult(status -> {
+            recommendationRepository.deleteByUserId(userId);
+            recommendationRepository.saveAll(recommendations);
+            stateRepository.markComputed(userId, computedAt, markedBefore);
+        });
+
+        log.debug("计算好友推荐: userId={}, friendsScanned={}, candidates={}", userId, friends.size(), recommendations.size());
+        return recommendations.size();
+    }
+
+    @Override
+    public int recomputeDirty() {
+        RelationshipConfig.Recommendation config = relationshipConfig.getRecommendation();
+        int batchSize = config.getBatchSize();
+        int maxUsers = config.getMaxUsersPerRun();
+
+        long lastUserId = 0L;
+        int processed = 0;
+        while (processed < maxUsers) {
+            List<Long> userIds = stateRepository.findDirtyUserIds(lastUserId,
+                    PageRequest.of(0, Math.min(batchSize, maxUsers - processed)));
+            if (userIds.isEmpty()) {
+                break;
+            }
+            lastUserId = userIds.get(userIds.size() - 1);
+
+            for (Long userId : userIds) {
+                try {
+                    recompute(userId);
+                    processed++;
+                } catch (Exception e) {
+                    log.error("计算好友推荐失败: userId={}, error={}", userId, e.getMessage(), e);
+                }
+            }
+        }
+        return processed;
+    }
+
+    @Override
+    public int markStale() {
+        LocalDateTime now = LocalDateTime.now();
+        return stateRepository.markStaleDirty(now.minusDays(relationshipConfig.getRecommendation().getStaleDays()), now);
+    }
+
+    @Override
+    public void onFriendListChanged(Long... userIds) {
+        List<Long> ids = new ArrayList<>(userIds.length);
+        for (Long userId : userIds) {
+            if (userId != null) {
+                ids.add(userId);
+            }
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        requiresNewTemplate.executeWithoutResult(status -> {
+            stateRepository.markDirty(ids, now);
+            stateRepository.markContactsOfDirty(ids, now);
+        });
+    }
+
+    // ==================== 私有辅助方法 ====================
+
+    /**
+     * 归并出前K个候选后过滤不可推荐的用户，被过滤的用户加入排除集合后重新归并，
+     * 直到前K个全部可推荐或候选已取尽，避免封禁、隐藏的用户占满名额后推荐结果不足
+     */
+    private List<long[]> selectRecommendable(List<long[]> adjacency, LongHashSet excluded, int topK, int minCount) {
+        while (true) {
+            List<long[]> top = mergeTopCandidates(adjacency, excluded, topK, minCount);
+            if (top.isEmpty()) {
+                return top;
+            }
+
+            List<Long> candidateIds = new ArrayList<>(top.size());
+            for (long[] candidate : top) {
+                candidateIds.add(candidate[0]);
+            }
+            LongHashSet recommendable = new LongHashSet(top.size());
+            for (User user : userRepository.findAllById(candidateIds)) {
+                if (isRecommendable(user)) {
+                    recommendable.add(user.getId());
+                }
+            }
+
+            List<long[]> accepted = new ArrayList<>(top.size());
+            for (long[] candidate : top) {
+                if (recommendable.contains(candidate[0])) {
+                    accepted.add(candidate);
+                } else {
+                    excluded.add(candidate[0]);
+                }
+            }
+            if (accepted.size() == top.size() || top.size() < topK) {
+                return accepted;
+            }
+        }
+    }
+
+    /**
+     * 分批加载好友的有序邻接数组（查询按 user_id, friend_id 排序，与主键顺序一致）
+     */
+    private List<long[]> loadSortedAdjacency(List<Long> userIds, int batchSize) {
+        List<long[]> result = new ArrayList<>(userIds.size());
+        for (int from = 0; from < userIds.size(); from += batchSize) {
+            List<Long> chunk = userIds.subList(from, Math.min(from + batchSize, userIds.size()));
+            List<Object[]> rows = contactRepository.findUnblockedAdjacencyByUserIds(chunk);
+
+            int i = 0;
+            while (i < rows.size()) {
+                Long owner = (Long) rows.get(i)[0];
+                int end = i;
+                while (end < rows.size() && owner.equals(rows.get(end)[0])) {
+                    end++;
+                }
+                long[] neighbours = new long[end - i];
+                for (int k = i; k < end; k++) {
+                    neighbours[k - i] = (Long) rows.get(k)[1];
+                }
+                result.add(neighbours);
+                i = end;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 多路归并有序邻接数组，统计每个候选出现的次数（即共同好友数），保留前K个
+     *
+     * @param lists 各好友的有序、无重复邻接数组
+     * @param excluded 不参与推荐的用户
+     * @param topK 保留数量
+     * @param minCount 最少共同好友数
+     * @return [候选用户ID, 共同好友数] 列表，按共同好友数降序、用户ID升序
+     */
+    static List<long[]> mergeTopCandidates(List<long[]> lists, LongHashSet excluded, int topK, int minCount) {
+        // 游标 [数组下标, 位置]，按当前元素排序
+        PriorityQueue<int[]> cursors = new PriorityQueue<>(Math.max(1, lists.size()),
+                Comparator.comparingLong(cursor -> lists.get(cursor[0])[cursor[1]]));
+        for (int i = 0; i < lists.size(); i++) {
+            if (lists.get(i).length > 0) {
+                cursors.add(new int[]{i, 0});
+            }
+        }
+
+        // 小顶堆保存当前前K个，堆顶为最弱的候选（共同好友数少、ID大）
+        Comparator<long[]> strength = Comparator.<long[]>comparingLong(candidate -> candidate[1])
+                .thenComparing(Comparator.<long[]>comparingLong(candidate -> candidate[0]).reversed());
+        PriorityQueue<long[]> best = new PriorityQueue<>(topK + 1, strength);
+
+        while (!cursors.isEmpty()) {
+            int[] head = cursors.peek();
+            long value = lists.get(head[0])[head[1]];
+            int count = 0;
+            while (!cursors.isEmpty()) {
+                int[] cursor = cursors.peek();
+                if (lists.get(cursor[0])[cursor[1]] != value) {
+                    break;
+                }
+                cursors.poll();
+                count++;
+                if (++cursor[1] < lists.get(cursor[0]).length) {
+                    cursors.add(cursor);
+                }
+            }
+
+            if (count < minCount || excluded.contains(value)) {
+                continue;
+            }
+            long[] candidate = {value, count};
+            if (best.size() < topK) {
+                best.add(candidate);
+            } else if (strength.compare(candidate, best.peek()) > 0) {
+                best.poll();
+                best.add(candidate);
+            }
+        }
+
+        long[][] sorted = best.toArray(new long[0][]);
+        Arrays.sort(sorted, strength.reversed());
+        return Arrays.asList(sorted);
+    }
+
+    /**
+     * 被封禁（未到期）或不允许被搜索的用户不出现在推荐中
+     */
+    private boolean isRecommendable(User user) {
+        boolean banned = Boolean.TRUE.equals(user.getIsBanned())
+                && (user.getBannedUntil() == null || user.getBannedUntil().isAfter(LocalDateTime.now()));
+        return !banned && contactSearchService.canBeSearched(user);
+    }
+}
@@ -0,0 +1,330 @@
+package com.im.imcommunicationsystem.relationship.service.impl;
+
+import com.im.imcommunicationsystem.common.utils.LongHashSet;
+import com.im.imcommunicationsystem.relationship.config.RelationshipConfig;
+import com.im.imcommunicationsystem.relationship.repository.ContactRepository;
+import com.im.imcommunicationsystem.relationship.service.SocialGraphService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
+
+/**
+ * 社交关系图服务实现类
+ * 每个用户的邻接表是不可变快照（联系人集合 + 拉黑集合，均为 long 开放寻址集合），
+ * 读取无锁；关系变更时复制快照后整体替换。邻接表按需加载，超过上限时按最近访问时间淘汰。
+ * 邻接表设有秒级有效期，过期后重新查询联系人和拉黑集合，其他实例上发生、本实例未收到事件的
+ * 加好友、删好友和拉黑最多延迟该时间生效（isFriend 用于发送消息前的校验）
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class SocialGraphServiceImpl implements SocialGraphService {
+
+    private final ContactRepository contactRepository;
+    private final RelationshipConfig relationshipConfig;
+
+    private final ConcurrentHashMap<Long, Adjacency> graph = new ConcurrentHashMap<>();
+
+    private static final int VERSION_STRIPES = 4096;
+
+    /**
+     * 按用户分段的关系变更版本，加载期间该用户发生过变更时不缓存加载结果，避免写入过期快照；
+     * 其他用户的变更不会影响本用户的加载
+     */
+    private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    @Override
+    public boolean isFriend(Long userId1, Long userId2) {
+        if (userId1 == null || userId2 == null || userId1.equals(userId2)) {
+            return false;
+        }
+        return adjacencyOf(userId1).contacts.contains(userId2)
+                && adjacencyOf(userId2).contacts.contains(userId1);
+    }
+
+    @Override
+    public boolean hasContact(Long userId, Long friendId) {
+        if (userId == null || friendId == null || userId.equals(friendId)) {
+            return false;
+        }
+        return adjacencyOf(userId).contacts.contains(friendId);
+    }
+
+    @Override
+    public boolean isBlocked(Long userId, Long friendId) {
+        if (userId == null || friendId == null || userId.equals(friendId)) {
+            return false;
+        }
+        return adjacencyOf(userId).blocked.contains(friendId);
+    }
+
+    @Override
+    public Set<Long> filterMutualFriends(Long userId, Collection<Long> candidateIds) {
+        Set<Long> result = new HashSet<>();
+        if (userId == null || candidateIds == null || candidateIds.isEmpty()) {
+            return result;
+        }
+
+        Adjacency mine = adjacencyOf(userId);
+        List<Long> unresolved = new ArrayList<>();
+        for (Long candidateId : candidateIds) {
+            if (candidateId == null || candidateId.equals(userId) || !mine.contacts.contains(candidateId)) {
+                continue;
+            }
+            Adjacency theirs = cachedAdjacency(candidateId);
+            if (theirs == null) {
+                unresolved.add(candidateId);
+            } else if (theirs.contacts.contains(userId)) {
+                result.add(candidateId);
+            }
+        }
+
+        // 对方邻接表未加载时，用一次批量查询确认反向关系，而不是逐个加载
+        if (!unresolved.isEmpty()) {
+            result.addAll(contactRepository.findMutualFriendIds(userId, unresolved));
+        }
+        return result;
+    }
+
+    @Override
+    public long countFriends(Long userId) {
+        if (userId == null) {
+            return 0L;
+        }
+        Adjacency adjacency = adjacencyOf(userId);
+        return adjacency.contacts.size() - adjacency.blocked.size();
+    }
+
+    @Override
+    public void onContactAdded(Long userId, Long friendId) {
+        mutate(userId, adjacency -> adjacency.withContact(friendId));
+        mutate(friendId, adjacency -> adjacency.withContact(userId));
+    }
+
+    @Override
+    public void onContactDeleted(Long userId, Long friendId) {
+        mutate(userId, adjacency -> adjacency.withoutContact(friendId));
+        mutate(friendId, adjacency -> adjacency.withoutContact(userId));
+    }
+
+    @Override
+    public void onBlockChanged(Long userId, Long friendId, boolean blocked) {
+        mutate(userId, adjacency -> adjacency.withBlocked(friendId, blocked));
+    }
+
+    @Override
+    public void onContactsChanged(Long userId, Collection<Long> friendIds, boolean added) {
+        if (friendIds == null || friendIds.isEmpty()) {
+            return;
+        }
+        mutate(userId, adjacency -> added ? adjacency.withContacts(friendIds) : adjacency.withoutContacts(friendIds));
+        for (Long friendId : friendIds) {
+            if (added) {
+                mutate(friendId, adjacency -> adjacency.withContact(userId));
+            } else {
+                mutate(friendId, adjacency -> adjacency.withoutContact(userId));
+            }
+        }
+    }
+
+    @Override
+    public void onContactsBlocked(Long userId, Collection<Long> friendIds) {
+        if (friendIds == null || friendIds.isEmpty()) {
+            return;
+        }
+        mutate(userId, adjacency -> adjacency.withBlockedAll(friendIds));
+    }
+
+    @Override
+    public void invalidate(Long userId) {
+        if (userId != null) {
+            versions.incrementAndGet(stripe(userId));
+            graph.remove(userId);
+        }
+    }
+
+    // ==================== 私有辅助方法 ====================
+
+    private Adjacency adjacencyOf(Long userId) {
+        Adjacency adjacency = cachedAdjacency(userId);
+        return adjacency != null ? adjacency : load(userId);
+    }
+
+    /**
+     * 获取仍在有效期内的邻接表，过期或未加载时返回 null，由调用方重新查询
+     */
+    private Adjacency cachedAdjacency(Long userId) {
+        Adjacency adjacency = graph.get(userId);
+        if (adjacency == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        if (now - adjacency.loadedAt > relationshipConfig.getCache().getGraphRevalidateSeconds() * 1000L) {
+            return null;
+        }
+        adjacency.lastAccess = now;
+        return adjacency;
+    }
+
+    private Adjacency load(Long userId) {
+        int stripe = stripe(userId);
+        long seen = versions.get(stripe);
+        List<Object[]> rows = contactRepository.findAdjacencyByUserId(userId);
+
+        LongHashSet contacts = new LongHashSet(rows.size());
+        LongHashSet blocked = new LongHashSet(0);
+        for (Object[] row : rows) {
+            long friendId = (Long) row[0];
+            contacts.add(friendId);
+            if (Boolean.TRUE.equals(row[1])) {
+                blocked.add(friendId);
+            }
+        }
+        long now = System.currentTimeMillis();
+        Adjacency loaded = new Adjacency(contacts, blocked, now);
+
+        // 与 mutate 在同一个键上串行：加载期间没有发生变更才缓存（替换过期的快照），
+        // 否则保留已应用变更的快照，下次访问再重新查询
+        graph.compute(userId, (id, existing) -> versions.get(stripe) == seen ? loaded : existing);
+        log.debug("加载社交关系图邻接表: userId={}, contacts={}, blocked={}", userId, contacts.size(), blocked.size());
+
+        evictIfNeeded();
+        return loaded;
+    }
+
+    /**
+     * 对已加载的邻接表应用变更；未加载的用户下次访问时会读到数据库中的最新状态
+     */
+    private void mutate(Long userId, UnaryOperator<Adjacency> change) {
+        if (userId == null) {
+            return;
+        }
+        versions.incrementAndGet(stripe(userId));
+        graph.computeIfPresent(userId, (id, adjacency) -> change.apply(adjacency));
+    }
+
+    private static int stripe(Long userId) {
+        return Long.hashCode(userId) & (VERSION_STRIPES - 1);
+    }
+
+    /**
+     * 超过上限时淘汰过期及最久未访问的邻接表，降到上限的90%
+     */
+    private void evictIfNeeded() {
+        int maxUsers = relationshipConfig.getCache().getGraphMaxUsers();
+        if (graph.size() <= maxUsers || !evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            int target = (int) (maxUsers * 0.9);
+            List<Map.Entry<Long, Adjacency>> entries = new ArrayList<>(graph.entrySet());
+            entries.sort((a, b) -> Long.compare(a.getValue().lastAccess, b.getValue().lastAccess));
+            int toRemove = graph.size() - target;
+            for (int i = 0; i < toRemove && i < entries.size(); i++) {
+                Map.Entry<Long, Adjacency> entry = entries.get(i);
+                graph.remove(entry.getKey(), entry.getValue());
+            }
+            log.debug("淘汰社交关系图邻接表: removed={}, remaining={}", toRemove, graph.size());
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * 单个用户的邻接表快照（集合不再修改，变更时整体复制替换）
+     */
+    private static final class Adjacency {
+        private final LongHashSet contacts;
+        private final LongHashSet blocked;
+        private final long loadedAt;
+        private volatile long lastAccess;
+
+        private Adjacency(LongHashSet contacts, LongHashSet blocked, long loadedAt) {
+            this.contacts = contacts;
+            this.blocked = blocked;
+            this.loadedAt = loadedAt;
+            this.lastAccess = System.currentTimeMillis();
+        }
+
+        private Adjacency withContact(long friendId) {
+            if (contacts.contains(friendId)) {
+                return this;
+            }
+            LongHashSet updated = contacts.copy();
+            updated.add(friendId);
+            return new Adjacency(updated, blocked, loadedAt);
+        }
+
+        private Adjacency withoutContact(long friendId) {
+            if (!contacts.contains(friendId) && !blocked.contains(friendId)) {
+                return this;
+            }
+            LongHashSet updatedContacts = contacts.copy();
+            updatedContacts.remove(friendId);
+            LongHashSet updatedBlocked = blocked.copy();
+            updatedBlocked.remove(friendId);
+            return new Adjacency(updatedContacts, updatedBlocked, loadedAt);
+        }
+
+        private Adjacency withContacts(Collection<Long> friendIds) {
+            LongHashSet updated = contacts.copy();
+            for (Long friendId : friendIds) {
+                if (friendId != null) {
+                    updated.add(friendId);
+                }
+            }
+            return new Adjacency(updated, blocked, loadedAt);
+        }
+
+        private Adjacency withoutContacts(Collection<Long> friendIds) {
+            LongHashSet updatedContacts = contacts.copy();
+            LongHashSet updatedBlocked = blocked.copy();
+            for (Long friendId : friendIds) {
+                if (friendId != null) {
+                    updatedContacts.remove(friendId);
+                    updatedBlocked.remove(friendId);
+                }
+            }
+            return new Adjacency(updatedContacts, updatedBlocked, loadedAt);
+        }
+
+        /**
+         * 只拉黑已在联系人集合中的好友，保持拉黑集合是联系人集合的子集
+         */
+        private Adjacency withBlockedAll(Collection<Long> friendIds) {
+            LongHashSet updated = blocked.copy();
+            for (Long friendId : friendIds) {
+                if (friendId != null && contacts.contains(friendId)) {
+                    updated.add(friendId);
+                }
+            }
+            return new Adjacency(contacts, updated, loadedAt);
+        }
+
+        private Adjacency withBlocked(long friendId, boolean isBlocked) {
+            if (blocked.contains(friendId) == isBlocked) {
+                return this;
+            }
+            LongHashSet updated = blocked.copy();
+            if (isBlocked) {
+                updated.add(friendId);
+            } else {
+                updated.remove(friendId);
+            }
+            return new Adjacency(contacts, updated, loadedAt);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.im.imcommunicationsystem.relationship.sync;
+
+import com.im.imcommunicationsystem.relationship.entity.ContactChangeLog;
+import com.im.imcommunicationsystem.relationship.repository.ContactChangeLogRepository;
+import com.im.imcommunicationsystem.relationship.repository.ContactSyncVersionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * 联系人变更记录器
+ * 在调用方事务内写入变更日志并推进版本号，与联系人本身的修改一起提交或回滚。
+ * 每个用户先锁版本行再写日志，同一用户的变更ID因此按提交顺序递增
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ContactChangeTracker {
+
+    private final ContactChangeLogRepository changeLogRepository;
+    private final ContactSyncVersionRepository versionRepository;
+
+    /**
+     * 记录用户联系人列表中某个好友发生变化
+     *
+     * @param userId 联系人列表所属用户ID
+     * @param friendId 发生变化的好友ID
+     */
+    @Transactional
+    public void recordChange(Long userId, Long friendId) {
+        if (userId == null || friendId == null) {
+            return;
+        }
+        recordChanges(userId, Set.of(friendId));
+    }
+
+    /**
+     * 记录用户联系人列表中多个好友发生变化
+     *
+     * @param userId 联系人列表所属用户ID
+     * @param friendIds 发生变化的好友ID
+     */
+    @Transactional
+    public void recordChanges(Long userId, Collection<Long> friendIds) {
+        if (userId == null || friendIds == null || friendIds.isEmpty()) {
+            return;
+        }
+
+        Set<Long> distinct = new LinkedHashSet<>(friendIds);
+        distinct.remove(null);
+        if (distinct.isEmpty()) {
+            return;
+        }
+
+        versionRepository.lock(userId);
+        long version = 0L;
+        for (Long friendId : distinct) {
+            ContactChangeLog saved = changeLogRepository.save(ContactChangeLog.builder()
+                    .userId(userId)
+                    .friendId(friendId)
+                    .build());
+            version = Math.max(version, saved.getId());
+        }
+        versionRepository.advance(userId, version);
+    }
+
+    /**
+     * 记录联系人中包含指定用户的所有用户的变更（用户资料变化时使用）
+     * 在资料更新提交后以独立事务执行，大量版本行的锁不会延长资料更新事务
+     *
+     * @param friendId 资料发生变化的用户ID
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void recordContactsOf(Long friendId) {
+        if (friendId == null) {
+            return;
+        }
+
+        versionRepository.lockContactsOf(friendId);
+        Long maxId = changeLogRepository.findMaxId();
+        int inserted = changeLogRepository.insertForContactsOf(friendId);
+        if (inserted > 0) {
+            versionRepository.advanceForContactsOf(friendId, maxId != null ? maxId : 0L);
+        }
+        log.debug("记录好友资料变更: friendId={}, affectedUsers={}", friendId, inserted);
+    }
+}
@@ -0,0 +1,34 @@
+package com.im.imcommunicationsystem.relationship.task;
+
+import com.im.imcommunicationsystem.relationship.service.ContactSyncService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 联系人变更日志清理任务
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ContactChangeLogTask {
+
+    private final ContactSyncService contactSyncService;
+
+    /**
+     * 每天凌晨3点半清理超过保留天数的变更日志
+     */
+    @Scheduled(cron = "${app.relationship.contact.change-log-prune-cron:0 30 3 * * ?}")
+    public void pruneChangeLog() {
+        log.info("开始清理联系人变更日志");
+
+        try {
+            int deleted = contactSyncService.pruneChangeLog();
+            log.info("联系人变更日志清理完成，删除记录数: {}", deleted);
+
+        } catch (Exception e) {
+            log.error("联系人变更日志清理任务执行失败", e);
+        }
+    }
+}
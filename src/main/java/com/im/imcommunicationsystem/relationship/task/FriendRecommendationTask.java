@@ -0,0 +1,58 @@
+package com.im.imcommunicationsystem.relationship.task;
+
+import com.im.imcommunicationsystem.relationship.config.RelationshipConfig;
+import com.im.imcommunicationsystem.relationship.service.FriendRecommendationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 好友推荐定时任务
+ * 周期性重算被标记的用户，并每天把推荐结果过期的用户标记为待重算
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class FriendRecommendationTask {
+
+    private final FriendRecommendationService friendRecommendationService;
+    private final RelationshipConfig relationshipConfig;
+
+    /**
+     * 默认每分钟重算一批待重算用户
+     */
+    @Scheduled(fixedDelayString = "${app.relationship.recommendation.refresh-interval-ms:60000}")
+    public void recomputeDirtyRecommendations() {
+        if (!Boolean.TRUE.equals(relationshipConfig.getRecommendation().getEnabled())) {
+            return;
+        }
+        try {
+            int processed = friendRecommendationService.recomputeDirty();
+            if (processed > 0) {
+                log.info("好友推荐重算完成，用户数: {}", processed);
+            }
+        } catch (Exception e) {
+            log.error("好友推荐重算任务执行失败", e);
+        }
+    }
+
+    /**
+     * 每天凌晨4点半标记推荐结果过期的用户
+     */
+    @Scheduled(cron = "${app.relationship.recommendation.stale-cron:0 30 4 * * ?}")
+    public void markStaleRecommendations() {
+        if (!Boolean.TRUE.equals(relationshipConfig.getRecommendation().getEnabled())) {
+            return;
+        }
+        log.info("开始标记过期的好友推荐");
+
+        try {
+            int marked = friendRecommendationService.markStale();
+            log.info("标记过期的好友推荐完成，用户数: {}", marked);
+
+        } catch (Exception e) {
+            log.error("标记过期的好友推荐任务执行失败", e);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.im.imcommunicationsystem.relationship.task;
+
+import com.im.imcommunicationsystem.relationship.config.RelationshipConfig;
+import com.im.imcommunicationsystem.relationship.search.UserDirectoryIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 用户目录索引定时任务
+ * 启动后首次执行时构建索引，之后周期性拉取其他实例上的资料变化，并每天全量重建一次
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class UserDirectoryTask {
+
+    private final UserDirectoryIndex userDirectoryIndex;
+    private final RelationshipConfig relationshipConfig;
+
+    /**
+     * 默认每30秒同步一次资料变化的用户
+     */
+    @Scheduled(fixedDelayString = "${app.relationship.search.poll-interval-ms:30000}",
+            initialDelayString = "${app.relationship.search.initial-delay-ms:10000}")
+    public void pollDirectoryChanges() {
+        if (!Boolean.TRUE.equals(relationshipConfig.getSearch().getIndexEnabled())) {
+            return;
+        }
+        try {
+            int changed = userDirectoryIndex.pollChanges();
+            if (changed > 0) {
+                log.debug("用户目录索引同步完成，变化用户数: {}", changed);
+            }
+        } catch (Exception e) {
+            log.error("用户目录索引同步任务执行失败", e);
+        }
+    }
+
+    /**
+     * 每天凌晨4点15分全量重建，合并增量覆盖层
+     */
+    @Scheduled(cron = "${app.relationship.search.rebuild-cron:0 15 4 * * ?}")
+    public void rebuildDirectoryIndex() {
+        if (!Boolean.TRUE.equals(relationshipConfig.getSearch().getIndexEnabled())) {
+            return;
+        }
+        try {
+            userDirectoryIndex.rebuild();
+        } catch (Exception e) {
+            log.error("用户目录索引重建任务执行失败", e);
+        }
+    }
+}
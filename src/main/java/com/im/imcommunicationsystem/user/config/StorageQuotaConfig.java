@@ -0,0 +1,49 @@
+package com.im.imcommunicationsystem.user.config;
+
+import com.im.imcommunicationsystem.user.entity.FileUpload;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * 用户存储配额配置类
+ * 对应 app.minio.quotas.per-user 配置
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.minio.quotas.per-user")
+@Data
+public class StorageQuotaConfig {
+
+    /**
+     * 是否在上传时强制校验配额
+     */
+    private boolean enabled = true;
+
+    /**
+     * 公开文件最大总大小
+     */
+    private DataSize publicFilesMaxSize = DataSize.ofGigabytes(1);
+
+    /**
+     * 私有文件最大总大小
+     */
+    private DataSize privateFilesMaxSize = DataSize.ofGigabytes(5);
+
+    /**
+     * 最大文件数量
+     */
+    private long maxFilesCount = 10000;
+
+    /**
+     * 获取指定访问级别的大小上限（字节）
+     *
+     * @param accessLevel 访问级别
+     * @return 大小上限
+     */
+    public long getMaxSizeBytes(FileUpload.AccessLevel accessLevel) {
+        return accessLevel != null && accessLevel.isPublic()
+                ? publicFilesMaxSize.toBytes()
+                : privateFilesMaxSize.toBytes();
+    }
+}
@@ -198,6 +198,19 @@ public class FileUpload {
     @Column(name = "metadata", columnDefinition = "TEXT")
     private String metadata;
 
+    /**
+     * 头像所属对象类型（仅头像文件有值，USER-用户头像，GROUP-群组头像）
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "avatar_owner_type", length = 20)
+    private AvatarOwnerType avatarOwnerType;
+
+    /**
+     * 头像所属对象ID（用户ID或群组ID）
+     */
+    @Column(name = "avatar_owner_id")
+    private Long avatarOwnerId;
+
     /**
      * 文件类型枚举
      */
@@ -339,6 +352,28 @@ public class FileUpload {
         }
     }
 
+    /**
+     * 头像所属对象类型枚举
+     */
+    public enum AvatarOwnerType {
+        /**
+         * 用户头像
+         */
+        USER,
+
+        /**
+         * 群组头像
+         */
+        GROUP;
+
+        /**
+         * 获取枚举值
+         */
+        public String getValue() {
+            return this.name();
+        }
+    }
+
     // ==================== 便利方法 ====================
 
     /**
@@ -440,6 +475,26 @@ public class FileUpload {
         return messageId != null;
     }
 
+    /**
+     * 检查是否为头像文件（用户头像或群组头像）
+     *
+     * @return 是否为头像文件
+     */
+    public boolean isAvatar() {
+        return avatarOwnerType != null && avatarOwnerId != null;
+    }
+
+    /**
+     * 标记为指定对象的头像
+     *
+     * @param ownerType 所属对象类型
+     * @param ownerId 所属对象ID
+     */
+    public void markAsAvatarOf(AvatarOwnerType ownerType, Long ownerId) {
+        this.avatarOwnerType = ownerType;
+        this.avatarOwnerId = ownerId;
+    }
+
     /**
      * 获取文件大小的可读格式
      * 
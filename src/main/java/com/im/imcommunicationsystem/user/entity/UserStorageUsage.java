@@ -0,0 +1,79 @@
+package com.im.imcommunicationsystem.user.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * 用户存储用量台账实体类
+ * 对应数据库表：user_storage_usage
+ * 按用户、访问级别和文件类型增量维护未删除文件的数量与总大小，
+ * 用于上传前的配额校验和文件统计，避免每次汇总file_uploads全量记录
+ */
+@Entity
+@Table(name = "user_storage_usage")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@IdClass(UserStorageUsageId.class)
+public class UserStorageUsage {
+
+    /**
+     * 用户ID（复合主键）
+     */
+    @Id
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    /**
+     * 文件访问级别（复合主键）
+     */
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "access_level", nullable = false, length = 20)
+    private FileUpload.AccessLevel accessLevel;
+
+    /**
+     * 文件类型（复合主键）
+     */
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "file_type", nullable = false, length = 20)
+    private FileUpload.FileType fileType;
+
+    /**
+     * 未删除文件数量
+     */
+    @Column(name = "file_count", nullable = false)
+    @Builder.Default
+    private Long fileCount = 0L;
+
+    /**
+     * 未删除文件总大小（字节）
+     */
+    @Column(name = "total_size", nullable = false)
+    @Builder.Default
+    private Long totalSize = 0L;
+
+    /**
+     * 更新时间
+     */
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    /**
+     * 是否计入公开文件配额
+     *
+     * @return 是否为公开文件用量
+     */
+    public boolean isPublicUsage() {
+        return accessLevel != null && accessLevel.isPublic();
+    }
+}
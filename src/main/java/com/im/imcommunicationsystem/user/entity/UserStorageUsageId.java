@@ -0,0 +1,36 @@
+package com.im.imcommunicationsystem.user.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * 用户存储用量复合主键类
+ * 用于UserStorageUsage实体的复合主键
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class UserStorageUsageId implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 用户ID
+     */
+    private Long userId;
+
+    /**
+     * 文件访问级别
+     */
+    private FileUpload.AccessLevel accessLevel;
+
+    /**
+     * 文件类型
+     */
+    private FileUpload.FileType fileType;
+}
@@ -0,0 +1,25 @@
+package com.im.imcommunicationsystem.user.event;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * 用户资料更新事件
+ * 昵称、头像等对外展示的资料变化后触发，用于通知缓存了这些资料的模块（如联系人同步）
+ */
+@Getter
+public class UserProfileUpdateEvent extends ApplicationEvent {
+
+    private final Long userId;
+
+    /**
+     * 创建用户资料更新事件
+     *
+     * @param source 事件源
+     * @param userId 用户ID
+     */
+    public UserProfileUpdateEvent(Object source, Long userId) {
+        super(source);
+        this.userId = userId;
+    }
+}
@@ -8,8 +8,10 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -306,6 +308,82 @@ public interface FileUploadRepository extends JpaRepository<FileUpload, Long> {
     @Query("SELECT f FROM FileUpload f WHERE f.bucketName = :bucketName AND f.fileTag = 'TEMPORARY' AND f.expiresAt < :currentTime AND f.isDeleted = false")
     List<FileUpload> findExpiredTemporaryFilesByBucket(@Param("bucketName") String bucketName, @Param("currentTime") LocalDateTime currentTime);
 
+    // ==================== 索引化批量扫描查询方法 ====================
+
+    /**
+     * 按ID游标分批查询过期的临时文件（未删除）
+     * 走 idx_file_tag_expires_at 索引，每批只返回 pageable 指定的条数
+     *
+     * @param currentTime 当前时间
+     * @param afterId 上一批最后一条记录的ID（首批传0）
+     * @param pageable 批大小
+     * @return 过期的临时文件列表（按ID升序）
+     */
+    @Query("SELECT f FROM FileUpload f WHERE f.fileTag = 'TEMPORARY' AND f.expiresAt < :currentTime AND f.isDeleted = false AND f.id > :afterId ORDER BY f.id ASC")
+    List<FileUpload> findExpiredTemporaryFilesAfterId(@Param("currentTime") LocalDateTime currentTime,
+                                                      @Param("afterId") Long afterId,
+                                                      Pageable pageable);
+
+    /**
+     * 按ID游标分批查询指定桶中过期的临时文件（未删除）
+     *
+     * @param bucketName 桶名称
+     * @param currentTime 当前时间
+     * @param afterId 上一批最后一条记录的ID（首批传0）
+     * @param pageable 批大小
+     * @return 过期的临时文件列表（按ID升序）
+     */
+    @Query("SELECT f FROM FileUpload f WHERE f.bucketName = :bucketName AND f.fileTag = 'TEMPORARY' AND f.expiresAt < :currentTime AND f.isDeleted = false AND f.id > :afterId ORDER BY f.id ASC")
+    List<FileUpload> findExpiredTemporaryFilesByBucketAfterId(@Param("bucketName") String bucketName,
+                                                              @Param("currentTime") LocalDateTime currentTime,
+                                                              @Param("afterId") Long afterId,
+                                                              Pageable pageable);
+
+    /**
+     * 按ID游标分批查询指定时间之前软删除的文件
+     * 走 idx_file_uploads_deleted_at 索引
+     *
+     * @param beforeTime 指定时间
+     * @param afterId 上一批最后一条记录的ID（首批传0）
+     * @param pageable 批大小
+     * @return 已删除的文件列表（按ID升序）
+     */
+    @Query("SELECT f FROM FileUpload f WHERE f.isDeleted = true AND f.deletedAt < :beforeTime AND f.id > :afterId ORDER BY f.id ASC")
+    List<FileUpload> findSoftDeletedFilesBeforeAfterId(@Param("beforeTime") LocalDateTime beforeTime,
+                                                       @Param("afterId") Long afterId,
+                                                       Pageable pageable);
+
+    /**
+     * 根据ID列表物理删除文件记录
+     *
+     * @param ids 文件ID列表
+     * @return 删除的文件数量
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM FileUpload f WHERE f.id IN :ids")
+    int physicalDeleteByIds(@Param("ids") List<Long> ids);
+
+    /**
+     * 根据头像所属对象查询头像文件（未删除）
+     * 走 idx_file_uploads_avatar_owner 索引
+     *
+     * @param avatarOwnerType 头像所属对象类型
+     * @param avatarOwnerId 头像所属对象ID
+     * @param fileTag 文件标签
+     * @return 头像文件列表
+     */
+    List<FileUpload> findByAvatarOwnerTypeAndAvatarOwnerIdAndFileTagAndIsDeletedFalse(
+        FileUpload.AvatarOwnerType avatarOwnerType, Long avatarOwnerId, FileUpload.FileTag fileTag);
+
+    /**
+     * 统计用户的全部文件记录数（包括已删除）
+     *
+     * @param userId 用户ID
+     * @return 文件记录数
+     */
+    long countByUserId(Long userId);
+
     // ==================== 消息模块特有查询方法 ====================
 
     /**
@@ -402,4 +480,52 @@ public interface FileUploadRepository extends JpaRepository<FileUpload, Long> {
      */
     @Query("SELECT f FROM FileUpload f WHERE f.conversationId = :conversationId AND f.isDeleted = false ORDER BY f.createdAt ASC")
     List<FileUpload> findAllByConversationIdAndIsDeletedFalse(@Param("conversationId") Long conversationId);
-}
\ No newline at end of file
+
+    // ==================== 存储用量对账查询方法 ====================
+
+    /**
+     * 按用户、访问级别和文件类型汇总未删除文件的数量与大小
+     *
+     * @param userIds 用户ID列表
+     * @return [userId, accessLevel, fileType, count, totalSize] 列表
+     */
+    @Query("SELECT f.userId, f.accessLevel, f.fileType, COUNT(f), COALESCE(SUM(f.fileSize), 0) FROM FileUpload f " +
+           "WHERE f.userId IN :userIds AND f.isDeleted = false GROUP BY f.userId, f.accessLevel, f.fileType")
+    List<Object[]> aggregateUsageByUserIds(@Param("userIds") List<Long> userIds);
+
+    /**
+     * 按用户ID游标分批查询拥有文件记录的用户ID
+     *
+     * @param afterUserId 上一批最后一个用户ID（首批传0）
+     * @param pageable 批大小
+     * @return 用户ID列表（升序）
+     */
+    @Query("SELECT DISTINCT f.userId FROM FileUpload f WHERE f.userId > :afterUserId ORDER BY f.userId ASC")
+    List<Long> findDistinctUserIdsAfter(@Param("afterUserId") Long afterUserId, Pageable pageable);
+
+    /**
+     * 按对象键顺序分页读取指定存储桶的文件记录（含已删除记录，用于与MinIO对象列表归并对账）
+     *
+     * @param bucketName 存储桶名称
+     * @param afterObjectKey 上一批最后一条记录的对象键（首批传空字符串）
+     * @param afterId 上一批最后一条记录的ID（首批传0）
+     * @param pageable 批大小
+     * @return 文件记录列表（按对象键、ID升序）
+     */
+    @Query("SELECT f FROM FileUpload f WHERE f.bucketName = :bucketName AND f.objectKey IS NOT NULL " +
+           "AND (f.objectKey > :afterObjectKey OR (f.objectKey = :afterObjectKey AND f.id > :afterId)) " +
+           "ORDER BY f.objectKey ASC, f.id ASC")
+    List<FileUpload> findByBucketOrderByObjectKeyAfter(@Param("bucketName") String bucketName,
+                                                       @Param("afterObjectKey") String afterObjectKey,
+                                                       @Param("afterId") Long afterId,
+                                                       Pageable pageable);
+
+    /**
+     * 查询指定存储桶中对象键在给定集合内的文件记录（含已删除记录）
+     *
+     * @param bucketName 存储桶名称
+     * @param objectKeys 对象键列表
+     * @return 文件记录列表
+     */
+    List<FileUpload> findByBucketNameAndObjectKeyIn(String bucketName, Collection<String> objectKeys);
+}
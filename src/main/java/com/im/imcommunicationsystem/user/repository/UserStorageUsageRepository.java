@@ -0,0 +1,93 @@
+package com.im.imcommunicationsystem.user.repository;
+
+import com.im.imcommunicationsystem.user.entity.UserStorageUsage;
+import com.im.imcommunicationsystem.user.entity.UserStorageUsageId;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * 用户存储用量台账Repository接口
+ */
+@Repository
+public interface UserStorageUsageRepository extends JpaRepository<UserStorageUsage, UserStorageUsageId> {
+
+    /**
+     * 查询用户的全部用量记录（最多 访问级别数 × 文件类型数 行）
+     *
+     * @param userId 用户ID
+     * @return 用量记录列表
+     */
+    List<UserStorageUsage> findByUserId(Long userId);
+
+    /**
+     * 查询并锁定用户的全部用量记录，用于配额校验时串行化同一用户的并发上传
+     *
+     * @param userId 用户ID
+     * @return 用量记录列表
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u FROM UserStorageUsage u WHERE u.userId = :userId")
+    List<UserStorageUsage> findByUserIdForUpdate(@Param("userId") Long userId);
+
+    /**
+     * 查询并锁定一批用户的全部用量记录（对账重建时使用）
+     *
+     * @param userIds 用户ID列表
+     * @return 用量记录列表
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u FROM UserStorageUsage u WHERE u.userId IN :userIds")
+    List<UserStorageUsage> findByUserIdInForUpdate(@Param("userIds") List<Long> userIds);
+
+    /**
+     * 原子地累加用量增量（记录不存在时自动创建），结果不会小于0
+     *
+     * @param userId 用户ID
+     * @param accessLevel 访问级别
+     * @param fileType 文件类型
+     * @param countDelta 文件数量增量
+     * @param sizeDelta 文件大小增量（字节）
+     * @return 影响的行数
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO user_storage_usage (user_id, access_level, file_type, file_count, total_size, updated_at) " +
+            "VALUES (:userId, :accessLevel, :fileType, GREATEST(:countDelta, 0), GREATEST(:sizeDelta, 0), NOW()) " +
+            "ON DUPLICATE KEY UPDATE file_count = GREATEST(file_count + :countDelta, 0), " +
+            "total_size = GREATEST(total_size + :sizeDelta, 0), updated_at = NOW()", nativeQuery = true)
+    int applyDelta(@Param("userId") Long userId,
+                   @Param("accessLevel") String accessLevel,
+                   @Param("fileType") String fileType,
+                   @Param("countDelta") long countDelta,
+                   @Param("sizeDelta") long sizeDelta);
+
+    /**
+     * 删除指定用户的全部用量记录（对账重建前使用）
+     *
+     * @param userIds 用户ID列表
+     * @return 删除的行数
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Transactional
+    @Query("DELETE FROM UserStorageUsage u WHERE u.userId IN :userIds")
+    int deleteByUserIdIn(@Param("userIds") List<Long> userIds);
+
+    /**
+     * 按用户ID游标分批查询台账中的用户ID
+     *
+     * @param afterUserId 上一批最后一个用户ID（首批传0）
+     * @param pageable 批大小
+     * @return 用户ID列表（升序）
+     */
+    @Query("SELECT DISTINCT u.userId FROM UserStorageUsage u WHERE u.userId > :afterUserId ORDER BY u.userId ASC")
+    List<Long> findUserIdsAfter(@Param("afterUserId") Long afterUserId, Pageable pageable);
+}
@@ -1,28 +1,75 @@
 package com.im.imcommunicationsystem.user.service;
 
+import com.im.imcommunicationsystem.common.utils.CacheUtils;
+import com.im.imcommunicationsystem.user.config.MinioConfig;
 import com.im.imcommunicationsystem.user.entity.FileUpload;
 import com.im.imcommunicationsystem.user.repository.FileUploadRepository;
 import com.im.imcommunicationsystem.user.service.impl.MinioServiceImpl;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 /**
  * 数据一致性服务
  * 用于检测和修复数据库与MinIO之间的数据不一致问题
+ * 按存储桶将有序的数据库记录与MinIO对象列表归并比对，支持检查点续扫与限速
  */
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class DataConsistencyService {
 
+    private static final String CHECKPOINT_KEY_PREFIX = "file:reconcile:checkpoint:";
+    private static final String LOCK_KEY_PREFIX = "file:reconcile:";
+    private static final long RECONCILE_LOCK_EXPIRE = 3600;
+    private static final String THUMBNAIL_SUFFIX = "_thumb";
+
     private final FileUploadRepository fileUploadRepository;
     private final MinioServiceImpl minioService;
+    private final StorageQuotaService storageQuotaService;
+    private final MinioConfig minioConfig;
+    private final CacheUtils cacheUtils;
+
+    /**
+     * 每批读取的数据库记录数与MinIO对象数
+     */
+    @Value("${app.data-consistency.reconcile.page-size:1000}")
+    private int pageSize;
+
+    /**
+     * 每秒最多扫描的对象数（数据库记录与MinIO对象合计），0表示不限速
+     */
+    @Value("${app.data-consistency.reconcile.max-objects-per-second:2000}")
+    private int maxObjectsPerSecond;
+
+    /**
+     * 增量对账单次最多扫描的对象数，达到后保存检查点退出
+     */
+    @Value("${app.data-consistency.reconcile.max-objects-per-run:200000}")
+    private long maxObjectsPerRun;
+
+    /**
+     * 结果中每类不一致项最多保留的明细条数
+     */
+    @Value("${app.data-consistency.reconcile.max-report-entries:1000}")
+    private int maxReportEntries;
 
     /**
      * 数据一致性检查结果
@@ -31,10 +78,16 @@ public class DataConsistencyService {
         private final List<String> orphanedDbRecords = new ArrayList<>();  // 数据库有记录但MinIO无文件
         private final List<String> orphanedMinioFiles = new ArrayList<>(); // MinIO有文件但数据库无记录
         private final List<String> inconsistentRecords = new ArrayList<>(); // 其他不一致情况
+        private long scannedDbRecords = 0;   // 本次扫描的数据库记录数
+        private long scannedMinioObjects = 0; // 本次扫描的MinIO对象数
+        private boolean completed = true;    // 是否已扫描完全部存储桶
         
         public List<String> getOrphanedDbRecords() { return orphanedDbRecords; }
         public List<String> getOrphanedMinioFiles() { return orphanedMinioFiles; }
         public List<String> getInconsistentRecords() { return inconsistentRecords; }
+        public long getScannedDbRecords() { return scannedDbRecords; }
+        public long getScannedMinioObjects() { return scannedMinioObjects; }
+        public boolean isCompleted() { return completed; }
         
         public boolean hasInconsistencies() {
             return !orphanedDbRecords.isEmpty() || !orphanedMinioFiles.isEmpty() || !inconsistentRecords.isEmpty();
@@ -46,105 +99,59 @@ public class DataConsistencyService {
     }
 
     /**
-     * 检查数据库与MinIO的数据一致性
+     * 检查数据库与MinIO的数据一致性（全量，不修复）
      * @return 一致性检查结果
      */
     public ConsistencyCheckResult checkDataConsistency() {
         log.info("开始执行数据一致性检查");
-        ConsistencyCheckResult result = new ConsistencyCheckResult();
-        
-        try {
-            // 获取所有未删除的文件记录
-            List<FileUpload> allFiles = fileUploadRepository.findAll().stream()
-                .filter(file -> !file.getIsDeleted())
-                .collect(Collectors.toList());
-            
-            for (FileUpload fileUpload : allFiles) {
-                try {
-                    // 检查MinIO中是否存在对应文件
-                    boolean existsInMinio = minioService.fileExists(fileUpload.getBucketName(), fileUpload.getObjectKey());
-                    
-                    if (!existsInMinio) {
-                        // 数据库有记录但MinIO无文件
-                        String record = String.format("文件ID: %d, 文件名: %s, 对象键: %s", 
-                            fileUpload.getId(), fileUpload.getOriginalName(), fileUpload.getObjectKey());
-                        result.orphanedDbRecords.add(record);
-                        log.warn("发现孤立数据库记录: {}", record);
-                    }
-                    
-                    // 检查缩略图一致性（如果存在）
-                    if (fileUpload.getThumbnailUrl() != null) {
-                        String thumbnailObjectKey = extractObjectKeyFromUrl(fileUpload.getThumbnailUrl());
-                        boolean thumbnailExists = minioService.fileExists(fileUpload.getBucketName(), thumbnailObjectKey);
-                        
-                        if (!thumbnailExists) {
-                            String record = String.format("文件ID: %d, 缩略图对象键: %s", 
-                                fileUpload.getId(), thumbnailObjectKey);
-                            result.inconsistentRecords.add("缺失缩略图: " + record);
-                            log.warn("发现缺失缩略图: {}", record);
-                        }
-                    }
-                    
-                } catch (Exception e) {
-                    log.error("检查文件一致性时发生错误，文件ID: {}", fileUpload.getId(), e);
-                    result.inconsistentRecords.add("检查失败: 文件ID " + fileUpload.getId() + ", 错误: " + e.getMessage());
-                }
-            }
-            
-            log.info("数据一致性检查完成，发现 {} 个不一致项", result.getTotalInconsistencies());
-            
-        } catch (Exception e) {
-            log.error("数据一致性检查失败", e);
-            result.inconsistentRecords.add("检查过程失败: " + e.getMessage());
-        }
-        
-        return result;
+        ReconcileRun run = new ReconcileRun(false, 0);
+        reconcile(run, null);
+        log.info("数据一致性检查完成，扫描数据库记录 {} 条、MinIO对象 {} 个，发现 {} 个不一致项",
+            run.result.scannedDbRecords, run.result.scannedMinioObjects, run.result.getTotalInconsistencies());
+        return run.result;
     }
 
     /**
-     * 修复数据一致性问题
+     * 修复数据一致性问题（全量）
+     * 检查与修复在同一次归并扫描中完成，每条修复在各自的事务中提交
      * @param repairOrphanedDbRecords 是否修复孤立的数据库记录（将其标记为已删除）
      * @return 修复结果统计
      */
-    @Transactional
     public RepairResult repairDataConsistency(boolean repairOrphanedDbRecords) {
         log.info("开始执行数据一致性修复，修复孤立数据库记录: {}", repairOrphanedDbRecords);
-        
-        RepairResult repairResult = new RepairResult();
-        ConsistencyCheckResult checkResult = checkDataConsistency();
-        
-        if (repairOrphanedDbRecords) {
-            // 修复孤立的数据库记录（标记为已删除）
-            List<FileUpload> allFiles = fileUploadRepository.findAll().stream()
-                .filter(file -> !file.getIsDeleted())
-                .collect(Collectors.toList());
-            
-            for (FileUpload fileUpload : allFiles) {
-                try {
-                    boolean existsInMinio = minioService.fileExists(fileUpload.getBucketName(), fileUpload.getObjectKey());
-                    
-                    if (!existsInMinio) {
-                        // MinIO中不存在文件，将数据库记录标记为已删除
-                        fileUpload.setIsDeleted(true);
-                        fileUpload.setDeletedAt(java.time.LocalDateTime.now());
-                        fileUploadRepository.save(fileUpload);
-                        
-                        repairResult.repairedDbRecords++;
-                        log.info("修复孤立数据库记录，文件ID: {}, 文件名: {}", 
-                            fileUpload.getId(), fileUpload.getOriginalName());
-                    }
-                    
-                } catch (Exception e) {
-                    log.error("修复文件记录时发生错误，文件ID: {}", fileUpload.getId(), e);
-                    repairResult.failedRepairs++;
-                }
-            }
-        }
-        
+        ReconcileRun run = new ReconcileRun(repairOrphanedDbRecords, 0);
+        reconcile(run, null);
         log.info("数据一致性修复完成，修复了 {} 个数据库记录，失败 {} 个", 
-            repairResult.repairedDbRecords, repairResult.failedRepairs);
-        
-        return repairResult;
+            run.repairResult.repairedDbRecords, run.repairResult.failedRepairs);
+        return run.repairResult;
+    }
+
+    /**
+     * 增量对账：从上次的检查点继续扫描，单次最多处理 maxObjectsPerRun 个对象后保存检查点退出，
+     * 全部存储桶扫描完毕后清除检查点，下一次从头开始新一轮
+     * @param repairOrphanedDbRecords 是否修复孤立的数据库记录
+     * @return 本次扫描范围内的检查结果；已有对账任务在执行时返回null
+     */
+    public ConsistencyCheckResult reconcileIncrementally(boolean repairOrphanedDbRecords) {
+        String checkpointKey = CHECKPOINT_KEY_PREFIX + (repairOrphanedDbRecords ? "repair" : "check");
+        String lockKey = LOCK_KEY_PREFIX + (repairOrphanedDbRecords ? "repair" : "check");
+        String requestId = UUID.randomUUID().toString();
+        if (!cacheUtils.tryLock(lockKey, requestId, RECONCILE_LOCK_EXPIRE)) {
+            log.info("已有增量对账任务在执行，跳过本次: {}", lockKey);
+            return null;
+        }
+
+        try {
+            ReconcileRun run = new ReconcileRun(repairOrphanedDbRecords, maxObjectsPerRun);
+            reconcile(run, checkpointKey);
+            log.info("增量对账{}，扫描数据库记录 {} 条、MinIO对象 {} 个，发现 {} 个不一致项，修复 {} 个",
+                run.result.completed ? "完成一轮" : "达到单次上限，已保存检查点",
+                run.result.scannedDbRecords, run.result.scannedMinioObjects,
+                run.result.getTotalInconsistencies(), run.repairResult.repairedDbRecords);
+            return run.result;
+        } finally {
+            cacheUtils.releaseLock(lockKey, requestId);
+        }
     }
 
     /**
@@ -225,9 +232,13 @@ public class DataConsistencyService {
         try {
             Long id = Long.parseLong(fileId);
             fileUploadRepository.findById(id).ifPresent(fileUpload -> {
+                if (fileUpload.getIsDeleted()) {
+                    return;
+                }
                 fileUpload.setIsDeleted(true);
                 fileUpload.setDeletedAt(java.time.LocalDateTime.now());
                 fileUploadRepository.save(fileUpload);
+                storageQuotaService.release(fileUpload);
                 log.info("已标记数据库记录为删除: fileId={}", fileId);
             });
         } catch (Exception e) {
@@ -265,6 +276,321 @@ public class DataConsistencyService {
         }
     }
 
+    // ==================== 归并对账 ====================
+
+    /**
+     * 一次对账执行的上下文
+     */
+    private class ReconcileRun {
+        private final boolean repair;
+        private final long objectBudget;
+        private final ConsistencyCheckResult result = new ConsistencyCheckResult();
+        private final RepairResult repairResult = new RepairResult();
+        private final long startNanos = System.nanoTime();
+        private long scanned = 0;
+
+        private ReconcileRun(boolean repair, long objectBudget) {
+            this.repair = repair;
+            this.objectBudget = objectBudget;
+        }
+
+        private boolean budgetExhausted() {
+            return objectBudget > 0 && scanned >= objectBudget;
+        }
+
+        /**
+         * 记录已扫描的对象数，超过限速时休眠
+         */
+        private void throttle(int count) {
+            scanned += count;
+            if (maxObjectsPerSecond <= 0 || count == 0) {
+                return;
+            }
+            long expectedNanos = scanned * 1_000_000_000L / maxObjectsPerSecond;
+            long sleepMillis = (expectedNanos - (System.nanoTime() - startNanos)) / 1_000_000L;
+            if (sleepMillis > 0) {
+                try {
+                    Thread.sleep(sleepMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        private void report(List<String> target, String record) {
+            if (target.size() < maxReportEntries) {
+                target.add(record);
+            }
+        }
+    }
+
+    /**
+     * 逐个存储桶归并扫描数据库记录与MinIO对象列表
+     * @param checkpointKey 检查点缓存键，为null时不读写检查点（全量扫描）
+     */
+    private void reconcile(ReconcileRun run, String checkpointKey) {
+        List<String> buckets = new ArrayList<>(new LinkedHashSet<>(Arrays.asList(minioConfig.getAllBucketNames())));
+        int bucketIndex = 0;
+        String startAfter = "";
+
+        if (checkpointKey != null) {
+            Map<Object, Object> checkpoint = cacheUtils.hGetAll(checkpointKey);
+            Object checkpointBucket = checkpoint.get("bucket");
+            if (checkpointBucket != null && buckets.contains(checkpointBucket.toString())) {
+                bucketIndex = buckets.indexOf(checkpointBucket.toString());
+                Object checkpointObjectKey = checkpoint.get("objectKey");
+                startAfter = checkpointObjectKey != null ? checkpointObjectKey.toString() : "";
+                log.info("从检查点继续对账: bucket={}, objectKey={}", checkpointBucket, startAfter);
+            }
+        }
+
+        for (; bucketIndex < buckets.size(); bucketIndex++) {
+            String bucketName = buckets.get(bucketIndex);
+            String lastKey;
+            try {
+                lastKey = reconcileBucket(run, bucketName, startAfter);
+            } catch (Exception e) {
+                log.error("存储桶对账失败: {}", bucketName, e);
+                run.report(run.result.inconsistentRecords, "检查失败: 存储桶 " + bucketName + ", 错误: " + e.getMessage());
+                lastKey = null;
+            }
+            startAfter = "";
+
+            if (lastKey != null) {
+                // 达到单次扫描上限，保存检查点后退出
+                run.result.completed = false;
+                if (checkpointKey != null) {
+                    cacheUtils.hSet(checkpointKey, "bucket", bucketName);
+                    cacheUtils.hSet(checkpointKey, "objectKey", lastKey);
+                }
+                return;
+            }
+        }
+
+        if (checkpointKey != null) {
+            cacheUtils.delete(checkpointKey);
+        }
+    }
+
+    /**
+     * 归并扫描单个存储桶
+     * 数据库记录按 (object_key, id) 分页读取，MinIO对象通过 listObjects 按字典序分页列出，
+     * 两个有序流逐项比对；只有比对不上的候选项才会做一次点查复核，
+     * 因此数据库排序规则与MinIO字节序的细微差异只会多一次复核，不会产生误报
+     * @return 因达到扫描上限而中断时返回最后处理的对象键，扫描完成返回null
+     */
+    private String reconcileBucket(ReconcileRun run, String bucketName, String startAfter) {
+        Pageable page = PageRequest.of(0, pageSize);
+        Deque<FileUpload> dbBuffer = new ArrayDeque<>();
+        Deque<String> minioBuffer = new ArrayDeque<>();
+        boolean dbExhausted = false;
+        boolean minioExhausted = false;
+        String dbAfterKey = startAfter;
+        // 从检查点恢复时跳过与检查点对象键相同的记录
+        long dbAfterId = startAfter.isEmpty() ? 0L : Long.MAX_VALUE;
+        String minioAfterKey = startAfter;
+
+        List<FileUpload> dbCandidates = new ArrayList<>();
+        List<String> minioCandidates = new ArrayList<>();
+        // 已扫描到但尚未在MinIO中匹配到的缩略图对象键 -> 所属文件记录
+        TreeMap<String, FileUpload> pendingThumbnails = new TreeMap<>();
+        String lastKey = startAfter;
+
+        while (true) {
+            if (dbBuffer.isEmpty() && !dbExhausted) {
+                List<FileUpload> rows = fileUploadRepository.findByBucketOrderByObjectKeyAfter(
+                        bucketName, dbAfterKey, dbAfterId, page);
+                if (!rows.isEmpty()) {
+                    FileUpload last = rows.get(rows.size() - 1);
+                    dbAfterKey = last.getObjectKey();
+                    dbAfterId = last.getId();
+                }
+                dbBuffer.addAll(rows);
+                dbExhausted = rows.size() < pageSize;
+                run.result.scannedDbRecords += rows.size();
+                run.throttle(rows.size());
+            }
+            if (minioBuffer.isEmpty() && !minioExhausted) {
+                List<String> keys = minioService.listObjectKeys(bucketName, minioAfterKey, pageSize);
+                if (keys == null) {
+                    throw new IllegalStateException("列出MinIO对象失败");
+                }
+                if (!keys.isEmpty()) {
+                    minioAfterKey = keys.get(keys.size() - 1);
+                }
+                minioBuffer.addAll(keys);
+                minioExhausted = keys.size() < pageSize;
+                run.result.scannedMinioObjects += keys.size();
+                run.throttle(keys.size());
+            }
+
+            FileUpload dbHead = dbBuffer.peekFirst();
+            String minioHead = minioBuffer.peekFirst();
+            if (dbHead == null && minioHead == null) {
+                break;
+            }
+
+            int cmp = dbHead == null ? 1 : minioHead == null ? -1 : dbHead.getObjectKey().compareTo(minioHead);
+            if (cmp <= 0) {
+                dbBuffer.pollFirst();
+                lastKey = dbHead.getObjectKey();
+                String thumbnailKey = thumbnailObjectKey(dbHead);
+                if (thumbnailKey != null) {
+                    pendingThumbnails.put(thumbnailKey, dbHead);
+                }
+                if (cmp < 0 && !dbHead.getIsDeleted()) {
+                    dbCandidates.add(dbHead);
+                }
+                // 同一对象键可能对应多条记录，MinIO对象留给后续相同键的记录继续匹配
+                FileUpload next = dbBuffer.peekFirst();
+                if (cmp == 0 && (next == null || !minioHead.equals(next.getObjectKey()))) {
+                    minioBuffer.pollFirst();
+                }
+            } else {
+                minioBuffer.pollFirst();
+                lastKey = minioHead;
+                if (pendingThumbnails.remove(minioHead) == null) {
+                    minioCandidates.add(minioHead);
+                }
+            }
+
+            // 已越过的缩略图仍未匹配到，转为候选项复核
+            while (!pendingThumbnails.isEmpty() && pendingThumbnails.firstKey().compareTo(lastKey) < 0
+                    && (minioHead == null || pendingThumbnails.firstKey().compareTo(minioHead) < 0)) {
+                Map.Entry<String, FileUpload> missing = pendingThumbnails.pollFirstEntry();
+                verifyMissingThumbnail(run, bucketName, missing.getKey(), missing.getValue());
+            }
+
+            if (dbCandidates.size() >= pageSize) {
+                verifyDbCandidates(run, dbCandidates);
+            }
+            if (minioCandidates.size() >= pageSize) {
+                verifyMinioCandidates(run, bucketName, minioCandidates);
+            }
+
+            if (run.budgetExhausted()) {
+                flushCandidates(run, bucketName, dbCandidates, minioCandidates, pendingThumbnails);
+                return lastKey;
+            }
+        }
+
+        flushCandidates(run, bucketName, dbCandidates, minioCandidates, pendingThumbnails);
+        return null;
+    }
+
+    private void flushCandidates(ReconcileRun run, String bucketName, List<FileUpload> dbCandidates,
+                                 List<String> minioCandidates, TreeMap<String, FileUpload> pendingThumbnails) {
+        verifyDbCandidates(run, dbCandidates);
+        verifyMinioCandidates(run, bucketName, minioCandidates);
+        for (Map.Entry<String, FileUpload> missing : pendingThumbnails.entrySet()) {
+            verifyMissingThumbnail(run, bucketName, missing.getKey(), missing.getValue());
+        }
+        pendingThumbnails.clear();
+    }
+
+    /**
+     * 复核MinIO列表中未出现的数据库记录，确认缺失后按需修复
+     */
+    private void verifyDbCandidates(ReconcileRun run, List<FileUpload> candidates) {
+        for (FileUpload fileUpload : candidates) {
+            try {
+                if (minioService.fileExists(fileUpload.getBucketName(), fileUpload.getObjectKey())) {
+                    continue;
+                }
+                // 数据库有记录但MinIO无文件
+                String record = String.format("文件ID: %d, 文件名: %s, 对象键: %s", 
+                    fileUpload.getId(), fileUpload.getOriginalName(), fileUpload.getObjectKey());
+                run.report(run.result.orphanedDbRecords, record);
+                log.warn("发现孤立数据库记录: {}", record);
+
+                if (run.repair) {
+                    // MinIO中不存在文件，将数据库记录标记为已删除
+                    fileUpload.setIsDeleted(true);
+                    fileUpload.setDeletedAt(java.time.LocalDateTime.now());
+                    fileUploadRepository.save(fileUpload);
+                    storageQuotaService.release(fileUpload);
+
+                    run.repairResult.repairedDbRecords++;
+                    log.info("修复孤立数据库记录，文件ID: {}, 文件名: {}", 
+                        fileUpload.getId(), fileUpload.getOriginalName());
+                }
+            } catch (Exception e) {
+                log.error("检查文件一致性时发生错误，文件ID: {}", fileUpload.getId(), e);
+                run.report(run.result.inconsistentRecords, "检查失败: 文件ID " + fileUpload.getId() + ", 错误: " + e.getMessage());
+                if (run.repair) {
+                    run.repairResult.failedRepairs++;
+                }
+            }
+        }
+        candidates.clear();
+    }
+
+    /**
+     * 复核数据库流中未出现的MinIO对象，批量按对象键查询确认没有对应记录
+     * 缩略图对象以其原图记录是否存在为准
+     */
+    private void verifyMinioCandidates(ReconcileRun run, String bucketName, List<String> candidates) {
+        if (candidates.isEmpty()) {
+            return;
+        }
+        Set<String> lookupKeys = new HashSet<>(candidates);
+        for (String objectKey : candidates) {
+            String originalKey = originalKeyOfThumbnail(objectKey);
+            if (originalKey != null) {
+                lookupKeys.add(originalKey);
+            }
+        }
+
+        Set<String> knownKeys = fileUploadRepository.findByBucketNameAndObjectKeyIn(bucketName, lookupKeys).stream()
+            .map(FileUpload::getObjectKey)
+            .collect(Collectors.toSet());
+
+        for (String objectKey : candidates) {
+            String originalKey = originalKeyOfThumbnail(objectKey);
+            if (knownKeys.contains(objectKey) || (originalKey != null && knownKeys.contains(originalKey))) {
+                continue;
+            }
+            // MinIO有文件但数据库无记录
+            String record = String.format("存储桶: %s, 对象键: %s", bucketName, objectKey);
+            run.report(run.result.orphanedMinioFiles, record);
+            log.warn("发现孤立MinIO文件: {}", record);
+        }
+        candidates.clear();
+    }
+
+    private void verifyMissingThumbnail(ReconcileRun run, String bucketName, String thumbnailKey, FileUpload fileUpload) {
+        if (fileUpload.getIsDeleted() || minioService.fileExists(bucketName, thumbnailKey)) {
+            return;
+        }
+        String record = String.format("文件ID: %d, 缩略图对象键: %s", fileUpload.getId(), thumbnailKey);
+        run.report(run.result.inconsistentRecords, "缺失缩略图: " + record);
+        log.warn("发现缺失缩略图: {}", record);
+    }
+
+    /**
+     * 由缩略图URL得到缩略图在同一存储桶中的对象键
+     */
+    private String thumbnailObjectKey(FileUpload fileUpload) {
+        if (!fileUpload.hasThumbnail()) {
+            return null;
+        }
+        String url = fileUpload.getThumbnailUrl();
+        String marker = "/" + fileUpload.getBucketName() + "/";
+        int index = url.indexOf(marker);
+        return index != -1 ? url.substring(index + marker.length()) : extractObjectKeyFromUrl(url);
+    }
+
+    /**
+     * 若对象键为缩略图（xxx_thumb.ext），返回原图对象键，否则返回null
+     */
+    private String originalKeyOfThumbnail(String objectKey) {
+        int index = objectKey.lastIndexOf(THUMBNAIL_SUFFIX + ".");
+        if (index == -1) {
+            return null;
+        }
+        return objectKey.substring(0, index) + objectKey.substring(index + THUMBNAIL_SUFFIX.length());
+    }
+
     /**
      * 从URL中提取对象键
      */
@@ -8,6 +8,7 @@ import io.minio.http.Method;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.InputStream;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -135,6 +136,17 @@ public interface MinioService {
      */
     boolean fileExists(String bucketName, String objectKey);
 
+    /**
+     * 按字典序分页列出存储桶中的对象键
+     * 结果与MinIO服务端的排序一致（按UTF-8字节序升序），不包含目录占位对象
+     *
+     * @param bucketName 存储桶名称
+     * @param startAfter 从该对象键之后开始列出（为空则从头开始）
+     * @param maxKeys 本次最多返回的对象数量
+     * @return 对象键列表，列出失败时返回null
+     */
+    List<String> listObjectKeys(String bucketName, String startAfter, int maxKeys);
+
     /**
      * 获取文件信息
      *
@@ -0,0 +1,81 @@
+package com.im.imcommunicationsystem.user.service;
+
+import com.im.imcommunicationsystem.user.entity.FileUpload;
+
+import java.util.Map;
+
+/**
+ * 用户存储配额服务接口
+ * 维护按用户、访问级别和文件类型划分的用量台账，在上传前执行配额校验
+ */
+public interface StorageQuotaService {
+
+    /**
+     * 校验配额并预占一个文件的用量（需在上传字节写入存储之前调用）
+     * 在独立的短事务中锁定台账并提交，上传到存储时不持有台账行锁；
+     * 上传或保存文件记录失败时由调用方调用 {@link #cancelReservation} 撤销预占
+     * 
+     * @param userId 用户ID
+     * @param accessLevel 访问级别
+     * @param fileType 文件类型
+     * @param fileSize 文件大小（字节）
+     * @throws com.im.imcommunicationsystem.user.exception.FileUploadException 超出配额时抛出
+     */
+    void reserve(Long userId, FileUpload.AccessLevel accessLevel, FileUpload.FileType fileType, long fileSize);
+
+    /**
+     * 撤销一次预占（上传或保存文件记录失败时调用），在独立事务中提交
+     * 
+     * @param userId 用户ID
+     * @param accessLevel 访问级别
+     * @param fileType 文件类型
+     * @param fileSize 预占的文件大小（字节，含已调整的大小）
+     */
+    void cancelReservation(Long userId, FileUpload.AccessLevel accessLevel, FileUpload.FileType fileType, long fileSize);
+
+    /**
+     * 调整已预占文件的大小（如图片压缩后实际大小与预占大小不同），不做配额校验
+     * 
+     * @param userId 用户ID
+     * @param accessLevel 访问级别
+     * @param fileType 文件类型
+     * @param sizeDelta 大小增量（字节，可为负）
+     */
+    void adjustSize(Long userId, FileUpload.AccessLevel accessLevel, FileUpload.FileType fileType, long sizeDelta);
+
+    /**
+     * 将文件计入用量（如恢复已删除文件），不做配额校验
+     * 
+     * @param fileUpload 文件记录
+     */
+    void charge(FileUpload fileUpload);
+
+    /**
+     * 从用量中扣除文件（软删除、物理删除未删除文件或过期清理时调用）
+     * 
+     * @param fileUpload 文件记录
+     */
+    void release(FileUpload fileUpload);
+
+    /**
+     * 获取用户的用量统计与配额信息（只读取台账，不扫描文件表）
+     * 
+     * @param userId 用户ID
+     * @return 统计信息
+     */
+    Map<String, Object> getUsageStats(Long userId);
+
+    /**
+     * 根据file_uploads重建指定用户的台账
+     * 
+     * @param userId 用户ID
+     */
+    void reconcileUser(Long userId);
+
+    /**
+     * 按用户ID游标分批重建全部用户的台账
+     * 
+     * @return 对账的用户数量
+     */
+    int reconcileAll();
+}
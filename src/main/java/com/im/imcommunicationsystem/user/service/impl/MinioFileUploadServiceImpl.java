@@ -8,8 +8,10 @@ import com.im.imcommunicationsystem.user.exception.FileUploadException;
 import com.im.imcommunicationsystem.user.repository.FileUploadRepository;
 import com.im.imcommunicationsystem.user.service.FileUploadService;
 import com.im.imcommunicationsystem.user.service.MinioService;
+import com.im.imcommunicationsystem.user.service.StorageQuotaService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Primary;
 import org.springframework.stereotype.Service;
@@ -61,6 +63,10 @@ public class MinioFileUploadServiceImpl implements FileUploadService {
     private final FileUploadConfig fileUploadConfig;
     private final FileUploadRepository fileUploadRepository;
     private final ApplicationEventPublisher eventPublisher;
+    private final StorageQuotaService storageQuotaService;
+
+    @Value("${app.file.cleanup.batch-size:500}")
+    private int cleanupBatchSize;
 
     // 支持的文件类型
     private static final Map<String, FileUpload.FileType> FILE_TYPE_MAP = new HashMap<>();
@@ -78,8 +84,8 @@ public class MinioFileUploadServiceImpl implements FileUploadService {
 
     /**
      * 上传文件到MinIO
+     * 配额预占和文件记录各自在短事务中提交，上传到MinIO时不处于事务中；失败时撤销预占
      */
-    @Transactional
     public FileUpload uploadFile(MultipartFile file, Long userId) {
         log.info("开始上传文件到MinIO，用户ID: {}, 文件名: {}", userId, file.getOriginalFilename());
 
@@ -87,6 +93,7 @@ public class MinioFileUploadServiceImpl implements FileUploadService {
             throw new FileUploadException("文件不能为空");
         }
 
+        FileUpload.FileType reservedType = null;
         try {
             // 基础验证
             validateFile(file);
@@ -102,6 +109,10 @@ public class MinioFileUploadServiceImpl implements FileUploadService {
             // 允许重复上传相同文件，通过唯一的objectKey进行区分
             log.debug("允许文件上传，文件MD5: {}, 文件名: {}", md5Hash, originalFilename);
 
+            // 上传前校验并预占存储配额
+            storageQuotaService.reserve(userId, FileUpload.AccessLevel.PRIVATE, fileType, file.getSize());
+            reservedType = fileType;
+
             // 上传到MinIO
             boolean uploadSuccess = minioService.uploadFile(bucketName, objectKey, file);
             if (!uploadSuccess) {
@@ -142,14 +153,17 @@ public class MinioFileUploadServiceImpl implements FileUploadService {
 
         } catch (Exception e) {
             log.error("文件上传失败", e);
+            if (reservedType != null) {
+                cancelReservation(userId, FileUpload.AccessLevel.PRIVATE, reservedType, file.getSize());
+            }
             throw new FileUploadException("文件上传失败: " + e.getMessage());
         }
     }
 
     /**
      * 上传图片并生成缩略图
+     * 配额预占和文件记录各自在短事务中提交，上传到MinIO时不处于事务中；失败时撤销预占
      */
-    @Transactional
     public FileUpload uploadImage(MultipartFile file, Long userId, int maxWidth, int maxHeight) {
         log.info("开始上传图片到MinIO，用户ID: {}, 最大尺寸: {}x{}", userId, maxWidth, maxHeight);
 
@@ -163,6 +177,7 @@ public class MinioFileUploadServiceImpl implements FileUploadService {
             throw new FileUploadException("不支持的图片格式，仅支持: " + IMAGE_TYPES);
         }
 
+        long reservedSize = -1;
         try {
             // 基础验证
             validateFile(file);
@@ -175,6 +190,10 @@ public class MinioFileUploadServiceImpl implements FileUploadService {
             // 允许重复上传相同图片，通过唯一的objectKey进行区分
             log.debug("允许图片上传，文件MD5: {}, 文件名: {}", md5Hash, originalFilename);
 
+            // 上传前按原始大小校验并预占存储配额，压缩后再按实际大小修正
+            storageQuotaService.reserve(userId, FileUpload.AccessLevel.PRIVATE, FileUpload.FileType.image, file.getSize());
+            reservedSize = file.getSize();
+
             // 处理图片压缩
             BufferedImage originalImage = ImageIO.read(file.getInputStream());
             if (originalImage == null) {
@@ -225,6 +244,9 @@ public class MinioFileUploadServiceImpl implements FileUploadService {
             fileUpload.setWidth(processedImage.getWidth());
             fileUpload.setHeight(processedImage.getHeight());
             fileUpload.setFileSize((long) compressedImageBytes.length);
+            storageQuotaService.adjustSize(userId, FileUpload.AccessLevel.PRIVATE, FileUpload.FileType.image,
+                    compressedImageBytes.length - originalFileSize);
+            reservedSize = compressedImageBytes.length;
 
             // 生成缩略图
             generateThumbnail(processedImage, fileUpload, fileExtension);
@@ -253,10 +275,24 @@ public class MinioFileUploadServiceImpl implements FileUploadService {
 
         } catch (Exception e) {
             log.error("图片上传失败", e);
+            if (reservedSize >= 0) {
+                cancelReservation(userId, FileUpload.AccessLevel.PRIVATE, FileUpload.FileType.image, reservedSize);
+            }
             throw new FileUploadException("图片上传失败: " + e.getMessage());
         }
     }
 
+    /**
+     * 撤销上传失败文件的配额预占，撤销失败时由定时对账修正
+     */
+    private void cancelReservation(Long userId, FileUpload.AccessLevel accessLevel, FileUpload.FileType fileType, long fileSize) {
+        try {
+            storageQuotaService.cancelReservation(userId, accessLevel, fileType, fileSize);
+        } catch (Exception e) {
+            log.error("撤销存储配额预占失败: userId={}, fileType={}, fileSize={}", userId, fileType, fileSize, e);
+        }
+    }
+
     /**
      * 删除文件
      */
@@ -282,6 +318,7 @@ public class MinioFileUploadServiceImpl implements FileUploadService {
             fileUpload.setIsDeleted(true);
             fileUpload.setDeletedAt(LocalDateTime.now());
             fileUploadRepository.save(fileUpload);
+            storageQuotaService.release(fileUpload);
             
             try {
                 // 从MinIO删除文件
@@ -375,8 +412,11 @@ public class MinioFileUploadServiceImpl implements FileUploadService {
                 }
             }
             
-            // 物理删除数据库记录
+            // 物理删除数据库记录（未软删除的文件需同时扣减用量）
             fileUploadRepository.deleteById(id);
+            if (!fileUpload.getIsDeleted()) {
+                storageQuotaService.release(fileUpload);
+            }
 
             log.info("文件物理删除成功: {}", fileId);
             
@@ -444,6 +484,7 @@ public class MinioFileUploadServiceImpl implements FileUploadService {
                 log.warn("文件恢复失败，可能已被其他操作修改: {}", fileId);
                 return false;
             }
+            storageQuotaService.charge(fileUpload);
 
             log.info("文件恢复成功: {}", fileId);
             
@@ -473,40 +514,53 @@ public class MinioFileUploadServiceImpl implements FileUploadService {
 
     /**
      * 批量物理删除过期的已删除文件
-     * 清理指定时间之前软删除的文件
+     * 清理指定时间之前软删除的文件，按ID游标分批处理，避免一次性加载全表
      */
-    @Transactional
     public int cleanupExpiredFiles(int daysBeforeNow) {
-        log.info("开始清理{}天前的已删除文件", daysBeforeNow);
+        log.info("开始清理{}天前的已删除文件，批大小: {}", daysBeforeNow, cleanupBatchSize);
         
         LocalDateTime expireTime = LocalDateTime.now().minusDays(daysBeforeNow);
-        
-        // 查询需要物理删除的文件
-        List<FileUpload> expiredFiles = fileUploadRepository.findAll().stream()
-                .filter(f -> f.getIsDeleted() && f.getDeletedAt() != null && f.getDeletedAt().isBefore(expireTime))
-                .collect(java.util.stream.Collectors.toList());
+        Pageable batch = PageRequest.of(0, cleanupBatchSize);
         
         int deletedCount = 0;
-        for (FileUpload fileUpload : expiredFiles) {
-            try {
-                // 从MinIO删除文件
-                minioService.deleteFile(fileUpload.getBucketName(), fileUpload.getObjectKey());
-                
-                // 删除缩略图（如果存在）
-                if (fileUpload.getThumbnailUrl() != null) {
-                    String thumbnailObjectKey = extractObjectKeyFromUrl(fileUpload.getThumbnailUrl());
-                    minioService.deleteFile(fileUpload.getBucketName(), thumbnailObjectKey);
+        int dbDeletedCount = 0;
+        long lastId = 0L;
+        
+        while (true) {
+            // 按ID游标查询下一批需要物理删除的文件
+            List<FileUpload> expiredFiles = fileUploadRepository.findSoftDeletedFilesBeforeAfterId(expireTime, lastId, batch);
+            if (expiredFiles.isEmpty()) {
+                break;
+            }
+            
+            List<Long> batchIds = new ArrayList<>(expiredFiles.size());
+            for (FileUpload fileUpload : expiredFiles) {
+                batchIds.add(fileUpload.getId());
+                try {
+                    // 从MinIO删除文件
+                    minioService.deleteFile(fileUpload.getBucketName(), fileUpload.getObjectKey());
+                    
+                    // 删除缩略图（如果存在）
+                    if (fileUpload.getThumbnailUrl() != null) {
+                        String thumbnailObjectKey = extractObjectKeyFromUrl(fileUpload.getThumbnailUrl());
+                        minioService.deleteFile(fileUpload.getBucketName(), thumbnailObjectKey);
+                    }
+                    
+                    deletedCount++;
+                } catch (Exception e) {
+                    log.error("清理文件时MinIO删除失败: {}", fileUpload.getId(), e);
                 }
-                
-                deletedCount++;
-            } catch (Exception e) {
-                log.error("清理文件时MinIO删除失败: {}", fileUpload.getId(), e);
+            }
+            
+            // 按批物理删除数据库记录
+            dbDeletedCount += fileUploadRepository.physicalDeleteByIds(batchIds);
+            lastId = batchIds.get(batchIds.size() - 1);
+            
+            if (expiredFiles.size() < cleanupBatchSize) {
+                break;
             }
         }
         
-        // 批量物理删除数据库记录
-        int dbDeletedCount = fileUploadRepository.physicalDeleteExpiredFiles(expireTime);
-        
         log.info("清理完成，MinIO删除: {}个文件，数据库删除: {}条记录", deletedCount, dbDeletedCount);
         return dbDeletedCount;
     }
@@ -886,22 +940,9 @@ public class MinioFileUploadServiceImpl implements FileUploadService {
     public List<FileUpload> getUserFiles(Long userId, FileUpload.FileType fileType, int page, int size) {
         log.info("开始查询用户文件 - 用户ID: {}, 文件类型: {}, 页码: {}, 大小: {}", userId, fileType, page, size);
         try {
-            // 先检查数据库中是否有任何文件记录
-            long totalCount = fileUploadRepository.count();
-            log.info("数据库中总文件记录数: {}", totalCount);
-            
-            // 检查该用户是否有任何文件记录（包括已删除的）
-            List<FileUpload> allUserFiles = fileUploadRepository.findAll().stream()
-                .filter(f -> f.getUserId().equals(userId))
-                .collect(java.util.stream.Collectors.toList());
-            log.info("用户 {} 的所有文件记录数（包括已删除）: {}", userId, allUserFiles.size());
-            
-            if (!allUserFiles.isEmpty()) {
-                for (FileUpload file : allUserFiles) {
-                    log.info("文件记录: ID={}, 原始名称={}, 是否删除={}, 文件类型={}", 
-                        file.getId(), file.getOriginalName(), file.getIsDeleted(), file.getFileType());
-                }
-            }
+            // 检查该用户是否有任何文件记录（包括已删除的），走user_id索引
+            long userFileCount = fileUploadRepository.countByUserId(userId);
+            log.debug("用户 {} 的所有文件记录数（包括已删除）: {}", userId, userFileCount);
             
             Pageable pageable = PageRequest.of(page, size);
             if (fileType != null) {
@@ -923,54 +964,13 @@ public class MinioFileUploadServiceImpl implements FileUploadService {
 
     /**
      * 获取用户文件统计信息
+     * 直接读取存储用量台账，不再加载用户的全部文件
      */
     @Override
     public Map<String, Object> getUserFileStats(Long userId) {
         try {
-            log.info("开始获取用户文件统计信息, userId: {}", userId);
-            
-            // 获取用户所有文件
-            List<FileUpload> userFiles = fileUploadRepository.findByUserIdAndIsDeletedFalse(userId);
-            log.info("查询到用户文件数量: {}", userFiles.size());
-            
-            // 打印每个文件的详细信息
-            for (FileUpload file : userFiles) {
-                log.info("文件详情: ID={}, 名称={}, 类型={}, 大小={}", 
-                    file.getId(), file.getOriginalName(), file.getFileType(), file.getFileSize());
-            }
-            
-            // 计算统计信息
-            long totalFiles = userFiles.size();
-            long totalSize = userFiles.stream().mapToLong(FileUpload::getFileSize).sum();
-            
-            // 按文件类型统计
-            Map<String, Long> typeStats = userFiles.stream()
-                    .collect(Collectors.groupingBy(
-                            file -> file.getFileType().name(),
-                            Collectors.counting()
-                    ));
-            
-            log.info("文件类型统计结果: {}", typeStats);
-            
-            // 按文件类型统计大小
-            Map<String, Long> typeSizeStats = userFiles.stream()
-                    .collect(Collectors.groupingBy(
-                            file -> file.getFileType().name(),
-                            Collectors.summingLong(FileUpload::getFileSize)
-                    ));
-            
-            // 构建返回结果
-            Map<String, Object> stats = new HashMap<>();
-            stats.put("totalFiles", totalFiles);
-            stats.put("totalSize", totalSize);
-            stats.put("typeStats", typeStats);
-            stats.put("typeSizeStats", typeSizeStats);
-            
-            log.info("最终统计结果: totalFiles={}, totalSize={}, typeStats={}", 
-                totalFiles, totalSize, typeStats);
-            
-            return stats;
-            
+            log.debug("开始获取用户文件统计信息, userId: {}", userId);
+            return storageQuotaService.getUsageStats(userId);
         } catch (Exception e) {
             log.error("获取用户文件统计信息失败, userId: {}", userId, e);
             throw new RuntimeException("获取文件统计信息失败", e);
@@ -1057,6 +1057,7 @@ public class MinioFileUploadServiceImpl implements FileUploadService {
             // 执行软删除
             fileUpload.softDelete();
             fileUploadRepository.save(fileUpload);
+            storageQuotaService.release(fileUpload);
             
             log.info("文件软删除成功 - 文件ID: {}", fileId);
             
@@ -4,6 +4,7 @@ import com.im.imcommunicationsystem.user.config.MinioConfig;
 import com.im.imcommunicationsystem.user.service.MinioService;
 import io.minio.*;
 import io.minio.http.Method;
+import io.minio.messages.Item;
 import io.minio.messages.Tags;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -12,7 +13,9 @@ import org.springframework.web.multipart.MultipartFile;
 
 import jakarta.annotation.PostConstruct;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -236,6 +239,36 @@ public class MinioServiceImpl implements MinioService {
         }
     }
 
+    @Override
+    public List<String> listObjectKeys(String bucketName, String startAfter, int maxKeys) {
+        try {
+            ListObjectsArgs.Builder builder = ListObjectsArgs.builder()
+                    .bucket(bucketName)
+                    .recursive(true)
+                    .maxKeys(maxKeys);
+            if (startAfter != null && !startAfter.isEmpty()) {
+                builder.startAfter(startAfter);
+            }
+
+            List<String> objectKeys = new ArrayList<>(maxKeys);
+            for (Result<Item> result : minioClient.listObjects(builder.build())) {
+                Item item = result.get();
+                if (item.isDir()) {
+                    continue;
+                }
+                objectKeys.add(item.objectName());
+                // 迭代器会自动翻页，取够本批数量后即停止，避免多余的列表请求
+                if (objectKeys.size() >= maxKeys) {
+                    break;
+                }
+            }
+            return objectKeys;
+        } catch (Exception e) {
+            log.error("列出存储桶对象失败: {}, startAfter={}", bucketName, startAfter, e);
+            return null;
+        }
+    }
+
     @Override
     public Map<String, Object> getFileInfo(String bucketName, String objectKey) {
         try {
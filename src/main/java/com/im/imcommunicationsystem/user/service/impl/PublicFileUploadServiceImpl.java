@@ -7,13 +7,15 @@ import com.im.imcommunicationsystem.user.exception.FileUploadException;
 import com.im.imcommunicationsystem.user.repository.FileUploadRepository;
 import com.im.imcommunicationsystem.user.service.MinioService;
 import com.im.imcommunicationsystem.user.service.PublicFileUploadService;
+import com.im.imcommunicationsystem.user.service.StorageQuotaService;
 import io.minio.*;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import javax.imageio.ImageIO;
@@ -31,32 +33,50 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.stream.Collectors;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 /**
  * 公开文件上传服务实现类
  * 专门处理公开访问的文件（如头像、公开图片等）
+ * 文件记录与用量台账的变更放在同一个短事务中提交，MinIO 的读写不处于事务中
  */
 @Service
 @Slf4j
-@RequiredArgsConstructor
 public class PublicFileUploadServiceImpl implements PublicFileUploadService {
 
     private final MinioClient minioClient;
     private final MinioConfig minioConfig;
     private final MinioService minioService;
     private final FileUploadRepository fileUploadRepository;
+    private final StorageQuotaService storageQuotaService;
+    private final TransactionTemplate transactionTemplate;
     
     @Value("${app.file.temporary-file-cleanup.default-expiration-days:7}")
     private int temporaryFileExpirationDays;
 
+    public PublicFileUploadServiceImpl(MinioClient minioClient,
+                                       MinioConfig minioConfig,
+                                       MinioService minioService,
+                                       FileUploadRepository fileUploadRepository,
+                                       StorageQuotaService storageQuotaService,
+                                       PlatformTransactionManager transactionManager) {
+        this.minioClient = minioClient;
+        this.minioConfig = minioConfig;
+        this.minioService = minioService;
+        this.fileUploadRepository = fileUploadRepository;
+        this.storageQuotaService = storageQuotaService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
 
+    /**
+     * 配额预占和文件记录各自在短事务中提交，上传到MinIO时不处于事务中；失败时撤销预占
+     */
     @Override
-    @Transactional
     public String uploadFile(MultipartFile file, Long userId) {
         validateFile(file);
         
+        FileUpload.FileType reservedType = null;
         try {
             // 生成文件名和路径
             String originalFilename = file.getOriginalFilename();
@@ -77,6 +97,10 @@ public class PublicFileUploadServiceImpl implements PublicFileUploadService {
             tags.put("user_id", String.valueOf(userId));
             tags.put("upload_date", LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE));
             
+            // 上传前校验并预占存储配额
+            storageQuotaService.reserve(userId, FileUpload.AccessLevel.PUBLIC, fileType, file.getSize());
+            reservedType = fileType;
+            
             // 上传到MinIO并设置标签
             if (!uploadToMinioWithTags(bucketName, objectKey, file, tags)) {
                 throw new RuntimeException("文件上传到MinIO失败");
@@ -103,12 +127,14 @@ public class PublicFileUploadServiceImpl implements PublicFileUploadService {
             
         } catch (Exception e) {
             log.error("公开文件上传失败: userId={}, fileName={}", userId, file.getOriginalFilename(), e);
+            if (reservedType != null) {
+                cancelReservation(userId, reservedType, file.getSize());
+            }
             throw new FileUploadException("公开文件上传失败: " + e.getMessage(), e);
         }
     }
 
     @Override
-    @Transactional
     public String uploadImage(MultipartFile file, Long userId, int maxWidth, int maxHeight) {
         validateImageFile(file);
         
@@ -130,7 +156,6 @@ public class PublicFileUploadServiceImpl implements PublicFileUploadService {
     }
 
     @Override
-    @Transactional
     public String uploadAvatar(MultipartFile file, Long userId) {
         log.info("开始上传用户头像: userId={}, fileName={}", userId, file.getOriginalFilename());
         
@@ -139,6 +164,8 @@ public class PublicFileUploadServiceImpl implements PublicFileUploadService {
         
         validateImageFile(file);
         
+        MultipartFile reservedFile = null;
+        FileUpload.FileType reservedType = null;
         try {
             // 压缩图片为 200x200
             byte[] compressedImageData = compressImage(file, 200, 200);
@@ -168,6 +195,11 @@ public class PublicFileUploadServiceImpl implements PublicFileUploadService {
             tags.put("file_type", "avatar");
             tags.put("upload_date", LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE));
             
+            // 上传前校验并预占存储配额
+            storageQuotaService.reserve(userId, FileUpload.AccessLevel.PUBLIC, fileType, compressedFile.getSize());
+            reservedFile = compressedFile;
+            reservedType = fileType;
+            
             // 上传到MinIO并设置标签
             if (!uploadToMinioWithTags(bucketName, objectKey, compressedFile, tags)) {
                 throw new RuntimeException("头像上传到MinIO失败");
@@ -182,6 +214,9 @@ public class PublicFileUploadServiceImpl implements PublicFileUploadService {
             fileUpload.setFileTag(FileUpload.FileTag.PERMANENT);
             fileUpload.setExpiresAt(null); // 永久文件不设置过期时间
             
+            // 记录头像所属用户，便于按索引查找旧头像
+            fileUpload.markAsAvatarOf(FileUpload.AvatarOwnerType.USER, userId);
+            
             // 保存到数据库
             fileUpload = fileUploadRepository.save(fileUpload);
             
@@ -192,6 +227,9 @@ public class PublicFileUploadServiceImpl implements PublicFileUploadService {
             
         } catch (Exception e) {
             log.error("用户头像上传失败: userId={}, fileName={}", userId, file.getOriginalFilename(), e);
+            if (reservedFile != null) {
+                cancelReservation(userId, reservedType, reservedFile.getSize());
+            }
             throw new FileUploadException("用户头像上传失败: " + e.getMessage(), e);
         }
     }
@@ -206,7 +244,6 @@ public class PublicFileUploadServiceImpl implements PublicFileUploadService {
      * @return 头像URL
      */
     @Override
-    @Transactional
     public String uploadGroupAvatar(MultipartFile file, Long groupId, Long userId) {
         log.info("开始上传群组头像: groupId={}, userId={}, fileName={}", groupId, userId, file.getOriginalFilename());
         
@@ -215,6 +252,8 @@ public class PublicFileUploadServiceImpl implements PublicFileUploadService {
         
         validateImageFile(file);
         
+        MultipartFile reservedFile = null;
+        FileUpload.FileType reservedType = null;
         try {
             // 压缩图片为 200x200
             byte[] compressedImageData = compressImage(file, 200, 200);
@@ -245,6 +284,11 @@ public class PublicFileUploadServiceImpl implements PublicFileUploadService {
             tags.put("file_type", "group_avatar");
             tags.put("upload_date", LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE));
             
+            // 上传前校验并预占存储配额
+            storageQuotaService.reserve(userId, FileUpload.AccessLevel.PUBLIC, fileType, compressedFile.getSize());
+            reservedFile = compressedFile;
+            reservedType = fileType;
+            
             // 上传到MinIO并设置标签
             if (!uploadToMinioWithTags(bucketName, objectKey, compressedFile, tags)) {
                 throw new RuntimeException("群组头像上传到MinIO失败");
@@ -259,6 +303,9 @@ public class PublicFileUploadServiceImpl implements PublicFileUploadService {
             fileUpload.setFileTag(FileUpload.FileTag.PERMANENT);
             fileUpload.setExpiresAt(null); // 永久文件不设置过期时间
             
+            // 记录头像所属群组，便于按索引查找旧头像
+            fileUpload.markAsAvatarOf(FileUpload.AvatarOwnerType.GROUP, groupId);
+            
             // 添加群组ID到元数据（JSON格式）
             try {
                 Map<String, String> metadata = new HashMap<>();
@@ -280,6 +327,9 @@ public class PublicFileUploadServiceImpl implements PublicFileUploadService {
         } catch (Exception e) {
             log.error("群组头像上传失败: groupId={}, userId={}, fileName={}", 
                     groupId, userId, file.getOriginalFilename(), e);
+            if (reservedFile != null) {
+                cancelReservation(userId, reservedType, reservedFile.getSize());
+            }
             throw new FileUploadException("群组头像上传失败: " + e.getMessage(), e);
         }
     }
@@ -301,10 +351,14 @@ public class PublicFileUploadServiceImpl implements PublicFileUploadService {
                 throw new FileUploadException("此文件不是公开文件");
             }
             
-            // 软删除
+            // 软删除（已删除的文件不重复扣减用量）
+            boolean wasDeleted = fileUpload.getIsDeleted();
             fileUpload.setIsDeleted(true);
             fileUpload.setDeletedAt(LocalDateTime.now());
             fileUploadRepository.save(fileUpload);
+            if (!wasDeleted) {
+                storageQuotaService.release(fileUpload);
+            }
             
             log.info("公开文件软删除成功: fileId={}, userId={}", fileId, userId);
             return true;
@@ -315,8 +369,10 @@ public class PublicFileUploadServiceImpl implements PublicFileUploadService {
         }
     }
 
+    /**
+     * 先从MinIO删除对象，再在一个短事务中删除文件记录并扣减用量
+     */
     @Override
-    @Transactional
     public boolean physicalDeleteFile(Long fileId, Long userId) {
         try {
             FileUpload fileUpload = fileUploadRepository.findById(fileId)
@@ -335,8 +391,13 @@ public class PublicFileUploadServiceImpl implements PublicFileUploadService {
             // 从MinIO删除文件
             deleteFromMinio(fileUpload.getBucketName(), fileUpload.getObjectKey());
             
-            // 从数据库删除记录
-            fileUploadRepository.delete(fileUpload);
+            // 从数据库删除记录（未软删除的文件需同时扣减用量）
+            transactionTemplate.executeWithoutResult(status -> {
+                fileUploadRepository.delete(fileUpload);
+                if (!fileUpload.getIsDeleted()) {
+                    storageQuotaService.release(fileUpload);
+                }
+            });
             
             log.info("公开文件物理删除成功: fileId={}, userId={}", fileId, userId);
             return true;
@@ -584,12 +645,10 @@ public class PublicFileUploadServiceImpl implements PublicFileUploadService {
      */
     private void deleteOldAvatar(Long userId) {
         try {
-            // 查找用户现有的头像文件（永久标签的图片文件）
-            List<FileUpload> oldAvatars = fileUploadRepository.findByUserIdAndFileTypeAndFileTagAndIsDeletedFalse(
-                userId, FileUpload.FileType.image, FileUpload.FileTag.PERMANENT
-            ).stream()
-            .filter(file -> file.getAccessLevel() == FileUpload.AccessLevel.PUBLIC)
-            .collect(java.util.stream.Collectors.toList());
+            // 按头像所属用户索引查找现有的头像文件
+            List<FileUpload> oldAvatars = fileUploadRepository.findByAvatarOwnerTypeAndAvatarOwnerIdAndFileTagAndIsDeletedFalse(
+                FileUpload.AvatarOwnerType.USER, userId, FileUpload.FileTag.PERMANENT
+            );
             
             for (FileUpload oldAvatar : oldAvatars) {
                 // 物理删除旧头像
@@ -602,6 +661,17 @@ public class PublicFileUploadServiceImpl implements PublicFileUploadService {
         }
     }
     
+    /**
+     * 撤销上传失败文件的配额预占，撤销失败时由定时对账修正
+     */
+    private void cancelReservation(Long userId, FileUpload.FileType fileType, long fileSize) {
+        try {
+            storageQuotaService.cancelReservation(userId, FileUpload.AccessLevel.PUBLIC, fileType, fileSize);
+        } catch (Exception e) {
+            log.error("撤销存储配额预占失败: userId={}, fileType={}, fileSize={}", userId, fileType, fileSize, e);
+        }
+    }
+    
     /**
      * 更改旧的群组头像状态为私有和临时
      * 
@@ -609,35 +679,25 @@ public class PublicFileUploadServiceImpl implements PublicFileUploadService {
      */
     private void changeOldGroupAvatarStatus(Long groupId) {
         try {
-            // 查找群组现有的头像文件
-            List<FileUpload> fileUploads = fileUploadRepository.findAll();
-            List<FileUpload> oldGroupAvatars = fileUploads.stream()
-                .filter(file -> {
-                    if (file.getMetadata() == null) return false;
-                    try {
-                        Map<String, String> metadata = new ObjectMapper().readValue(file.getMetadata(), Map.class);
-                        String fileGroupId = metadata.get("groupId");
-                        return fileGroupId != null && fileGroupId.equals(String.valueOf(groupId)) &&
-                               "group".equals(metadata.get("avatarType")) &&
-                               file.getFileTag() == FileUpload.FileTag.PERMANENT &&
-                               !file.getIsDeleted();
-                    } catch (Exception e) {
-                        log.warn("解析元数据失败: {}", e.getMessage());
-                        return false;
-                    }
-                })
-                .collect(Collectors.toList());
+            // 按头像所属群组索引查找现有的头像文件
+            List<FileUpload> oldGroupAvatars = fileUploadRepository.findByAvatarOwnerTypeAndAvatarOwnerIdAndFileTagAndIsDeletedFalse(
+                FileUpload.AvatarOwnerType.GROUP, groupId, FileUpload.FileTag.PERMANENT
+            );
             
             for (FileUpload oldAvatar : oldGroupAvatars) {
                 log.info("更改旧群组头像状态: groupId={}, fileId={}, fileUrl={}",
                         groupId, oldAvatar.getId(), oldAvatar.getFileUrl());
                 
-                // 设置为私有和临时
-                oldAvatar.setAccessLevel(FileUpload.AccessLevel.PRIVATE);
-                oldAvatar.setIsPublic(false);
-                oldAvatar.setFileTag(FileUpload.FileTag.TEMPORARY);
-                oldAvatar.setExpiresAt(LocalDateTime.now().plusDays(temporaryFileExpirationDays));
-                fileUploadRepository.save(oldAvatar);
+                // 设置为私有和临时，用量从公开配额转入私有配额（台账与文件记录在同一事务中提交）
+                transactionTemplate.executeWithoutResult(status -> {
+                    storageQuotaService.release(oldAvatar);
+                    oldAvatar.setAccessLevel(FileUpload.AccessLevel.PRIVATE);
+                    oldAvatar.setIsPublic(false);
+                    oldAvatar.setFileTag(FileUpload.FileTag.TEMPORARY);
+                    oldAvatar.setExpiresAt(LocalDateTime.now().plusDays(temporaryFileExpirationDays));
+                    fileUploadRepository.save(oldAvatar);
+                    storageQuotaService.charge(oldAvatar);
+                });
                 
                 // 同时更新MinIO中的文件标签
                 Map<String, String> tags = new HashMap<>();
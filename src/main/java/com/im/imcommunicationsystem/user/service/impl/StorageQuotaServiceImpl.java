@@ -0,0 +1,241 @@
+package com.im.imcommunicationsystem.user.service.impl;
+
+import com.im.imcommunicationsystem.user.config.StorageQuotaConfig;
+import com.im.imcommunicationsystem.user.entity.FileUpload;
+import com.im.imcommunicationsystem.user.entity.UserStorageUsage;
+import com.im.imcommunicationsystem.user.exception.FileUploadException;
+import com.im.imcommunicationsystem.user.repository.FileUploadRepository;
+import com.im.imcommunicationsystem.user.repository.UserStorageUsageRepository;
+import com.im.imcommunicationsystem.user.service.StorageQuotaService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 用户存储配额服务实现类
+ * 台账按 (用户, 访问级别, 文件类型) 维护，每个用户最多 3 × 5 行，
+ * 配额校验与统计均只读取这些行，与用户文件数量无关。
+ * 预占在独立的短事务中完成，上传到对象存储期间不持有台账行锁，失败时以撤销预占补偿
+ */
+@Service
+@Slf4j
+public class StorageQuotaServiceImpl implements StorageQuotaService {
+
+    private final UserStorageUsageRepository usageRepository;
+    private final FileUploadRepository fileUploadRepository;
+    private final StorageQuotaConfig quotaConfig;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.file.quota.reconcile-batch-size:200}")
+    private int reconcileBatchSize;
+
+    public StorageQuotaServiceImpl(UserStorageUsageRepository usageRepository,
+                                   FileUploadRepository fileUploadRepository,
+                                   StorageQuotaConfig quotaConfig,
+                                   PlatformTransactionManager transactionManager) {
+        this.usageRepository = usageRepository;
+        this.fileUploadRepository = fileUploadRepository;
+        this.quotaConfig = quotaConfig;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void reserve(Long userId, FileUpload.AccessLevel accessLevel, FileUpload.FileType fileType, long fileSize) {
+        if (!quotaConfig.isEnabled()) {
+            applyDelta(userId, accessLevel, fileType, 1, fileSize);
+            return;
+        }
+
+        // 先确保目标行存在，再锁定该用户的全部台账行，串行化同一用户的并发上传
+        applyDelta(userId, accessLevel, fileType, 0, 0);
+        List<UserStorageUsage> rows = usageRepository.findByUserIdForUpdate(userId);
+
+        long totalCount = 0;
+        long levelSize = 0;
+        boolean publicLevel = accessLevel.isPublic();
+        for (UserStorageUsage row : rows) {
+            totalCount += row.getFileCount();
+            if (row.isPublicUsage() == publicLevel) {
+                levelSize += row.getTotalSize();
+            }
+        }
+
+        if (totalCount + 1 > quotaConfig.getMaxFilesCount()) {
+            log.warn("用户文件数量超出配额: userId={}, current={}, max={}",
+                    userId, totalCount, quotaConfig.getMaxFilesCount());
+            throw new FileUploadException("文件数量已达上限: " + quotaConfig.getMaxFilesCount());
+        }
+
+        long maxSize = quotaConfig.getMaxSizeBytes(accessLevel);
+        if (levelSize + fileSize > maxSize) {
+            log.warn("用户存储空间超出配额: userId={}, accessLevel={}, used={}, fileSize={}, max={}",
+                    userId, accessLevel, levelSize, fileSize, maxSize);
+            throw new FileUploadException(String.format("%s存储空间不足，已使用 %d MB，上限 %d MB",
+                    publicLevel ? "公开文件" : "私有文件", levelSize / (1024 * 1024), maxSize / (1024 * 1024)));
+        }
+
+        applyDelta(userId, accessLevel, fileType, 1, fileSize);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void cancelReservation(Long userId, FileUpload.AccessLevel accessLevel, FileUpload.FileType fileType, long fileSize) {
+        applyDelta(userId, accessLevel, fileType, -1, -fileSize);
+        log.debug("撤销存储配额预占: userId={}, accessLevel={}, fileType={}, fileSize={}", userId, accessLevel, fileType, fileSize);
+    }
+
+    @Override
+    public void adjustSize(Long userId, FileUpload.AccessLevel accessLevel, FileUpload.FileType fileType, long sizeDelta) {
+        if (sizeDelta != 0) {
+            applyDelta(userId, accessLevel, fileType, 0, sizeDelta);
+        }
+    }
+
+    @Override
+    public void charge(FileUpload fileUpload) {
+        applyDelta(fileUpload.getUserId(), fileUpload.getAccessLevel(), fileUpload.getFileType(),
+                1, sizeOf(fileUpload));
+    }
+
+    @Override
+    public void release(FileUpload fileUpload) {
+        applyDelta(fileUpload.getUserId(), fileUpload.getAccessLevel(), fileUpload.getFileType(),
+                -1, -sizeOf(fileUpload));
+    }
+
+    @Override
+    public Map<String, Object> getUsageStats(Long userId) {
+        List<UserStorageUsage> rows = usageRepository.findByUserId(userId);
+
+        long totalFiles = 0;
+        long totalSize = 0;
+        long publicSize = 0;
+        long privateSize = 0;
+        Map<String, Long> typeStats = new HashMap<>();
+        Map<String, Long> typeSizeStats = new HashMap<>();
+
+        for (UserStorageUsage row : rows) {
+            if (row.getFileCount() == 0 && row.getTotalSize() == 0) {
+                continue;
+            }
+            totalFiles += row.getFileCount();
+            totalSize += row.getTotalSize();
+            if (row.isPublicUsage()) {
+                publicSize += row.getTotalSize();
+            } else {
+                privateSize += row.getTotalSize();
+            }
+            typeStats.merge(row.getFileType().name(), row.getFileCount(), Long::sum);
+            typeSizeStats.merge(row.getFileType().name(), row.getTotalSize(), Long::sum);
+        }
+
+        Map<String, Object> quota = new HashMap<>();
+        quota.put("publicUsedSize", publicSize);
+        quota.put("publicMaxSize", quotaConfig.getPublicFilesMaxSize().toBytes());
+        quota.put("privateUsedSize", privateSize);
+        quota.put("privateMaxSize", quotaConfig.getPrivateFilesMaxSize().toBytes());
+        quota.put("maxFilesCount", quotaConfig.getMaxFilesCount());
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("totalFiles", totalFiles);
+        stats.put("totalSize", totalSize);
+        stats.put("typeStats", typeStats);
+        stats.put("typeSizeStats", typeSizeStats);
+        stats.put("quota", quota);
+        return stats;
+    }
+
+    @Override
+    public void reconcileUser(Long userId) {
+        reconcileBatch(List.of(userId));
+    }
+
+    @Override
+    public int reconcileAll() {
+        log.info("开始存储用量台账对账，批大小: {}", reconcileBatchSize);
+        Pageable batch = PageRequest.of(0, reconcileBatchSize);
+        int reconciled = 0;
+
+        // 第一轮：拥有文件记录的用户（覆盖台账缺失的用户）
+        long lastUserId = 0L;
+        while (true) {
+            List<Long> userIds = fileUploadRepository.findDistinctUserIdsAfter(lastUserId, batch);
+            if (userIds.isEmpty()) {
+                break;
+            }
+            reconcileBatch(userIds);
+            reconciled += userIds.size();
+            lastUserId = userIds.get(userIds.size() - 1);
+            if (userIds.size() < reconcileBatchSize) {
+                break;
+            }
+        }
+
+        // 第二轮：台账中已有的用户（清理文件记录已不存在的用户）
+        lastUserId = 0L;
+        while (true) {
+            List<Long> userIds = usageRepository.findUserIdsAfter(lastUserId, batch);
+            if (userIds.isEmpty()) {
+                break;
+            }
+            reconcileBatch(userIds);
+            lastUserId = userIds.get(userIds.size() - 1);
+            if (userIds.size() < reconcileBatchSize) {
+                break;
+            }
+        }
+
+        log.info("存储用量台账对账完成，共对账 {} 个用户", reconciled);
+        return reconciled;
+    }
+
+    // ==================== 私有辅助方法 ====================
+
+    /**
+     * 在独立事务中重建一批用户的台账
+     * 先锁定台账行再读取文件汇总，保证与并发上传的增量互斥
+     */
+    private void reconcileBatch(List<Long> userIds) {
+        transactionTemplate.executeWithoutResult(status -> {
+            usageRepository.findByUserIdInForUpdate(userIds);
+            List<Object[]> aggregates = fileUploadRepository.aggregateUsageByUserIds(userIds);
+
+            usageRepository.deleteByUserIdIn(userIds);
+
+            List<UserStorageUsage> rebuilt = new ArrayList<>(aggregates.size());
+            for (Object[] row : aggregates) {
+                rebuilt.add(UserStorageUsage.builder()
+                        .userId((Long) row[0])
+                        .accessLevel((FileUpload.AccessLevel) row[1])
+                        .fileType((FileUpload.FileType) row[2])
+                        .fileCount(((Number) row[3]).longValue())
+                        .totalSize(((Number) row[4]).longValue())
+                        .build());
+            }
+            usageRepository.saveAll(rebuilt);
+        });
+    }
+
+    private void applyDelta(Long userId, FileUpload.AccessLevel accessLevel, FileUpload.FileType fileType,
+                            long countDelta, long sizeDelta) {
+        FileUpload.AccessLevel level = accessLevel != null ? accessLevel : FileUpload.AccessLevel.PRIVATE;
+        FileUpload.FileType type = fileType != null ? fileType : FileUpload.FileType.other;
+        usageRepository.applyDelta(userId, level.name(), type.name(), countDelta, sizeDelta);
+    }
+
+    private long sizeOf(FileUpload fileUpload) {
+        return fileUpload.getFileSize() != null ? fileUpload.getFileSize() : 0L;
+    }
+}
@@ -8,6 +8,7 @@ import com.im.imcommunicationsystem.user.dto.request.SetStatusRequest;
 import com.im.imcommunicationsystem.user.dto.request.SetUserIdRequest;
 import com.im.imcommunicationsystem.user.dto.request.UpdateProfileRequest;
 import com.im.imcommunicationsystem.user.dto.response.UserProfileResponse;
+import com.im.imcommunicationsystem.user.event.UserProfileUpdateEvent;
 import com.im.imcommunicationsystem.user.exception.UserIdConflictException;
 import com.im.imcommunicationsystem.user.exception.UserNotFoundException;
 import com.im.imcommunicationsystem.auth.repository.UserRepository;
@@ -17,6 +18,7 @@ import com.im.imcommunicationsystem.user.service.UserProfileService;
 import com.im.imcommunicationsystem.user.util.UserValidationUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
@@ -24,6 +26,7 @@ import org.springframework.web.multipart.MultipartFile;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 /**
@@ -39,6 +42,7 @@ public class UserProfileServiceImpl implements UserProfileService {
     private final FileUploadService fileUploadService;
     private final PublicFileUploadService publicFileUploadService;
     private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional(readOnly = true)
@@ -69,6 +73,8 @@ public class UserProfileServiceImpl implements UserProfileService {
         
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new UserNotFoundException("用户不存在，ID: " + userId));
+        String previousNickname = user.getNickname();
+        String previousAvatarUrl = user.getAvatarUrl();
         
         // 验证昵称
         if (request.getNickname() != null && !request.getNickname().trim().isEmpty()) {
@@ -164,6 +170,12 @@ public class UserProfileServiceImpl implements UserProfileService {
         }
         
         userRepository.save(user);
+        
+        // 好友看到的昵称、头像变化时通知联系人同步
+        if (!Objects.equals(previousNickname, user.getNickname())
+                || !Objects.equals(previousAvatarUrl, user.getAvatarUrl())) {
+            eventPublisher.publishEvent(new UserProfileUpdateEvent(this, userId));
+        }
         log.info("用户资料更新成功，用户ID: {}", userId);
     }
 
@@ -183,6 +195,7 @@ public class UserProfileServiceImpl implements UserProfileService {
             // 更新用户头像URL
             user.setAvatarUrl(avatarUrl);
             userRepository.save(user);
+            eventPublisher.publishEvent(new UserProfileUpdateEvent(this, userId));
             
             log.info("用户头像更新成功: userId={}, avatarUrl={}", userId, avatarUrl);
             return avatarUrl;
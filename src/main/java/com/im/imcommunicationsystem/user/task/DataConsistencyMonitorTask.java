@@ -73,15 +73,10 @@ public class DataConsistencyMonitorTask {
         log.info("开始执行每天数据一致性检查和自动修复");
         
         try {
-            // 先执行检查
-            DataConsistencyService.ConsistencyCheckResult checkResult = dataConsistencyService.checkDataConsistency();
+            // 检查与修复在同一次归并扫描中完成（只修复孤立的数据库记录）
+            DataConsistencyService.RepairResult repairResult = dataConsistencyService.repairDataConsistency(true);
             
-            if (checkResult.hasInconsistencies()) {
-                log.info("发现数据不一致问题，开始自动修复");
-                
-                // 执行自动修复（只修复孤立的数据库记录）
-                DataConsistencyService.RepairResult repairResult = dataConsistencyService.repairDataConsistency(true);
-                
+            if (repairResult.getTotalRepaired() > 0 || repairResult.getFailedRepairs() > 0) {
                 log.info("每天数据一致性自动修复完成：");
                 log.info("- 修复的数据库记录: {} 个", repairResult.getRepairedDbRecords());
                 log.info("- 修复失败: {} 个", repairResult.getFailedRepairs());
@@ -103,17 +98,19 @@ public class DataConsistencyMonitorTask {
     }
 
     /**
-     * 每小时执行一次快速一致性检查（仅统计）
-     * 用于监控数据一致性状态变化
+     * 每小时执行一次增量一致性检查（仅统计）
+     * 从上次的检查点继续扫描，单次扫描量有上限，多次执行滚动覆盖全部存储桶
      */
     @Scheduled(cron = "0 0 * * * ?")
     public void hourlyQuickCheck() {
         log.debug("开始执行每小时快速数据一致性检查");
         
         try {
-            DataConsistencyService.ConsistencyCheckResult result = dataConsistencyService.checkDataConsistency();
+            DataConsistencyService.ConsistencyCheckResult result = dataConsistencyService.reconcileIncrementally(false);
             
-            if (result.hasInconsistencies()) {
+            if (result == null) {
+                log.debug("上一次增量检查仍在执行，跳过本次");
+            } else if (result.hasInconsistencies()) {
                 log.info("快速检查发现数据不一致: {} 个问题", result.getTotalInconsistencies());
             } else {
                 log.debug("快速检查通过，数据一致性正常");
@@ -0,0 +1,37 @@
+package com.im.imcommunicationsystem.user.task;
+
+import com.im.imcommunicationsystem.user.service.StorageQuotaService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 存储用量台账对账定时任务
+ * 每晚根据file_uploads重建用户存储用量台账，修正增量维护过程中产生的偏差
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.file.quota.reconcile-enabled", havingValue = "true", matchIfMissing = true)
+public class StorageQuotaReconcileTask {
+
+    private final StorageQuotaService storageQuotaService;
+
+    /**
+     * 每天凌晨4点30分执行台账对账（避开2点、3点的文件清理任务）
+     */
+    @Scheduled(cron = "${app.file.quota.reconcile-cron:0 30 4 * * ?}")
+    public void reconcileStorageUsage() {
+        log.info("开始执行存储用量台账对账任务");
+        
+        try {
+            int reconciled = storageQuotaService.reconcileAll();
+            log.info("存储用量台账对账任务完成，对账用户数: {}", reconciled);
+            
+        } catch (Exception e) {
+            log.error("存储用量台账对账任务执行失败", e);
+        }
+    }
+}
@@ -3,14 +3,18 @@ package com.im.imcommunicationsystem.user.task;
 import com.im.imcommunicationsystem.user.entity.FileUpload;
 import com.im.imcommunicationsystem.user.repository.FileUploadRepository;
 import com.im.imcommunicationsystem.user.service.MinioService;
+import com.im.imcommunicationsystem.user.service.StorageQuotaService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -25,55 +29,49 @@ public class TemporaryFileCleanupTask {
 
     private final FileUploadRepository fileUploadRepository;
     private final MinioService minioService;
+    private final StorageQuotaService storageQuotaService;
+
+    @Value("${app.file.cleanup.batch-size:500}")
+    private int batchSize;
 
     /**
      * 每小时执行一次临时文件清理任务
-     * 清理已过期的临时文件
+     * 清理已过期的临时文件，按ID游标分批扫描
      */
     @Scheduled(cron = "0 0 * * * ?")
-    @Transactional
     public void cleanupExpiredTemporaryFiles() {
-        log.info("开始执行过期临时文件清理任务");
+        log.info("开始执行过期临时文件清理任务，批大小: {}", batchSize);
         
         try {
             LocalDateTime currentTime = LocalDateTime.now();
-            
-            // 查找所有过期的临时文件
-            List<FileUpload> expiredFiles = fileUploadRepository.findExpiredTemporaryFiles(currentTime);
-            
-            if (expiredFiles.isEmpty()) {
-                log.info("没有发现过期的临时文件");
-                return;
-            }
-            
-            log.info("发现 {} 个过期的临时文件，开始清理", expiredFiles.size());
+            Pageable batch = PageRequest.of(0, batchSize);
             
             int successCount = 0;
             int failureCount = 0;
+            long lastId = 0L;
             
-            for (FileUpload file : expiredFiles) {
-                try {
-                    // 从MinIO删除文件
-                    if (file.getBucketName() != null && file.getObjectKey() != null) {
-                        minioService.deleteFile(file.getBucketName(), file.getObjectKey());
-                        log.debug("已从MinIO删除过期临时文件: bucket={}, key={}", 
-                                file.getBucketName(), file.getObjectKey());
-                    }
-                    
-                    // 从数据库物理删除记录
-                    fileUploadRepository.delete(file);
-                    
-                    successCount++;
-                    log.debug("已清理过期临时文件: id={}, fileName={}, expiresAt={}", 
-                            file.getId(), file.getFileName(), file.getExpiresAt());
-                    
-                } catch (Exception e) {
-                    failureCount++;
-                    log.error("清理过期临时文件失败: id={}, fileName={}, error={}", 
-                            file.getId(), file.getFileName(), e.getMessage(), e);
+            while (true) {
+                // 按ID游标查找下一批过期的临时文件
+                List<FileUpload> expiredFiles = fileUploadRepository.findExpiredTemporaryFilesAfterId(currentTime, lastId, batch);
+                if (expiredFiles.isEmpty()) {
+                    break;
+                }
+                
+                int[] result = cleanupBatch(expiredFiles);
+                successCount += result[0];
+                failureCount += result[1];
+                lastId = expiredFiles.get(expiredFiles.size() - 1).getId();
+                
+                if (expiredFiles.size() < batchSize) {
+                    break;
                 }
             }
             
+            if (successCount == 0 && failureCount == 0) {
+                log.info("没有发现过期的临时文件");
+                return;
+            }
+            
             log.info("过期临时文件清理任务完成，成功: {}, 失败: {}", successCount, failureCount);
             
         } catch (Exception e) {
@@ -86,12 +84,12 @@ public class TemporaryFileCleanupTask {
      * 专门清理公共桶中的过期临时文件
      */
     @Scheduled(cron = "0 0 3 * * ?")
-    @Transactional
     public void cleanupPublicBucketTemporaryFiles() {
         log.info("开始执行公共桶过期临时文件清理任务");
         
         try {
             LocalDateTime currentTime = LocalDateTime.now();
+            Pageable batch = PageRequest.of(0, batchSize);
             
             // 清理各个公共桶中的过期临时文件
             String[] publicBuckets = {"public-files", "public-images", "public-videos", "public-documents"};
@@ -99,30 +97,28 @@ public class TemporaryFileCleanupTask {
             int totalCleaned = 0;
             
             for (String bucketName : publicBuckets) {
-                List<FileUpload> expiredFiles = fileUploadRepository
-                        .findExpiredTemporaryFilesByBucket(bucketName, currentTime);
+                int bucketCleaned = 0;
+                long lastId = 0L;
                 
-                if (!expiredFiles.isEmpty()) {
-                    log.info("在桶 {} 中发现 {} 个过期的临时文件", bucketName, expiredFiles.size());
+                while (true) {
+                    List<FileUpload> expiredFiles = fileUploadRepository
+                            .findExpiredTemporaryFilesByBucketAfterId(bucketName, currentTime, lastId, batch);
+                    if (expiredFiles.isEmpty()) {
+                        break;
+                    }
+                    
+                    bucketCleaned += cleanupBatch(expiredFiles)[0];
+                    lastId = expiredFiles.get(expiredFiles.size() - 1).getId();
                     
-                    for (FileUpload file : expiredFiles) {
-                        try {
-                            // 从MinIO删除文件
-                            minioService.deleteFile(file.getBucketName(), file.getObjectKey());
-                            
-                            // 从数据库物理删除记录
-                            fileUploadRepository.delete(file);
-                            
-                            totalCleaned++;
-                            log.debug("已清理公共桶过期临时文件: bucket={}, key={}, expiresAt={}", 
-                                    file.getBucketName(), file.getObjectKey(), file.getExpiresAt());
-                            
-                        } catch (Exception e) {
-                            log.error("清理公共桶过期临时文件失败: bucket={}, key={}, error={}", 
-                                    file.getBucketName(), file.getObjectKey(), e.getMessage(), e);
-                        }
+                    if (expiredFiles.size() < batchSize) {
+                        break;
                     }
                 }
+                
+                if (bucketCleaned > 0) {
+                    log.info("在桶 {} 中清理了 {} 个过期的临时文件", bucketName, bucketCleaned);
+                }
+                totalCleaned += bucketCleaned;
             }
             
             log.info("公共桶过期临时文件清理任务完成，总计清理: {} 个文件", totalCleaned);
@@ -132,6 +128,42 @@ public class TemporaryFileCleanupTask {
         }
     }
     
+    /**
+     * 清理一批过期临时文件：逐个删除MinIO对象，再按批物理删除数据库记录
+     *
+     * @param expiredFiles 过期文件批次
+     * @return [成功数, 失败数]
+     */
+    private int[] cleanupBatch(List<FileUpload> expiredFiles) {
+        List<FileUpload> removedFiles = new ArrayList<>(expiredFiles.size());
+        int failureCount = 0;
+        
+        for (FileUpload file : expiredFiles) {
+            try {
+                // 从MinIO删除文件
+                if (file.getBucketName() != null && file.getObjectKey() != null) {
+                    minioService.deleteFile(file.getBucketName(), file.getObjectKey());
+                    log.debug("已从MinIO删除过期临时文件: bucket={}, key={}", 
+                            file.getBucketName(), file.getObjectKey());
+                }
+                removedFiles.add(file);
+                
+            } catch (Exception e) {
+                failureCount++;
+                log.error("清理过期临时文件失败: id={}, fileName={}, error={}", 
+                        file.getId(), file.getFileName(), e.getMessage(), e);
+            }
+        }
+        
+        // 从数据库按批物理删除记录，并扣减对应用户的存储用量
+        if (!removedFiles.isEmpty()) {
+            fileUploadRepository.physicalDeleteByIds(removedFiles.stream().map(FileUpload::getId).toList());
+            removedFiles.forEach(storageQuotaService::release);
+        }
+        
+        return new int[] {removedFiles.size(), failureCount};
+    }
+    
     /**
      * 手动清理过期临时文件
      * 提供给管理员手动触发清理的接口
@@ -0,0 +1,82 @@
+-- 为file_uploads表添加头像所属对象字段及清理扫描索引
+-- 版本: V20251019_001
+-- 描述: 将头像所属用户/群组从metadata JSON提升为独立索引列，
+--       并为软删除清理扫描补充deleted_at索引，避免全表扫描
+
+SET NAMES utf8mb4;
+SET FOREIGN_KEY_CHECKS = 0;
+
+-- 检查并添加avatar_owner_type字段
+SET @sql = IF(
+    (SELECT COUNT(*) FROM INFORMATION_SCHEMA.COLUMNS 
+     WHERE TABLE_SCHEMA = DATABASE() 
+     AND TABLE_NAME = 'file_uploads' 
+     AND COLUMN_NAME = 'avatar_owner_type') = 0,
+    'ALTER TABLE file_uploads ADD COLUMN avatar_owner_type VARCHAR(20) NULL COMMENT "头像所属对象类型：USER-用户头像，GROUP-群组头像"',
+    'SELECT "Column avatar_owner_type already exists" as message'
+);
+PREPARE stmt FROM @sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- 检查并添加avatar_owner_id字段
+SET @sql = IF(
+    (SELECT COUNT(*) FROM INFORMATION_SCHEMA.COLUMNS 
+     WHERE TABLE_SCHEMA = DATABASE() 
+     AND TABLE_NAME = 'file_uploads' 
+     AND COLUMN_NAME = 'avatar_owner_id') = 0,
+    'ALTER TABLE file_uploads ADD COLUMN avatar_owner_id BIGINT NULL COMMENT "头像所属对象ID（用户ID或群组ID）"',
+    'SELECT "Column avatar_owner_id already exists" as message'
+);
+PREPARE stmt FROM @sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- 回填群组头像：从metadata JSON中提取groupId
+UPDATE file_uploads
+SET avatar_owner_type = 'GROUP',
+    avatar_owner_id = CAST(JSON_UNQUOTE(JSON_EXTRACT(metadata, '$.groupId')) AS UNSIGNED)
+WHERE avatar_owner_type IS NULL
+  AND metadata IS NOT NULL
+  AND JSON_VALID(metadata)
+  AND JSON_UNQUOTE(JSON_EXTRACT(metadata, '$.avatarType')) = 'group'
+  AND JSON_EXTRACT(metadata, '$.groupId') IS NOT NULL;
+
+-- 回填用户头像：公开、永久、未关联群组的图片
+UPDATE file_uploads
+SET avatar_owner_type = 'USER',
+    avatar_owner_id = user_id
+WHERE avatar_owner_type IS NULL
+  AND file_type = 'image'
+  AND file_tag = 'PERMANENT'
+  AND access_level = 'PUBLIC'
+  AND metadata IS NULL;
+
+-- 添加头像所属对象组合索引（如果不存在）
+SET @sql = IF(
+    (SELECT COUNT(*) FROM INFORMATION_SCHEMA.STATISTICS 
+     WHERE TABLE_SCHEMA = DATABASE() 
+     AND TABLE_NAME = 'file_uploads' 
+     AND INDEX_NAME = 'idx_file_uploads_avatar_owner') = 0,
+    'CREATE INDEX idx_file_uploads_avatar_owner ON file_uploads(avatar_owner_type, avatar_owner_id, file_tag, is_deleted)',
+    'SELECT "Index idx_file_uploads_avatar_owner already exists" as message'
+);
+PREPARE stmt FROM @sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- 添加软删除清理扫描索引（如果不存在）
+SET @sql = IF(
+    (SELECT COUNT(*) FROM INFORMATION_SCHEMA.STATISTICS 
+     WHERE TABLE_SCHEMA = DATABASE() 
+     AND TABLE_NAME = 'file_uploads' 
+     AND INDEX_NAME = 'idx_file_uploads_deleted_at') = 0,
+    'CREATE INDEX idx_file_uploads_deleted_at ON file_uploads(is_deleted, deleted_at)',
+    'SELECT "Index idx_file_uploads_deleted_at already exists" as message'
+);
+PREPARE stmt FROM @sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- 恢复外键检查
+SET FOREIGN_KEY_CHECKS = 1;
@@ -0,0 +1,27 @@
+-- 创建用户存储用量台账表
+-- 版本: V20251019_002
+-- 描述: 按用户、访问级别和文件类型增量维护未删除文件的数量与总大小，
+--       用于上传前的配额校验和文件统计接口
+
+SET NAMES utf8mb4;
+SET FOREIGN_KEY_CHECKS = 0;
+
+CREATE TABLE IF NOT EXISTS `user_storage_usage` (
+    `user_id` BIGINT NOT NULL COMMENT '用户ID',
+    `access_level` VARCHAR(20) NOT NULL COMMENT '文件访问级别：PUBLIC/PRIVATE/RESTRICTED',
+    `file_type` VARCHAR(20) NOT NULL COMMENT '文件类型：image/video/audio/document/other',
+    `file_count` BIGINT NOT NULL DEFAULT 0 COMMENT '未删除文件数量',
+    `total_size` BIGINT NOT NULL DEFAULT 0 COMMENT '未删除文件总大小（字节）',
+    `updated_at` TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    PRIMARY KEY (`user_id`, `access_level`, `file_type`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='用户存储用量台账表';
+
+-- 根据现有文件记录初始化台账
+INSERT INTO user_storage_usage (user_id, access_level, file_type, file_count, total_size)
+SELECT user_id, access_level, file_type, COUNT(*), COALESCE(SUM(file_size), 0)
+FROM file_uploads
+WHERE is_deleted = FALSE
+GROUP BY user_id, access_level, file_type
+ON DUPLICATE KEY UPDATE file_count = VALUES(file_count), total_size = VALUES(total_size);
+
+SET FOREIGN_KEY_CHECKS = 1;
@@ -0,0 +1,23 @@
+-- 为file_uploads表添加存储桶+对象键复合索引
+-- 版本: V20251019_003
+-- 描述: 数据一致性对账按(bucket_name, object_key, id)顺序分页读取文件记录，
+--       与MinIO对象列表归并比对，避免全表扫描和逐个statObject
+
+SET NAMES utf8mb4;
+SET FOREIGN_KEY_CHECKS = 0;
+
+-- 添加对账扫描索引（如果不存在）
+SET @sql = IF(
+    (SELECT COUNT(*) FROM INFORMATION_SCHEMA.STATISTICS 
+     WHERE TABLE_SCHEMA = DATABASE() 
+     AND TABLE_NAME = 'file_uploads' 
+     AND INDEX_NAME = 'idx_file_uploads_bucket_object_key') = 0,
+    'CREATE INDEX idx_file_uploads_bucket_object_key ON file_uploads(bucket_name, object_key, id)',
+    'SELECT "Index idx_file_uploads_bucket_object_key already exists" as message'
+);
+PREPARE stmt FROM @sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- 恢复外键检查
+SET FOREIGN_KEY_CHECKS = 1;
@@ -0,0 +1,52 @@
+-- 创建朋友圈时间线收件箱表及读扩散作者表
+-- 版本: V20251019_004
+-- 描述: 发布动态时写扩散到可见好友的收件箱，朋友圈改为按 (user_id, moment_id) 游标读取；
+--       好友数超过阈值的作者登记为读扩散作者，读取时再合并其动态
+
+SET NAMES utf8mb4;
+SET FOREIGN_KEY_CHECKS = 0;
+
+-- 时间线收件箱表
+CREATE TABLE IF NOT EXISTS `moment_timeline` (
+    `user_id` BIGINT NOT NULL COMMENT '收件箱所属用户ID',
+    `moment_id` BIGINT NOT NULL COMMENT '动态ID',
+    `author_id` BIGINT NOT NULL COMMENT '动态作者ID',
+    `created_at` DATETIME NOT NULL COMMENT '动态发布时间',
+    PRIMARY KEY (`user_id`, `moment_id`),
+    KEY `idx_moment_timeline_moment_id` (`moment_id`),
+    KEY `idx_moment_timeline_user_author` (`user_id`, `author_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='朋友圈时间线收件箱表';
+
+-- 读扩散作者表
+CREATE TABLE IF NOT EXISTS `moment_pull_authors` (
+    `user_id` BIGINT NOT NULL COMMENT '作者用户ID',
+    `created_at` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '转为读扩散的时间',
+    PRIMARY KEY (`user_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='朋友圈读扩散作者表';
+
+-- 回填：作者本人的收件箱包含自己的全部动态
+INSERT IGNORE INTO `moment_timeline` (`user_id`, `moment_id`, `author_id`, `created_at`)
+SELECT m.`user_id`, m.`id`, m.`user_id`, m.`created_at`
+FROM `moments` m;
+
+-- 回填：公开动态及自定义可见动态写入互为好友且未屏蔽作者的用户收件箱
+INSERT IGNORE INTO `moment_timeline` (`user_id`, `moment_id`, `author_id`, `created_at`)
+SELECT c.`user_id`, m.`id`, m.`user_id`, m.`created_at`
+FROM `moments` m
+JOIN `contacts` c ON c.`friend_id` = m.`user_id` AND c.`is_blocked` = 0
+JOIN `contacts` r ON r.`user_id` = m.`user_id` AND r.`friend_id` = c.`user_id`
+WHERE m.`visibility_type` = 'PUBLIC'
+   OR (m.`visibility_type` = 'CUSTOM' AND m.`visibility_rules` IS NOT NULL AND (
+        -- 有允许名单：仅名单内可见
+        (IFNULL(JSON_TYPE(JSON_EXTRACT(m.`visibility_rules`, '$.allowedUserIds')), '') = 'ARRAY'
+            AND JSON_LENGTH(m.`visibility_rules`, '$.allowedUserIds') > 0
+            AND JSON_CONTAINS(JSON_EXTRACT(m.`visibility_rules`, '$.allowedUserIds'), CAST(c.`user_id` AS JSON)))
+        -- 无允许名单：屏蔽名单外可见
+     OR (NOT (IFNULL(JSON_TYPE(JSON_EXTRACT(m.`visibility_rules`, '$.allowedUserIds')), '') = 'ARRAY'
+                  AND JSON_LENGTH(m.`visibility_rules`, '$.allowedUserIds') > 0)
+            AND NOT (IFNULL(JSON_TYPE(JSON_EXTRACT(m.`visibility_rules`, '$.blockedUserIds')), '') = 'ARRAY'
+                  AND JSON_CONTAINS(JSON_EXTRACT(m.`visibility_rules`, '$.blockedUserIds'), CAST(c.`user_id` AS JSON))))
+   ));
+
+-- 恢复外键检查
+SET FOREIGN_KEY_CHECKS = 1;
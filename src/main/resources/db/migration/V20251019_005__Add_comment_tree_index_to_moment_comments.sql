@@ -0,0 +1,23 @@
+-- 为moment_comments表添加评论树分页索引
+-- 版本: V20251019_005
+-- 描述: 一级评论按(moment_id, parent_comment_id, id)游标分页，
+--       避免热门动态读取全部评论后在内存中建树
+
+SET NAMES utf8mb4;
+SET FOREIGN_KEY_CHECKS = 0;
+
+-- 添加一级评论游标分页索引（如果不存在）
+SET @sql = IF(
+    (SELECT COUNT(*) FROM INFORMATION_SCHEMA.STATISTICS 
+     WHERE TABLE_SCHEMA = DATABASE() 
+     AND TABLE_NAME = 'moment_comments' 
+     AND INDEX_NAME = 'idx_moment_comments_moment_parent_id') = 0,
+    'CREATE INDEX idx_moment_comments_moment_parent_id ON moment_comments(moment_id, parent_comment_id, id)',
+    'SELECT "Index idx_moment_comments_moment_parent_id already exists" as message'
+);
+PREPARE stmt FROM @sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- 恢复外键检查
+SET FOREIGN_KEY_CHECKS = 1;
@@ -0,0 +1,31 @@
+-- 创建"可能认识的人"推荐结果表及计算状态表
+-- 版本: V20251019_006
+-- 描述: 后台任务按好友邻接表归并计算共同好友数，每个用户物化前K个推荐候选；
+--       好友关系变更时只把受影响的用户标记为待重算
+
+SET NAMES utf8mb4;
+SET FOREIGN_KEY_CHECKS = 0;
+
+-- 推荐结果表
+CREATE TABLE IF NOT EXISTS `friend_recommendations` (
+    `user_id` BIGINT NOT NULL COMMENT '被推荐用户ID',
+    `candidate_id` BIGINT NOT NULL COMMENT '推荐候选用户ID',
+    `mutual_count` INT NOT NULL COMMENT '共同好友数',
+    `computed_at` DATETIME NOT NULL COMMENT '计算时间',
+    PRIMARY KEY (`user_id`, `candidate_id`),
+    KEY `idx_friend_recommendations_user_mutual` (`user_id`, `mutual_count`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='好友推荐结果表';
+
+-- 推荐计算状态表
+CREATE TABLE IF NOT EXISTS `friend_recommendation_state` (
+    `user_id` BIGINT NOT NULL COMMENT '用户ID',
+    `dirty` BOOLEAN NOT NULL DEFAULT TRUE COMMENT '是否待重算',
+    `marked_at` DATETIME NULL COMMENT '最近一次标记待重算的时间',
+    `computed_at` DATETIME NULL COMMENT '最近一次计算完成的时间',
+    PRIMARY KEY (`user_id`),
+    KEY `idx_friend_recommendation_state_dirty` (`dirty`, `user_id`),
+    KEY `idx_friend_recommendation_state_computed_at` (`computed_at`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='好友推荐计算状态表';
+
+-- 恢复外键检查
+SET FOREIGN_KEY_CHECKS = 1;
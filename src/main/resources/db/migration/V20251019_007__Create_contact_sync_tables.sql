@@ -0,0 +1,29 @@
+-- 创建联系人增量同步表
+-- 版本: V20251019_007
+-- 描述: 记录每个用户联系人列表中发生变化的好友，客户端携带上次同步的版本号只拉取变化部分；
+--       版本号取变更日志的自增ID，contact_sync_versions 保存每个用户的当前版本
+
+SET NAMES utf8mb4;
+SET FOREIGN_KEY_CHECKS = 0;
+
+-- 联系人变更日志表
+CREATE TABLE IF NOT EXISTS `contact_change_log` (
+    `id` BIGINT NOT NULL AUTO_INCREMENT COMMENT '变更ID（即变更后的版本号）',
+    `user_id` BIGINT NOT NULL COMMENT '联系人列表所属用户ID',
+    `friend_id` BIGINT NOT NULL COMMENT '发生变化的好友ID',
+    `created_at` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '变更时间',
+    PRIMARY KEY (`id`),
+    KEY `idx_contact_change_log_user_id` (`user_id`, `id`),
+    KEY `idx_contact_change_log_friend_id` (`friend_id`, `id`),
+    KEY `idx_contact_change_log_created_at` (`created_at`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='联系人变更日志表';
+
+-- 联系人同步版本表
+CREATE TABLE IF NOT EXISTS `contact_sync_versions` (
+    `user_id` BIGINT NOT NULL COMMENT '用户ID',
+    `version` BIGINT NOT NULL DEFAULT 0 COMMENT '联系人列表当前版本号',
+    PRIMARY KEY (`user_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='联系人同步版本表';
+
+-- 恢复外键检查
+SET FOREIGN_KEY_CHECKS = 1;
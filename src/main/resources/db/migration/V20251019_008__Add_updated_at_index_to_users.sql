@@ -0,0 +1,23 @@
+-- 为users表添加更新时间索引
+-- 版本: V20251019_008
+-- 描述: 用户目录索引按(updated_at, id)增量拉取资料变化的用户，
+--       避免每次同步全表扫描
+
+SET NAMES utf8mb4;
+SET FOREIGN_KEY_CHECKS = 0;
+
+-- 添加更新时间索引（如果不存在）
+SET @sql = IF(
+    (SELECT COUNT(*) FROM INFORMATION_SCHEMA.STATISTICS 
+     WHERE TABLE_SCHEMA = DATABASE() 
+     AND TABLE_NAME = 'users' 
+     AND INDEX_NAME = 'idx_users_updated_at') = 0,
+    'CREATE INDEX idx_users_updated_at ON users(updated_at, id)',
+    'SELECT "Index idx_users_updated_at already exists" as message'
+);
+PREPARE stmt FROM @sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- 恢复外键检查
+SET FOREIGN_KEY_CHECKS = 1;
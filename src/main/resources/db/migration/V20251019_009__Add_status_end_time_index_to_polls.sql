@@ -0,0 +1,23 @@
+-- 为polls表添加到期调度索引
+-- 版本: V20251019_009
+-- 描述: 投票到期调度按(status, end_time)预读即将到期的进行中投票，
+--       避免扫描全部投票
+
+SET NAMES utf8mb4;
+SET FOREIGN_KEY_CHECKS = 0;
+
+-- 添加状态、结束时间联合索引（如果不存在）
+SET @sql = IF(
+    (SELECT COUNT(*) FROM INFORMATION_SCHEMA.STATISTICS 
+     WHERE TABLE_SCHEMA = DATABASE() 
+     AND TABLE_NAME = 'polls' 
+     AND INDEX_NAME = 'idx_polls_status_end_time') = 0,
+    'CREATE INDEX idx_polls_status_end_time ON polls(status, end_time)',
+    'SELECT "Index idx_polls_status_end_time already exists" as message'
+);
+PREPARE stmt FROM @sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- 恢复外键检查
+SET FOREIGN_KEY_CHECKS = 1;
@@ -0,0 +1,48 @@
+-- 为messages表添加会话内序号
+-- 版本: V20251019_010
+-- 描述: 每个会话的消息按发送顺序分配严格递增的序号(seq)，客户端据此发现漏收的推送并按序号补齐；
+--       conversations.seq_ceiling 记录已预留的序号上限，服务端按块预留序号，不必每条消息更新会话
+
+SET NAMES utf8mb4;
+SET FOREIGN_KEY_CHECKS = 0;
+
+-- 添加 seq 字段（会话内序号）
+ALTER TABLE `messages`
+ADD COLUMN `seq` BIGINT NULL COMMENT '会话内消息序号' AFTER `conversation_id`;
+
+-- 添加 seq_ceiling 字段（已预留的序号上限）
+ALTER TABLE `conversations`
+ADD COLUMN `seq_ceiling` BIGINT NOT NULL DEFAULT 0 COMMENT '已预留的消息序号上限' AFTER `last_message_id`;
+
+-- 按消息ID顺序为已有消息回填序号
+UPDATE `messages` m
+JOIN (
+    SELECT `id`, ROW_NUMBER() OVER (PARTITION BY `conversation_id` ORDER BY `id`) AS `rn`
+    FROM `messages`
+) t ON m.`id` = t.`id`
+SET m.`seq` = t.`rn`;
+
+-- 已有会话的序号上限从当前最大序号开始
+UPDATE `conversations` c
+JOIN (
+    SELECT `conversation_id`, MAX(`seq`) AS `max_seq`
+    FROM `messages`
+    GROUP BY `conversation_id`
+) t ON c.`id` = t.`conversation_id`
+SET c.`seq_ceiling` = t.`max_seq`;
+
+-- 添加会话、序号唯一索引（如果不存在）
+SET @sql = IF(
+    (SELECT COUNT(*) FROM INFORMATION_SCHEMA.STATISTICS 
+     WHERE TABLE_SCHEMA = DATABASE() 
+     AND TABLE_NAME = 'messages' 
+     AND INDEX_NAME = 'uk_messages_conversation_seq') = 0,
+    'CREATE UNIQUE INDEX uk_messages_conversation_seq ON messages(conversation_id, seq)',
+    'SELECT "Index uk_messages_conversation_seq already exists" as message'
+);
+PREPARE stmt FROM @sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- 恢复外键检查
+SET FOREIGN_KEY_CHECKS = 1;
@@ -0,0 +1,32 @@
+-- 创建后台清理任务表，并为groups表添加解散时间
+-- 版本: V20251019_011
+-- 描述: 解散群组、删除动态和注销用户时先立即标记，再由后台任务分批删除关联数据；
+--       purge_jobs 记录每个任务的当前步骤和已删除行数，服务重启后从中断处继续
+
+SET NAMES utf8mb4;
+SET FOREIGN_KEY_CHECKS = 0;
+
+CREATE TABLE IF NOT EXISTS `purge_jobs` (
+    `id` BIGINT NOT NULL AUTO_INCREMENT COMMENT '任务ID',
+    `job_type` VARCHAR(32) NOT NULL COMMENT '任务类型',
+    `target_id` BIGINT NOT NULL COMMENT '清理对象ID',
+    `status` VARCHAR(16) NOT NULL DEFAULT 'PENDING' COMMENT '任务状态',
+    `current_step` INT NOT NULL DEFAULT 0 COMMENT '当前步骤序号',
+    `deleted_rows` BIGINT NOT NULL DEFAULT 0 COMMENT '已删除行数',
+    `attempts` INT NOT NULL DEFAULT 0 COMMENT '连续失败次数',
+    `last_error` VARCHAR(500) NULL COMMENT '最近一次失败原因',
+    `next_run_at` DATETIME NOT NULL COMMENT '下次执行时间',
+    `created_at` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    `updated_at` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    `completed_at` DATETIME NULL COMMENT '完成时间',
+    PRIMARY KEY (`id`),
+    UNIQUE KEY `uk_purge_jobs_type_target` (`job_type`, `target_id`),
+    KEY `idx_purge_jobs_status_next_run` (`status`, `next_run_at`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='后台清理任务表';
+
+-- 添加 dissolved_at 字段（解散时间）
+ALTER TABLE `groups`
+ADD COLUMN `dissolved_at` DATETIME NULL COMMENT '解散时间，非空表示已解散、关联数据正在清理' AFTER `banned_until`;
+
+-- 恢复外键检查
+SET FOREIGN_KEY_CHECKS = 1;
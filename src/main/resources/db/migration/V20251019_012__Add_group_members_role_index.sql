@@ -0,0 +1,23 @@
+-- 为group_members表添加群组、角色、用户联合索引
+-- 版本: V20251019_012
+-- 描述: 群成员列表按角色（群主、管理员、成员）再按用户ID排序做游标分页，
+--       每个角色段内按 (group_id, role, user_id) 索引顺序读取，翻页开销与页码无关
+
+SET NAMES utf8mb4;
+SET FOREIGN_KEY_CHECKS = 0;
+
+-- 添加群组、角色、用户联合索引（如果不存在）
+SET @sql = IF(
+    (SELECT COUNT(*) FROM INFORMATION_SCHEMA.STATISTICS
+     WHERE TABLE_SCHEMA = DATABASE()
+     AND TABLE_NAME = 'group_members'
+     AND INDEX_NAME = 'idx_group_members_group_role_user') = 0,
+    'CREATE INDEX idx_group_members_group_role_user ON group_members(group_id, role, user_id)',
+    'SELECT "Index idx_group_members_group_role_user already exists" as message'
+);
+PREPARE stmt FROM @sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- 恢复外键检查
+SET FOREIGN_KEY_CHECKS = 1;
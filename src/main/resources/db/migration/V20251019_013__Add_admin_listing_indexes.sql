@@ -0,0 +1,62 @@
+-- 为users表和reports表添加管理后台列表查询索引
+-- 版本: V20251019_013
+-- 描述: 管理后台的用户列表和举报列表改为在数据库中过滤并按ID倒序分页（支持 afterId 游标），
+--       为常用过滤条件建立以ID结尾的联合索引，过滤后可直接按索引顺序取一页
+
+SET NAMES utf8mb4;
+SET FOREIGN_KEY_CHECKS = 0;
+
+-- 添加封禁状态、用户ID联合索引（如果不存在）
+SET @sql = IF(
+    (SELECT COUNT(*) FROM INFORMATION_SCHEMA.STATISTICS
+     WHERE TABLE_SCHEMA = DATABASE()
+     AND TABLE_NAME = 'users'
+     AND INDEX_NAME = 'idx_users_banned_id') = 0,
+    'CREATE INDEX idx_users_banned_id ON users(is_banned, id)',
+    'SELECT "Index idx_users_banned_id already exists" as message'
+);
+PREPARE stmt FROM @sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- 添加状态、举报ID联合索引（如果不存在）
+SET @sql = IF(
+    (SELECT COUNT(*) FROM INFORMATION_SCHEMA.STATISTICS
+     WHERE TABLE_SCHEMA = DATABASE()
+     AND TABLE_NAME = 'reports'
+     AND INDEX_NAME = 'idx_reports_status_id') = 0,
+    'CREATE INDEX idx_reports_status_id ON reports(status, id)',
+    'SELECT "Index idx_reports_status_id already exists" as message'
+);
+PREPARE stmt FROM @sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- 添加内容类型、状态、举报ID联合索引（如果不存在）
+SET @sql = IF(
+    (SELECT COUNT(*) FROM INFORMATION_SCHEMA.STATISTICS
+     WHERE TABLE_SCHEMA = DATABASE()
+     AND TABLE_NAME = 'reports'
+     AND INDEX_NAME = 'idx_reports_type_status_id') = 0,
+    'CREATE INDEX idx_reports_type_status_id ON reports(reported_content_type, status, id)',
+    'SELECT "Index idx_reports_type_status_id already exists" as message'
+);
+PREPARE stmt FROM @sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- 添加被举报内容联合索引（如果不存在）
+SET @sql = IF(
+    (SELECT COUNT(*) FROM INFORMATION_SCHEMA.STATISTICS
+     WHERE TABLE_SCHEMA = DATABASE()
+     AND TABLE_NAME = 'reports'
+     AND INDEX_NAME = 'idx_reports_content') = 0,
+    'CREATE INDEX idx_reports_content ON reports(reported_content_type, reported_content_id)',
+    'SELECT "Index idx_reports_content already exists" as message'
+);
+PREPARE stmt FROM @sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- 恢复外键检查
+SET FOREIGN_KEY_CHECKS = 1;
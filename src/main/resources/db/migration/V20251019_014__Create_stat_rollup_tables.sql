@@ -0,0 +1,27 @@
+-- 创建统计汇总表和每日活跃用户表
+-- 版本: V20251019_014
+-- 描述: 管理后台仪表盘的趋势和分布统计改为读取预先汇总的小时/天计数，
+--       计数由用户注册、发送消息、创建群组和发布动态时累积写入，也可从历史数据回填；
+--       stat_active_users 记录每天发送过消息的用户，用于统计去重后的活跃用户数
+
+SET NAMES utf8mb4;
+SET FOREIGN_KEY_CHECKS = 0;
+
+CREATE TABLE IF NOT EXISTS `stat_rollups` (
+    `metric` VARCHAR(32) NOT NULL COMMENT '统计指标',
+    `granularity` VARCHAR(8) NOT NULL COMMENT '时间桶粒度：HOUR、DAY',
+    `bucket_start` DATETIME NOT NULL COMMENT '时间桶起始时间',
+    `dimension` VARCHAR(32) NOT NULL DEFAULT '' COMMENT '维度（如消息类型），无维度时为空串',
+    `total` BIGINT NOT NULL DEFAULT 0 COMMENT '计数',
+    `updated_at` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '更新时间',
+    PRIMARY KEY (`metric`, `granularity`, `bucket_start`, `dimension`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='统计汇总表';
+
+CREATE TABLE IF NOT EXISTS `stat_active_users` (
+    `day` DATE NOT NULL COMMENT '日期',
+    `user_id` BIGINT NOT NULL COMMENT '用户ID',
+    PRIMARY KEY (`day`, `user_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='每日活跃用户表';
+
+-- 恢复外键检查
+SET FOREIGN_KEY_CHECKS = 1;
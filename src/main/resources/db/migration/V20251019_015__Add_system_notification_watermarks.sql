@@ -0,0 +1,58 @@
+-- 全员系统通知改为按发布序号的已读水位线
+-- 版本: V20251019_015
+-- 描述: 全员通知发布时分配递增的广播序号，不再为每个用户写入状态记录；
+--       用户的已读水位线记录已读到的广播序号，水位线以上单独已读的全员通知和定向通知仍记录在 system_notification_status，
+--       未读数 = 水位线以上未单独已读的全员通知 + 未读的定向通知
+
+SET NAMES utf8mb4;
+SET FOREIGN_KEY_CHECKS = 0;
+
+-- 添加广播序号字段（如果不存在）
+SET @sql = IF(
+    (SELECT COUNT(*) FROM INFORMATION_SCHEMA.COLUMNS
+     WHERE TABLE_SCHEMA = DATABASE()
+     AND TABLE_NAME = 'system_notifications'
+     AND COLUMN_NAME = 'broadcast_seq') = 0,
+    'ALTER TABLE system_notifications ADD COLUMN broadcast_seq BIGINT NULL COMMENT ''全员通知的发布序号'' AFTER published_at',
+    'SELECT "Column broadcast_seq already exists" as message'
+);
+PREPARE stmt FROM @sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- 按发布顺序为已发布的全员通知分配序号
+SET @seq := 0;
+UPDATE system_notifications
+SET broadcast_seq = (@seq := @seq + 1)
+WHERE target_type = 'all' AND is_published = TRUE AND broadcast_seq IS NULL
+ORDER BY published_at, id;
+
+-- 添加广播序号唯一索引（如果不存在）
+SET @sql = IF(
+    (SELECT COUNT(*) FROM INFORMATION_SCHEMA.STATISTICS
+     WHERE TABLE_SCHEMA = DATABASE()
+     AND TABLE_NAME = 'system_notifications'
+     AND INDEX_NAME = 'uk_system_notifications_broadcast_seq') = 0,
+    'CREATE UNIQUE INDEX uk_system_notifications_broadcast_seq ON system_notifications(broadcast_seq)',
+    'SELECT "Index uk_system_notifications_broadcast_seq already exists" as message'
+);
+PREPARE stmt FROM @sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- 用户已读水位线表
+CREATE TABLE IF NOT EXISTS `system_notification_watermarks` (
+    `user_id` BIGINT NOT NULL COMMENT '用户ID',
+    `last_read_seq` BIGINT NOT NULL DEFAULT 0 COMMENT '已读到的广播序号',
+    `updated_at` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '更新时间',
+    PRIMARY KEY (`user_id`),
+    CONSTRAINT `fk_notification_watermarks_user_id` FOREIGN KEY (`user_id`) REFERENCES `users` (`id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='系统通知已读水位线表';
+
+-- 全员通知的未读状态改由水位线推算，删除逐用户写入的未读记录，已读记录保留为单独已读
+DELETE s FROM system_notification_status s
+JOIN system_notifications n ON n.id = s.notification_id
+WHERE n.target_type = 'all' AND s.is_read = FALSE;
+
+-- 恢复外键检查
+SET FOREIGN_KEY_CHECKS = 1;
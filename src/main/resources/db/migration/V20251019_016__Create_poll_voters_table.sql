@@ -0,0 +1,25 @@
+-- 创建投票参与记录表
+-- 版本: V20251019_016
+-- 描述: 投票记录由内存计票异步批量写回，多个实例各自在内存中去重无法阻止同一用户在不同实例上重复投票；
+--       用户投票时先同步写入 (poll_id, user_id) 参与记录，由主键保证每个用户在一个投票中只能提交一次
+
+SET NAMES utf8mb4;
+SET FOREIGN_KEY_CHECKS = 0;
+
+CREATE TABLE IF NOT EXISTS `poll_voters` (
+    `poll_id` BIGINT NOT NULL COMMENT '投票ID',
+    `user_id` BIGINT NOT NULL COMMENT '投票用户ID',
+    `voted_at` TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '投票时间',
+    PRIMARY KEY (`poll_id`, `user_id`),
+    CONSTRAINT `fk_poll_voters_poll_id` FOREIGN KEY (`poll_id`) REFERENCES `polls` (`id`) ON DELETE CASCADE,
+    CONSTRAINT `fk_poll_voters_user_id` FOREIGN KEY (`user_id`) REFERENCES `users` (`id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='投票参与记录表';
+
+-- 以已有的投票记录回填参与记录
+INSERT IGNORE INTO poll_voters (poll_id, user_id, voted_at)
+SELECT poll_id, user_id, MIN(voted_at)
+FROM poll_votes
+GROUP BY poll_id, user_id;
+
+-- 恢复外键检查
+SET FOREIGN_KEY_CHECKS = 1;
@@ -0,0 +1,21 @@
+-- 创建全员通知广播序号计数器
+-- 版本: V20251019_017
+-- 描述: 广播序号改由单行计数器分配，发布事务锁定计数器行直到提交，
+--       并发发布不会取到相同的 MAX+1，且序号按提交顺序递增，水位线不会越过尚未提交的通知
+
+SET NAMES utf8mb4;
+SET FOREIGN_KEY_CHECKS = 0;
+
+CREATE TABLE IF NOT EXISTS `system_notification_seq` (
+    `id` TINYINT NOT NULL COMMENT '固定为1',
+    `last_seq` BIGINT NOT NULL DEFAULT 0 COMMENT '最近分配的广播序号',
+    PRIMARY KEY (`id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='全员通知广播序号计数器';
+
+-- 从已分配的最大序号开始
+INSERT INTO system_notification_seq (id, last_seq)
+SELECT 1, COALESCE(MAX(broadcast_seq), 0) FROM system_notifications
+ON DUPLICATE KEY UPDATE last_seq = GREATEST(last_seq, VALUES(last_seq));
+
+-- 恢复外键检查
+SET FOREIGN_KEY_CHECKS = 1;
@@ -0,0 +1,22 @@
+-- 会话序号改为在发送事务中逐条分配
+-- 版本: V20251019_018
+-- 描述: 序号不再按块预留，seq_ceiling 即已分配的最大序号；
+--       把各会话的 seq_ceiling 收回到已写入的最大序号，丢弃按块预留但未使用的序号
+
+SET NAMES utf8mb4;
+SET FOREIGN_KEY_CHECKS = 0;
+
+-- 没有消息的会话从 0 开始
+UPDATE `conversations` c
+LEFT JOIN (
+    SELECT `conversation_id`, MAX(`seq`) AS `max_seq`
+    FROM `messages`
+    GROUP BY `conversation_id`
+) t ON c.`id` = t.`conversation_id`
+SET c.`seq_ceiling` = COALESCE(t.`max_seq`, 0);
+
+ALTER TABLE `conversations`
+MODIFY COLUMN `seq_ceiling` BIGINT NOT NULL DEFAULT 0 COMMENT '已分配的最大消息序号';
+
+-- 恢复外键检查
+SET FOREIGN_KEY_CHECKS = 1;
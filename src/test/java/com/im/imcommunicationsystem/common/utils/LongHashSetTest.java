@@ -0,0 +1,78 @@
+package com.im.imcommunicationsystem.common.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * long 开放寻址哈希集合测试
+ */
+class LongHashSetTest {
+
+    @Test
+    void testAddContainsRemove() {
+        // Given
+        LongHashSet set = LongHashSet.of(List.of(1L, 2L, 3L, 0L));
+
+        // When & Then
+        assertEquals(4, set.size());
+        assertTrue(set.contains(0L));
+        assertTrue(set.contains(2L));
+        assertFalse(set.contains(4L));
+
+        assertFalse(set.add(2L));
+        assertTrue(set.remove(2L));
+        assertFalse(set.remove(2L));
+        assertTrue(set.remove(0L));
+        assertFalse(set.contains(2L));
+        assertFalse(set.contains(0L));
+        assertEquals(2, set.size());
+    }
+
+    @Test
+    void testCopyIsIndependent() {
+        // Given
+        LongHashSet original = LongHashSet.of(List.of(10L, 20L));
+
+        // When
+        LongHashSet copy = original.copy();
+        copy.add(30L);
+        copy.remove(10L);
+
+        // Then
+        assertTrue(original.contains(10L));
+        assertFalse(original.contains(30L));
+        assertFalse(copy.contains(10L));
+        assertTrue(copy.contains(30L));
+    }
+
+    @Test
+    void testRandomOperationsMatchHashSet() {
+        // Given
+        Random random = new Random(42);
+        LongHashSet set = new LongHashSet();
+        Set<Long> expected = new HashSet<>();
+
+        // When: 小取值范围制造大量冲突与删除后的探测链移动
+        for (int i = 0; i < 20000; i++) {
+            long value = random.nextInt(512);
+            if (random.nextBoolean()) {
+                assertEquals(expected.add(value), set.add(value));
+            } else {
+                assertEquals(expected.remove(value), set.remove(value));
+            }
+        }
+
+        // Then
+        assertEquals(expected.size(), set.size());
+        for (long value = 0; value < 512; value++) {
+            assertEquals(expected.contains(value), set.contains(value), "value=" + value);
+        }
+        assertEquals(expected, new HashSet<>(set.toList()));
+    }
+}
@@ -0,0 +1,27 @@
+package com.im.imcommunicationsystem.common.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 汉字拼音首字母工具测试
+ */
+class PinyinInitialsTest {
+
+    @Test
+    void testInitialsOfCommonCharacters() {
+        assertEquals("zs", PinyinInitials.of("张三"));
+        assertEquals("wxm", PinyinInitials.of("王小明"));
+        assertEquals("lstom", PinyinInitials.of("李四 Tom"));
+        assertEquals('a', PinyinInitials.initialOf('阿'));
+        assertEquals('z', PinyinInitials.initialOf('座'));
+    }
+
+    @Test
+    void testTextWithoutHanIsSkipped() {
+        assertEquals("", PinyinInitials.of("Tom"));
+        assertEquals("", PinyinInitials.of(null));
+        assertEquals(0, PinyinInitials.initialOf('A'));
+    }
+}
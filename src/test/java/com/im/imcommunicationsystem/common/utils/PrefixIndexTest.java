@@ -0,0 +1,72 @@
+package com.im.imcommunicationsystem.common.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 名称前缀索引测试
+ */
+class PrefixIndexTest {
+
+    @Test
+    void testStartMatchesRankBeforeWordMatches() {
+        // Given
+        PrefixIndex index = PrefixIndex.builder()
+                .add(0, "Tom Lee")
+                .add(1, "Lee Ming")
+                .add(2, "张三")
+                .add(2, "Leo")
+                .build();
+
+        // When & Then
+        assertEquals(List.of(1, 2, 0), index.search("le", 10));
+        assertEquals(List.of(1), index.search("le", 1));
+        assertEquals(List.of(1), index.search("MING", 10));
+    }
+
+    @Test
+    void testMatchesFromEveryIdeograph() {
+        // Given
+        PrefixIndex index = PrefixIndex.builder()
+                .add(0, "王小明")
+                .add(1, "小红")
+                .build();
+
+        // When & Then
+        assertEquals(List.of(1, 0), index.search("小", 10));
+        assertEquals(List.of(0), index.search("明", 10));
+        assertTrue(index.search("红花", 10).isEmpty());
+    }
+
+    @Test
+    void testNormalizesFullWidthAndCase() {
+        // Given
+        PrefixIndex index = PrefixIndex.builder().add(7, "ＡＢＣ_123").build();
+
+        // When & Then
+        assertEquals(List.of(7), index.search("abc", 10));
+        assertEquals(List.of(7), index.search("１２", 10));
+        assertTrue(index.search(" ", 10).isEmpty());
+        assertTrue(PrefixIndex.empty().search("a", 10).isEmpty());
+    }
+
+    @Test
+    void testInfixMatchesRankLastAndExactKeyFirst() {
+        // Given
+        PrefixIndex index = PrefixIndex.builder()
+                .addWithInfixes(0, "johnson")
+                .addWithInfixes(1, "john")
+                .addWithInfixes(2, "ajohn")
+                .add(3, "bjohn")
+                .build();
+
+        // When & Then
+        assertEquals(List.of(1, 0, 2), index.search("john", 10));
+        assertEquals(List.of(0), index.search("son", 10));
+        assertTrue(index.search("ohn", 10).containsAll(List.of(0, 1, 2)));
+        assertFalse(index.search("ohn", 10).contains(3));
+    }
+}
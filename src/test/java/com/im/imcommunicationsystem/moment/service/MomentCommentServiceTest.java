@@ -0,0 +1,63 @@
+package com.im.imcommunicationsystem.moment.service;
+
+import com.im.imcommunicationsystem.moment.entity.MomentComment;
+import com.im.imcommunicationsystem.moment.exception.MomentNotFoundException;
+import com.im.imcommunicationsystem.moment.repository.MomentCommentRepository;
+import com.im.imcommunicationsystem.moment.repository.MomentRepository;
+import com.im.imcommunicationsystem.moment.service.impl.MomentCommentServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class MomentCommentServiceTest {
+
+    @Mock
+    private MomentCommentRepository commentRepository;
+
+    @Mock
+    private MomentRepository momentRepository;
+
+    @InjectMocks
+    private MomentCommentServiceImpl commentService;
+
+    private final Long ownMomentId = 1L;
+    private final Long foreignMomentId = 2L;
+    private final Long foreignCommentId = 20L;
+    private final Long userId = 100L;
+
+    @Test
+    void getCommentReplies_ShouldRejectCommentOfAnotherMoment() {
+        // 评论属于其他动态
+        MomentComment foreignComment = new MomentComment();
+        foreignComment.setId(foreignCommentId);
+        foreignComment.setMomentId(foreignMomentId);
+        when(commentRepository.findById(foreignCommentId)).thenReturn(Optional.of(foreignComment));
+
+        // 以自己的动态ID查询其他动态评论的回复
+        assertThrows(MomentNotFoundException.class,
+                () -> commentService.getCommentReplies(ownMomentId, foreignCommentId, userId, null, 10));
+
+        // 不应以动态作者身份读取任何回复
+        verify(momentRepository, never()).findById(any());
+        verify(commentRepository, never()).findVisibleReplies(anyLong(), anyLong(), anyLong(), anyBoolean(), any());
+    }
+
+    @Test
+    void getCommentReplies_ShouldRejectMissingComment() {
+        when(commentRepository.findById(foreignCommentId)).thenReturn(Optional.empty());
+
+        assertThrows(MomentNotFoundException.class,
+                () -> commentService.getCommentReplies(ownMomentId, foreignCommentId, userId, null, 10));
+
+        verify(commentRepository, never()).findVisibleReplies(anyLong(), anyLong(), anyLong(), anyBoolean(), any());
+    }
+}
@@ -0,0 +1,64 @@
+package com.im.imcommunicationsystem.relationship.service.impl;
+
+import com.im.imcommunicationsystem.common.utils.LongHashSet;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FriendRecommendationServiceTest {
+
+    @Test
+    void mergeTopCandidates_ShouldCountMutualFriendsAndSortByCount() {
+        // 三个好友的有序邻接数组：用户5出现3次，用户4出现2次，用户7出现1次
+        List<long[]> lists = List.of(
+                new long[]{4, 5, 7},
+                new long[]{5},
+                new long[]{4, 5});
+
+        List<long[]> top = FriendRecommendationServiceImpl.mergeTopCandidates(lists, new LongHashSet(), 10, 1);
+
+        assertEquals(3, top.size());
+        assertArrayEquals(new long[]{5, 3}, top.get(0));
+        assertArrayEquals(new long[]{4, 2}, top.get(1));
+        assertArrayEquals(new long[]{7, 1}, top.get(2));
+    }
+
+    @Test
+    void mergeTopCandidates_ShouldSkipExcludedAndBelowMinCount() {
+        List<long[]> lists = List.of(
+                new long[]{1, 4, 6},
+                new long[]{1, 4},
+                new long[]{6});
+        LongHashSet excluded = new LongHashSet();
+        excluded.add(1L);
+
+        // 用户1被排除，用户4和6各有2个共同好友，最少要求2个
+        List<long[]> top = FriendRecommendationServiceImpl.mergeTopCandidates(lists, excluded, 10, 2);
+
+        assertEquals(2, top.size());
+        assertArrayEquals(new long[]{4, 2}, top.get(0));
+        assertArrayEquals(new long[]{6, 2}, top.get(1));
+    }
+
+    @Test
+    void mergeTopCandidates_ShouldKeepOnlyTopKPreferringSmallerIdOnTie() {
+        List<long[]> lists = List.of(
+                new long[]{2, 3, 8, 9},
+                new long[]{3, 8, 9},
+                new long[]{9});
+
+        // 9有3个共同好友；3和8并列2个，只保留ID较小的3
+        List<long[]> top = FriendRecommendationServiceImpl.mergeTopCandidates(lists, new LongHashSet(), 2, 1);
+
+        assertEquals(2, top.size());
+        assertArrayEquals(new long[]{9, 3}, top.get(0));
+        assertArrayEquals(new long[]{3, 2}, top.get(1));
+    }
+
+    @Test
+    void mergeTopCandidates_ShouldReturnEmptyWithoutFriends() {
+        assertTrue(FriendRecommendationServiceImpl.mergeTopCandidates(List.of(), new LongHashSet(), 5, 1).isEmpty());
+    }
+}